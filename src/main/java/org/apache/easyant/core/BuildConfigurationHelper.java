@@ -66,15 +66,8 @@ public class BuildConfigurationHelper {
         if (buildConfs == null || buildConfContainer == null) {
             return null;
         }
-        List<String> buildConfsToCheck = buildList(buildConfs);
-        List<String> availableBuildConfs = buildList(buildConfContainer);
-        for (String conf : buildConfsToCheck) {
-            if (availableBuildConfs.contains(conf)) {
-                return conf;
-            }
-        }
-
-        return null;
+        return BuildConfigurationModel.getContainerModel(buildConfContainer).getRequest(buildConfs)
+                .getFirstActiveConf();
     }
 
     /**
@@ -85,7 +78,29 @@ public class BuildConfigurationHelper {
      * @return a string that represent a list of conf separated by comma without spaces.
      */
     public static String removeSpaces(String confs) {
-        return confs.replaceAll("\\s", "");
+        int i = 0;
+        while (i < confs.length() && !isSpace(confs.charAt(i))) {
+            i++;
+        }
+        if (i == confs.length()) {
+            return confs;
+        }
+        StringBuilder sb = new StringBuilder(confs.length());
+        sb.append(confs, 0, i);
+        for (; i < confs.length(); i++) {
+            char c = confs.charAt(i);
+            if (!isSpace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Same characters as \s in regular expressions
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
     public static List<String> buildList(String conf) {
@@ -110,28 +125,23 @@ public class BuildConfigurationHelper {
             p.log(message + " not bound to any build configuration", Project.MSG_DEBUG);
             return true;
         }
-        List<String> buildConfigurationsList = buildList(requestedConfigurations);
-
         // check consistency, here we consider that a build configuration must
         // be explicitly declared
-        if (p.getProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS) == null) {
+        String availableConfs = p.getProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS);
+        if (availableConfs == null) {
             throw new BuildException("there is no available build configuration");
         }
-
-        List<String> availableBuildConfigurations = Arrays.asList(p.getProperty(
-                EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS).split(","));
-
-        for (String conf : buildConfigurationsList) {
-            if (!availableBuildConfigurations.contains(conf)) {
-                throw new BuildException("unknown build configuration named " + conf);
-            }
+        String mainConfs = p.getProperty(EasyAntMagicNames.MAIN_CONFS);
+        BuildConfigurationModel.Request request = BuildConfigurationModel.getModel(p, availableConfs, mainConfs)
+                .getRequest(requestedConfigurations);
+        if (request.getUnknownConf() != null) {
+            throw new BuildException("unknown build configuration named " + request.getUnknownConf());
         }
 
         // is there any activated build configuration matching with the build
         // configurations defined?
-        if (p.getProperty(EasyAntMagicNames.MAIN_CONFS) != null) {
-            String buildConf = getFirstBuildConfigurationMatching(requestedConfigurations,
-                    p.getProperty(EasyAntMagicNames.MAIN_CONFS));
+        if (mainConfs != null) {
+            String buildConf = request.getFirstActiveConf();
             if (buildConf != null) {
                 p.log(message + " bound to build configuration " + buildConf, Project.MSG_DEBUG);
                 return true;
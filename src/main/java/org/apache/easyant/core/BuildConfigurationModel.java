@@ -0,0 +1,194 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.tools.ant.Project;
+
+/**
+ * Compiled build configurations. Available build configurations are interned as integer ids, active ones are held as a
+ * bitset, and requested build configurations are compiled once per distinct request, so that checking if a request is
+ * active only involves bit operations.
+ * <p>
+ * A model is immutable once compiled, apart from its cache of requests, so it is shared without locking. The model of
+ * a project is stored as a reference and replaced when {@link EasyAntMagicNames#AVAILABLE_BUILD_CONFIGURATIONS} or
+ * {@link EasyAntMagicNames#MAIN_CONFS} properties change. Build configuration containers checked by
+ * {@link BuildConfigurationHelper} are compiled in a bounded cache.
+ * </p>
+ */
+final class BuildConfigurationModel {
+
+    private static final String REFERENCE = "easyant.build.configuration.model";
+
+    private static final int MAX_CONTAINER_MODELS = 256;
+
+    private static final ConcurrentMap<String, BuildConfigurationModel> CONTAINER_MODELS =
+            new ConcurrentHashMap<String, BuildConfigurationModel>();
+
+    private final String availableConfsProperty;
+
+    private final String mainConfsProperty;
+
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+
+    private final BitSet activeConfs = new BitSet();
+
+    private final ConcurrentMap<String, Request> requests = new ConcurrentHashMap<String, Request>();
+
+    private BuildConfigurationModel(String availableConfsProperty, List<String> availableConfs,
+            String mainConfsProperty, List<String> mainConfs) {
+        this.availableConfsProperty = availableConfsProperty;
+        this.mainConfsProperty = mainConfsProperty;
+        for (String conf : availableConfs) {
+            if (!ids.containsKey(conf)) {
+                ids.put(conf, ids.size());
+            }
+        }
+        for (String conf : mainConfs) {
+            Integer id = ids.get(conf);
+            if (id != null) {
+                activeConfs.set(id);
+            }
+        }
+    }
+
+    /**
+     * Get the build configuration model of a project, compiled again if underlying properties have changed
+     *
+     * @param project
+     *            a given project
+     * @param availableConfs
+     *            value of {@link EasyAntMagicNames#AVAILABLE_BUILD_CONFIGURATIONS} property
+     * @param mainConfs
+     *            value of {@link EasyAntMagicNames#MAIN_CONFS} property (can be null)
+     * @return an up to date model
+     */
+    static BuildConfigurationModel getModel(Project project, String availableConfs, String mainConfs) {
+        Object reference = project.getReference(REFERENCE);
+        if (reference instanceof BuildConfigurationModel) {
+            BuildConfigurationModel model = (BuildConfigurationModel) reference;
+            if (availableConfs.equals(model.availableConfsProperty)
+                    && (mainConfs == null ? model.mainConfsProperty == null : mainConfs
+                            .equals(model.mainConfsProperty))) {
+                return model;
+            }
+        }
+        // threads compiling the same model at once only waste a little work
+        BuildConfigurationModel model = new BuildConfigurationModel(availableConfs, Arrays.asList(availableConfs
+                .split(",")), mainConfs, mainConfs == null ? Collections.<String> emptyList()
+                : BuildConfigurationHelper.buildList(mainConfs));
+        project.addReference(REFERENCE, model);
+        return model;
+    }
+
+    /**
+     * Get the model of a build configuration container, where all build configurations are active
+     *
+     * @param buildConfContainer
+     *            build configurations names (comma separated)
+     * @return a compiled model
+     */
+    static BuildConfigurationModel getContainerModel(String buildConfContainer) {
+        BuildConfigurationModel model = CONTAINER_MODELS.get(buildConfContainer);
+        if (model == null) {
+            List<String> confs = BuildConfigurationHelper.buildList(buildConfContainer);
+            model = new BuildConfigurationModel(buildConfContainer, confs, buildConfContainer, confs);
+            if (CONTAINER_MODELS.size() >= MAX_CONTAINER_MODELS) {
+                CONTAINER_MODELS.clear();
+            }
+            CONTAINER_MODELS.put(buildConfContainer, model);
+        }
+        return model;
+    }
+
+    /**
+     * Get a compiled request
+     *
+     * @param requestedConfigurations
+     *            build configurations names (comma separated)
+     * @return the compiled request
+     */
+    Request getRequest(String requestedConfigurations) {
+        Request request = requests.get(requestedConfigurations);
+        if (request == null) {
+            request = new Request(requestedConfigurations);
+            Request existing = requests.putIfAbsent(requestedConfigurations, request);
+            if (existing != null) {
+                request = existing;
+            }
+        }
+        return request;
+    }
+    /**
+     * Requested build configurations, compiled against available build configurations
+     */
+    final class Request {
+
+        private final String[] names;
+
+        private final int[] requestedIds;
+
+        private final String unknownConf;
+
+        private Request(String requestedConfigurations) {
+            List<String> confs = BuildConfigurationHelper.buildList(requestedConfigurations);
+            names = confs.toArray(new String[confs.size()]);
+            requestedIds = new int[names.length];
+            String unknown = null;
+            for (int i = 0; i < names.length; i++) {
+                Integer id = ids.get(names[i]);
+                if (id == null) {
+                    requestedIds[i] = -1;
+                    if (unknown == null) {
+                        unknown = names[i];
+                    }
+                } else {
+                    requestedIds[i] = id;
+                }
+            }
+            unknownConf = unknown;
+        }
+
+        /**
+         * @return the first requested build configuration which is not available, or null
+         */
+        String getUnknownConf() {
+            return unknownConf;
+        }
+
+        /**
+         * @return the first requested build configuration which is active, or null
+         */
+        String getFirstActiveConf() {
+            for (int i = 0; i < requestedIds.length; i++) {
+                if (requestedIds[i] != -1 && activeConfs.get(requestedIds[i])) {
+                    return names[i];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -23,8 +23,15 @@ import org.apache.easyant.core.configuration.EasyAntConfiguration;
 import org.apache.easyant.core.configuration.EasyantConfigurationFactory;
 import org.apache.easyant.core.descriptor.PluginDescriptor;
 import org.apache.easyant.core.ivy.InheritableScope;
+import org.apache.easyant.core.ivy.IvyActivityRecorder;
 import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.ivy.RepositoryIndex;
+import org.apache.easyant.core.jfr.FlightRecorderEvents;
+import org.apache.easyant.core.jfr.FlightRecorderListener;
+import org.apache.easyant.core.metrics.EasyAntMetrics;
+import org.apache.easyant.core.metrics.MetricsListener;
 import org.apache.easyant.core.services.DefaultPluginService;
+import org.apache.easyant.core.services.PluginReportCache;
 import org.apache.easyant.core.services.PluginService;
 import org.apache.easyant.tasks.ConfigureBuildScopedRepository;
 import org.apache.easyant.tasks.Import;
@@ -80,6 +87,15 @@ public class EasyAntEngine {
         this.configuration = configuration;
     }
 
+    /**
+     * Get metrics of builds running in this jvm, also exposed through JMX when metrics are enabled
+     *
+     * @return easyant metrics
+     */
+    public static EasyAntMetrics getMetrics() {
+        return EasyAntMetrics.getInstance();
+    }
+
     /**
      * Configure easyant ivy instance
      *
@@ -87,6 +103,7 @@ public class EasyAntEngine {
      * @return a configured {@link IvyAntSettings} instance
      */
     public IvyAntSettings configureEasyAntIvyInstance(Project project) {
+        FlightRecorderEvents.Event settingsEvent = FlightRecorderEvents.IVY_SETTINGS_LOADING.begin();
         IvyConfigure easyantIvyConfigure = new IvyConfigure();
         easyantIvyConfigure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
 
@@ -138,6 +155,10 @@ public class EasyAntEngine {
         resolutionCacheManager.setSettings(easyantIvyInstance.getSettings());
         easyantIvyInstance.getSettings().setResolutionCacheManager(resolutionCacheManager);
 
+        IvyActivityRecorder.attach(project, easyantIvyInstance);
+
+        settingsEvent.commit(project.getName(), easyantIvyConfigure.getUrl() != null ? easyantIvyConfigure.getUrl()
+                : easyantIvyConfigure.getFile());
         return easyantIvySettings;
     }
 
@@ -231,9 +252,26 @@ public class EasyAntEngine {
     }
 
     public void configurePluginService(Project project, IvyAntSettings easyantIvyInstance) {
-        pluginService = new DefaultPluginService(easyantIvyInstance);
+        DefaultPluginService defaultPluginService = new DefaultPluginService(easyantIvyInstance);
         String property = project.getProperty(EasyAntMagicNames.EASYANT_OFFLINE);
-        pluginService.setOfflineMode(Project.toBoolean(property));
+        defaultPluginService.setOfflineMode(Project.toBoolean(property));
+        String indexLocation = project.getProperty(EasyAntMagicNames.REPOSITORY_INDEX);
+        if (indexLocation != null) {
+            try {
+                defaultPluginService.setRepositoryIndex(RepositoryIndex.load(indexLocation));
+            } catch (IOException e) {
+                project.log("Can't load repository index from " + indexLocation + " : " + e.getMessage(),
+                        Project.MSG_WARN);
+            }
+        }
+        String reportCache = project.getProperty(EasyAntMagicNames.PLUGIN_REPORT_CACHE);
+        if (reportCache != null && !Project.toBoolean(reportCache)) {
+            defaultPluginService.setReportCache(null);
+        } else if (project.getProperty(EasyAntMagicNames.PLUGIN_REPORT_CACHE_DIR) != null) {
+            defaultPluginService.setReportCache(new PluginReportCache(project.resolveFile(project
+                    .getProperty(EasyAntMagicNames.PLUGIN_REPORT_CACHE_DIR))));
+        }
+        pluginService = defaultPluginService;
         project.addReference(EasyAntMagicNames.PLUGIN_SERVICE_INSTANCE, pluginService);
 
     }
@@ -256,6 +294,24 @@ public class EasyAntEngine {
 
             project.addBuildListener(listener);
         }
+
+        if (FlightRecorderEvents.isAvailable()) {
+            project.addBuildListener(new FlightRecorderListener());
+        }
+        if (isMetricsEnabled()) {
+            EasyAntMetrics.getInstance().register();
+            project.addBuildListener(new MetricsListener());
+        }
+    }
+
+    /**
+     * Check if metrics are enabled by configuration or by {@link EasyAntMagicNames#EASYANT_METRICS} user property
+     *
+     * @return true if metrics are enabled
+     */
+    private boolean isMetricsEnabled() {
+        return configuration.isMetricsEnabled()
+                || Project.toBoolean(configuration.getDefinedProps().getProperty(EasyAntMagicNames.EASYANT_METRICS));
     }
 
     /**
@@ -348,6 +404,7 @@ public class EasyAntEngine {
      * @param project a project to configure
      */
     public void configureEasyAnt(Project project) {
+        FlightRecorderEvents.Event configurationEvent = FlightRecorderEvents.ENGINE_CONFIGURATION.begin();
 
         project.setCoreLoader(configuration.getCoreLoader());
 
@@ -412,6 +469,8 @@ public class EasyAntEngine {
         } catch (RuntimeException exc) {
             fireBuildFinished(project, exc);
             throw exc;
+        } finally {
+            configurationEvent.commit(project.getName());
         }
     }
 
@@ -431,6 +490,7 @@ public class EasyAntEngine {
                 executeTask(lm, "load-module", project);
             }
             ProjectUtils.getConfiguredProjectHelper(project).resolveExtensionOfAttributes(project);
+            ProjectUtils.configureExecutor(project);
         } catch (RuntimeException exc) {
             fireBuildFinished(project, exc);
             throw exc;
@@ -438,6 +498,21 @@ public class EasyAntEngine {
 
     }
 
+    /**
+     * Locate the build module and build file of an easyant project without loading them. Options reporting on the
+     * project (-listTargets, -describe, etc...) only need their location, as they analyse them by their own.
+     *
+     * @param project
+     */
+    public void locateProject(Project project) {
+        try {
+            locateBuildModuleAndBuildFile(project);
+        } catch (RuntimeException exc) {
+            fireBuildFinished(project, exc);
+            throw exc;
+        }
+    }
+
     private void fireBuildFinished(Project project, Throwable error) {
         try {
             project.fireBuildFinished(error);
@@ -535,6 +610,10 @@ public class EasyAntEngine {
         easyantOfflineRepository.setDictator(Project.toBoolean(project.getProperty(EasyAntMagicNames.EASYANT_OFFLINE)));
         easyantOfflineRepository.setSettingsRef(IvyInstanceHelper.buildEasyAntIvyReference(project));
         easyantOfflineRepository.setTarget(project.getProperty(EasyAntMagicNames.OFFLINE_BASE_DIRECTORY));
+        if (project.getProperty(EasyAntMagicNames.OFFLINE_BUNDLE) != null) {
+            easyantOfflineRepository.setBundle(project.resolveFile(project
+                    .getProperty(EasyAntMagicNames.OFFLINE_BUNDLE)));
+        }
         executeTask(easyantOfflineRepository, "configure-offline-easyant-resolver", project);
     }
 
@@ -563,6 +642,7 @@ public class EasyAntEngine {
 
     public void doBuild(final Project project) {
         project.fireBuildStarted();
+        EasyAntMetrics.getInstance().buildStarted();
 
         Throwable error = null;
 
@@ -611,6 +691,11 @@ public class EasyAntEngine {
             error = e;
             throw e;
         } finally {
+            EasyAntMetrics.getInstance().buildFinished(error != null);
+            IvyActivityRecorder ivyActivityRecorder = IvyActivityRecorder.find(project);
+            if (ivyActivityRecorder != null) {
+                ivyActivityRecorder.report(project);
+            }
             fireBuildFinished(project, error);
         }
         if (configuration.isShowMemoryDetails() || configuration.getMsgOutputLevel() >= Project.MSG_VERBOSE) {
@@ -159,6 +159,13 @@ public interface EasyAntMagicNames {
      */
     String EASYANT_OFFLINE = "easyant.offline";
 
+    /**
+     * property enabling build metrics exposed through JMX, same as
+     * {@link org.apache.easyant.core.configuration.EasyAntConfiguration#setMetricsEnabled(boolean)}.
+     * Value: {@value}
+     */
+    String EASYANT_METRICS = "easyant.metrics";
+
     /**
      * Property specifying if user ivysettings should be ignored Value: {@value}
      */
@@ -179,6 +186,12 @@ public interface EasyAntMagicNames {
      */
     String OFFLINE_BASE_DIRECTORY = "offline.base.directory";
 
+    /**
+     * Property specifying an offline bundle. When set, offline repositories are read from this archive instead of
+     * offline base directory Value: {@value}
+     */
+    String OFFLINE_BUNDLE = "offline.bundle";
+
     /**
      * Specify if easyant is running in audit mode (plugin service for instance) Value: {@value}
      */
@@ -201,17 +214,88 @@ public interface EasyAntMagicNames {
 
     /**
      * Reference name holding resolve report for plugins and buildtype
+     * 
+     * @deprecated no longer set, resolved plugins and buildtype are exposed through {@link #IMPORTED_MODULES_INDEX_REF}
      */
+    @Deprecated
     String IMPORTED_MODULES_RESOLVE_REPORT_REF = "importedModules.report.ref";
 
+    /**
+     * Reference name holding the {@link org.apache.easyant.core.ivy.ResolvedModulesIndex} of resolved plugins and
+     * buildtype
+     */
+    String IMPORTED_MODULES_INDEX_REF = "importedModules.index.ref";
+
     /**
      * Name of the property containing multimodule logger implementation
      */
     String MULTIMODULE_LOGGER = "multimodule.logger";
 
+    /**
+     * Name of the property containing the maximum number of log messages waiting to be written by asynchronous
+     * loggers Value: {@value}
+     */
+    String ASYNC_LOGGER_QUEUE_SIZE = "easyant.logger.async.queue.size";
+
+    /**
+     * Name of the property telling asynchronous loggers what to do when their queue is full : block (default) or
+     * discard info, verbose and debug messages Value: {@value}
+     */
+    String ASYNC_LOGGER_OVERFLOW_POLICY = "easyant.logger.async.overflow.policy";
+
+    /**
+     * Name of the property containing the file where build events are written as newline delimited json Value:
+     * {@value}
+     */
+    String EVENT_STREAM_FILE = "easyant.event.stream.file";
+
+    /**
+     * property enabling the recording of ivy activity, whose summary is logged at the end of the build Value: {@value}
+     */
+    String IVY_ACTIVITY = "easyant.ivy.activity";
+
+    /**
+     * Name of the property containing the file where the summary of ivy activity is written at the end of the build,
+     * setting it enables the recording of ivy activity too Value: {@value}
+     */
+    String IVY_ACTIVITY_FILE = "easyant.ivy.activity.file";
+
+    /**
+     * Name of the reference holding the recorder of ivy activity of a build Value: {@value}
+     */
+    String IVY_ACTIVITY_RECORDER_REF = "easyant.ivy.activity.recorder.ref";
+
     /**
      * Name of the property containing a comma separated list of ivy type that must be appended to immort classpath
      */
     String IMPORT_CLASSPATH_TYPES = "import.classpath.types";
 
+    /**
+     * Name of the property containing the location (file path or url) of the easyant repository index Value:
+     * {@value}
+     */
+    String REPOSITORY_INDEX = "easyant.repository.index";
+
+    /**
+     * Reference name holding the target graph of a project Value: {@value}
+     */
+    String TARGET_GRAPH_REF = "easyant.target.graph.ref";
+
+    /**
+     * Reference name holding the precompiled scripts to load in place of ant scripts of a project Value: {@value}
+     */
+    String COMPILED_SCRIPTS_REF = "easyant.compiled.scripts.ref";
+
+    /**
+     * Name of the property telling if analysed reports of released plugins should be cached on disk (true by default)
+     * Value: {@value}
+     */
+    String PLUGIN_REPORT_CACHE = "easyant.report.cache";
+
+    /**
+     * Name of the property containing the directory where analysed reports of plugins are cached (defaults to
+     * easyant-reports directory in easyant ivy cache) Value: {@value}
+     */
+    String PLUGIN_REPORT_CACHE_DIR = "easyant.report.cache.dir";
+
 }
@@ -19,6 +19,10 @@ package org.apache.easyant.core;
 
 import org.apache.commons.cli.*;
 import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ant.listerners.AsyncEasyAntLogger;
+import org.apache.easyant.core.ant.listerners.AsyncMultiModuleLogger;
+import org.apache.easyant.core.ant.listerners.JsonEventStreamListener;
+import org.apache.easyant.core.ant.listerners.MemoryAccountingListener;
 import org.apache.easyant.core.configuration.EasyAntConfiguration;
 import org.apache.easyant.core.configuration.EasyantConfigurationFactory;
 import org.apache.easyant.man.*;
@@ -281,6 +285,14 @@ public class EasyAntMain implements AntMain {
         if (line.hasOption("listener")) {
             easyAntConfiguration.getListeners().add(line.getOptionValue("listener"));
         }
+        if (line.hasOption("eventstream")) {
+            easyAntConfiguration.getListeners().add(JsonEventStreamListener.class.getName());
+            easyAntConfiguration.getDefinedProps().put(EasyAntMagicNames.EVENT_STREAM_FILE,
+                    line.getOptionValue("eventstream"));
+        }
+        if (line.hasOption("memoryaccounting")) {
+            easyAntConfiguration.getListeners().add(MemoryAccountingListener.class.getName());
+        }
         if (line.hasOption("D")) {
             easyAntConfiguration.getDefinedProps().putAll(line.getOptionProperties("D"));
         }
@@ -290,6 +302,16 @@ public class EasyAntMain implements AntMain {
             }
             easyAntConfiguration.setLoggerClassname(line.getOptionValue("logger"));
         }
+        if (line.hasOption("asynclogger")) {
+            if (easyAntConfiguration.getLoggerClassname() != null) {
+                throw new BuildException("Only one logger class may be specified.");
+            }
+            easyAntConfiguration.setLoggerClassname(AsyncEasyAntLogger.class.getName());
+            if (!easyAntConfiguration.getDefinedProps().containsKey(EasyAntMagicNames.MULTIMODULE_LOGGER)) {
+                easyAntConfiguration.getDefinedProps().put(EasyAntMagicNames.MULTIMODULE_LOGGER,
+                        AsyncMultiModuleLogger.class.getName());
+            }
+        }
         if (line.hasOption("inputhandler")) {
             if (easyAntConfiguration.getInputHandlerClassname() != null) {
                 throw new BuildException("Only one input handler class may " + "be specified.");
@@ -323,6 +345,9 @@ public class EasyAntMain implements AntMain {
         if (line.hasOption("offline")) {
             easyAntConfiguration.setOffline(true);
         }
+        if (line.hasOption("metrics")) {
+            easyAntConfiguration.setMetricsEnabled(true);
+        }
         if (line.hasOption("nice")) {
             easyAntConfiguration.setThreadPriority(Integer.decode(line.getOptionValue("nice")));
 
@@ -400,11 +425,17 @@ public class EasyAntMain implements AntMain {
             EasyAntEngine eaEngine = new EasyAntEngine(easyAntConfiguration);
             Project project = new Project();
             eaEngine.configureEasyAnt(project);
-            eaEngine.loadProject(project);
-            // handle other easyant option (-listTargets,-describe,etc..)
+            List<EasyantOption> eaoptions = new ArrayList<EasyantOption>();
             for (int i = 0; i < line.getOptions().length; i++) {
                 if (line.getOptions()[i] instanceof EasyantOption) {
-                    EasyantOption eaoption = (EasyantOption) line.getOptions()[i];
+                    eaoptions.add((EasyantOption) line.getOptions()[i]);
+                }
+            }
+            // handle other easyant option (-listTargets,-describe,etc..)
+            // they analyse the build module by their own, so the project is only located, not loaded
+            if (!eaoptions.isEmpty()) {
+                eaEngine.locateProject(project);
+                for (EasyantOption eaoption : eaoptions) {
                     eaoption.setProject(project);
                     eaoption.execute();
                     if (eaoption.isStopBuild()) {
@@ -412,6 +443,7 @@ public class EasyAntMain implements AntMain {
                     }
                 }
             }
+            eaEngine.loadProject(project);
             eaEngine.doBuild(project);
         }
 
@@ -575,6 +607,8 @@ public class EasyAntMain implements AntMain {
         options.addOption("diagnostics", false,
                 "print information that might be helpful to diagnose or report problems");
         options.addOption("showMemoryDetails", false, "print memory details (used/free/total)");
+        options.addOption("memoryaccounting", false,
+                "print memory used by each submodule and submodules still reachable after their build");
         options.addOption("q", "quiet", false, "be extra quiet");
         options.addOption("v", "verbose", false, "be extra verbose");
         options.addOption("d", "debug", false, "print debugging information");
@@ -588,9 +622,13 @@ public class EasyAntMain implements AntMain {
         Option logger = OptionBuilder.withArgName("classname").hasArg()
                 .withDescription("the class which it to perform " + "logging").create("logger");
         options.addOption(logger);
+        options.addOption("asynclogger", false, "write log messages from a dedicated thread, in batches");
         Option listener = OptionBuilder.withArgName("classname").hasArg()
                 .withDescription("add an instance of class as " + "a project listener").create("listener");
         options.addOption(listener);
+        Option eventStream = OptionBuilder.withArgName("file").hasArg()
+                .withDescription("write build events to given file as newline delimited json").create("eventstream");
+        options.addOption(eventStream);
         Option buildfile = OptionBuilder.withArgName("file").hasArg().withDescription("use given buildfile")
                 .create("buildfile");
         options.addOption(buildfile);
@@ -631,7 +669,9 @@ public class EasyAntMain implements AntMain {
                 .withDescription("override EasyAnt's normal entry point").create("main");
         options.addOption(main);
         options.addOption("o", "offline", false, "turns EasyAnt in offline mode");
+        options.addOption("metrics", false, "expose build metrics through JMX");
         options.addOption(new Describe());
+        options.addOption(new ExportReport());
         options.addOption(new ListExtensionPoints());
         options.addOption(new ListTargets());
         options.addOption(new ListProps());
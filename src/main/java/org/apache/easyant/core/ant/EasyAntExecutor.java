@@ -0,0 +1,51 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.helper.DefaultExecutor;
+
+/**
+ * Executes targets like ant's {@link DefaultExecutor}, each target with its own dependencies, but relying on the
+ * {@link TargetGraph} of the project instead of sorting the whole target table for each target.
+ */
+public class EasyAntExecutor extends DefaultExecutor {
+
+    @Override
+    public void executeTargets(Project project, String[] targetNames) throws BuildException {
+        TargetGraph targetGraph = TargetGraph.getTargetGraph(project);
+        BuildException thrownException = null;
+        for (String targetName : targetNames) {
+            try {
+                if (targetName == null) {
+                    throw new BuildException("No target specified");
+                }
+                project.executeSortedTargets(targetGraph.getSortedTargets(targetName));
+            } catch (BuildException ex) {
+                if (!project.isKeepGoingMode()) {
+                    throw ex;
+                }
+                thrownException = ex;
+            }
+        }
+        if (thrownException != null) {
+            throw thrownException;
+        }
+    }
+}
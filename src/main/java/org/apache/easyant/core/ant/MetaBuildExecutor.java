@@ -23,7 +23,6 @@ import org.apache.easyant.tasks.SubModule;
 import org.apache.easyant.tasks.SubModule.TargetList;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
-import org.apache.tools.ant.helper.DefaultExecutor;
 import org.apache.tools.ant.types.Reference;
 import org.apache.tools.ant.util.StringUtils;
 
@@ -34,7 +33,7 @@ import java.util.List;
 /**
  * Recursively executes build targets on sub-modules for a multi-module project.
  */
-public class MetaBuildExecutor extends DefaultExecutor {
+public class MetaBuildExecutor extends EasyAntExecutor {
 
     private static final String DEMARKER = "======================================================================";
 
@@ -72,7 +71,7 @@ public class MetaBuildExecutor extends DefaultExecutor {
             }
         }
 
-        // now call the default executor to include any extra
+        // now call the easyant executor to include any extra
         // targets defined in the root module.ant
         super.executeTargets(project, preTargetsToRun.toArray(new String[preTargetsToRun.size()]));
 
@@ -91,7 +90,7 @@ public class MetaBuildExecutor extends DefaultExecutor {
         subModule.setTargets(new TargetList(targets));
         subModule.execute();
 
-        // now call the default executor to include any extra targets defined in
+        // now call the easyant executor to include any extra targets defined in
         // the root module.ant
         super.executeTargets(project, postTargetsToRun.toArray(new String[postTargetsToRun.size()]));
     }
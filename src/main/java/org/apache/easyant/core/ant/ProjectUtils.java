@@ -18,13 +18,20 @@
 package org.apache.easyant.core.ant;
 
 import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.listerners.EasyAntBuildListener;
 import org.apache.easyant.core.ant.listerners.MultiModuleLogger;
+import org.apache.easyant.core.jfr.FlightRecorderEvents;
+import org.apache.easyant.core.metrics.EasyAntMetrics;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.IvyNode;
 import org.apache.tools.ant.*;
 import org.apache.tools.ant.util.ClasspathUtils;
 
 import java.io.File;
 import java.io.PrintStream;
 import java.lang.reflect.Field;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -174,4 +181,150 @@ public class ProjectUtils {
     public static ProjectHelper getConfiguredProjectHelper(Project project) {
         return (ProjectHelper) project.getReference(ProjectHelper.PROJECTHELPER_REFERENCE);
     }
+
+    /**
+     * Index the target graph of a project and use {@link EasyAntExecutor} to execute targets, unless another executor
+     * has been configured. Must be called once target hierarchy has been completed (extensionOf attributes resolved).
+     *
+     * @param project a given project
+     */
+    public static void configureExecutor(Project project) {
+        TargetGraph.invalidate(project);
+        TargetGraph.getTargetGraph(project);
+        if (project.getReference(MagicNames.ANT_EXECUTOR_REFERENCE) == null
+                && project.getProperty(MagicNames.ANT_EXECUTOR_CLASSNAME) == null) {
+            project.setExecutor(new EasyAntExecutor());
+        }
+    }
+
+    /**
+     * Start timing an operation of the build
+     *
+     * @param eventType type of the flight recorder event recording the operation
+     * @return the started operation
+     */
+    public static TimedOperation beginOperation(FlightRecorderEvents.EventType eventType) {
+        return new TimedOperation(eventType);
+    }
+
+    /**
+     * A timed operation, recorded as a flight recorder event when it ends
+     */
+    public static final class TimedOperation {
+
+        private final long start = System.nanoTime();
+
+        private final FlightRecorderEvents.Event event;
+
+        private TimedOperation(FlightRecorderEvents.EventType eventType) {
+            this.event = eventType.begin();
+        }
+
+        /**
+         * End the operation and record its event
+         *
+         * @param value value of the first field of the event
+         * @param otherValue value of the second field of the event
+         * @return duration of the operation in nanoseconds
+         */
+        public long end(Object value, Object otherValue) {
+            event.commit(value, otherValue);
+            return System.nanoTime() - start;
+        }
+
+        /**
+         * End a resolve of plugins : record its event and metrics, then notify {@link EasyAntBuildListener}s of each
+         * resolved plugin. Plugins resolved together are all reported with the duration of the whole resolve.
+         *
+         * @param task the task resolving plugins
+         * @param report the resolve report
+         * @param module resolved module recorded by the event
+         * @param plugins requested plugins to notify listeners of
+         */
+        public void endResolve(Task task, ResolveReport report, Object module, Collection<ModuleRevisionId> plugins) {
+            long duration = end(task.getProject().getName(), module);
+            EasyAntMetrics.getInstance().resolveFinished(duration);
+            for (ModuleRevisionId plugin : plugins) {
+                firePluginResolved(task, plugin, getResolvedId(report, plugin), duration);
+            }
+        }
+    }
+
+    /**
+     * Get the revision of a module selected by a resolve
+     *
+     * @param report a resolve report
+     * @param moduleRevisionId requested module
+     * @return the resolved module, or null if it is not part of the report
+     */
+    private static ModuleRevisionId getResolvedId(ResolveReport report, ModuleRevisionId moduleRevisionId) {
+        for (Object o : report.getDependencies()) {
+            IvyNode node = (IvyNode) o;
+            if (node.getModuleId().equals(moduleRevisionId.getModuleId()) && !node.isCompletelyEvicted()) {
+                return node.getResolvedId();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Notify {@link EasyAntBuildListener}s of a project that a plugin has been resolved
+     *
+     * @param task the task resolving the plugin
+     * @param moduleRevisionId requested module
+     * @param resolvedId resolved module, can be null
+     * @param duration resolve duration in nanoseconds
+     */
+    public static void firePluginResolved(Task task, ModuleRevisionId moduleRevisionId, ModuleRevisionId resolvedId,
+                                          long duration) {
+        BuildEvent event = null;
+        for (BuildListener listener : task.getProject().getBuildListeners()) {
+            if (listener instanceof EasyAntBuildListener) {
+                if (event == null) {
+                    event = new BuildEvent(task);
+                }
+                ((EasyAntBuildListener) listener).pluginResolved(event, moduleRevisionId, resolvedId, duration);
+            }
+        }
+    }
+
+    /**
+     * Notify {@link EasyAntBuildListener}s of a project that the build script of a plugin has been imported
+     *
+     * @param task the task importing the plugin
+     * @param moduleRevisionId imported module
+     * @param script imported build script
+     * @param duration import duration in nanoseconds
+     */
+    public static void firePluginImported(Task task, ModuleRevisionId moduleRevisionId, File script, long duration) {
+        BuildEvent event = null;
+        for (BuildListener listener : task.getProject().getBuildListeners()) {
+            if (listener instanceof EasyAntBuildListener) {
+                if (event == null) {
+                    event = new BuildEvent(task);
+                }
+                ((EasyAntBuildListener) listener).pluginImported(event, moduleRevisionId, script, duration);
+            }
+        }
+    }
+
+    /**
+     * Notify {@link EasyAntBuildListener}s of a submodule that its artifacts have been published in the build scoped
+     * repository
+     *
+     * @param subModule the published submodule
+     * @param moduleRevisionId published module
+     * @param duration publication duration in nanoseconds
+     */
+    public static void fireBuildScopedPublished(Project subModule, ModuleRevisionId moduleRevisionId, long duration) {
+        BuildEvent event = null;
+        for (BuildListener listener : subModule.getBuildListeners()) {
+            if (listener instanceof EasyAntBuildListener) {
+                if (event == null) {
+                    event = new BuildEvent(subModule);
+                }
+                ((EasyAntBuildListener) listener).buildScopedPublished(event, moduleRevisionId, duration);
+            }
+        }
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+
+/**
+ * Target graph of a project, caching the topological order of each requested set of targets. Ant sorts the whole
+ * target table each time a target is executed, which is costly on projects importing many plugins where the same
+ * targets are executed several times (meta builds, submodules).
+ * <p>
+ * Orders are computed by {@link Project#topoSort(String[], java.util.Hashtable, boolean)}, so dependency order and
+ * cycle detection are the same as ant's. Code adding, replacing or rewiring targets must drop cached orders through
+ * {@link #invalidate(Project)}, as easyant's project helper, extension point resolution and
+ * {@link org.apache.easyant.tasks.BindTarget} do.
+ * Cached orders are also dropped when the number of targets changes.
+ * </p>
+ */
+public class TargetGraph {
+
+    private final Project project;
+
+    private final Map<String, Vector<Target>> sortedTargets = new HashMap<String, Vector<Target>>();
+
+    /**
+     * Number of targets of the target table cached orders have been computed from
+     */
+    private int indexedTargetCount;
+
+    public TargetGraph(Project project) {
+        this.project = project;
+        index();
+    }
+
+    /**
+     * Get the target graph of a project, creating it on first use
+     *
+     * @param project
+     *            a given project
+     * @return the target graph of this project
+     */
+    public static synchronized TargetGraph getTargetGraph(Project project) {
+        TargetGraph targetGraph = project.getReference(EasyAntMagicNames.TARGET_GRAPH_REF);
+        if (targetGraph == null) {
+            targetGraph = new TargetGraph(project);
+            project.addReference(EasyAntMagicNames.TARGET_GRAPH_REF, targetGraph);
+        }
+        return targetGraph;
+    }
+
+    /**
+     * Drop cached orders of a project, if any. Must be called by code adding, replacing or rewiring targets.
+     *
+     * @param project
+     *            a given project
+     */
+    public static void invalidate(Project project) {
+        TargetGraph targetGraph = project.getReference(EasyAntMagicNames.TARGET_GRAPH_REF);
+        if (targetGraph != null) {
+            targetGraph.invalidate();
+        }
+    }
+
+    public synchronized void invalidate() {
+        sortedTargets.clear();
+        index();
+    }
+
+    private void index() {
+        indexedTargetCount = project.getTargets().size();
+    }
+
+    /**
+     * Get the targets to execute, in execution order, for a given set of targets
+     *
+     * @param targetNames
+     *            requested targets
+     * @return targets to execute, each requested target coming after its dependencies
+     * @throws BuildException
+     *             if a target doesn't exist or if there is a circular dependency
+     */
+    public synchronized Vector<Target> getSortedTargets(String... targetNames) throws BuildException {
+        if (project.getTargets().size() != indexedTargetCount) {
+            project.log("target table has changed, dropping cached target orders", Project.MSG_DEBUG);
+            invalidate();
+        }
+        StringBuilder key = new StringBuilder();
+        for (String targetName : targetNames) {
+            key.append(targetName).append(',');
+        }
+        Vector<Target> sorted = sortedTargets.get(key.toString());
+        if (sorted == null) {
+            sorted = project.topoSort(targetNames, project.getTargets(), false);
+            sortedTargets.put(key.toString(), sorted);
+        }
+        return new Vector<Target>(sorted);
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.helper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.easyant.core.EasyAntEngine;
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.util.FileUtils;
+import org.apache.tools.ant.util.JAXPUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.LocatorImpl;
+
+/**
+ * A precompiled build script. Compilation records the SAX events produced by parsing an ant script (elements,
+ * attributes, text, namespace mappings and their locations) in a compact binary form. Loading a compiled script
+ * replays those events to the regular project helper handlers, so targets, phases and extension points are processed
+ * exactly as for the original script, without any XML parsing. Locations refer to the original script.
+ * <p>
+ * A compiled script is bound to the easyant core version which produced it, as it relies on the handlers behavior of
+ * this version. Consumers are expected to fall back to the original script when {@link #isCompatible(File)} returns
+ * false.
+ * </p>
+ */
+public final class CompiledAntScript {
+
+    /**
+     * Extension of compiled ant scripts
+     */
+    public static final String EXTENSION = "antc";
+
+    private static final int MAGIC = 0x45414e54; // "EANT"
+
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final byte END_OF_SCRIPT = 0;
+
+    private static final byte START_ELEMENT = 1;
+
+    private static final byte END_ELEMENT = 2;
+
+    private static final byte CHARACTERS = 3;
+
+    private static final byte START_PREFIX_MAPPING = 4;
+
+    private static final byte END_PREFIX_MAPPING = 5;
+
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    private CompiledAntScript() {
+    }
+
+    /**
+     * Compile an ant script
+     *
+     * @param antFile
+     *            the ant script to compile
+     * @param compiledFile
+     *            destination file
+     * @throws IOException
+     *             if the script can't be read or the destination can't be written
+     * @throws SAXException
+     *             if the script is not a well formed xml file
+     */
+    public static void compile(File antFile, File compiledFile) throws IOException, SAXException {
+        if (compiledFile.getParentFile() != null) {
+            compiledFile.getParentFile().mkdirs();
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compiledFile)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(EasyAntEngine.getEasyAntVersion());
+            out.writeUTF(FILE_UTILS.toURI(antFile.getAbsolutePath()));
+
+            XMLReader parser = JAXPUtils.getNamespaceXMLReader();
+            RecordingHandler recorder = new RecordingHandler(out);
+            parser.setContentHandler(recorder);
+            parser.setErrorHandler(recorder);
+            InputSource inputSource = new InputSource(FILE_UTILS.toURI(antFile.getAbsolutePath()));
+            parser.parse(inputSource);
+            out.writeByte(END_OF_SCRIPT);
+        } catch (SAXWriteException e) {
+            throw e.getCause();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Check if a compiled script can be loaded by the running easyant core
+     *
+     * @param compiledFile
+     *            a compiled ant script
+     * @return true if the script has been compiled by the running easyant core version
+     */
+    public static boolean isCompatible(File compiledFile) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(compiledFile)));
+            return in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION
+                    && EasyAntEngine.getEasyAntVersion().equals(in.readUTF());
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Register a compiled script to be loaded in place of the ant script it has been compiled from. The ant script
+     * remains the build file, so ant.file properties, basedir and locations refer to it.
+     *
+     * @param project
+     *            project importing the script
+     * @param antFile
+     *            the ant script
+     * @param compiledFile
+     *            the compiled script, compatible with running easyant core
+     */
+    public static void register(Project project, File antFile, File compiledFile) {
+        Map<File, File> compiledScripts = project.getReference(EasyAntMagicNames.COMPILED_SCRIPTS_REF);
+        if (compiledScripts == null) {
+            compiledScripts = new Hashtable<File, File>();
+            project.addReference(EasyAntMagicNames.COMPILED_SCRIPTS_REF, compiledScripts);
+        }
+        compiledScripts.put(FILE_UTILS.normalize(antFile.getAbsolutePath()), compiledFile);
+    }
+
+    /**
+     * Get the compiled script registered for an ant script
+     *
+     * @param project
+     *            project importing the script
+     * @param antFile
+     *            the ant script
+     * @return the compiled script to load in place of the ant script, or null if none has been registered
+     */
+    public static File getRegisteredScript(Project project, File antFile) {
+        Map<File, File> compiledScripts = project.getReference(EasyAntMagicNames.COMPILED_SCRIPTS_REF);
+        return compiledScripts == null ? null : compiledScripts.get(FILE_UTILS.normalize(antFile.getAbsolutePath()));
+    }
+
+    /**
+     * Replay a compiled script to a content handler
+     *
+     * @param compiledFile
+     *            a compiled ant script
+     * @param antFile
+     *            the ant script the compiled script stands for, used for locations. If null, locations refer to the
+     *            script as it was located at compilation time
+     * @param handler
+     *            handler receiving replayed events
+     * @throws IOException
+     *             if the compiled script can't be read or is not compatible with running easyant core
+     * @throws SAXException
+     *             if the handler rejects an event
+     */
+    public static void replay(File compiledFile, File antFile, ContentHandler handler) throws IOException,
+            SAXException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(compiledFile)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                    || !EasyAntEngine.getEasyAntVersion().equals(in.readUTF())) {
+                throw new IOException(compiledFile + " has not been compiled by this version of easyant");
+            }
+            String compiledSystemId = in.readUTF();
+            LocatorImpl locator = new LocatorImpl();
+            locator.setSystemId(antFile != null ? FILE_UTILS.toURI(antFile.getAbsolutePath()) : compiledSystemId);
+            handler.setDocumentLocator(locator);
+            handler.startDocument();
+            List<String> strings = new ArrayList<String>();
+            byte event;
+            while ((event = in.readByte()) != END_OF_SCRIPT) {
+                switch (event) {
+                case START_PREFIX_MAPPING:
+                    handler.startPrefixMapping(readString(in, strings), readString(in, strings));
+                    break;
+                case END_PREFIX_MAPPING:
+                    handler.endPrefixMapping(readString(in, strings));
+                    break;
+                case START_ELEMENT:
+                    readLocation(in, locator);
+                    String uri = readString(in, strings);
+                    String localName = readString(in, strings);
+                    String qName = readString(in, strings);
+                    AttributesImpl attributes = new AttributesImpl();
+                    int nbAttributes = in.readInt();
+                    for (int i = 0; i < nbAttributes; i++) {
+                        attributes.addAttribute(readString(in, strings), readString(in, strings),
+                                readString(in, strings), readString(in, strings), readString(in, strings));
+                    }
+                    handler.startElement(uri, localName, qName, attributes);
+                    break;
+                case END_ELEMENT:
+                    readLocation(in, locator);
+                    handler.endElement(readString(in, strings), readString(in, strings), readString(in, strings));
+                    break;
+                case CHARACTERS:
+                    readLocation(in, locator);
+                    char[] text = readString(in, strings).toCharArray();
+                    handler.characters(text, 0, text.length);
+                    break;
+                default:
+                    throw new IOException(compiledFile + " is corrupted, unknown event " + event);
+                }
+            }
+            handler.endDocument();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void readLocation(DataInputStream in, LocatorImpl locator) throws IOException {
+        locator.setLineNumber(in.readInt());
+        locator.setColumnNumber(in.readInt());
+    }
+
+    /**
+     * Read a string, either inlined on first use or referenced by its index in the strings already read
+     */
+    private static String readString(DataInputStream in, List<String> strings) throws IOException {
+        int index = in.readInt();
+        if (index == -1) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            String value = new String(bytes, ENCODING);
+            strings.add(value);
+            return value;
+        }
+        return strings.get(index);
+    }
+
+    /**
+     * Handler recording parsing events in a compiled script
+     */
+    private static class RecordingHandler extends DefaultHandler {
+
+        private final DataOutputStream out;
+
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+        private Locator locator;
+
+        public RecordingHandler(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            try {
+                out.writeByte(START_PREFIX_MAPPING);
+                writeString(prefix);
+                writeString(uri);
+            } catch (IOException e) {
+                throw new SAXWriteException(e);
+            }
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            try {
+                out.writeByte(END_PREFIX_MAPPING);
+                writeString(prefix);
+            } catch (IOException e) {
+                throw new SAXWriteException(e);
+            }
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes)
+                throws SAXException {
+            try {
+                out.writeByte(START_ELEMENT);
+                writeLocation();
+                writeString(uri);
+                writeString(localName);
+                writeString(qName);
+                out.writeInt(attributes.getLength());
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    writeString(attributes.getURI(i));
+                    writeString(attributes.getLocalName(i));
+                    writeString(attributes.getQName(i));
+                    writeString(attributes.getType(i));
+                    writeString(attributes.getValue(i));
+                }
+            } catch (IOException e) {
+                throw new SAXWriteException(e);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            try {
+                out.writeByte(END_ELEMENT);
+                writeLocation();
+                writeString(uri);
+                writeString(localName);
+                writeString(qName);
+            } catch (IOException e) {
+                throw new SAXWriteException(e);
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            try {
+                out.writeByte(CHARACTERS);
+                writeLocation();
+                writeString(new String(ch, start, length));
+            } catch (IOException e) {
+                throw new SAXWriteException(e);
+            }
+        }
+
+        @Override
+        public void fatalError(org.xml.sax.SAXParseException e) throws SAXException {
+            throw e;
+        }
+
+        private void writeLocation() throws IOException {
+            out.writeInt(locator != null ? locator.getLineNumber() : -1);
+            out.writeInt(locator != null ? locator.getColumnNumber() : -1);
+        }
+
+        /**
+         * Write a string, inlined on first use and referenced by its index afterwards
+         */
+        private void writeString(String value) throws IOException {
+            String nonNullValue = value == null ? "" : value;
+            Integer index = strings.get(nonNullValue);
+            if (index != null) {
+                out.writeInt(index);
+            } else {
+                strings.put(nonNullValue, strings.size());
+                out.writeInt(-1);
+                byte[] bytes = nonNullValue.getBytes(ENCODING);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Wraps write failures so they can go through SAX handler methods
+     */
+    private static class SAXWriteException extends SAXException {
+
+        private static final long serialVersionUID = 1L;
+
+        public SAXWriteException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public IOException getCause() {
+            return (IOException) getException();
+        }
+    }
+}
@@ -19,20 +19,34 @@ package org.apache.easyant.core.ant.helper;
 
 import org.apache.easyant.core.ant.Phase;
 import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ant.TargetGraph;
 import org.apache.tools.ant.*;
 import org.apache.tools.ant.helper.AntXMLContext;
 import org.apache.tools.ant.helper.ProjectHelper2;
 import org.apache.tools.ant.types.Resource;
+import org.apache.tools.ant.types.resources.FileProvider;
+import org.apache.tools.ant.util.FileUtils;
 import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 
 /**
- * This class is the custom project helper used by easyant introducing support for phase concept
+ * This class is the custom project helper used by easyant introducing support for phase concept. It also loads build
+ * scripts precompiled by {@link CompiledAntScript}.
  */
 public class EasyAntProjectHelper extends ProjectHelper2 {
 
+    private static final FileUtils FILE_UTILS = FileUtils.getFileUtils();
+
+    /**
+     * Reference used by {@link ProjectHelper2} to store the parsing context
+     */
+    private static final String REFID_CONTEXT = "ant.parsing.context";
+
     public EasyAntProjectHelper() {
         super();
         setProjectHandler(new EasyAntProjectHandler());
@@ -41,7 +55,81 @@ public class EasyAntProjectHelper extends ProjectHelper2 {
 
     @Override
     public boolean canParseBuildFile(Resource buildFile) {
-        return buildFile.getName().endsWith(".ant") || buildFile.getName().endsWith(".xml");
+        return buildFile.getName().endsWith(".ant") || buildFile.getName().endsWith(".xml")
+                || buildFile.getName().endsWith("." + CompiledAntScript.EXTENSION);
+    }
+
+    /**
+     * Parse a build script. Precompiled build scripts, either given directly or registered in place of the given ant
+     * script (see {@link CompiledAntScript#register(Project, File, File)}), are replayed to the given handler instead
+     * of being parsed.
+     */
+    @Override
+    public void parse(Project project, Object source, RootHandler handler) throws BuildException {
+        File file = getFile(source);
+        File antFile = null;
+        File compiledFile = null;
+        if (file != null && file.getName().endsWith("." + CompiledAntScript.EXTENSION)) {
+            compiledFile = file;
+        } else if (file != null) {
+            antFile = file;
+            compiledFile = CompiledAntScript.getRegisteredScript(project, file);
+        }
+        if (compiledFile == null) {
+            super.parse(project, source, handler);
+            return;
+        }
+        AntXMLContext context = project.getReference(REFID_CONTEXT);
+        compiledFile = FILE_UTILS.normalize(compiledFile.getAbsolutePath());
+        if (antFile != null) {
+            antFile = FILE_UTILS.normalize(antFile.getAbsolutePath());
+        }
+        // the ant script, if known, remains the build file
+        context.setBuildFile(antFile != null ? antFile : compiledFile);
+        project.log("loading precompiled buildfile " + compiledFile, Project.MSG_VERBOSE);
+        try {
+            CompiledAntScript.replay(compiledFile, antFile, handler);
+        } catch (SAXParseException exc) {
+            Location location = new Location(exc.getSystemId(), exc.getLineNumber(), exc.getColumnNumber());
+            Throwable t = exc.getException();
+            if (t instanceof BuildException) {
+                BuildException be = (BuildException) t;
+                if (be.getLocation() == Location.UNKNOWN_LOCATION) {
+                    be.setLocation(location);
+                }
+                throw be;
+            }
+            throw new BuildException(exc.getMessage(), t == null ? exc : t, location);
+        } catch (SAXException exc) {
+            Throwable t = exc.getException();
+            if (t instanceof BuildException) {
+                throw (BuildException) t;
+            }
+            throw new BuildException(exc.getMessage(), t == null ? exc : t);
+        } catch (IOException exc) {
+            throw new BuildException("Error reading project file " + compiledFile + ": " + exc.getMessage(), exc);
+        }
+    }
+
+    /**
+     * Resolve extensionOf attributes, dropping target orders cached before extension points were rewired
+     */
+    @Override
+    public void resolveExtensionOfAttributes(Project project) throws BuildException {
+        super.resolveExtensionOfAttributes(project);
+        TargetGraph.invalidate(project);
+    }
+
+    private File getFile(Object source) {
+        if (source instanceof File) {
+            return (File) source;
+        } else if (source instanceof Resource) {
+            FileProvider fp = ((Resource) source).as(FileProvider.class);
+            if (fp != null) {
+                return fp.getFile();
+            }
+        }
+        return null;
     }
 
     /**
@@ -250,7 +338,8 @@ public class EasyAntProjectHelper extends ProjectHelper2 {
                     t.addDependency(name);
                 }
             }
-
+            // targets have been added or phases rewired
+            TargetGraph.invalidate(project);
         }
 
         private String getTargetPrefix(AntXMLContext context) {
@@ -0,0 +1,279 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.listerners;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.util.StringUtils;
+
+/**
+ * Write log messages from a dedicated thread. Messages are handed to the writer thread through a bounded queue, and
+ * all messages queued meanwhile are written in a single batch. Consecutive messages of a same stream are written and
+ * flushed at once, so that messages written to several streams (output and errors) keep their order. The writer
+ * thread runs until {@link #close()} is called, messages written afterwards are written from the calling thread.
+ */
+public class AsyncLogWriter {
+
+    /**
+     * Behavior when the queue is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * wait until the writer thread catches up, no message is lost
+         */
+        BLOCK,
+        /**
+         * discard info, verbose and debug messages, errors and warnings still wait for the writer thread
+         */
+        DISCARD
+    }
+
+    public static final int DEFAULT_QUEUE_SIZE = 8192;
+
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger(1);
+
+    private final BlockingQueue<LogEntry> queue;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicInteger discarded = new AtomicInteger();
+
+    private final Thread writerThread;
+
+    private volatile boolean closed;
+
+    public AsyncLogWriter(int queueSize, OverflowPolicy overflowPolicy) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("queueSize must be greater than 0");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("overflowPolicy cannot be null");
+        }
+        this.queue = new ArrayBlockingQueue<LogEntry>(queueSize);
+        this.overflowPolicy = overflowPolicy;
+        writerThread = new Thread(new Runnable() {
+            public void run() {
+                writeLoop();
+            }
+        }, "easyant-log-writer-" + THREAD_NUMBER.getAndIncrement());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Create a log writer configured by project properties
+     *
+     * @param project
+     *            a project, may be null to use default configuration
+     * @return a started log writer
+     * @see EasyAntMagicNames#ASYNC_LOGGER_QUEUE_SIZE
+     * @see EasyAntMagicNames#ASYNC_LOGGER_OVERFLOW_POLICY
+     */
+    public static AsyncLogWriter newInstance(Project project) {
+        int queueSize = DEFAULT_QUEUE_SIZE;
+        OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        if (project != null) {
+            String queueSizeValue = project.getProperty(EasyAntMagicNames.ASYNC_LOGGER_QUEUE_SIZE);
+            if (queueSizeValue != null) {
+                try {
+                    queueSize = Integer.parseInt(queueSizeValue.trim());
+                } catch (NumberFormatException e) {
+                    throw new BuildException(EasyAntMagicNames.ASYNC_LOGGER_QUEUE_SIZE + " must be a number, found "
+                            + queueSizeValue);
+                }
+            }
+            String overflowPolicyValue = project.getProperty(EasyAntMagicNames.ASYNC_LOGGER_OVERFLOW_POLICY);
+            if (overflowPolicyValue != null) {
+                try {
+                    overflowPolicy = OverflowPolicy.valueOf(overflowPolicyValue.trim().toUpperCase(Locale.US));
+                } catch (IllegalArgumentException e) {
+                    throw new BuildException(EasyAntMagicNames.ASYNC_LOGGER_OVERFLOW_POLICY
+                            + " must be block or discard, found " + overflowPolicyValue);
+                }
+            }
+        }
+        return new AsyncLogWriter(queueSize, overflowPolicy);
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Queue a message
+     *
+     * @param message
+     *            message to write, a line separator is appended
+     * @param stream
+     *            stream to write the message to
+     * @param priority
+     *            message priority
+     */
+    public void write(String message, PrintStream stream, int priority) {
+        LogEntry entry = new LogEntry(message, stream, null);
+        if (closed) {
+            entry.write();
+        } else if (overflowPolicy == OverflowPolicy.DISCARD && priority > Project.MSG_WARN) {
+            if (!queue.offer(entry)) {
+                discarded.incrementAndGet();
+            }
+        } else {
+            put(entry);
+        }
+    }
+
+    /**
+     * Wait until all messages queued so far have been written and their streams flushed
+     */
+    public void flush() {
+        if (closed || !writerThread.isAlive()) {
+            return;
+        }
+        CountDownLatch written = new CountDownLatch(1);
+        put(new LogEntry(null, null, written));
+        try {
+            written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write all pending messages and stop the writer thread
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (writerThread.isAlive()) {
+            put(LogEntry.STOP);
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // messages queued by threads which didn't see the writer was closing
+        List<LogEntry> pending = new ArrayList<LogEntry>();
+        queue.drainTo(pending);
+        for (LogEntry entry : pending) {
+            entry.write();
+        }
+    }
+
+    /**
+     * @return true until the writer thread has been stopped
+     */
+    public boolean isRunning() {
+        return writerThread.isAlive();
+    }
+
+    private void put(LogEntry entry) {
+        try {
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // don't lose the message, write it from the calling thread
+            entry.write();
+        }
+    }
+
+    private void writeLoop() {
+        List<LogEntry> batch = new ArrayList<LogEntry>();
+        StringBuilder buffer = new StringBuilder();
+        PrintStream stream = null;
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH_SIZE);
+            for (LogEntry entry : batch) {
+                if (entry == LogEntry.STOP) {
+                    writeBuffer(stream, buffer);
+                    return;
+                } else if (entry.written != null) {
+                    writeBuffer(stream, buffer);
+                    entry.written.countDown();
+                } else {
+                    if (entry.stream != stream) {
+                        writeBuffer(stream, buffer);
+                        stream = entry.stream;
+                    }
+                    buffer.append(entry.message).append(StringUtils.LINE_SEP);
+                }
+            }
+            writeBuffer(stream, buffer);
+            batch.clear();
+        }
+    }
+
+    private void writeBuffer(PrintStream stream, StringBuilder buffer) {
+        if (buffer.length() == 0) {
+            return;
+        }
+        int discardedMessages = discarded.getAndSet(0);
+        if (discardedMessages > 0) {
+            buffer.append("[").append(discardedMessages)
+                    .append(" log messages discarded, the log writer could not keep up]").append(StringUtils.LINE_SEP);
+        }
+        stream.print(buffer);
+        stream.flush();
+        buffer.setLength(0);
+    }
+
+    private static class LogEntry {
+
+        private static final LogEntry STOP = new LogEntry(null, null, null);
+
+        private final String message;
+
+        private final PrintStream stream;
+
+        private final CountDownLatch written;
+
+        public LogEntry(String message, PrintStream stream, CountDownLatch written) {
+            this.message = message;
+            this.stream = stream;
+            this.written = written;
+        }
+
+        public void write() {
+            if (stream != null) {
+                stream.println(message);
+            }
+            if (written != null) {
+                written.countDown();
+            }
+        }
+    }
+}
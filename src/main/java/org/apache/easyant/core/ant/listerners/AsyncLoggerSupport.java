@@ -0,0 +1,73 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.listerners;
+
+import java.io.PrintStream;
+
+import org.apache.tools.ant.Project;
+
+/**
+ * Log writer of an asynchronous logger, created on first use with the configuration of the first project seen
+ * 
+ * @see AsyncEasyAntLogger
+ * @see AsyncMultiModuleLogger
+ */
+class AsyncLoggerSupport {
+
+    private volatile AsyncLogWriter writer;
+
+    /**
+     * Get the log writer, creating it if needed
+     * 
+     * @param project
+     *            project used to configure the log writer, may be null
+     * @return the log writer
+     */
+    public AsyncLogWriter getWriter(Project project) {
+        AsyncLogWriter result = writer;
+        if (result == null) {
+            synchronized (this) {
+                result = writer;
+                if (result == null) {
+                    result = AsyncLogWriter.newInstance(project);
+                    writer = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public void printMessage(String message, PrintStream stream, int priority) {
+        getWriter(null).write(message, stream, priority);
+    }
+
+    /**
+     * Write all pending messages and stop the writer thread, must be called once the logger has printed the build
+     * result. A new writer is created if messages are printed afterwards.
+     */
+    public void buildFinished(Project project) {
+        AsyncLogWriter result;
+        synchronized (this) {
+            result = writer;
+            writer = null;
+        }
+        if (result != null) {
+            result.close();
+        }
+    }
+}
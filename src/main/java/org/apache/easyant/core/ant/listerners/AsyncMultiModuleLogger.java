@@ -0,0 +1,66 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.listerners;
+
+import java.io.PrintStream;
+
+import org.apache.tools.ant.BuildEvent;
+
+/**
+ * {@link MultiModuleLogger} writing messages from a dedicated thread, in batches. Messages below the message output
+ * level are dropped before any formatting. Pending messages are always written when the build finishes.
+ * 
+ * @see AsyncLogWriter
+ */
+public class AsyncMultiModuleLogger extends MultiModuleLogger {
+
+    private final AsyncLoggerSupport asyncSupport = new AsyncLoggerSupport();
+
+    @Override
+    public void buildStarted(BuildEvent event) {
+        asyncSupport.getWriter(event.getProject());
+        super.buildStarted(event);
+    }
+
+    @Override
+    public void messageLogged(BuildEvent event) {
+        // messages below the output level are still given to the parent logger, as any event may raise the sub build
+        // start, they are dropped there before formatting
+        asyncSupport.getWriter(event.getProject());
+        synchronized (this) {
+            // print the pending target name through the writer, not straight to the output stream
+            if (targetName != null && event.getPriority() <= msgOutputLevel && event.getMessage() != null
+                    && event.getMessage().trim().length() > 0) {
+                printMessage(lSep + targetName + ":", out, event.getPriority());
+                targetName = null;
+            }
+        }
+        super.messageLogged(event);
+    }
+
+    @Override
+    public void buildFinished(BuildEvent event) {
+        super.buildFinished(event);
+        asyncSupport.buildFinished(event.getProject());
+    }
+
+    @Override
+    protected void printMessage(String message, PrintStream stream, int priority) {
+        asyncSupport.printMessage(message, stream, priority);
+    }
+}
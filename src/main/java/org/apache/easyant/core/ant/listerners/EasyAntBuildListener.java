@@ -0,0 +1,72 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.listerners;
+
+import java.io.File;
+
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+
+/**
+ * A build listener also notified of easyant specific events. Events are raised by easyant tasks through
+ * {@link org.apache.easyant.core.ant.ProjectUtils}, the build event gives access to the task raising it.
+ */
+public interface EasyAntBuildListener extends BuildListener {
+
+    /**
+     * Signals that a plugin or buildtype has been resolved
+     *
+     * @param event
+     *            event raised by the task resolving the module
+     * @param moduleRevisionId
+     *            requested module
+     * @param resolvedId
+     *            resolved module, null if it can't be found in the resolve report
+     * @param duration
+     *            resolve duration in nanoseconds
+     */
+    void pluginResolved(BuildEvent event, ModuleRevisionId moduleRevisionId, ModuleRevisionId resolvedId,
+            long duration);
+
+    /**
+     * Signals that the build script of a plugin or buildtype has been imported
+     *
+     * @param event
+     *            event raised by the task importing the module
+     * @param moduleRevisionId
+     *            imported module
+     * @param script
+     *            imported build script
+     * @param duration
+     *            import duration in nanoseconds
+     */
+    void pluginImported(BuildEvent event, ModuleRevisionId moduleRevisionId, File script, long duration);
+
+    /**
+     * Signals that the artifacts of a submodule have been published in the build scoped repository
+     *
+     * @param event
+     *            event raised by the submodule task, its project is the submodule
+     * @param moduleRevisionId
+     *            published module
+     * @param duration
+     *            publication duration in nanoseconds
+     */
+    void buildScopedPublished(BuildEvent event, ModuleRevisionId moduleRevisionId, long duration);
+}
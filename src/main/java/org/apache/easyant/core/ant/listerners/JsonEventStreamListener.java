@@ -0,0 +1,340 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.listerners;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+
+/**
+ * Write build events as a stream of newline delimited JSON objects, intended to be consumed by tools. Each event has
+ * the following members :
+ * <ul>
+ * <li>event : buildStarted, buildFinished, subBuildStarted, subBuildFinished, targetStarted, targetFinished,
+ * taskStarted, taskFinished, message, pluginResolved, pluginImported or buildScopedPublished</li>
+ * <li>time : event time in microseconds since epoch, measured with a monotonic clock from the stream start</li>
+ * <li>project, target, task : names of the elements the event relates to, when known</li>
+ * <li>duration : for finished events and easyant events, duration in microseconds</li>
+ * <li>status and error : for finished events, success or failure and the failure message</li>
+ * <li>priority and message : for message events</li>
+ * <li>module and resolved : for easyant events, requested and resolved module revision ids</li>
+ * <li>script : for pluginImported events, the imported build script</li>
+ * </ul>
+ * Events are written to the file specified by {@link EasyAntMagicNames#EVENT_STREAM_FILE}, or to
+ * easyant-events.ndjson in the project base directory. The stream is buffered and flushed when the build finishes.
+ */
+public class JsonEventStreamListener implements EasyAntBuildListener, SubBuildListener {
+
+    public static final String DEFAULT_EVENT_STREAM_FILE = "easyant-events.ndjson";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long startTimeMicros = System.currentTimeMillis() * 1000;
+
+    private final long startNanos = System.nanoTime();
+
+    private final Map<Object, Long> startTimes = new IdentityHashMap<Object, Long>();
+
+    private File file;
+
+    private Writer out;
+
+    private boolean closed;
+
+    public JsonEventStreamListener() {
+    }
+
+    /**
+     * Create a listener writing to the given file, regardless of project properties
+     *
+     * @param file
+     *            destination file
+     */
+    public JsonEventStreamListener(File file) {
+        this.file = file;
+    }
+
+    public synchronized void buildStarted(BuildEvent event) {
+        startTimes.put(event.getProject(), System.nanoTime());
+        if (startEvent("buildStarted", event)) {
+            endEvent();
+        }
+    }
+
+    public synchronized void buildFinished(BuildEvent event) {
+        if (startEvent("buildFinished", event)) {
+            writeResult(event.getProject(), event);
+            endEvent();
+        }
+        close();
+    }
+
+    public synchronized void subBuildStarted(BuildEvent event) {
+        startTimes.put(event.getProject(), System.nanoTime());
+        if (startEvent("subBuildStarted", event)) {
+            endEvent();
+        }
+    }
+
+    public synchronized void subBuildFinished(BuildEvent event) {
+        if (startEvent("subBuildFinished", event)) {
+            writeResult(event.getProject(), event);
+            endEvent();
+        }
+    }
+
+    public synchronized void targetStarted(BuildEvent event) {
+        startTimes.put(event.getTarget(), System.nanoTime());
+        if (startEvent("targetStarted", event)) {
+            endEvent();
+        }
+    }
+
+    public synchronized void targetFinished(BuildEvent event) {
+        if (startEvent("targetFinished", event)) {
+            writeResult(event.getTarget(), event);
+            endEvent();
+        }
+    }
+
+    public synchronized void taskStarted(BuildEvent event) {
+        startTimes.put(event.getTask(), System.nanoTime());
+        if (startEvent("taskStarted", event)) {
+            endEvent();
+        }
+    }
+
+    public synchronized void taskFinished(BuildEvent event) {
+        if (startEvent("taskFinished", event)) {
+            writeResult(event.getTask(), event);
+            endEvent();
+        }
+    }
+
+    public synchronized void messageLogged(BuildEvent event) {
+        if (startEvent("message", event)) {
+            writeMember("priority", event.getPriority());
+            writeMember("message", event.getMessage());
+            endEvent();
+        }
+    }
+
+    public synchronized void pluginResolved(BuildEvent event, ModuleRevisionId moduleRevisionId,
+            ModuleRevisionId resolvedId, long duration) {
+        if (startEvent("pluginResolved", event)) {
+            writeMember("module", moduleRevisionId);
+            writeMember("resolved", resolvedId);
+            writeMember("duration", duration / 1000);
+            endEvent();
+        }
+    }
+
+    public synchronized void pluginImported(BuildEvent event, ModuleRevisionId moduleRevisionId, File script,
+            long duration) {
+        if (startEvent("pluginImported", event)) {
+            writeMember("module", moduleRevisionId);
+            writeMember("script", script.getAbsolutePath());
+            writeMember("duration", duration / 1000);
+            endEvent();
+        }
+    }
+
+    public synchronized void buildScopedPublished(BuildEvent event, ModuleRevisionId moduleRevisionId,
+            long duration) {
+        if (startEvent("buildScopedPublished", event)) {
+            writeMember("module", moduleRevisionId);
+            writeMember("duration", duration / 1000);
+            endEvent();
+        }
+    }
+
+    /**
+     * Start writing an event, opening the stream on first event
+     *
+     * @return false if the stream is not writable
+     */
+    private boolean startEvent(String name, BuildEvent event) {
+        if (out == null && !open(event.getProject())) {
+            return false;
+        }
+        try {
+            out.write("{\"event\":\"");
+            out.write(name);
+            out.write("\",\"time\":");
+            out.write(Long.toString(startTimeMicros + (System.nanoTime() - startNanos) / 1000));
+        } catch (IOException e) {
+            fail(e);
+            return false;
+        }
+        Project project = event.getProject();
+        if (project != null && project.getName() != null) {
+            writeMember("project", project.getName());
+        }
+        Target target = event.getTarget();
+        if (target != null && target.getName() != null && target.getName().length() > 0) {
+            writeMember("target", target.getName());
+        }
+        Task task = event.getTask();
+        if (task != null && task.getTaskName() != null) {
+            writeMember("task", task.getTaskName());
+        }
+        return out != null;
+    }
+
+    private void endEvent() {
+        if (out != null) {
+            try {
+                out.write("}\n");
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    private void writeResult(Object element, BuildEvent event) {
+        Long start = startTimes.remove(element);
+        if (start != null) {
+            writeMember("duration", (System.nanoTime() - start) / 1000);
+        }
+        Throwable error = event.getException();
+        writeMember("status", error == null ? "success" : "failure");
+        if (error != null) {
+            writeMember("error", error.getMessage() != null ? error.getMessage() : error.toString());
+        }
+    }
+
+    private void writeMember(String name, ModuleRevisionId value) {
+        if (value != null) {
+            writeMember(name, value.toString());
+        }
+    }
+
+    private void writeMember(String name, long value) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.write(",\"");
+            out.write(name);
+            out.write("\":");
+            out.write(Long.toString(value));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writeMember(String name, String value) {
+        if (out == null || value == null) {
+            return;
+        }
+        try {
+            out.write(",\"");
+            out.write(name);
+            out.write("\":\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write("\\u00");
+                        out.write(Character.forDigit(c >> 4, 16));
+                        out.write(Character.forDigit(c & 0xf, 16));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+            out.write('"');
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private boolean open(Project project) {
+        if (closed) {
+            return false;
+        }
+        if (file == null) {
+            String fileName = project != null ? project.getProperty(EasyAntMagicNames.EVENT_STREAM_FILE) : null;
+            if (fileName == null) {
+                fileName = DEFAULT_EVENT_STREAM_FILE;
+            }
+            file = project != null ? project.resolveFile(fileName) : new File(fileName);
+        }
+        try {
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"), BUFFER_SIZE);
+            return true;
+        } catch (IOException e) {
+            fail(e);
+            return false;
+        }
+    }
+
+    private void close() {
+        closed = true;
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                fail(e);
+            }
+            out = null;
+        }
+        startTimes.clear();
+    }
+
+    /**
+     * Stop writing events, logging through the build would notify this listener again
+     */
+    private void fail(IOException e) {
+        System.err.println("Can't write build events to " + file + " : " + e.getMessage());
+        closed = true;
+        out = null;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.listerners;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
+
+/**
+ * Account memory used by each submodule of a multi module build. Heap usage and bytes allocated by the building thread
+ * are recorded before and after each sub-build. Heap usage is global to the jvm, deltas are only meaningful when
+ * submodules are built one at a time.
+ * <p>
+ * Submodule projects are tracked with weak references. When the build finishes, a garbage collection is requested and
+ * submodule projects which are still reachable are reported as leak suspects, along with what they hold (build
+ * listeners, references, resolve reports).
+ * </p>
+ */
+public class MemoryAccountingListener implements SubBuildListener {
+
+    private static final long KILOBYTE = 1024;
+
+    private static final Method GET_THREAD_ALLOCATED_BYTES = findThreadAllocatedBytesMethod();
+
+    private final Map<Project, ModuleMemory> running = new IdentityHashMap<Project, ModuleMemory>();
+
+    private final List<ModuleMemory> finished = new ArrayList<ModuleMemory>();
+
+    private static Method findThreadAllocatedBytesMethod() {
+        try {
+            return Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+        } catch (Exception e) {
+            // not available on this jvm
+            return null;
+        }
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, or -1 if the jvm doesn't support it
+     */
+    private static long getAllocatedBytes() {
+        if (GET_THREAD_ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(threadMXBean, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static long getUsedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public synchronized void subBuildStarted(BuildEvent event) {
+        ModuleMemory moduleMemory = new ModuleMemory();
+        moduleMemory.heapBefore = getUsedHeap();
+        moduleMemory.allocatedBefore = getAllocatedBytes();
+        running.put(event.getProject(), moduleMemory);
+    }
+
+    public synchronized void subBuildFinished(BuildEvent event) {
+        Project subModule = event.getProject();
+        ModuleMemory moduleMemory = running.remove(subModule);
+        if (moduleMemory == null) {
+            return;
+        }
+        moduleMemory.heapAfter = getUsedHeap();
+        long allocatedAfter = getAllocatedBytes();
+        moduleMemory.allocated = moduleMemory.allocatedBefore >= 0 && allocatedAfter >= 0 ? allocatedAfter
+                - moduleMemory.allocatedBefore : -1;
+        moduleMemory.name = subModule.getName() != null ? subModule.getName() : subModule.getBaseDir().getName();
+        moduleMemory.project = new WeakReference<Project>(subModule);
+        finished.add(moduleMemory);
+    }
+
+    public void buildFinished(BuildEvent event) {
+        for (String line : getReport(event.getProject())) {
+            event.getProject().log(line);
+        }
+    }
+
+    /**
+     * Get memory accounting of built submodules, modules which allocated the most first
+     *
+     * @return a list of {@link ModuleMemory}
+     */
+    public synchronized List<ModuleMemory> getModules() {
+        List<ModuleMemory> modules = new ArrayList<ModuleMemory>(finished);
+        Collections.sort(modules, new Comparator<ModuleMemory>() {
+            public int compare(ModuleMemory o1, ModuleMemory o2) {
+                long diff = o2.getAllocated() - o1.getAllocated();
+                return diff != 0 ? (diff > 0 ? 1 : -1) : o1.getName().compareTo(o2.getName());
+            }
+        });
+        return modules;
+    }
+
+    /**
+     * Request a garbage collection and get the submodule projects still reachable after their build
+     *
+     * @return a list of submodule projects
+     */
+    public synchronized List<Project> findLeakedSubModules() {
+        System.gc();
+        List<Project> leaked = new ArrayList<Project>();
+        for (ModuleMemory moduleMemory : finished) {
+            Project subModule = moduleMemory.project.get();
+            if (subModule != null) {
+                leaked.add(subModule);
+            }
+        }
+        return leaked;
+    }
+
+    /**
+     * Build the memory accounting report
+     *
+     * @param project
+     *            the main project
+     * @return report lines
+     */
+    public List<String> getReport(Project project) {
+        List<String> lines = new ArrayList<String>();
+        lines.add("---- Submodules Memory ----");
+        lines.add(String.format("  %-40s %14s %14s %14s", "module", "allocated(KB)", "heap before(KB)",
+                "heap delta(KB)"));
+        for (ModuleMemory moduleMemory : getModules()) {
+            lines.add(String.format("  %-40s %14s %14d %14d", moduleMemory.getName(),
+                    moduleMemory.getAllocated() >= 0 ? String.valueOf(moduleMemory.getAllocated() / KILOBYTE) : "n/a",
+                    moduleMemory.getHeapBefore() / KILOBYTE, moduleMemory.getHeapDelta() / KILOBYTE));
+        }
+        List<Project> leaked = findLeakedSubModules();
+        if (!leaked.isEmpty()) {
+            lines.add("  submodules still reachable after their build :");
+            for (Project subModule : leaked) {
+                lines.add("    " + subModule.getName() + " (" + subModule.getBaseDir() + ")");
+                lines.addAll(describeSuspects(project, subModule));
+            }
+        }
+        lines.add("---------------------------");
+        return lines;
+    }
+
+    private List<String> describeSuspects(Project project, Project subModule) {
+        List<String> suspects = new ArrayList<String>();
+        int ownListeners = 0;
+        for (Object listener : subModule.getBuildListeners()) {
+            if (project == null || !project.getBuildListeners().contains(listener)) {
+                ownListeners++;
+            }
+        }
+        suspects.add("      build listeners : " + subModule.getBuildListeners().size() + " (" + ownListeners
+                + " not registered on main project)");
+        suspects.add("      references : " + subModule.getReferences().size());
+        for (Map.Entry<?, ?> reference : subModule.getReferences().entrySet()) {
+            if (reference.getValue() instanceof ResolveReport) {
+                suspects.add("      resolve report : " + reference.getKey());
+            }
+        }
+        if (project != null) {
+            for (Map.Entry<?, ?> reference : project.getReferences().entrySet()) {
+                if (reference.getValue() == subModule) {
+                    suspects.add("      referenced by main project reference : " + reference.getKey());
+                }
+            }
+        }
+        return suspects;
+    }
+
+    public void buildStarted(BuildEvent event) {
+    }
+
+    public void targetStarted(BuildEvent event) {
+    }
+
+    public void targetFinished(BuildEvent event) {
+    }
+
+    public void taskStarted(BuildEvent event) {
+    }
+
+    public void taskFinished(BuildEvent event) {
+    }
+
+    public void messageLogged(BuildEvent event) {
+    }
+
+    /**
+     * Memory used by a submodule build. Sizes are in bytes.
+     */
+    public static class ModuleMemory {
+
+        private String name;
+
+        private long heapBefore;
+
+        private long heapAfter;
+
+        private long allocatedBefore;
+
+        private long allocated;
+
+        private WeakReference<Project> project;
+
+        public String getName() {
+            return name;
+        }
+
+        public long getHeapBefore() {
+            return heapBefore;
+        }
+
+        public long getHeapAfter() {
+            return heapAfter;
+        }
+
+        public long getHeapDelta() {
+            return heapAfter - heapBefore;
+        }
+
+        /**
+         * @return bytes allocated by the thread building the submodule, or -1 if the jvm doesn't support it
+         */
+        public long getAllocated() {
+            return allocated;
+        }
+    }
+}
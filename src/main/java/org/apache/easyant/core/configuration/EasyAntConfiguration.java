@@ -103,6 +103,8 @@ public class EasyAntConfiguration {
 
     private boolean offline;
 
+    private boolean metricsEnabled = false;
+
     /**
      * Get the ivysettings.xml file used by easyant
      * 
@@ -489,4 +491,22 @@ public class EasyAntConfiguration {
     public boolean isOffline() {
         return offline;
     }
+
+    /**
+     * Check if build metrics are collected by a listener and exposed through JMX. Default is false.
+     * 
+     * @return true if metrics are enabled
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Set to true if you want build metrics to be collected by a listener and exposed through JMX. Default is false.
+     * 
+     * @param metricsEnabled
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
 }
@@ -17,8 +17,19 @@
  */
 package org.apache.easyant.core.ivy;
 
+import org.apache.easyant.core.metrics.EasyAntMetrics;
+import org.apache.ivy.core.cache.CacheDownloadOptions;
+import org.apache.ivy.core.cache.CacheMetadataOptions;
 import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.DownloadStatus;
+import org.apache.ivy.core.resolve.ResolvedModuleRevision;
 import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.repository.ArtifactResourceResolver;
+import org.apache.ivy.plugins.repository.ResourceDownloader;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParser;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParserRegistry;
 import org.apache.ivy.plugins.parser.xml.XmlModuleDescriptorParser;
@@ -41,6 +52,29 @@ public class EasyAntRepositoryCacheManager extends DefaultRepositoryCacheManager
         super(name, settings, basedir);
     }
 
+    @Override
+    public ResolvedModuleRevision findModuleInCache(DependencyDescriptor dd, ModuleRevisionId requestedRevisionId,
+            CacheMetadataOptions options, String expectedResolver) {
+        ResolvedModuleRevision rmr = super.findModuleInCache(dd, requestedRevisionId, options, expectedResolver);
+        if (rmr != null) {
+            EasyAntMetrics.getInstance().repositoryCacheHit();
+        } else {
+            EasyAntMetrics.getInstance().repositoryCacheMiss();
+        }
+        return rmr;
+    }
+
+    @Override
+    public ArtifactDownloadReport download(Artifact artifact, ArtifactResourceResolver resourceResolver,
+            ResourceDownloader resourceDownloader, CacheDownloadOptions options) {
+        ArtifactDownloadReport adr = super.download(artifact, resourceResolver, resourceDownloader, options);
+        if (adr.getDownloadStatus() == DownloadStatus.NO) {
+            EasyAntMetrics.getInstance().repositoryCacheHit();
+        } else if (adr.getDownloadStatus() == DownloadStatus.SUCCESSFUL) {
+            EasyAntMetrics.getInstance().repositoryCacheMiss();
+        }
+        return adr;
+    }
 
     @Override
     protected ModuleDescriptorParser getModuleDescriptorParser(File moduleDescriptorFile) {
@@ -17,13 +17,18 @@
  */
 package org.apache.easyant.core.ivy;
 
+import org.apache.easyant.core.metrics.EasyAntMetrics;
 import org.apache.ivy.core.cache.DefaultResolutionCacheManager;
+import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParser;
 import org.apache.ivy.plugins.parser.ModuleDescriptorParserRegistry;
 import org.apache.ivy.plugins.repository.url.URLResource;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
+import java.text.ParseException;
 
 public class EasyantResolutionCacheManager extends DefaultResolutionCacheManager {
 
@@ -35,6 +40,16 @@ public class EasyantResolutionCacheManager extends DefaultResolutionCacheManager
         super(basedir);
     }
 
+    @Override
+    public ModuleDescriptor getResolvedModuleDescriptor(ModuleRevisionId mrid) throws ParseException, IOException {
+        if (getResolvedIvyFileInCache(mrid).exists()) {
+            EasyAntMetrics.getInstance().resolutionCacheHit();
+        } else {
+            EasyAntMetrics.getInstance().resolutionCacheMiss();
+        }
+        return super.getResolvedModuleDescriptor(mrid);
+    }
+
     @Override
     protected ModuleDescriptorParser getModuleDescriptorParser(File moduleDescriptorFile) {
         try {
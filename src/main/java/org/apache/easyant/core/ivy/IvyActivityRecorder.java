@@ -0,0 +1,368 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ivy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.event.IvyEvent;
+import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.download.EndArtifactDownloadEvent;
+import org.apache.ivy.core.event.download.NeedArtifactEvent;
+import org.apache.ivy.core.event.resolve.EndResolveDependencyEvent;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.DownloadStatus;
+import org.apache.ivy.core.resolve.ResolvedModuleRevision;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.apache.tools.ant.Project;
+
+/**
+ * Records the activity of ivy instances used by a build : dependency resolution requests and latency, artifact
+ * downloads and cache hits, per resolver. Modules whose metadata are checked on repositories several times (usually
+ * changing modules) are recorded too.
+ * <p>
+ * Recording is enabled by {@link EasyAntMagicNames#IVY_ACTIVITY} or {@link EasyAntMagicNames#IVY_ACTIVITY_FILE}
+ * properties. A single recorder is then stored as {@link EasyAntMagicNames#IVY_ACTIVITY_RECORDER_REF} reference of a
+ * build, shared with submodules, and registered on each ivy instance with {@link #attach(Project, Ivy)}. A ranked
+ * summary is available through {@link #report(Project)}.
+ * </p>
+ */
+public class IvyActivityRecorder implements IvyListener {
+
+    private static final String UNKNOWN_RESOLVER = "unknown";
+
+    private final Map<String, ResolverActivity> resolvers = new HashMap<String, ResolverActivity>();
+
+    private final Map<String, Integer> metadataChecks = new HashMap<String, Integer>();
+
+    /**
+     * Check if ivy activity recording is enabled for a build
+     *
+     * @param project
+     *            the project being built
+     * @return true if {@link EasyAntMagicNames#IVY_ACTIVITY} or {@link EasyAntMagicNames#IVY_ACTIVITY_FILE} property
+     *         is set
+     */
+    public static boolean isEnabled(Project project) {
+        return Project.toBoolean(project.getProperty(EasyAntMagicNames.IVY_ACTIVITY))
+                || project.getProperty(EasyAntMagicNames.IVY_ACTIVITY_FILE) != null;
+    }
+
+    /**
+     * Register the recorder of a build on an ivy instance, creating the recorder if the build doesn't have one yet.
+     * Nothing is recorded unless recording is enabled, see {@link #isEnabled(Project)}
+     *
+     * @param project
+     *            the project being built
+     * @param ivy
+     *            an ivy instance used by the build
+     * @return the recorder of the build, or null if recording is disabled
+     */
+    public static IvyActivityRecorder attach(Project project, Ivy ivy) {
+        if (!isEnabled(project)) {
+            return null;
+        }
+        IvyActivityRecorder recorder = find(project);
+        if (recorder == null) {
+            recorder = new IvyActivityRecorder();
+            project.addReference(EasyAntMagicNames.IVY_ACTIVITY_RECORDER_REF, recorder);
+        }
+        if (!ivy.getEventManager().hasIvyListener(recorder)) {
+            ivy.getEventManager().addIvyListener(recorder);
+        }
+        return recorder;
+    }
+
+    /**
+     * Get the recorder of a build
+     *
+     * @param project
+     *            the project being built
+     * @return the recorder of the build or null if no ivy instance has been attached
+     */
+    public static IvyActivityRecorder find(Project project) {
+        Object recorder = project.getReference(EasyAntMagicNames.IVY_ACTIVITY_RECORDER_REF);
+        return recorder instanceof IvyActivityRecorder ? (IvyActivityRecorder) recorder : null;
+    }
+
+    public synchronized void progress(IvyEvent event) {
+        if (event instanceof EndResolveDependencyEvent) {
+            EndResolveDependencyEvent endResolve = (EndResolveDependencyEvent) event;
+            ResolverActivity activity = getActivity(endResolve.getResolver());
+            activity.resolves++;
+            activity.resolveTime += endResolve.getDuration();
+            ResolvedModuleRevision module = endResolve.getModule();
+            if (module == null) {
+                activity.notFound++;
+            } else if (module.getReport() != null && module.getReport().isSearched()) {
+                activity.metadataChecks++;
+                String mrid = module.getId().toString();
+                Integer checks = metadataChecks.get(mrid);
+                metadataChecks.put(mrid, checks == null ? 1 : checks + 1);
+            }
+        } else if (event instanceof NeedArtifactEvent) {
+            getActivity(((NeedArtifactEvent) event).getResolver()).artifacts++;
+        } else if (event instanceof EndArtifactDownloadEvent) {
+            EndArtifactDownloadEvent endDownload = (EndArtifactDownloadEvent) event;
+            ResolverActivity activity = getActivity(endDownload.getResolver());
+            ArtifactDownloadReport report = endDownload.getReport();
+            if (report.getDownloadStatus() == DownloadStatus.SUCCESSFUL) {
+                activity.downloads++;
+                activity.downloadedBytes += report.getSize();
+                activity.downloadTime += report.getDownloadTimeMillis();
+            } else if (report.getDownloadStatus() == DownloadStatus.FAILED) {
+                activity.failedDownloads++;
+            } else if (report.getDownloadStatus() == DownloadStatus.NO) {
+                // already in cache
+                activity.cacheHits++;
+            }
+        }
+    }
+
+    private ResolverActivity getActivity(DependencyResolver resolver) {
+        String name = resolver != null ? resolver.getName() : UNKNOWN_RESOLVER;
+        ResolverActivity activity = resolvers.get(name);
+        if (activity == null) {
+            activity = new ResolverActivity(name);
+            resolvers.put(name, activity);
+        }
+        return activity;
+    }
+
+    /**
+     * @return recorded activity per resolver, slowest resolvers first
+     */
+    public synchronized List<ResolverActivity> getResolverActivities() {
+        List<ResolverActivity> activities = new ArrayList<ResolverActivity>();
+        for (ResolverActivity activity : resolvers.values()) {
+            activities.add(activity.copy());
+        }
+        Collections.sort(activities, new Comparator<ResolverActivity>() {
+            public int compare(ResolverActivity o1, ResolverActivity o2) {
+                long diff = o2.getTotalTime() - o1.getTotalTime();
+                return diff != 0 ? (diff > 0 ? 1 : -1) : o1.getName().compareTo(o2.getName());
+            }
+        });
+        return activities;
+    }
+
+    /**
+     * @return modules whose metadata have been checked on a repository more than once, with their number of checks
+     */
+    public synchronized Map<String, Integer> getRepeatedMetadataChecks() {
+        Map<String, Integer> repeated = new HashMap<String, Integer>();
+        for (Map.Entry<String, Integer> entry : metadataChecks.entrySet()) {
+            if (entry.getValue() > 1) {
+                repeated.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return repeated;
+    }
+
+    /**
+     * Build a ranked summary of recorded activity
+     *
+     * @return summary lines
+     */
+    public List<String> getSummary() {
+        List<String> lines = new ArrayList<String>();
+        lines.add("---- Ivy Activity ----");
+        lines.add(String.format("  %-30s %8s %10s %8s %10s %12s %8s", "resolver", "requests", "time(ms)",
+                "checks", "downloads", "bytes", "hits"));
+        for (ResolverActivity activity : getResolverActivities()) {
+            lines.add(String.format("  %-30s %8d %10d %8d %10d %12d %8d", activity.getName(),
+                    activity.getResolves(), activity.getTotalTime(), activity.getMetadataChecks(),
+                    activity.getDownloads(), activity.getDownloadedBytes(), activity.getCacheHits()));
+        }
+        final Map<String, Integer> repeated = getRepeatedMetadataChecks();
+        if (!repeated.isEmpty()) {
+            List<String> modules = new ArrayList<String>(repeated.keySet());
+            Collections.sort(modules, new Comparator<String>() {
+                public int compare(String o1, String o2) {
+                    int diff = repeated.get(o2) - repeated.get(o1);
+                    return diff != 0 ? diff : o1.compareTo(o2);
+                }
+            });
+            lines.add("  modules checked several times on repositories :");
+            for (String module : modules) {
+                lines.add("    " + module + " (" + repeated.get(module) + " times)");
+            }
+        }
+        lines.add("----------------------");
+        return lines;
+    }
+
+    /**
+     * Write the summary of recorded activity to the file specified by {@link EasyAntMagicNames#IVY_ACTIVITY_FILE} if
+     * any, and log it. The summary is only logged in verbose mode when it is written to a file.
+     *
+     * @param project
+     *            the project being built
+     */
+    public void report(Project project) {
+        List<String> summary = getSummary();
+        String activityFile = project.getProperty(EasyAntMagicNames.IVY_ACTIVITY_FILE);
+        for (String line : summary) {
+            project.log(line, activityFile != null ? Project.MSG_VERBOSE : Project.MSG_INFO);
+        }
+        if (activityFile != null) {
+            File file = project.resolveFile(activityFile);
+            try {
+                PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+                try {
+                    for (String line : summary) {
+                        writer.println(line);
+                    }
+                } finally {
+                    writer.close();
+                }
+            } catch (IOException e) {
+                project.log("Can't write ivy activity summary to " + file.getAbsolutePath() + " : " + e.getMessage(),
+                        Project.MSG_WARN);
+            }
+        }
+    }
+
+    /**
+     * Activity of a resolver. Times are in milliseconds.
+     */
+    public static class ResolverActivity {
+
+        private final String name;
+
+        private int resolves;
+
+        private int notFound;
+
+        private int metadataChecks;
+
+        private long resolveTime;
+
+        private int artifacts;
+
+        private int downloads;
+
+        private int failedDownloads;
+
+        private int cacheHits;
+
+        private long downloadedBytes;
+
+        private long downloadTime;
+
+        public ResolverActivity(String name) {
+            this.name = name;
+        }
+
+        private ResolverActivity copy() {
+            ResolverActivity copy = new ResolverActivity(name);
+            copy.resolves = resolves;
+            copy.notFound = notFound;
+            copy.metadataChecks = metadataChecks;
+            copy.resolveTime = resolveTime;
+            copy.artifacts = artifacts;
+            copy.downloads = downloads;
+            copy.failedDownloads = failedDownloads;
+            copy.cacheHits = cacheHits;
+            copy.downloadedBytes = downloadedBytes;
+            copy.downloadTime = downloadTime;
+            return copy;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return number of dependency resolution requests
+         */
+        public int getResolves() {
+            return resolves;
+        }
+
+        /**
+         * @return number of dependency resolution requests that didn't find the module
+         */
+        public int getNotFound() {
+            return notFound;
+        }
+
+        /**
+         * @return number of resolution requests which checked module metadata on the repository instead of the cache
+         */
+        public int getMetadataChecks() {
+            return metadataChecks;
+        }
+
+        public long getResolveTime() {
+            return resolveTime;
+        }
+
+        public long getDownloadTime() {
+            return downloadTime;
+        }
+
+        public long getTotalTime() {
+            return resolveTime + downloadTime;
+        }
+
+        /**
+         * @return number of artifacts requested
+         */
+        public int getArtifacts() {
+            return artifacts;
+        }
+
+        public int getDownloads() {
+            return downloads;
+        }
+
+        public int getFailedDownloads() {
+            return failedDownloads;
+        }
+
+        public long getDownloadedBytes() {
+            return downloadedBytes;
+        }
+
+        /**
+         * @return number of requested artifacts found in cache
+         */
+        public int getCacheHits() {
+            return cacheHits;
+        }
+
+        /**
+         * @return number of requested artifacts not found in cache
+         */
+        public int getCacheMisses() {
+            return downloads + failedDownloads;
+        }
+    }
+}
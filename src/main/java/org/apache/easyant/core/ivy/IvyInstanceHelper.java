@@ -17,8 +17,16 @@
  */
 package org.apache.easyant.core.ivy;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.ivy.Ivy;
 import org.apache.ivy.ant.IvyAntSettings;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
+import org.apache.ivy.core.cache.RepositoryCacheManager;
+import org.apache.ivy.plugins.lock.NoLockStrategy;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.types.Reference;
 
@@ -121,4 +129,37 @@ public class IvyInstanceHelper {
         }
     }
 
+    /**
+     * Check that every repository cache of an ivy instance is protected against concurrent downloads by a lock
+     * strategy
+     * 
+     * @param ivy
+     *            an ivy instance
+     * @return true if resolves can run concurrently on this ivy instance
+     */
+    public static boolean isCacheLocked(Ivy ivy) {
+        List<RepositoryCacheManager> cacheManagers = new ArrayList<RepositoryCacheManager>();
+        cacheManagers.add(ivy.getSettings().getDefaultRepositoryCacheManager());
+        cacheManagers.addAll(Arrays.asList(ivy.getSettings().getRepositoryCacheManagers()));
+        for (RepositoryCacheManager cacheManager : cacheManagers) {
+            if (!(cacheManager instanceof DefaultRepositoryCacheManager)
+                    || ((DefaultRepositoryCacheManager) cacheManager).getLockStrategy() instanceof NoLockStrategy) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the monitor a resolve on an ivy instance must hold. Resolves are serialized on the ivy instance itself when
+     * its repository cache doesn't protect concurrent downloads of a same artifact (see {@link #isCacheLocked(Ivy)}),
+     * they run concurrently otherwise.
+     * 
+     * @param ivy
+     *            an ivy instance
+     * @return the ivy instance, or an unshared monitor if resolves can run concurrently
+     */
+    public static Object getResolveLock(Ivy ivy) {
+        return isCacheLocked(ivy) ? new Object() : ivy;
+    }
 }
@@ -0,0 +1,478 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ivy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.matcher.MatcherHelper;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.resolver.ChainResolver;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.apache.ivy.plugins.resolver.FileSystemResolver;
+
+/**
+ * A compact, searchable index of the modules available in a repository. Each entry holds the organisation, module,
+ * branch, revision and description of a module revision, so searching and describing modules doesn't require to parse
+ * each module descriptor.
+ * <p>
+ * An index is a snapshot of the repository at generation time. It records when it was generated and which resolvers
+ * were scanned, so consumers can detect that it doesn't cover all resolvers or that a repository changed since (see
+ * {@link #isComplete(IvySettings)} and {@link #getRepositoryLastModified(IvySettings)}) and fall back to live
+ * resolution.
+ * </p>
+ * The index is stored as an UTF-8 text file, one module revision per line, fields separated by tabulations. The header
+ * line holds the format version, the generation time and the scanned resolvers.
+ */
+public class RepositoryIndex {
+
+    private static final String HEADER = "#easyant-repository-index";
+
+    private static final String VERSION = "2";
+
+    private static final String LEGACY_VERSION = "1";
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final char SEPARATOR = '\t';
+
+    private final Map<String, Entry> entries = new TreeMap<String, Entry>();
+
+    private final Set<String> resolvers = new TreeSet<String>();
+
+    private long generationTime = System.currentTimeMillis();
+
+    /**
+     * Return the time this index was generated at, in milliseconds. Indexes written by former versions have an unknown
+     * generation time of 0
+     *
+     * @return the generation time
+     */
+    public long getGenerationTime() {
+        return generationTime;
+    }
+
+    /**
+     * Set the time this index was generated at. Default to the creation time of this index
+     *
+     * @param generationTime
+     *            a time in milliseconds
+     */
+    public void setGenerationTime(long generationTime) {
+        this.generationTime = generationTime;
+    }
+
+    /**
+     * Record a resolver scanned to generate this index. Resolvers of a chain are recorded too
+     *
+     * @param resolver
+     *            a scanned resolver
+     */
+    public void addResolver(DependencyResolver resolver) {
+        resolvers.add(resolver.getName());
+        if (resolver instanceof ChainResolver) {
+            for (Object subResolver : ((ChainResolver) resolver).getResolvers()) {
+                addResolver((DependencyResolver) subResolver);
+            }
+        }
+    }
+
+    /**
+     * Return the names of the resolvers scanned to generate this index
+     *
+     * @return a set of resolver names
+     */
+    public Set<String> getResolvers() {
+        return resolvers;
+    }
+
+    /**
+     * Check if this index has been generated from all resolvers of the given settings
+     *
+     * @param settings
+     *            ivy settings
+     * @return true if all resolvers have been scanned
+     */
+    public boolean isComplete(IvySettings settings) {
+        return resolvers.containsAll(settings.getResolverNames());
+    }
+
+    /**
+     * Return the last modification time of the repositories this index has been generated from. It can only be
+     * computed for file system repositories
+     *
+     * @param settings
+     *            ivy settings holding scanned resolvers
+     * @return the last modification time in milliseconds, 0 if no repository has been scanned, or -1 if it can't be
+     *         computed
+     */
+    public long getRepositoryLastModified(IvySettings settings) {
+        long lastModified = 0;
+        for (String resolverName : resolvers) {
+            DependencyResolver resolver = settings.getResolver(resolverName);
+            if (resolver instanceof ChainResolver) {
+                // sub resolvers are recorded too
+                continue;
+            }
+            if (!(resolver instanceof FileSystemResolver)) {
+                return -1;
+            }
+            FileSystemResolver fsResolver = (FileSystemResolver) resolver;
+            lastModified = Math.max(lastModified, getLastModified(fsResolver.getIvyPatterns()));
+            lastModified = Math.max(lastModified, getLastModified(fsResolver.getArtifactPatterns()));
+        }
+        return lastModified;
+    }
+
+    /**
+     * Check if a repository this index has been generated from has been modified since generation time
+     *
+     * @param settings
+     *            ivy settings holding scanned resolvers
+     * @return true if the index is known to be outdated
+     */
+    public boolean isOutdated(IvySettings settings) {
+        return getRepositoryLastModified(settings) > generationTime;
+    }
+
+    private static long getLastModified(Collection<?> patterns) {
+        long lastModified = 0;
+        for (Object pattern : patterns) {
+            String root = IvyPatternHelper.getTokenRoot((String) pattern);
+            int lastSlash = Math.max(root.lastIndexOf('/'), root.lastIndexOf('\\'));
+            File rootDir = new File(lastSlash == -1 ? "." : root.substring(0, lastSlash + 1));
+            lastModified = Math.max(lastModified, getLastModified(rootDir));
+        }
+        return lastModified;
+    }
+
+    private static long getLastModified(File file) {
+        long lastModified = file.lastModified();
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                lastModified = Math.max(lastModified, getLastModified(child));
+            }
+        }
+        return lastModified;
+    }
+
+    /**
+     * Add a module revision to the index, replacing any existing entry for the same module revision
+     *
+     * @param mrid
+     *            the module revision id to index
+     * @param description
+     *            the module description, can be null
+     */
+    public void addModule(ModuleRevisionId mrid, String description) {
+        entries.put(toKey(mrid), new Entry(mrid, description));
+    }
+
+    /**
+     * Check if a module revision is indexed
+     *
+     * @param mrid
+     *            a module revision id
+     * @return true if the module revision is part of this index
+     */
+    public boolean contains(ModuleRevisionId mrid) {
+        return entries.containsKey(toKey(mrid));
+    }
+
+    /**
+     * Return the description of an indexed module revision
+     *
+     * @param mrid
+     *            a module revision id
+     * @return the indexed description, or null if the module revision is not indexed or has no description
+     */
+    public String getDescription(ModuleRevisionId mrid) {
+        Entry entry = entries.get(toKey(mrid));
+        return entry == null ? null : entry.description;
+    }
+
+    /**
+     * Return the number of indexed module revisions
+     *
+     * @return the number of indexed module revisions
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Return all indexed module revisions matching the given criteria. Null criteria values (and null branch) are
+     * unconstrained.
+     *
+     * @param criteria
+     *            a module revision id holding the expressions to match
+     * @param matcher
+     *            the pattern matcher used to evaluate expressions
+     * @return an array of matching module revision ids, sorted by organisation, module and revision
+     */
+    public ModuleRevisionId[] search(ModuleRevisionId criteria, PatternMatcher matcher) {
+        List<ModuleRevisionId> result = new ArrayList<ModuleRevisionId>();
+        for (Entry entry : entries.values()) {
+            ModuleRevisionId mrid = entry.mrid;
+            if (matches(matcher, criteria.getOrganisation(), mrid.getOrganisation())
+                    && matches(matcher, criteria.getName(), mrid.getName())
+                    && matches(matcher, criteria.getBranch(), mrid.getBranch())
+                    && matches(matcher, criteria.getRevision(), mrid.getRevision())) {
+                result.add(mrid);
+            }
+        }
+        return result.toArray(new ModuleRevisionId[result.size()]);
+    }
+
+    private boolean matches(PatternMatcher matcher, String expression, String value) {
+        if (expression == null || PatternMatcher.ANY_EXPRESSION.equals(expression)) {
+            return true;
+        }
+        return value != null && MatcherHelper.matches(matcher, expression, value);
+    }
+
+    /**
+     * Store this index in the given file
+     *
+     * @param file
+     *            destination file
+     * @throws IOException
+     *             if the index can't be written
+     */
+    public void store(File file) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        Writer writer = null;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+            writer.write(HEADER);
+            writer.write(SEPARATOR);
+            writer.write(VERSION);
+            writer.write(SEPARATOR);
+            writer.write(String.valueOf(generationTime));
+            for (String resolver : resolvers) {
+                writer.write(SEPARATOR);
+                writeField(writer, resolver);
+            }
+            writer.write('\n');
+            for (Entry entry : entries.values()) {
+                writeField(writer, entry.mrid.getOrganisation());
+                writer.write(SEPARATOR);
+                writeField(writer, entry.mrid.getName());
+                writer.write(SEPARATOR);
+                writeField(writer, entry.mrid.getBranch());
+                writer.write(SEPARATOR);
+                writeField(writer, entry.mrid.getRevision());
+                writer.write(SEPARATOR);
+                writeField(writer, entry.description);
+                writer.write('\n');
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Load an index from a file
+     *
+     * @param file
+     *            the index file
+     * @return the loaded index
+     * @throws IOException
+     *             if the index can't be read or is not a valid index
+     */
+    public static RepositoryIndex load(File file) throws IOException {
+        return load(file.toURI().toURL());
+    }
+
+    /**
+     * Load an index from an url
+     *
+     * @param url
+     *            the index url
+     * @return the loaded index
+     * @throws IOException
+     *             if the index can't be read or is not a valid index
+     */
+    public static RepositoryIndex load(URL url) throws IOException {
+        RepositoryIndex index = new RepositoryIndex();
+        InputStream is = null;
+        try {
+            is = url.openStream();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(is, ENCODING));
+            readHeader(index, url, reader.readLine());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() == 0) {
+                    continue;
+                }
+                String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+                if (fields.length != 5) {
+                    throw new IOException("Malformed entry in repository index " + url + " : " + line);
+                }
+                ModuleRevisionId mrid = ModuleRevisionId.newInstance(readField(fields[0]), readField(fields[1]),
+                        readField(fields[2]), readField(fields[3]));
+                index.addModule(mrid, readField(fields[4]));
+            }
+        } finally {
+            if (is != null) {
+                is.close();
+            }
+        }
+        return index;
+    }
+
+    private static void readHeader(RepositoryIndex index, URL url, String header) throws IOException {
+        String[] fields = header == null ? new String[0] : header.split(String.valueOf(SEPARATOR), -1);
+        if (fields.length == 2 && HEADER.equals(fields[0]) && LEGACY_VERSION.equals(fields[1])) {
+            // no generation time nor resolvers recorded
+            index.setGenerationTime(0);
+            return;
+        }
+        if (fields.length < 3 || !HEADER.equals(fields[0]) || !VERSION.equals(fields[1])) {
+            throw new IOException(url + " is not a valid repository index");
+        }
+        try {
+            index.setGenerationTime(Long.parseLong(fields[2]));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed header in repository index " + url + " : " + header);
+        }
+        for (int i = 3; i < fields.length; i++) {
+            index.resolvers.add(readField(fields[i]));
+        }
+    }
+
+    /**
+     * Load an index from a location which can either be a file path or an url
+     *
+     * @param location
+     *            a file path or an url
+     * @return the loaded index
+     * @throws IOException
+     *             if the index can't be read or is not a valid index
+     */
+    public static RepositoryIndex load(String location) throws IOException {
+        File file = new File(location);
+        if (file.exists()) {
+            return load(file);
+        }
+        return load(new URL(location));
+    }
+
+    private static String toKey(ModuleRevisionId mrid) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mrid.getOrganisation()).append(SEPARATOR);
+        sb.append(mrid.getName()).append(SEPARATOR);
+        sb.append(mrid.getBranch()).append(SEPARATOR);
+        sb.append(mrid.getRevision());
+        return sb.toString();
+    }
+
+    /**
+     * Write a field escaping separator, line breaks and backslashes. Null values are written as an empty field
+     */
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '\\':
+                writer.write("\\\\");
+                break;
+            case '\t':
+                writer.write("\\t");
+                break;
+            case '\n':
+                writer.write("\\n");
+                break;
+            case '\r':
+                writer.write("\\r");
+                break;
+            default:
+                writer.write(c);
+            }
+        }
+    }
+
+    private static String readField(String field) {
+        if (field.length() == 0) {
+            return null;
+        }
+        if (field.indexOf('\\') == -1) {
+            return field;
+        }
+        StringBuilder sb = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                char next = field.charAt(++i);
+                switch (next) {
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                default:
+                    sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class Entry {
+        private final ModuleRevisionId mrid;
+
+        private final String description;
+
+        public Entry(ModuleRevisionId mrid, String description) {
+            this.mrid = mrid;
+            this.description = description;
+        }
+    }
+}
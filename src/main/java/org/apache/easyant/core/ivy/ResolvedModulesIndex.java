@@ -0,0 +1,280 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ivy;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.id.ModuleId;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.ConfigurationResolveReport;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.IvyNode;
+
+/**
+ * Compact and immutable view of a {@link ResolveReport}, keeping only what imports need : resolved modules and their
+ * downloaded artifacts (artifact and local file) per configuration. Unlike the resolve report, it doesn't retain
+ * the dependency graph, module descriptors nor download reports, so it can be kept as a project reference for the
+ * whole build.
+ */
+public final class ResolvedModulesIndex {
+
+    private final List<ModuleRevisionId> dependencies;
+
+    private final List<ModuleRevisionId> unresolvedDependencies;
+
+    private final Map<ModuleId, ModuleRevisionId> resolvedRevisions;
+
+    private final Map<String, ConfigurationIndex> configurations;
+
+    private ResolvedModulesIndex(List<ModuleRevisionId> dependencies, List<ModuleRevisionId> unresolvedDependencies,
+            Map<ModuleId, ModuleRevisionId> resolvedRevisions, Map<String, ConfigurationIndex> configurations) {
+        this.dependencies = Collections.unmodifiableList(dependencies);
+        this.unresolvedDependencies = Collections.unmodifiableList(unresolvedDependencies);
+        this.resolvedRevisions = Collections.unmodifiableMap(resolvedRevisions);
+        this.configurations = Collections.unmodifiableMap(configurations);
+    }
+
+    /**
+     * Build the index of a resolve report
+     *
+     * @param report
+     *            a resolve report
+     * @return index of the report
+     */
+    public static ResolvedModulesIndex of(ResolveReport report) {
+        List<ModuleRevisionId> dependencies = new ArrayList<ModuleRevisionId>();
+        Map<ModuleId, ModuleRevisionId> resolvedRevisions = new LinkedHashMap<ModuleId, ModuleRevisionId>();
+        for (Object o : report.getDependencies()) {
+            IvyNode node = (IvyNode) o;
+            ModuleRevisionId resolvedId = node.getResolvedId();
+            dependencies.add(resolvedId);
+            // evicted revisions never hide the one actually resolved
+            if (!node.isCompletelyEvicted() || !resolvedRevisions.containsKey(resolvedId.getModuleId())) {
+                resolvedRevisions.put(resolvedId.getModuleId(), resolvedId);
+            }
+        }
+        List<ModuleRevisionId> unresolvedDependencies = new ArrayList<ModuleRevisionId>();
+        for (IvyNode unresolved : report.getUnresolvedDependencies()) {
+            unresolvedDependencies.add(unresolved.getId());
+        }
+
+        // artifacts are shared by configurations
+        Map<ArtifactDownloadReport, ResolvedArtifact> artifacts = //
+        new IdentityHashMap<ArtifactDownloadReport, ResolvedArtifact>();
+        Map<String, ConfigurationIndex> configurations = new LinkedHashMap<String, ConfigurationIndex>();
+        for (String conf : report.getConfigurations()) {
+            ConfigurationResolveReport confReport = report.getConfigurationReport(conf);
+            if (confReport == null) {
+                continue;
+            }
+            Map<ModuleRevisionId, List<ResolvedArtifact>> moduleArtifacts = //
+            new LinkedHashMap<ModuleRevisionId, List<ResolvedArtifact>>();
+            for (Object o : confReport.getModuleRevisionIds()) {
+                ModuleRevisionId mrid = (ModuleRevisionId) o;
+                moduleArtifacts.put(mrid, index(confReport.getDownloadReports(mrid), artifacts));
+            }
+            configurations.put(conf,
+                    new ConfigurationIndex(moduleArtifacts, index(confReport.getAllArtifactsReports(), artifacts)));
+        }
+        return new ResolvedModulesIndex(dependencies, unresolvedDependencies, resolvedRevisions, configurations);
+    }
+
+    private static List<ResolvedArtifact> index(ArtifactDownloadReport[] reports,
+            Map<ArtifactDownloadReport, ResolvedArtifact> artifacts) {
+        List<ResolvedArtifact> result = new ArrayList<ResolvedArtifact>(reports.length);
+        for (ArtifactDownloadReport report : reports) {
+            ResolvedArtifact artifact = artifacts.get(report);
+            if (artifact == null) {
+                artifact = new ResolvedArtifact(report.getArtifact(), report.getLocalFile());
+                artifacts.put(report, artifact);
+            }
+            result.add(artifact);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return resolved ids of all dependencies, evicted and unresolved ones included
+     */
+    public List<ModuleRevisionId> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * @return ids of dependencies which couldn't be resolved
+     */
+    public List<ModuleRevisionId> getUnresolvedDependencies() {
+        return unresolvedDependencies;
+    }
+
+    /**
+     * @return module ids of all dependencies
+     */
+    public Set<ModuleId> getModuleIds() {
+        return resolvedRevisions.keySet();
+    }
+
+    /**
+     * Get the resolved revision of a module
+     *
+     * @param moduleId
+     *            a module id
+     * @return the resolved id of the module, preferably one not evicted, or null if it is not a dependency
+     */
+    public ModuleRevisionId getResolvedRevision(ModuleId moduleId) {
+        return resolvedRevisions.get(moduleId);
+    }
+
+    public Set<String> getConfigurations() {
+        return configurations.keySet();
+    }
+
+    public boolean hasConfiguration(String conf) {
+        return configurations.containsKey(conf);
+    }
+
+    /**
+     * Get the modules resolved in a configuration
+     *
+     * @param conf
+     *            a configuration
+     * @return resolved module ids, empty if the configuration is unknown
+     */
+    public List<ModuleRevisionId> getModuleRevisionIds(String conf) {
+        ConfigurationIndex confIndex = configurations.get(conf);
+        return confIndex != null ? confIndex.getModuleRevisionIds() : Collections.<ModuleRevisionId> emptyList();
+    }
+
+    /**
+     * Get the artifacts of a module in a configuration
+     *
+     * @param conf
+     *            a configuration
+     * @param mrid
+     *            a resolved module id
+     * @return artifacts of the module, empty if the module is not resolved in the configuration
+     */
+    public List<ResolvedArtifact> getArtifacts(String conf, ModuleRevisionId mrid) {
+        ConfigurationIndex confIndex = configurations.get(conf);
+        List<ResolvedArtifact> artifacts = confIndex != null ? confIndex.moduleArtifacts.get(mrid) : null;
+        return artifacts != null ? artifacts : Collections.<ResolvedArtifact> emptyList();
+    }
+
+    /**
+     * Get the artifacts of a module in all configurations
+     *
+     * @param mrid
+     *            a resolved module id
+     * @return distinct artifacts of the module, empty if the module is not resolved
+     */
+    public List<ResolvedArtifact> getArtifacts(ModuleRevisionId mrid) {
+        Set<ResolvedArtifact> artifacts = new LinkedHashSet<ResolvedArtifact>();
+        for (ConfigurationIndex confIndex : configurations.values()) {
+            List<ResolvedArtifact> moduleArtifacts = confIndex.moduleArtifacts.get(mrid);
+            if (moduleArtifacts != null) {
+                artifacts.addAll(moduleArtifacts);
+            }
+        }
+        return new ArrayList<ResolvedArtifact>(artifacts);
+    }
+
+    /**
+     * Get the artifacts of all modules resolved in a configuration
+     *
+     * @param conf
+     *            a configuration
+     * @return artifacts of the configuration, empty if the configuration is unknown
+     */
+    public List<ResolvedArtifact> getAllArtifacts(String conf) {
+        ConfigurationIndex confIndex = configurations.get(conf);
+        return confIndex != null ? confIndex.allArtifacts : Collections.<ResolvedArtifact> emptyList();
+    }
+
+    private static final class ConfigurationIndex {
+
+        private final Map<ModuleRevisionId, List<ResolvedArtifact>> moduleArtifacts;
+
+        private final List<ResolvedArtifact> allArtifacts;
+
+        private final List<ModuleRevisionId> moduleRevisionIds;
+
+        private ConfigurationIndex(Map<ModuleRevisionId, List<ResolvedArtifact>> moduleArtifacts,
+                List<ResolvedArtifact> allArtifacts) {
+            this.moduleArtifacts = moduleArtifacts;
+            this.allArtifacts = allArtifacts;
+            this.moduleRevisionIds = Collections.unmodifiableList(new ArrayList<ModuleRevisionId>(moduleArtifacts
+                    .keySet()));
+        }
+
+        private List<ModuleRevisionId> getModuleRevisionIds() {
+            return moduleRevisionIds;
+        }
+    }
+
+    /**
+     * A downloaded artifact
+     */
+    public static final class ResolvedArtifact {
+
+        private final Artifact artifact;
+
+        private final File localFile;
+
+        public ResolvedArtifact(Artifact artifact, File localFile) {
+            this.artifact = artifact;
+            this.localFile = localFile;
+        }
+
+        public Artifact getArtifact() {
+            return artifact;
+        }
+
+        public ModuleRevisionId getModuleRevisionId() {
+            return artifact.getModuleRevisionId();
+        }
+
+        public String getName() {
+            return artifact.getName();
+        }
+
+        public String getType() {
+            return artifact.getType();
+        }
+
+        public String getExt() {
+            return artifact.getExt();
+        }
+
+        /**
+         * @return the artifact file in cache, null if it hasn't been downloaded
+         */
+        public File getLocalFile() {
+            return localFile;
+        }
+    }
+}
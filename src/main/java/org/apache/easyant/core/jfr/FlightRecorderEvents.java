@@ -0,0 +1,314 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.jfr;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Custom JDK Flight Recorder events of easyant phases. Each event records the duration of the phase and the name of
+ * the module being built, most of them the plugin involved too.
+ * <p>
+ * Easyant core is compiled for old java versions, events are thus defined at runtime through the
+ * <code>jdk.jfr.EventFactory</code> API, using reflection. When this API is not available, or when no recording is
+ * running, {@link EventType#begin()} returns a shared inactive event : instrumentation then costs a method call and
+ * a reflective check of the event type state.
+ * </p>
+ * Usage :
+ * 
+ * <pre>
+ * FlightRecorderEvents.Event event = FlightRecorderEvents.PLUGIN_RESOLVE.begin();
+ * // resolve the plugin
+ * event.commit(project.getName(), moduleRevisionId);
+ * </pre>
+ */
+public final class FlightRecorderEvents {
+
+    private static final String CATEGORY = "EasyAnt";
+
+    private static final String NAME_PREFIX = "org.apache.easyant.";
+
+    private static final Event INACTIVE_EVENT = new Event(null, null);
+
+    private static final Jfr JFR = Jfr.load();
+
+    public static final EventType ENGINE_CONFIGURATION = new EventType("EngineConfiguration", "Engine Configuration",
+            "module");
+
+    public static final EventType IVY_SETTINGS_LOADING = new EventType("IvySettingsLoading",
+            "Ivy Settings Loading", "module", "settings");
+
+    public static final EventType PLUGINS_RESOLVE = new EventType("PluginsResolve", "Plugins Resolve", "module",
+            "plugin");
+
+    public static final EventType PLUGIN_RESOLVE = new EventType("PluginResolve", "Plugin Resolve", "module",
+            "plugin");
+
+    public static final EventType PLUGIN_IMPORT = new EventType("PluginImport", "Plugin Import", "module", "plugin");
+
+    public static final EventType SUB_BUILD = new EventType("SubBuild", "Sub Build", "module", "file");
+
+    public static final EventType TARGET = new EventType("Target", "Target", "module", "target");
+
+    public static final EventType BUILD_SCOPED_PUBLISH = new EventType("BuildScopedPublish",
+            "Build Scoped Publish", "module", "plugin");
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Check if flight recorder events can be emitted by the running jvm
+     * 
+     * @return true if <code>jdk.jfr.EventFactory</code> is available
+     */
+    public static boolean isAvailable() {
+        return JFR != null;
+    }
+
+    /**
+     * Type of an easyant event
+     */
+    public static final class EventType {
+
+        private final String name;
+
+        private final String[] fields;
+
+        private volatile Object factory;
+
+        private volatile Object jfrEventType;
+
+        private EventType(String name, String label, String... fields) {
+            this.name = NAME_PREFIX + name;
+            this.fields = fields;
+            if (JFR != null) {
+                try {
+                    factory = JFR.createFactory(this.name, label, fields);
+                    jfrEventType = JFR.getEventType.invoke(factory);
+                } catch (Exception e) {
+                    factory = null;
+                }
+            }
+        }
+
+        /**
+         * Get the flight recorder name of this event type
+         * 
+         * @return event name, as it appears in recordings
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the names of fields of this event type, in the order values are given to {@link Event#commit(Object)}
+         * 
+         * @return field names
+         */
+        public List<String> getFields() {
+            return Collections.unmodifiableList(Arrays.asList(fields));
+        }
+
+        /**
+         * Check if a running recording has enabled this event type
+         * 
+         * @return true if events of this type are recorded
+         */
+        public boolean isEnabled() {
+            Object type = jfrEventType;
+            if (type == null) {
+                return false;
+            }
+            try {
+                return (Boolean) JFR.isEnabled.invoke(type);
+            } catch (Exception e) {
+                disable();
+                return false;
+            }
+        }
+
+        /**
+         * Start timing an event
+         * 
+         * @return the started event, or an inactive event if this event type is not recorded
+         */
+        public Event begin() {
+            if (!isEnabled()) {
+                return INACTIVE_EVENT;
+            }
+            try {
+                Object event = JFR.newEvent.invoke(factory);
+                JFR.begin.invoke(event);
+                return new Event(this, event);
+            } catch (Exception e) {
+                disable();
+                return INACTIVE_EVENT;
+            }
+        }
+
+        private void disable() {
+            factory = null;
+            jfrEventType = null;
+        }
+    }
+
+    /**
+     * A started event
+     */
+    public static final class Event {
+
+        private final EventType type;
+
+        private final Object jfrEvent;
+
+        private Event(EventType type, Object jfrEvent) {
+            this.type = type;
+            this.jfrEvent = jfrEvent;
+        }
+
+        /**
+         * Check if this event will be recorded
+         * 
+         * @return false if the event type was not recorded when the event began
+         */
+        public boolean isActive() {
+            return jfrEvent != null;
+        }
+
+        /**
+         * End and record the event
+         * 
+         * @param value
+         *            value of the first field
+         */
+        public void commit(Object value) {
+            commit(value, null);
+        }
+
+        /**
+         * End and record the event. Values are converted to strings only if the event is recorded.
+         * 
+         * @param value
+         *            value of the first field
+         * @param otherValue
+         *            value of the second field, ignored if the event type has a single field
+         */
+        public void commit(Object value, Object otherValue) {
+            if (jfrEvent == null) {
+                return;
+            }
+            try {
+                JFR.end.invoke(jfrEvent);
+                if ((Boolean) JFR.shouldCommit.invoke(jfrEvent)) {
+                    if (value != null) {
+                        JFR.set.invoke(jfrEvent, 0, value.toString());
+                    }
+                    if (otherValue != null && type.fields.length > 1) {
+                        JFR.set.invoke(jfrEvent, 1, otherValue.toString());
+                    }
+                    JFR.commit.invoke(jfrEvent);
+                }
+            } catch (Exception e) {
+                type.disable();
+            }
+        }
+    }
+
+    /**
+     * Reflective access to the flight recorder API
+     */
+    private static final class Jfr {
+
+        private Constructor<?> annotationElement;
+
+        private Constructor<?> valueDescriptor;
+
+        private Class<?> nameAnnotation;
+
+        private Class<?> labelAnnotation;
+
+        private Class<?> categoryAnnotation;
+
+        private Method createFactory;
+
+        private Method getEventType;
+
+        private Method isEnabled;
+
+        private Method newEvent;
+
+        private Method begin;
+
+        private Method end;
+
+        private Method shouldCommit;
+
+        private Method set;
+
+        private Method commit;
+
+        static Jfr load() {
+            try {
+                Jfr jfr = new Jfr();
+                Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+                jfr.annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+                jfr.valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class,
+                        String.class, List.class);
+                jfr.nameAnnotation = Class.forName("jdk.jfr.Name");
+                jfr.labelAnnotation = Class.forName("jdk.jfr.Label");
+                jfr.categoryAnnotation = Class.forName("jdk.jfr.Category");
+                Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+                jfr.createFactory = eventFactoryClass.getMethod("create", List.class, List.class);
+                jfr.getEventType = eventFactoryClass.getMethod("getEventType");
+                jfr.newEvent = eventFactoryClass.getMethod("newEvent");
+                jfr.isEnabled = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+                Class<?> eventClass = Class.forName("jdk.jfr.Event");
+                jfr.begin = eventClass.getMethod("begin");
+                jfr.end = eventClass.getMethod("end");
+                jfr.shouldCommit = eventClass.getMethod("shouldCommit");
+                jfr.set = eventClass.getMethod("set", int.class, Object.class);
+                jfr.commit = eventClass.getMethod("commit");
+                return jfr;
+            } catch (Exception e) {
+                // flight recorder is not available in this jvm
+                return null;
+            } catch (LinkageError e) {
+                return null;
+            }
+        }
+
+        Object createFactory(String name, String label, String[] fields) throws Exception {
+            List<Object> annotations = new ArrayList<Object>();
+            annotations.add(annotationElement.newInstance(nameAnnotation, name));
+            annotations.add(annotationElement.newInstance(labelAnnotation, label));
+            annotations.add(annotationElement.newInstance(categoryAnnotation, new String[] { CATEGORY }));
+            List<Object> valueDescriptors = new ArrayList<Object>();
+            for (String field : fields) {
+                List<Object> fieldAnnotations = new ArrayList<Object>();
+                fieldAnnotations.add(annotationElement.newInstance(labelAnnotation,
+                        Character.toUpperCase(field.charAt(0)) + field.substring(1)));
+                valueDescriptors.add(valueDescriptor.newInstance(String.class, field, fieldAnnotations));
+            }
+            return createFactory.invoke(null, annotations, valueDescriptors);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.jfr;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Target;
+
+/**
+ * Record a {@link FlightRecorderEvents#TARGET} event for each executed target
+ */
+public class FlightRecorderListener implements BuildListener {
+
+    private final Map<Target, FlightRecorderEvents.Event> targetEvents = new IdentityHashMap<Target, FlightRecorderEvents.Event>();
+
+    public void targetStarted(BuildEvent event) {
+        FlightRecorderEvents.Event targetEvent = FlightRecorderEvents.TARGET.begin();
+        if (targetEvent.isActive()) {
+            synchronized (targetEvents) {
+                targetEvents.put(event.getTarget(), targetEvent);
+            }
+        }
+    }
+
+    public void targetFinished(BuildEvent event) {
+        FlightRecorderEvents.Event targetEvent;
+        synchronized (targetEvents) {
+            if (targetEvents.isEmpty()) {
+                return;
+            }
+            targetEvent = targetEvents.remove(event.getTarget());
+        }
+        if (targetEvent != null) {
+            targetEvent.commit(event.getProject().getName(), event.getTarget().getName());
+        }
+    }
+
+    public void buildStarted(BuildEvent event) {
+    }
+
+    public void buildFinished(BuildEvent event) {
+    }
+
+    public void taskStarted(BuildEvent event) {
+    }
+
+    public void taskFinished(BuildEvent event) {
+    }
+
+    public void messageLogged(BuildEvent event) {
+    }
+}
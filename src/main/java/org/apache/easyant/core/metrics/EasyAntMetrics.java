@@ -0,0 +1,226 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.ivy.util.Message;
+
+/**
+ * Operational metrics of the easyant processes running in this jvm, intended for long running processes (embedded
+ * builds, IDE integrations). Metrics are updated by the engine, core tasks and cache managers with lock free counters,
+ * and exposed as an MBean named {@value #OBJECT_NAME} once {@link #register()} has been called.
+ */
+public final class EasyAntMetrics implements EasyAntMetricsMBean {
+
+    public static final String OBJECT_NAME = "org.apache.easyant:type=Metrics";
+
+    private static final EasyAntMetrics INSTANCE = new EasyAntMetrics();
+
+    private final AtomicInteger buildsInProgress = new AtomicInteger();
+
+    private final AtomicLong buildsStarted = new AtomicLong();
+
+    private final AtomicLong buildsFailed = new AtomicLong();
+
+    private final AtomicInteger activeSubModules = new AtomicInteger();
+
+    private final AtomicLong subModulesBuilt = new AtomicLong();
+
+    private final Histogram resolveLatency = new Histogram();
+
+    private final Histogram targetDuration = new Histogram();
+
+    private final AtomicLong repositoryCacheHits = new AtomicLong();
+
+    private final AtomicLong repositoryCacheMisses = new AtomicLong();
+
+    private final AtomicLong resolutionCacheHits = new AtomicLong();
+
+    private final AtomicLong resolutionCacheMisses = new AtomicLong();
+
+    private boolean registered;
+
+    private EasyAntMetrics() {
+    }
+
+    public static EasyAntMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register metrics in the platform MBean server, if not already done
+     */
+    public synchronized void register() {
+        if (registered) {
+            return;
+        }
+        registered = true;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            Message.verbose("can't register easyant metrics : " + e.getMessage());
+        } catch (SecurityException e) {
+            Message.verbose("can't register easyant metrics : " + e.getMessage());
+        }
+    }
+
+    public void buildStarted() {
+        buildsStarted.incrementAndGet();
+        buildsInProgress.incrementAndGet();
+    }
+
+    public void buildFinished(boolean failed) {
+        buildsInProgress.decrementAndGet();
+        if (failed) {
+            buildsFailed.incrementAndGet();
+        }
+    }
+
+    public void subModuleStarted() {
+        activeSubModules.incrementAndGet();
+    }
+
+    public void subModuleFinished() {
+        activeSubModules.decrementAndGet();
+        subModulesBuilt.incrementAndGet();
+    }
+
+    public void resolveFinished(long durationNanos) {
+        resolveLatency.record(durationNanos);
+    }
+
+    public void targetFinished(long durationNanos) {
+        targetDuration.record(durationNanos);
+    }
+
+    public void repositoryCacheHit() {
+        repositoryCacheHits.incrementAndGet();
+    }
+
+    public void repositoryCacheMiss() {
+        repositoryCacheMisses.incrementAndGet();
+    }
+
+    public void resolutionCacheHit() {
+        resolutionCacheHits.incrementAndGet();
+    }
+
+    public void resolutionCacheMiss() {
+        resolutionCacheMisses.incrementAndGet();
+    }
+
+    public int getBuildsInProgress() {
+        return buildsInProgress.get();
+    }
+
+    public long getBuildsStarted() {
+        return buildsStarted.get();
+    }
+
+    public long getBuildsFailed() {
+        return buildsFailed.get();
+    }
+
+    public int getActiveSubModules() {
+        return activeSubModules.get();
+    }
+
+    public long getSubModulesBuilt() {
+        return subModulesBuilt.get();
+    }
+
+    public long getResolveCount() {
+        return resolveLatency.getCount();
+    }
+
+    public double getResolveLatencyMean() {
+        return resolveLatency.getMeanMillis();
+    }
+
+    public long[] getResolveLatencyBuckets() {
+        return resolveLatency.getCounts();
+    }
+
+    public long getTargetCount() {
+        return targetDuration.getCount();
+    }
+
+    public double getTargetDurationMean() {
+        return targetDuration.getMeanMillis();
+    }
+
+    public long[] getTargetDurationBuckets() {
+        return targetDuration.getCounts();
+    }
+
+    public long[] getHistogramBounds() {
+        return targetDuration.getBounds();
+    }
+
+    public long getRepositoryCacheHits() {
+        return repositoryCacheHits.get();
+    }
+
+    public long getRepositoryCacheMisses() {
+        return repositoryCacheMisses.get();
+    }
+
+    public double getRepositoryCacheHitRatio() {
+        return ratio(repositoryCacheHits.get(), repositoryCacheMisses.get());
+    }
+
+    public long getResolutionCacheHits() {
+        return resolutionCacheHits.get();
+    }
+
+    public long getResolutionCacheMisses() {
+        return resolutionCacheMisses.get();
+    }
+
+    public double getResolutionCacheHitRatio() {
+        return ratio(resolutionCacheHits.get(), resolutionCacheMisses.get());
+    }
+
+    public void reset() {
+        buildsStarted.set(0);
+        buildsFailed.set(0);
+        subModulesBuilt.set(0);
+        resolveLatency.reset();
+        targetDuration.reset();
+        repositoryCacheHits.set(0);
+        repositoryCacheMisses.set(0);
+        resolutionCacheHits.set(0);
+        resolutionCacheMisses.set(0);
+    }
+
+    private double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
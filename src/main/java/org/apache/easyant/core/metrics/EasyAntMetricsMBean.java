@@ -0,0 +1,68 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.metrics;
+
+/**
+ * Management interface of {@link EasyAntMetrics}. Durations are in milliseconds.
+ */
+public interface EasyAntMetricsMBean {
+
+    int getBuildsInProgress();
+
+    long getBuildsStarted();
+
+    long getBuildsFailed();
+
+    int getActiveSubModules();
+
+    long getSubModulesBuilt();
+
+    long getResolveCount();
+
+    double getResolveLatencyMean();
+
+    long[] getResolveLatencyBuckets();
+
+    long getTargetCount();
+
+    double getTargetDurationMean();
+
+    long[] getTargetDurationBuckets();
+
+    /**
+     * @return upper bounds of histogram buckets, the last bucket counting durations above all bounds
+     */
+    long[] getHistogramBounds();
+
+    long getRepositoryCacheHits();
+
+    long getRepositoryCacheMisses();
+
+    double getRepositoryCacheHitRatio();
+
+    long getResolutionCacheHits();
+
+    long getResolutionCacheMisses();
+
+    double getResolutionCacheHitRatio();
+
+    /**
+     * Reset all counters except builds and submodules in progress
+     */
+    void reset();
+}
@@ -0,0 +1,60 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Target;
+
+/**
+ * Record target durations in {@link EasyAntMetrics}
+ */
+public class MetricsListener implements BuildListener {
+
+    // targets don't override equals, they are compared by identity
+    private final ConcurrentMap<Target, Long> targetStartTimes = new ConcurrentHashMap<Target, Long>();
+
+    public void targetStarted(BuildEvent event) {
+        targetStartTimes.put(event.getTarget(), System.nanoTime());
+    }
+
+    public void targetFinished(BuildEvent event) {
+        Long start = targetStartTimes.remove(event.getTarget());
+        if (start != null) {
+            EasyAntMetrics.getInstance().targetFinished(System.nanoTime() - start);
+        }
+    }
+
+    public void buildStarted(BuildEvent event) {
+    }
+
+    public void buildFinished(BuildEvent event) {
+    }
+
+    public void taskStarted(BuildEvent event) {
+    }
+
+    public void taskFinished(BuildEvent event) {
+    }
+
+    public void messageLogged(BuildEvent event) {
+    }
+}
@@ -24,9 +24,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.apache.easyant.core.descriptor.PropertyDescriptor;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ResolveReport;
 
 /**
@@ -47,7 +50,17 @@ public class EasyAntReport {
     private Set<ImportedModuleReport> importedModuleReportsFromCurrentModule = new HashSet<ImportedModuleReport>();
     private Map<String, PropertyDescriptor> propertyReportsFromCurrentModule = new HashMap<String, PropertyDescriptor>();
 
+    // indexes, maintained by add* methods
+    private Map<String, TargetReport> targetReportsByName = new HashMap<String, TargetReport>();
+    private Map<String, List<TargetReport>> targetsByExtensionPoint = new HashMap<String, List<TargetReport>>();
+    private Map<String, ExtensionPointReport> extensionPointReportsByName = new HashMap<String, ExtensionPointReport>();
+    private Map<String, ParameterReport> parameterReportsByName = new HashMap<String, ParameterReport>();
+    private TreeMap<String, ImportedModuleReport> importedModulesByMrid = new TreeMap<String, ImportedModuleReport>();
+    private Map<String, ImportedModuleReport> importedModulesByName = new HashMap<String, ImportedModuleReport>();
+    private Map<String, ImportedModuleReport> importedModulesByAlias = new HashMap<String, ImportedModuleReport>();
+
     private ResolveReport resolveReport;
+    private ResolvedModulesIndex resolvedModules;
     private ModuleDescriptor moduleDescriptor;
     private boolean extensionPointsConfigured;
 
@@ -64,12 +77,7 @@ public class EasyAntReport {
         if (name == null || name.equals("")) {
             throw new IllegalArgumentException("target name cannot be null");
         }
-        for (TargetReport target : targetReports) {
-            if (target.getName().equals(name)) {
-                return target;
-            }
-        }
-        return null;
+        return targetReportsByName.get(name);
     }
 
     /**
@@ -86,6 +94,17 @@ public class EasyAntReport {
         if (isCurrentModule) {
             targetReportsFromCurrentModule.add(targetReport);
         }
+        if (targetReport.getName() != null && !targetReportsByName.containsKey(targetReport.getName())) {
+            targetReportsByName.put(targetReport.getName(), targetReport);
+        }
+        if (targetReport.getExtensionPoint() != null) {
+            List<TargetReport> boundTargets = targetsByExtensionPoint.get(targetReport.getExtensionPoint());
+            if (boundTargets == null) {
+                boundTargets = new ArrayList<TargetReport>();
+                targetsByExtensionPoint.put(targetReport.getExtensionPoint(), boundTargets);
+            }
+            boundTargets.add(targetReport);
+        }
     }
 
     /**
@@ -100,12 +119,7 @@ public class EasyAntReport {
             throw new IllegalArgumentException("extension point name cannot be null");
         }
         maybeConfigureExtensionPoints();
-        for (ExtensionPointReport extensionPointReport : extensionPointReports) {
-            if (extensionPointReport.getName().equals(name)) {
-                return extensionPointReport;
-            }
-        }
-        return null;
+        return extensionPointReportsByName.get(name);
     }
 
     /**
@@ -120,12 +134,11 @@ public class EasyAntReport {
 
     private void maybeConfigureExtensionPoints() {
         if (!extensionPointsConfigured) {
-            for (TargetReport targetReport : targetReports) {
-                if (targetReport.getExtensionPoint() != null) {
-                    for (ExtensionPointReport extensionPointReport : extensionPointReports) {
-                        if (extensionPointReport.getName().equals(targetReport.getExtensionPoint())) {
-                            extensionPointReport.addTargetReport(targetReport);
-                        }
+            for (ExtensionPointReport extensionPointReport : extensionPointReports) {
+                List<TargetReport> boundTargets = targetsByExtensionPoint.get(extensionPointReport.getName());
+                if (boundTargets != null) {
+                    for (TargetReport targetReport : boundTargets) {
+                        extensionPointReport.addTargetReport(targetReport);
                     }
                 }
             }
@@ -148,6 +161,10 @@ public class EasyAntReport {
         if (isCurrentModule) {
             extensionPointReportsFromCurrentModule.add(extensionPointReport);
         }
+        if (extensionPointReport.getName() != null
+                && !extensionPointReportsByName.containsKey(extensionPointReport.getName())) {
+            extensionPointReportsByName.put(extensionPointReport.getName(), extensionPointReport);
+        }
     }
 
     /**
@@ -168,12 +185,7 @@ public class EasyAntReport {
         if (parameterName == null || parameterName.equals("")) {
             throw new IllegalArgumentException("parameterName cannot be null");
         }
-        for (ParameterReport parameterReport : parameterReports) {
-            if (parameterReport.getName().equals(parameterName)) {
-                return parameterReport;
-            }
-        }
-        return null;
+        return parameterReportsByName.get(parameterName);
     }
 
     /**
@@ -191,6 +203,9 @@ public class EasyAntReport {
         if (isCurrentModule) {
             parameterReportsFromCurrentModule.add(parameterReport);
         }
+        if (parameterReport.getName() != null && !parameterReportsByName.containsKey(parameterReport.getName())) {
+            parameterReportsByName.put(parameterReport.getName(), parameterReport);
+        }
     }
 
     /**
@@ -217,26 +232,35 @@ public class EasyAntReport {
         if (module.indexOf(';') > 0) {
             module = module.substring(0, module.indexOf(';'));
         }
-        ImportedModuleReport retVal = null;
+        // modules imported by this one take precedence over the ones they import
+        ImportedModuleReport retVal = getImportedModuleReportStartingWith(module);
+        if (retVal == null) {
+            retVal = importedModulesByName.get(module);
+        }
+        if (retVal == null) {
+            retVal = importedModulesByAlias.get(module);
+        }
+        if (retVal != null) {
+            return retVal;
+        }
         for (ImportedModuleReport moduleRep : importedModuleReports) {
-            if (moduleRep.getModuleMrid() != null && moduleRep.getModuleMrid().startsWith(module)) {
-                retVal = moduleRep;
-                break;
-            } else if (module.equals(moduleRep.getModuleRevisionId().getName())) {
-                retVal = moduleRep;
-                break;
-            } else if (moduleRep.getAs() != null && moduleRep.getAs().equals(module)) {
-                retVal = moduleRep;
-                break;
-            }
             if (moduleRep.getEasyantReport() != null) {
                 retVal = moduleRep.getEasyantReport().getImportedModuleReport(module);
                 if (retVal != null) {
-                    break;
+                    return retVal;
                 }
             }
         }
-        return retVal;
+        return null;
+    }
+
+    /**
+     * Mrids starting with a given prefix are sorted right after it, so the first one following the prefix tells if
+     * there is any
+     */
+    private ImportedModuleReport getImportedModuleReportStartingWith(String prefix) {
+        Map.Entry<String, ImportedModuleReport> entry = importedModulesByMrid.ceilingEntry(prefix);
+        return entry != null && entry.getKey().startsWith(prefix) ? entry.getValue() : null;
     }
 
     /**
@@ -250,12 +274,29 @@ public class EasyAntReport {
         if (importedModuleReport == null) {
             throw new IllegalArgumentException("importedModuleReport cannot be null");
         }
-        importedModuleReports.add(importedModuleReport);
+        if (importedModuleReports.add(importedModuleReport)) {
+            indexImportedModuleReport(importedModuleReport);
+        }
         if (isCurrentModule) {
             importedModuleReportsFromCurrentModule.add(importedModuleReport);
         }
     }
 
+    private void indexImportedModuleReport(ImportedModuleReport importedModuleReport) {
+        String moduleMrid = importedModuleReport.getModuleMrid();
+        if (moduleMrid != null && !importedModulesByMrid.containsKey(moduleMrid)) {
+            importedModulesByMrid.put(moduleMrid, importedModuleReport);
+        }
+        ModuleRevisionId mrid = importedModuleReport.getModuleRevisionId();
+        if (!importedModulesByName.containsKey(mrid.getName())) {
+            importedModulesByName.put(mrid.getName(), importedModuleReport);
+        }
+        if (importedModuleReport.getAs() != null
+                && !importedModulesByAlias.containsKey(importedModuleReport.getAs())) {
+            importedModulesByAlias.put(importedModuleReport.getAs(), importedModuleReport);
+        }
+    }
+
     /**
      * Add a property
      * 
@@ -289,6 +330,22 @@ public class EasyAntReport {
         this.propertyReports.putAll(properties);
     }
 
+    /**
+     * Put a property as is, without merging it with an existing one
+     * 
+     * @param propertyDescriptor
+     *            a property descriptor
+     * @param isCurrentModule
+     *            true to put it in properties of current module, false to put it in properties of the whole report
+     */
+    void putPropertyDescriptor(PropertyDescriptor propertyDescriptor, boolean isCurrentModule) {
+        if (isCurrentModule) {
+            propertyReportsFromCurrentModule.put(propertyDescriptor.getName(), propertyDescriptor);
+        } else {
+            propertyReports.put(propertyDescriptor.getName(), propertyDescriptor);
+        }
+    }
+
     /**
      * Return a map of the properties
      * 
@@ -343,12 +400,36 @@ public class EasyAntReport {
         return targets;
     }
 
+    /**
+     * Get the resolve report of the module
+     * 
+     * @return the resolve report, or null if it has been released
+     * @see #releaseResolveReport()
+     */
     public ResolveReport getResolveReport() {
         return resolveReport;
     }
 
     public void setResolveReport(ResolveReport resolveReport) {
         this.resolveReport = resolveReport;
+        this.resolvedModules = resolveReport != null ? ResolvedModulesIndex.of(resolveReport) : null;
+    }
+
+    /**
+     * Get resolved modules and their artifacts, still available once the resolve report has been released
+     * 
+     * @return a {@link ResolvedModulesIndex} or null if no resolve report has been set
+     */
+    public ResolvedModulesIndex getResolvedModules() {
+        return resolvedModules;
+    }
+
+    /**
+     * Release the resolve report, keeping only its {@link ResolvedModulesIndex}. Reports of imported modules don't
+     * need the dependency graph once analysed.
+     */
+    public void releaseResolveReport() {
+        this.resolveReport = null;
     }
 
     /**
@@ -0,0 +1,287 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.report;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.easyant.core.EasyAntEngine;
+import org.apache.easyant.core.descriptor.PropertyDescriptor;
+import org.apache.easyant.core.ivy.InheritableScope;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+
+/**
+ * Binary form of an {@link EasyAntReport}. Only the analysed model of the report is written (targets, extension
+ * points, parameters, properties and imported modules). Resolve report and module descriptor are not part of it, and
+ * reports of imported modules are not written either : each imported module only records if it had a report, so that
+ * readers can restore them on their own.
+ * <p>
+ * Encoded reports are bound to the easyant core version which produced them.
+ * </p>
+ */
+public final class EasyAntReportCodec {
+
+    private static final int MAGIC = 0x45415250; // "EARP"
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String ENCODING = "UTF-8";
+
+    private EasyAntReportCodec() {
+    }
+
+    /**
+     * Write the analysed model of a report
+     *
+     * @param eaReport
+     *            report to write
+     * @param out
+     *            destination
+     * @throws IOException
+     *             if the report can't be written
+     */
+    public static void write(EasyAntReport eaReport, DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(EasyAntEngine.getEasyAntVersion());
+
+        Set<Object> fromCurrentModule = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        fromCurrentModule.addAll(eaReport.getTargetReportsFromCurrentModule());
+        fromCurrentModule.addAll(eaReport.getExtensionPointReportsFromCurrentModule());
+        fromCurrentModule.addAll(eaReport.getParameterReportsFromCurrentModule());
+
+        out.writeInt(eaReport.getTargetReports().size());
+        for (TargetReport targetReport : eaReport.getTargetReports()) {
+            writeString(out, targetReport.getName());
+            writeString(out, targetReport.getDepends());
+            writeString(out, targetReport.getIfCase());
+            writeString(out, targetReport.getUnlessCase());
+            writeString(out, targetReport.getDescription());
+            writeString(out, targetReport.getExtensionPoint());
+            out.writeBoolean(fromCurrentModule.contains(targetReport));
+        }
+
+        out.writeInt(eaReport.getExtensionPointReports().size());
+        for (ExtensionPointReport extensionPointReport : eaReport.getExtensionPointReports()) {
+            writeString(out, extensionPointReport.getName());
+            writeString(out, extensionPointReport.getDescription());
+            writeString(out, extensionPointReport.getDepends());
+            out.writeBoolean(fromCurrentModule.contains(extensionPointReport));
+        }
+
+        out.writeInt(eaReport.getParameterReports().size());
+        for (ParameterReport parameterReport : eaReport.getParameterReports()) {
+            out.writeUTF(parameterReport.getType().name());
+            writeString(out, parameterReport.getName());
+            writeString(out, parameterReport.getDescription());
+            out.writeBoolean(parameterReport.isRequired());
+            writeString(out, parameterReport.getDefaultValue());
+            writeString(out, parameterReport.getValue());
+            writeString(out, parameterReport.getOwningTarget());
+            out.writeBoolean(fromCurrentModule.contains(parameterReport));
+        }
+
+        out.writeInt(eaReport.getImportedModuleReports().size());
+        for (ImportedModuleReport importedModuleReport : eaReport.getImportedModuleReports()) {
+            writeString(out, importedModuleReport.getModuleMrid());
+            writeString(out, importedModuleReport.getOrganisation());
+            writeString(out, importedModuleReport.getModule());
+            writeString(out, importedModuleReport.getRevision());
+            writeString(out, importedModuleReport.getMode());
+            writeString(out, importedModuleReport.getAs());
+            out.writeBoolean(importedModuleReport.isMandatory());
+            out.writeBoolean(importedModuleReport.getEasyantReport() != null);
+            out.writeBoolean(eaReport.getImportedModuleReportsFromCurrentModule().contains(importedModuleReport));
+        }
+
+        // properties of current module are usually the same instances than the ones of the whole report
+        Map<String, PropertyDescriptor> properties = eaReport.getPropertyDescriptors();
+        out.writeInt(properties.size());
+        for (PropertyDescriptor propertyDescriptor : properties.values()) {
+            writePropertyDescriptor(out, propertyDescriptor);
+        }
+        Map<String, PropertyDescriptor> currentModuleProperties = eaReport.getPropertyReportsFromCurrentModule();
+        out.writeInt(currentModuleProperties.size());
+        for (PropertyDescriptor propertyDescriptor : currentModuleProperties.values()) {
+            boolean shared = properties.get(propertyDescriptor.getName()) == propertyDescriptor;
+            out.writeBoolean(shared);
+            if (shared) {
+                out.writeUTF(propertyDescriptor.getName());
+            } else {
+                writePropertyDescriptor(out, propertyDescriptor);
+            }
+        }
+    }
+
+    /**
+     * Read the analysed model of a report
+     *
+     * @param in
+     *            source
+     * @param eaReport
+     *            report to fill
+     * @return imported modules which had their own report when written, in reading order
+     * @throws IOException
+     *             if the report can't be read, or has been written by another easyant core version
+     */
+    public static List<ImportedModuleReport> read(DataInput in, EasyAntReport eaReport) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+                || !EasyAntEngine.getEasyAntVersion().equals(in.readUTF())) {
+            throw new IOException("report has not been written by this version of easyant");
+        }
+
+        int nbTargets = in.readInt();
+        for (int i = 0; i < nbTargets; i++) {
+            TargetReport targetReport = new TargetReport();
+            targetReport.setName(readString(in));
+            targetReport.setDepends(readString(in));
+            targetReport.setIfCase(readString(in));
+            targetReport.setUnlessCase(readString(in));
+            targetReport.setDescription(readString(in));
+            targetReport.setExtensionPoint(readString(in));
+            eaReport.addTargetReport(targetReport, in.readBoolean());
+        }
+
+        int nbExtensionPoints = in.readInt();
+        for (int i = 0; i < nbExtensionPoints; i++) {
+            ExtensionPointReport extensionPointReport = new ExtensionPointReport(readString(in));
+            extensionPointReport.setDescription(readString(in));
+            extensionPointReport.setDepends(readString(in));
+            eaReport.addExtensionPointReport(extensionPointReport, in.readBoolean());
+        }
+
+        int nbParameters = in.readInt();
+        for (int i = 0; i < nbParameters; i++) {
+            ParameterReport parameterReport = new ParameterReport(readEnum(in, ParameterType.class));
+            parameterReport.setName(readString(in));
+            parameterReport.setDescription(readString(in));
+            parameterReport.setRequired(in.readBoolean());
+            parameterReport.setDefaultValue(readString(in));
+            parameterReport.setValue(readString(in));
+            parameterReport.setOwningTarget(readString(in));
+            eaReport.addParameterReport(parameterReport, in.readBoolean());
+        }
+
+        List<ImportedModuleReport> withReport = new ArrayList<ImportedModuleReport>();
+        int nbImportedModules = in.readInt();
+        for (int i = 0; i < nbImportedModules; i++) {
+            ImportedModuleReport importedModuleReport = new ImportedModuleReport();
+            importedModuleReport.setModuleMrid(readString(in));
+            importedModuleReport.setOrganisation(readString(in));
+            importedModuleReport.setModule(readString(in));
+            importedModuleReport.setRevision(readString(in));
+            importedModuleReport.setMode(readString(in));
+            importedModuleReport.setAs(readString(in));
+            importedModuleReport.setMandatory(in.readBoolean());
+            if (in.readBoolean()) {
+                withReport.add(importedModuleReport);
+            }
+            eaReport.addImportedModuleReport(importedModuleReport, in.readBoolean());
+        }
+
+        int nbProperties = in.readInt();
+        for (int i = 0; i < nbProperties; i++) {
+            eaReport.putPropertyDescriptor(readPropertyDescriptor(in), false);
+        }
+        int nbCurrentModuleProperties = in.readInt();
+        for (int i = 0; i < nbCurrentModuleProperties; i++) {
+            PropertyDescriptor propertyDescriptor;
+            if (in.readBoolean()) {
+                propertyDescriptor = eaReport.getPropertyDescriptors().get(in.readUTF());
+            } else {
+                propertyDescriptor = readPropertyDescriptor(in);
+            }
+            eaReport.putPropertyDescriptor(propertyDescriptor, true);
+        }
+        return withReport;
+    }
+
+    private static void writePropertyDescriptor(DataOutput out, PropertyDescriptor propertyDescriptor)
+            throws IOException {
+        writeString(out, propertyDescriptor.getName());
+        writeString(out, propertyDescriptor.getSourceModule() != null ? propertyDescriptor.getSourceModule()
+                .toString() : null);
+        writeString(out, propertyDescriptor.getDescription());
+        writeString(out, propertyDescriptor.getDefaultValue());
+        writeString(out, propertyDescriptor.getValue());
+        out.writeBoolean(propertyDescriptor.isRequired());
+        writeString(out, propertyDescriptor.getBuildConfigurations());
+        writeString(out, propertyDescriptor.getInheritScope() != null ? propertyDescriptor.getInheritScope().name()
+                : null);
+        out.writeBoolean(propertyDescriptor.isInheritable());
+        writeString(out, propertyDescriptor.getOwningTarget());
+    }
+
+    private static PropertyDescriptor readPropertyDescriptor(DataInput in) throws IOException {
+        String name = readString(in);
+        String sourceModule = readString(in);
+        PropertyDescriptor propertyDescriptor = new PropertyDescriptor(name, sourceModule != null ? ModuleRevisionId
+                .parse(sourceModule) : null);
+        propertyDescriptor.setDescription(readString(in));
+        propertyDescriptor.setDefaultValue(readString(in));
+        propertyDescriptor.setValue(readString(in));
+        propertyDescriptor.setRequired(in.readBoolean());
+        propertyDescriptor.setBuildConfigurations(readString(in));
+        String inheritScope = readString(in);
+        if (inheritScope != null) {
+            propertyDescriptor.setInheritScope(InheritableScope.valueOf(inheritScope));
+        }
+        propertyDescriptor.setInheritable(in.readBoolean());
+        propertyDescriptor.setOwningTarget(readString(in));
+        return propertyDescriptor;
+    }
+
+    private static <T extends Enum<T>> T readEnum(DataInput in, Class<T> enumType) throws IOException {
+        String name = in.readUTF();
+        try {
+            return Enum.valueOf(enumType, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("unknown " + enumType.getSimpleName() + " " + name);
+        }
+    }
+
+    /**
+     * Write a nullable string, not limited in size
+     */
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(ENCODING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, ENCODING);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.report;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.apache.easyant.core.EasyAntEngine;
+import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.resolve.ResolvedModuleRevision;
+
+/**
+ * Export of an {@link EasyAntReport} for tools integration, stored in a directory next to the project. The export is
+ * made of a json document (see {@link JSONEasyAntReportWriter}), of its binary form (see {@link EasyAntReportCodec})
+ * and of a fingerprint of what it has been generated from : the project files and the resolved revision of each
+ * imported plugin, including plugins imported by other plugins.
+ */
+public class EasyAntReportExport {
+
+    /**
+     * Name of the export directory, relative to the project directory
+     */
+    public static final String DEFAULT_EXPORT_DIRECTORY = ".easyant";
+
+    private static final String JSON_FILE = "report.json";
+
+    private static final String BINARY_FILE = "report.bin";
+
+    private static final String FINGERPRINT_FILE = "report.properties";
+
+    private static final String PLUGIN_PREFIX = "plugin.";
+
+    private static final String SOURCE_PREFIX = "source.";
+
+    private final File exportDirectory;
+
+    public EasyAntReportExport(File exportDirectory) {
+        this.exportDirectory = exportDirectory;
+    }
+
+    public File getJsonFile() {
+        return new File(exportDirectory, JSON_FILE);
+    }
+
+    public File getBinaryFile() {
+        return new File(exportDirectory, BINARY_FILE);
+    }
+
+    /**
+     * Check if the export has been generated from the current state of the project
+     *
+     * @param sources
+     *            project files the report is generated from (module.ivy, module.ant, ...), they may not exist
+     * @param ivy
+     *            ivy instance used to resolve plugins imported with a dynamic revision
+     * @return true if the export doesn't need to be regenerated
+     */
+    public boolean isUpToDate(File[] sources, Ivy ivy) {
+        File fingerprintFile = new File(exportDirectory, FINGERPRINT_FILE);
+        if (!getJsonFile().exists() || !getBinaryFile().exists() || !fingerprintFile.exists()) {
+            return false;
+        }
+        Properties fingerprint = new Properties();
+        try {
+            InputStream in = new FileInputStream(fingerprintFile);
+            try {
+                fingerprint.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        if (!String.valueOf(JSONEasyAntReportWriter.SCHEMA_VERSION).equals(fingerprint.getProperty("schema.version"))
+                || !EasyAntEngine.getEasyAntVersion().equals(fingerprint.getProperty("easyant.version"))) {
+            return false;
+        }
+        for (File source : sources) {
+            if (!describe(source).equals(fingerprint.getProperty(SOURCE_PREFIX + source.getName()))) {
+                return false;
+            }
+        }
+        for (String key : fingerprint.stringPropertyNames()) {
+            if (key.startsWith(PLUGIN_PREFIX)) {
+                ModuleRevisionId declared = ModuleRevisionId.parse(key.substring(PLUGIN_PREFIX.length()));
+                // static revisions can't change without a change of the project files
+                if (ivy.getSettings().getVersionMatcher().isDynamic(declared)) {
+                    ResolvedModuleRevision rmr = ivy.findModule(declared);
+                    if (rmr == null || !rmr.getId().getRevision().equals(fingerprint.getProperty(key))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the export of a report
+     *
+     * @param eaReport
+     *            report to export, with reports of its imported modules
+     * @param sources
+     *            project files the report has been generated from
+     * @throws IOException
+     *             if the export can't be written
+     */
+    public void export(EasyAntReport eaReport, File[] sources) throws IOException {
+        exportDirectory.mkdirs();
+        File fingerprintFile = new File(exportDirectory, FINGERPRINT_FILE);
+        // an export without fingerprint is never up to date, whatever happens next
+        fingerprintFile.delete();
+
+        OutputStream json = new BufferedOutputStream(new FileOutputStream(getJsonFile()));
+        try {
+            new JSONEasyAntReportWriter().output(eaReport, json);
+        } finally {
+            json.close();
+        }
+        DataOutputStream binary = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+                getBinaryFile())));
+        try {
+            EasyAntReportCodec.write(eaReport, binary);
+        } finally {
+            binary.close();
+        }
+
+        Properties fingerprint = new Properties();
+        fingerprint.setProperty("schema.version", String.valueOf(JSONEasyAntReportWriter.SCHEMA_VERSION));
+        fingerprint.setProperty("easyant.version", EasyAntEngine.getEasyAntVersion());
+        for (File source : sources) {
+            fingerprint.setProperty(SOURCE_PREFIX + source.getName(), describe(source));
+        }
+        addImportedModules(fingerprint, eaReport);
+        OutputStream out = new FileOutputStream(fingerprintFile);
+        try {
+            fingerprint.store(out, "easyant report export fingerprint");
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Read the binary form of the export
+     *
+     * @return exported report, without resolve report, module descriptor nor reports of imported modules
+     * @throws IOException
+     *             if the export can't be read, or has been written by another easyant version
+     */
+    public EasyAntReport readReport() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(getBinaryFile())));
+        try {
+            EasyAntReport eaReport = new EasyAntReport();
+            EasyAntReportCodec.read(in, eaReport);
+            return eaReport;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Record the resolved revision of modules imported by a report and, recursively, by their own reports. A module
+     * imported several times is recorded once.
+     */
+    private void addImportedModules(Properties fingerprint, EasyAntReport eaReport) {
+        for (ImportedModuleReport importedModuleReport : eaReport.getImportedModuleReports()) {
+            String key = PLUGIN_PREFIX + importedModuleReport.getModuleMrid();
+            if (fingerprint.getProperty(key) == null) {
+                fingerprint.setProperty(key, getResolvedRevision(importedModuleReport));
+                if (importedModuleReport.getEasyantReport() != null) {
+                    addImportedModules(fingerprint, importedModuleReport.getEasyantReport());
+                }
+            }
+        }
+    }
+
+    private String describe(File source) {
+        return source.exists() ? source.lastModified() + ":" + source.length() : "missing";
+    }
+
+    private String getResolvedRevision(ImportedModuleReport importedModuleReport) {
+        ModuleRevisionId declared = importedModuleReport.getModuleRevisionId();
+        EasyAntReport importedReport = importedModuleReport.getEasyantReport();
+        if (importedReport != null && importedReport.getResolvedModules() != null) {
+            ModuleRevisionId resolvedId = importedReport.getResolvedModules().getResolvedRevision(
+                    declared.getModuleId());
+            if (resolvedId != null) {
+                return resolvedId.getRevision();
+            }
+        }
+        return declared.getRevision();
+    }
+}
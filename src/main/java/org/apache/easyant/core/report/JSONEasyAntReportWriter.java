@@ -0,0 +1,241 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.easyant.core.EasyAntEngine;
+import org.apache.easyant.core.descriptor.PropertyDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+
+/**
+ * Write the model of an {@link EasyAntReport} (targets, extension points, parameters, properties and imported modules)
+ * as compact json, intended to tools integration. Elements of imported modules are flattened in the same lists as the
+ * ones of the module itself, the latter being flagged as "local".
+ * <p>
+ * Each document starts with a "schemaVersion" member, incremented on incompatible changes.
+ * </p>
+ */
+public class JSONEasyAntReportWriter {
+
+    /**
+     * Version of the json schema
+     */
+    public static final int SCHEMA_VERSION = 1;
+
+    static final String REPORT_ENCODING = "UTF-8";
+
+    public void output(EasyAntReport easyAntReport, OutputStream stream) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(stream, REPORT_ENCODING));
+        out.write("{\"schemaVersion\":");
+        out.write(Integer.toString(SCHEMA_VERSION));
+        out.write(",\"easyantVersion\":");
+        writeString(out, EasyAntEngine.getEasyAntVersion());
+        if (easyAntReport.getModuleDescriptor() != null) {
+            ModuleRevisionId mrid = easyAntReport.getModuleDescriptor().getModuleRevisionId();
+            out.write(",\"module\":{\"organisation\":");
+            writeString(out, mrid.getOrganisation());
+            out.write(",\"name\":");
+            writeString(out, mrid.getName());
+            out.write(",\"revision\":");
+            writeString(out, mrid.getRevision());
+            out.write('}');
+        }
+        outputTargets(easyAntReport, out);
+        outputExtensionPoints(easyAntReport, out);
+        outputParameters(easyAntReport, out);
+        outputProperties(easyAntReport, out);
+        outputImportedModules(easyAntReport, out);
+        out.write('}');
+        out.flush();
+    }
+
+    private void outputTargets(EasyAntReport easyAntReport, Writer out) throws IOException {
+        Collection<TargetReport> localTargets = identitySet(easyAntReport.getTargetReportsFromCurrentModule());
+        out.write(",\"targets\":[");
+        boolean first = true;
+        for (TargetReport targetReport : easyAntReport.getTargetReports()) {
+            first = startElement(out, first);
+            writeMember(out, "name", targetReport.getName(), true);
+            writeMember(out, "description", targetReport.getDescription(), false);
+            writeMember(out, "depends", targetReport.getDepends(), false);
+            writeMember(out, "extensionOf", targetReport.getExtensionPoint(), false);
+            writeMember(out, "if", targetReport.getIfCase(), false);
+            writeMember(out, "unless", targetReport.getUnlessCase(), false);
+            writeMember(out, "local", localTargets.contains(targetReport));
+            out.write('}');
+        }
+        out.write(']');
+    }
+
+    private void outputExtensionPoints(EasyAntReport easyAntReport, Writer out) throws IOException {
+        Collection<ExtensionPointReport> localExtensionPoints = identitySet(easyAntReport
+                .getExtensionPointReportsFromCurrentModule());
+        out.write(",\"extensionPoints\":[");
+        boolean first = true;
+        for (ExtensionPointReport extensionPointReport : easyAntReport.getExtensionPointReports()) {
+            first = startElement(out, first);
+            writeMember(out, "name", extensionPointReport.getName(), true);
+            writeMember(out, "description", extensionPointReport.getDescription(), false);
+            writeMember(out, "depends", extensionPointReport.getDepends(), false);
+            writeMember(out, "local", localExtensionPoints.contains(extensionPointReport));
+            out.write('}');
+        }
+        out.write(']');
+    }
+
+    private void outputParameters(EasyAntReport easyAntReport, Writer out) throws IOException {
+        Collection<ParameterReport> localParameters = identitySet(easyAntReport
+                .getParameterReportsFromCurrentModule());
+        out.write(",\"parameters\":[");
+        boolean first = true;
+        for (ParameterReport parameterReport : easyAntReport.getParameterReports()) {
+            first = startElement(out, first);
+            writeMember(out, "name", parameterReport.getName(), true);
+            writeMember(out, "type", parameterReport.getType() == null ? null : parameterReport.getType().toString(),
+                    false);
+            writeMember(out, "description", parameterReport.getDescription(), false);
+            writeMember(out, "required", parameterReport.isRequired());
+            writeMember(out, "default", parameterReport.getDefaultValue(), false);
+            writeMember(out, "owningTarget", parameterReport.getOwningTarget(), false);
+            writeMember(out, "local", localParameters.contains(parameterReport));
+            out.write('}');
+        }
+        out.write(']');
+    }
+
+    private void outputProperties(EasyAntReport easyAntReport, Writer out) throws IOException {
+        Map<String, PropertyDescriptor> localProperties = easyAntReport.getPropertyReportsFromCurrentModule();
+        out.write(",\"properties\":[");
+        boolean first = true;
+        for (PropertyDescriptor propertyDescriptor : easyAntReport.getPropertyDescriptors().values()) {
+            first = startElement(out, first);
+            writeMember(out, "name", propertyDescriptor.getName(), true);
+            writeMember(out, "description", propertyDescriptor.getDescription(), false);
+            writeMember(out, "required", propertyDescriptor.isRequired());
+            writeMember(out, "default", propertyDescriptor.getDefaultValue(), false);
+            writeMember(out, "value", propertyDescriptor.getValue(), false);
+            writeMember(out, "owningTarget", propertyDescriptor.getOwningTarget(), false);
+            writeMember(out, "local", localProperties.containsKey(propertyDescriptor.getName()));
+            out.write('}');
+        }
+        out.write(']');
+    }
+
+    private void outputImportedModules(EasyAntReport easyAntReport, Writer out) throws IOException {
+        Collection<ImportedModuleReport> localImports = easyAntReport.getImportedModuleReportsFromCurrentModule();
+        out.write(",\"imports\":[");
+        boolean first = true;
+        for (ImportedModuleReport importedModuleReport : easyAntReport.getImportedModuleReports()) {
+            first = startElement(out, first);
+            writeMember(out, "mrid", importedModuleReport.getModuleMrid(), true);
+            writeMember(out, "as", importedModuleReport.getAs(), false);
+            writeMember(out, "mode", importedModuleReport.getMode() != null ? importedModuleReport.getMode()
+                    : "import", false);
+            writeMember(out, "mandatory", importedModuleReport.isMandatory());
+            writeMember(out, "local", localImports.contains(importedModuleReport));
+            out.write('}');
+        }
+        out.write(']');
+    }
+
+    private <T> Collection<T> identitySet(Collection<T> elements) {
+        Set<T> set = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+        set.addAll(elements);
+        return set;
+    }
+
+    private boolean startElement(Writer out, boolean first) throws IOException {
+        if (!first) {
+            out.write(',');
+        }
+        out.write('{');
+        return false;
+    }
+
+    /**
+     * Write a string member, null values are omitted
+     */
+    private void writeMember(Writer out, String name, String value, boolean first) throws IOException {
+        if (first) {
+            writeString(out, name);
+            out.write(':');
+            if (value == null) {
+                out.write("null");
+            } else {
+                writeString(out, value);
+            }
+        } else if (value != null) {
+            out.write(',');
+            writeString(out, name);
+            out.write(':');
+            writeString(out, value);
+        }
+    }
+
+    private void writeMember(Writer out, String name, boolean value) throws IOException {
+        out.write(',');
+        writeString(out, name);
+        out.write(value ? ":true" : ":false");
+    }
+
+    private void writeString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                out.write("\\\"");
+                break;
+            case '\\':
+                out.write("\\\\");
+                break;
+            case '\n':
+                out.write("\\n");
+                break;
+            case '\r':
+                out.write("\\r");
+                break;
+            case '\t':
+                out.write("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    String hex = Integer.toHexString(c);
+                    out.write("\\u");
+                    for (int j = hex.length(); j < 4; j++) {
+                        out.write('0');
+                    }
+                    out.write(hex);
+                } else {
+                    out.write(c);
+                }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.ivy.util.FileUtil;
+import org.apache.ivy.util.HexEncoder;
+import org.apache.tools.ant.util.JAXPUtils;
+
+/**
+ * Compiled report stylesheets, shared by all report generations of the running JVM. Stylesheets are compiled once per
+ * content (and system id, as relative includes are resolved from it).
+ */
+public final class ReportTemplates {
+
+    /**
+     * Name of the default report stylesheet, next to {@link XMLEasyAntReportWriter}
+     */
+    public static final String DEFAULT_STYLESHEET = "easyant-report.xsl";
+
+    private static final Map<String, Templates> TEMPLATES = new ConcurrentHashMap<String, Templates>();
+
+    private static volatile Templates defaultTemplates;
+
+    private ReportTemplates() {
+    }
+
+    /**
+     * Get the compiled default report stylesheet
+     *
+     * @return compiled stylesheet
+     * @throws IOException
+     *             if the stylesheet can't be read
+     * @throws TransformerConfigurationException
+     *             if the stylesheet can't be compiled
+     */
+    public static Templates getDefaultTemplates() throws IOException, TransformerConfigurationException {
+        // default stylesheet comes with easyant jar, its content can't change at runtime
+        if (defaultTemplates == null) {
+            URL style = XMLEasyAntReportWriter.class.getResource(DEFAULT_STYLESHEET);
+            defaultTemplates = getTemplates(style.openStream(), style.toExternalForm());
+        }
+        return defaultTemplates;
+    }
+
+    /**
+     * Get a compiled stylesheet
+     *
+     * @param style
+     *            stylesheet file
+     * @return compiled stylesheet
+     * @throws IOException
+     *             if the stylesheet can't be read
+     * @throws TransformerConfigurationException
+     *             if the stylesheet can't be compiled
+     */
+    public static Templates getTemplates(File style) throws IOException, TransformerConfigurationException {
+        return getTemplates(new FileInputStream(style), JAXPUtils.getSystemId(style));
+    }
+
+    /**
+     * Get a compiled stylesheet, compiling it only if a stylesheet with the same content and system id has not been
+     * compiled yet
+     *
+     * @param style
+     *            stylesheet content, closed once read
+     * @param systemId
+     *            system id of the stylesheet
+     * @return compiled stylesheet
+     * @throws IOException
+     *             if the stylesheet can't be read
+     * @throws TransformerConfigurationException
+     *             if the stylesheet can't be compiled
+     */
+    public static Templates getTemplates(InputStream style, String systemId) throws IOException,
+            TransformerConfigurationException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        FileUtil.copy(style, content, null);
+        byte[] bytes = content.toByteArray();
+        String key = digest(bytes) + "@" + systemId;
+        Templates templates = TEMPLATES.get(key);
+        if (templates == null) {
+            templates = TransformerFactory.newInstance().newTemplates(
+                    new StreamSource(new ByteArrayInputStream(bytes), systemId));
+            // concurrent compilations of the same stylesheet are harmless, any of them can be kept
+            TEMPLATES.put(key, templates);
+        }
+        return templates;
+    }
+
+    private static String digest(byte[] bytes) {
+        try {
+            return HexEncoder.encode(MessageDigest.getInstance("SHA-1").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-1 is not known on your jvm", e);
+        }
+    }
+}
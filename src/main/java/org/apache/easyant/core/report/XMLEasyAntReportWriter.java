@@ -32,7 +32,6 @@ import org.apache.ivy.core.resolve.IvyNodeCallers.Caller;
 import org.apache.ivy.core.resolve.IvyNodeEviction.EvictionData;
 import org.apache.ivy.util.DateUtil;
 import org.apache.ivy.util.Message;
-import org.apache.ivy.util.XMLHelper;
 
 import java.io.*;
 import java.util.*;
@@ -40,265 +39,240 @@ import java.util.Map.Entry;
 
 /**
  * XmlReportWriter allows to write ResolveReport in an xml format.
+ * <p>
+ * The report is streamed to the output : attributes are escaped while being written, and no intermediate string is
+ * built for elements.
+ * </p>
  */
 public class XMLEasyAntReportWriter {
 
     static final String REPORT_ENCODING = "UTF-8";
     private boolean displaySubElements = false;
 
+    /**
+     * Write the report of each resolved configuration, all through the same buffered writer
+     */
     public void output(EasyAntReport easyAntReport, OutputStream stream) {
-        for (String conf : easyAntReport.getResolveReport().getConfigurations()) {
-            output(easyAntReport, easyAntReport.getResolveReport().getConfigurationReport(conf), stream);
+        XmlStream out = new XmlStream(stream);
+        try {
+            for (String conf : easyAntReport.getResolveReport().getConfigurations()) {
+                output(easyAntReport, easyAntReport.getResolveReport().getConfigurationReport(conf), out);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Can't write easyant report", e);
         }
     }
 
     public void output(EasyAntReport easyAntReport, ConfigurationResolveReport report, OutputStream stream) {
-        OutputStreamWriter encodedOutStream;
+        XmlStream out = new XmlStream(stream);
         try {
-            encodedOutStream = new OutputStreamWriter(stream, REPORT_ENCODING);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(REPORT_ENCODING + " is not known on your jvm", e);
+            output(easyAntReport, report, out);
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Can't write easyant report", e);
         }
-        PrintWriter out = new PrintWriter(new BufferedWriter(encodedOutStream));
+    }
+
+    private void output(EasyAntReport easyAntReport, ConfigurationResolveReport report, XmlStream out)
+            throws IOException {
         ModuleRevisionId mrid = report.getModuleDescriptor().getModuleRevisionId();
-        // out.println("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>");
-        out.println("<?xml version=\"1.0\" encoding=\"" + REPORT_ENCODING + "\"?>");
-        out.println("<?xml-stylesheet type=\"text/xsl\" href=\"easyant-report.xsl\"?>");
-        out.println("<easyant-report version=\"1.0\">");
-        out.println("\t<info");
-        out.println("\t\torganisation=\"" + XMLHelper.escape(mrid.getOrganisation()) + "\"");
-        out.println("\t\tmodule=\"" + XMLHelper.escape(mrid.getName()) + "\"");
-        out.println("\t\trevision=\"" + XMLHelper.escape(mrid.getRevision()) + "\"");
+        out.line("<?xml version=\"1.0\" encoding=\"" + REPORT_ENCODING + "\"?>");
+        out.line("<?xml-stylesheet type=\"text/xsl\" href=\"easyant-report.xsl\"?>");
+        out.line("<easyant-report version=\"1.0\">");
+        out.raw("\t<info").attribute("organisation", mrid.getOrganisation()).attribute("module", mrid.getName())
+                .attribute("revision", mrid.getRevision());
         if (mrid.getBranch() != null) {
-            out.println("\t\tbranch=\"" + XMLHelper.escape(mrid.getBranch()) + "\"");
+            out.attribute("branch", mrid.getBranch());
         }
-        Map<?, ?> extraAttributes = mrid.getExtraAttributes();
-        for (Map.Entry<?, ?> entry : extraAttributes.entrySet()) {
-            out.println("\t\textra-" + entry.getKey() + "=\"" + XMLHelper.escape(entry.getValue().toString()) + "\"");
-        }
-        out.println("\t\tconf=\"" + XMLHelper.escape(report.getConfiguration()) + "\"");
-        out.println("\t\tdate=\"" + DateUtil.format(report.getDate()) + "\"/>");
-        out.println("\t<description>");
-        out.println(report.getModuleDescriptor().getDescription());
-        out.println("\t</description>");
-        out.println("\t<configurations>");
+        outputExtraAttributes(out, mrid.getExtraAttributes());
+        out.attribute("conf", report.getConfiguration()).attribute("date", DateUtil.format(report.getDate()))
+                .line("/>");
+        out.line("\t<description>");
+        // description may contain markup
+        out.line(report.getModuleDescriptor().getDescription());
+        out.line("\t</description>");
+        out.line("\t<configurations>");
 
         for (Configuration configuration : easyAntReport.getModuleDescriptor().getConfigurations()) {
-            // deprecated file can be null (see Javadoc)
-            String deprecated = XMLHelper.escape(configuration.getDeprecated());
-            if (deprecated == null) {
-                // Avoid to display null in the report
-                deprecated = "";
-            }
-            out.println("\t\t<configuration name=\"" + XMLHelper.escape(configuration.getName()) + "\" description=\"" + XMLHelper.escape(configuration.getDescription()) + "\" extends=\"" + XMLHelper.escape(Arrays.toString(configuration.getExtends())) + "\" deprecated=\"" + deprecated + "\" visibility=\"" + XMLHelper.escape(configuration.getVisibility().toString()) + "\"/>");
+            out.raw("\t\t<configuration").attribute("name", configuration.getName())
+                    .attribute("description", configuration.getDescription())
+                    .attribute("extends", Arrays.toString(configuration.getExtends()))
+                    // deprecated can be null (see Javadoc), avoid to display null in the report
+                    .attribute("deprecated", configuration.getDeprecated() == null ? "" : configuration.getDeprecated())
+                    .attribute("visibility", configuration.getVisibility().toString()).line("/>");
         }
-        out.println("\t</configurations>");
+        out.line("\t</configurations>");
 
-        out.println("\t<dependencies>");
+        out.line("\t<dependencies>");
 
-        // create a list of ModuleRevisionIds indicating the position for each dependency
-        List<?> dependencies = new ArrayList(report.getModuleRevisionIds());
+        // index the position of each dependency once
+        Map<ModuleRevisionId, Integer> positions = new HashMap<ModuleRevisionId, Integer>();
+        int position = 0;
+        for (Object o : report.getModuleRevisionIds()) {
+            ModuleRevisionId dependency = (ModuleRevisionId) o;
+            if (!positions.containsKey(dependency)) {
+                positions.put(dependency, position);
+            }
+            position++;
+        }
 
         for (Object o : report.getModuleIds()) {
             ModuleId mid = (ModuleId) o;
-            out.println("\t\t<module organisation=\"" + XMLHelper.escape(mid.getOrganisation()) + "\"" + " name=\""
-                    + XMLHelper.escape(mid.getName()) + "\">");
+            out.raw("\t\t<module").attribute("organisation", mid.getOrganisation()).attribute("name", mid.getName())
+                    .line(">");
             for (Object o1 : report.getNodes(mid)) {
                 IvyNode dep = (IvyNode) o1;
-                ouputRevision(report, out, dependencies, dep);
+                ouputRevision(report, out, positions, dep);
             }
-            out.println("\t\t</module>");
+            out.line("\t\t</module>");
         }
-        out.println("\t</dependencies>");
+        out.line("\t</dependencies>");
         outputEasyAntModuleInfos(easyAntReport, out);
 
-        out.println("</easyant-report>");
-        out.flush();
+        out.line("</easyant-report>");
     }
 
-    private void ouputRevision(ConfigurationResolveReport report, PrintWriter out, List<?> dependencies, IvyNode dep) {
-        Map<?, ?> extraAttributes;
+    private void ouputRevision(ConfigurationResolveReport report, XmlStream out,
+            Map<ModuleRevisionId, Integer> positions, IvyNode dep) throws IOException {
         ModuleDescriptor md = null;
         if (dep.getModuleRevision() != null) {
             md = dep.getModuleRevision().getDescriptor();
         }
-        StringBuilder details = new StringBuilder();
+        out.raw("\t\t\t<revision").attribute("name", dep.getResolvedId().getRevision());
+        if (dep.getResolvedId().getBranch() != null) {
+            out.attribute("branch", dep.getResolvedId().getBranch());
+        }
         if (dep.isLoaded()) {
-            details.append(" status=\"");
-            details.append(XMLHelper.escape(dep.getDescriptor().getStatus()));
-            details.append("\" pubdate=\"");
-            details.append(DateUtil.format(new Date(dep.getPublication())));
-            details.append("\" resolver=\"");
-            details.append(XMLHelper.escape(dep.getModuleRevision().getResolver().getName()));
-            details.append("\" artresolver=\"");
-            details.append(XMLHelper.escape(dep.getModuleRevision().getArtifactResolver().getName()));
-            details.append("\"");
+            out.attribute("status", dep.getDescriptor().getStatus())
+                    .attribute("pubdate", DateUtil.format(new Date(dep.getPublication())))
+                    .attribute("resolver", dep.getModuleRevision().getResolver().getName())
+                    .attribute("artresolver", dep.getModuleRevision().getArtifactResolver().getName());
         }
         if (dep.isEvicted(report.getConfiguration())) {
             EvictionData ed = dep.getEvictedData(report.getConfiguration());
             if (ed.getConflictManager() != null) {
-                details.append(" evicted=\"").append(XMLHelper.escape(ed.getConflictManager().toString())).append("\"");
+                out.attribute("evicted", ed.getConflictManager().toString());
             } else {
-                details.append(" evicted=\"transitive\"");
+                out.attribute("evicted", "transitive");
             }
-            details.append(" evicted-reason=\"").append(XMLHelper.escape(ed.getDetail() == null ? "" : ed.getDetail()))
-                    .append("\"");
+            out.attribute("evicted-reason", ed.getDetail() == null ? "" : ed.getDetail());
         }
         if (dep.hasProblem()) {
-            details.append(" error=\"").append(XMLHelper.escape(dep.getProblem().getMessage())).append("\"");
+            out.attribute("error", dep.getProblem().getMessage());
         }
         if (md != null && md.getHomePage() != null) {
-            details.append(" homepage=\"").append(XMLHelper.escape(md.getHomePage())).append("\"");
-        }
-        extraAttributes = md != null ? md.getExtraAttributes() : dep.getResolvedId().getExtraAttributes();
-        for (Entry<?, ?> entry1 : extraAttributes.entrySet()) {
-            Entry<String, Object> entry = (Entry<String, Object>) entry1;
-            details.append(" extra-").append(entry.getKey()).append("=\"")
-                    .append(XMLHelper.escape(entry.getValue().toString())).append("\"");
-        }
-        String defaultValue = dep.getDescriptor() != null ? " default=\"" + dep.getDescriptor().isDefault() + "\"" : "";
-        int position = dependencies.indexOf(dep.getResolvedId());
-        out.println("\t\t\t<revision name=\""
-                + XMLHelper.escape(dep.getResolvedId().getRevision())
-                + "\""
-                + (dep.getResolvedId().getBranch() == null ? "" : " branch=\""
-                + XMLHelper.escape(dep.getResolvedId().getBranch()) + "\"") + details + " downloaded=\""
-                + dep.isDownloaded() + "\"" + " searched=\"" + dep.isSearched() + "\"" + defaultValue + " conf=\""
-                + toString(dep.getConfigurations(report.getConfiguration())) + "\"" + " position=\"" + position + "\">");
+            out.attribute("homepage", md.getHomePage());
+        }
+        outputExtraAttributes(out, md != null ? md.getExtraAttributes() : dep.getResolvedId().getExtraAttributes());
+        out.attribute("downloaded", dep.isDownloaded()).attribute("searched", dep.isSearched());
+        if (dep.getDescriptor() != null) {
+            out.attribute("default", dep.getDescriptor().isDefault());
+        }
+        Integer position = positions.get(dep.getResolvedId());
+        out.attribute("conf", dep.getConfigurations(report.getConfiguration()))
+                .attribute("position", position != null ? position : -1).line(">");
         if (md != null) {
             License[] licenses = md.getLicenses();
             for (License license : licenses) {
-                String lurl;
+                out.raw("\t\t\t\t<license").attribute("name", license.getName());
                 if (license.getUrl() != null) {
-                    lurl = " url=\"" + XMLHelper.escape(license.getUrl()) + "\"";
-                } else {
-                    lurl = "";
+                    out.attribute("url", license.getUrl());
                 }
-                out.println("\t\t\t\t<license name=\"" + XMLHelper.escape(license.getName()) + "\"" + lurl + "/>");
+                out.line("/>");
             }
         }
         outputMetadataArtifact(out, dep);
         outputEvictionInformation(report, out, dep);
         outputCallers(report, out, dep);
         outputArtifacts(report, out, dep);
-        out.println("\t\t\t</revision>");
+        out.line("\t\t\t</revision>");
     }
 
-    private void outputEvictionInformation(ConfigurationResolveReport report, PrintWriter out, IvyNode dep) {
+    private void outputEvictionInformation(ConfigurationResolveReport report, XmlStream out, IvyNode dep)
+            throws IOException {
         if (dep.isEvicted(report.getConfiguration())) {
             EvictionData ed = dep.getEvictedData(report.getConfiguration());
             Collection<?> selected = ed.getSelected();
             if (selected != null) {
                 for (Object aSelected : selected) {
                     IvyNode sel = (IvyNode) aSelected;
-                    out.println("\t\t\t\t<evicted-by rev=\"" + XMLHelper.escape(sel.getResolvedId().getRevision())
-                            + "\"/>");
+                    out.raw("\t\t\t\t<evicted-by").attribute("rev", sel.getResolvedId().getRevision()).line("/>");
                 }
             }
         }
     }
 
-    private void outputMetadataArtifact(PrintWriter out, IvyNode dep) {
+    private void outputMetadataArtifact(XmlStream out, IvyNode dep) throws IOException {
         if (dep.getModuleRevision() != null) {
             MetadataArtifactDownloadReport madr = dep.getModuleRevision().getReport();
-            out.print("\t\t\t\t<metadata-artifact");
-            out.print(" status=\"" + XMLHelper.escape(madr.getDownloadStatus().toString()) + "\"");
-            out.print(" details=\"" + XMLHelper.escape(madr.getDownloadDetails()) + "\"");
-            out.print(" size=\"" + madr.getSize() + "\"");
-            out.print(" time=\"" + madr.getDownloadTimeMillis() + "\"");
+            out.raw("\t\t\t\t<metadata-artifact").attribute("status", madr.getDownloadStatus().toString())
+                    .attribute("details", madr.getDownloadDetails()).attribute("size", madr.getSize())
+                    .attribute("time", madr.getDownloadTimeMillis());
             if (madr.getLocalFile() != null) {
-                out.print(" location=\"" + XMLHelper.escape(madr.getLocalFile().getAbsolutePath()) + "\"");
+                out.attribute("location", madr.getLocalFile().getAbsolutePath());
             }
-
-            out.print(" searched=\"" + madr.isSearched() + "\"");
+            out.attribute("searched", madr.isSearched());
             if (madr.getOriginalLocalFile() != null) {
-                out.print(" original-local-location=\""
-                        + XMLHelper.escape(madr.getOriginalLocalFile().getAbsolutePath()) + "\"");
+                out.attribute("original-local-location", madr.getOriginalLocalFile().getAbsolutePath());
             }
 
             ArtifactOrigin origin = madr.getArtifactOrigin();
             if (origin != null) {
-                out.print(" origin-is-local=\"" + origin.isLocal() + "\"");
-                out.print(" origin-location=\"" + XMLHelper.escape(origin.getLocation()) + "\"");
+                out.attribute("origin-is-local", origin.isLocal()).attribute("origin-location", origin.getLocation());
             }
-            out.println("/>");
-
+            out.line("/>");
         }
     }
 
-    private void outputCallers(ConfigurationResolveReport report, PrintWriter out, IvyNode dep) {
+    private void outputCallers(ConfigurationResolveReport report, XmlStream out, IvyNode dep) throws IOException {
         Caller[] callers = dep.getCallers(report.getConfiguration());
         for (Caller caller : callers) {
-            StringBuilder callerDetails = new StringBuilder();
-            Map<?, ?> callerExtraAttributes = caller.getDependencyDescriptor().getExtraAttributes();
-            for (Entry<?, ?> entry : callerExtraAttributes.entrySet()) {
-                callerDetails.append(" extra-").append(entry.getKey()).append("=\"")
-                        .append(XMLHelper.escape(entry.getValue().toString())).append("\"");
-            }
-
-            out.println("\t\t\t\t<caller organisation=\""
-                    + XMLHelper.escape(caller.getModuleRevisionId().getOrganisation())
-                    + "\""
-                    + " name=\""
-                    + XMLHelper.escape(caller.getModuleRevisionId().getName())
-                    + "\""
-                    + " conf=\""
-                    + XMLHelper.escape(toString(caller.getCallerConfigurations()))
-                    + "\""
-                    + " rev=\""
-                    + XMLHelper.escape(caller.getAskedDependencyId(dep.getData()).getRevision())
-                    + "\""
-                    + " rev-constraint-default=\""
-                    + XMLHelper.escape(caller.getDependencyDescriptor().getDependencyRevisionId().getRevision())
-                    + "\""
-                    + " rev-constraint-dynamic=\""
-                    + XMLHelper.escape(caller.getDependencyDescriptor().getDynamicConstraintDependencyRevisionId()
-                    .getRevision()) + "\"" + " callerrev=\""
-                    + XMLHelper.escape(caller.getModuleRevisionId().getRevision()) + "\"" + callerDetails + "/>");
+            out.raw("\t\t\t\t<caller").attribute("organisation", caller.getModuleRevisionId().getOrganisation())
+                    .attribute("name", caller.getModuleRevisionId().getName())
+                    .attribute("conf", caller.getCallerConfigurations())
+                    .attribute("rev", caller.getAskedDependencyId(dep.getData()).getRevision())
+                    .attribute("rev-constraint-default",
+                            caller.getDependencyDescriptor().getDependencyRevisionId().getRevision())
+                    .attribute("rev-constraint-dynamic",
+                            caller.getDependencyDescriptor().getDynamicConstraintDependencyRevisionId().getRevision())
+                    .attribute("callerrev", caller.getModuleRevisionId().getRevision());
+            outputExtraAttributes(out, caller.getDependencyDescriptor().getExtraAttributes());
+            out.line("/>");
         }
     }
 
-    private void outputArtifacts(ConfigurationResolveReport report, PrintWriter out, IvyNode dep) {
-        Map<?, ?> extraAttributes;
+    private void outputArtifacts(ConfigurationResolveReport report, XmlStream out, IvyNode dep) throws IOException {
         ArtifactDownloadReport[] adr = report.getDownloadReports(dep.getResolvedId());
-        out.println("\t\t\t\t<artifacts>");
+        out.line("\t\t\t\t<artifacts>");
         for (ArtifactDownloadReport anAdr : adr) {
-            out.print("\t\t\t\t\t<artifact name=\"" + XMLHelper.escape(anAdr.getName()) + "\" type=\""
-                    + XMLHelper.escape(anAdr.getType()) + "\" ext=\"" + XMLHelper.escape(anAdr.getExt()) + "\"");
-            extraAttributes = anAdr.getArtifact().getExtraAttributes();
-            for (Entry<?, ?> entry : extraAttributes.entrySet()) {
-                out.print(" extra-" + entry.getKey() + "=\"" + XMLHelper.escape(entry.getValue().toString()) + "\"");
-            }
-            out.print(" status=\"" + XMLHelper.escape(anAdr.getDownloadStatus().toString()) + "\"");
-            out.print(" details=\"" + XMLHelper.escape(anAdr.getDownloadDetails()) + "\"");
-            out.print(" size=\"" + anAdr.getSize() + "\"");
-            out.print(" time=\"" + anAdr.getDownloadTimeMillis() + "\"");
+            out.raw("\t\t\t\t\t<artifact").attribute("name", anAdr.getName()).attribute("type", anAdr.getType())
+                    .attribute("ext", anAdr.getExt());
+            outputExtraAttributes(out, anAdr.getArtifact().getExtraAttributes());
+            out.attribute("status", anAdr.getDownloadStatus().toString())
+                    .attribute("details", anAdr.getDownloadDetails()).attribute("size", anAdr.getSize())
+                    .attribute("time", anAdr.getDownloadTimeMillis());
             if (anAdr.getLocalFile() != null) {
-                out.print(" location=\"" + XMLHelper.escape(anAdr.getLocalFile().getAbsolutePath()) + "\"");
+                out.attribute("location", anAdr.getLocalFile().getAbsolutePath());
             }
 
             ArtifactOrigin origin = anAdr.getArtifactOrigin();
             if (origin != null) {
-                out.println(">");
-                out.println("\t\t\t\t\t\t<origin-location is-local=\"" + origin.isLocal() + "\"" + " location=\""
-                        + XMLHelper.escape(origin.getLocation()) + "\"/>");
-                out.println("\t\t\t\t\t</artifact>");
+                out.line(">");
+                out.raw("\t\t\t\t\t\t<origin-location").attribute("is-local", origin.isLocal())
+                        .attribute("location", origin.getLocation()).line("/>");
+                out.line("\t\t\t\t\t</artifact>");
             } else {
-                out.println("/>");
+                out.line("/>");
             }
         }
-        out.println("\t\t\t\t</artifacts>");
+        out.line("\t\t\t\t</artifacts>");
     }
 
-    private String toString(String[] strs) {
-        StringBuilder buf = new StringBuilder();
-        for (int i = 0; i < strs.length; i++) {
-            buf.append(strs[i]);
-            if (i + 1 < strs.length) {
-                buf.append(", ");
-            }
+    private void outputExtraAttributes(XmlStream out, Map<?, ?> extraAttributes) throws IOException {
+        for (Entry<?, ?> entry : extraAttributes.entrySet()) {
+            out.attribute("extra-" + entry.getKey(), entry.getValue().toString());
         }
-        return XMLHelper.escape(buf.toString());
     }
 
     public void setDisplaySubElements(boolean displaySubElements) {
@@ -306,20 +280,20 @@ public class XMLEasyAntReportWriter {
 
     }
 
-    private void outputEasyAntModuleInfos(EasyAntReport easyAntReport, PrintWriter out) {
-        out.println("\t<easyant>");
+    private void outputEasyAntModuleInfos(EasyAntReport easyAntReport, XmlStream out) throws IOException {
+        out.line("\t<easyant>");
         // targets
         outputTargets(easyAntReport, out);
         outputExtensionPoints(easyAntReport, out);
         outputImportedModules(easyAntReport, out);
         outputParameters(easyAntReport, out);
         outputProperties(easyAntReport, out);
-        out.println("\t</easyant>");
+        out.line("\t</easyant>");
 
     }
 
-    private void outputProperties(EasyAntReport easyAntReport, PrintWriter out) {
-        out.println("\t\t<properties>");
+    private void outputProperties(EasyAntReport easyAntReport, XmlStream out) throws IOException {
+        out.line("\t\t<properties>");
         Map<String, PropertyDescriptor> properties;
         if (displaySubElements) {
             properties = easyAntReport.getPropertyDescriptors();
@@ -329,38 +303,24 @@ public class XMLEasyAntReportWriter {
 
         for (Entry<String, PropertyDescriptor> entry : properties.entrySet()) {
             PropertyDescriptor propertyDescriptor = entry.getValue();
-
-            StringBuilder param = new StringBuilder();
-            param.append("\t\t\t<property name=\"");
-            param.append(propertyDescriptor.getName());
-            param.append("\"");
+            out.raw("\t\t\t<property").attribute("name", propertyDescriptor.getName());
             if (propertyDescriptor.getDescription() != null) {
-                param.append(" description=\"");
-                param.append(propertyDescriptor.getDescription());
-                param.append("\"");
+                out.attribute("description", propertyDescriptor.getDescription());
             }
-            param.append(" required=\"");
-            param.append(propertyDescriptor.isRequired());
-            param.append("\"");
+            out.attribute("required", propertyDescriptor.isRequired());
             if (propertyDescriptor.getDefaultValue() != null) {
-                param.append(" default=\"");
-                param.append(propertyDescriptor.getDefaultValue());
-                param.append("\"");
+                out.attribute("default", propertyDescriptor.getDefaultValue());
             }
             if (propertyDescriptor.getValue() != null) {
-                param.append(" value=\"");
-                param.append(propertyDescriptor.getValue());
-                param.append("\"");
+                out.attribute("value", propertyDescriptor.getValue());
             }
-            param.append("/>");
-            out.println(param.toString());
-
+            out.line("/>");
         }
-        out.println("\t\t</properties>");
+        out.line("\t\t</properties>");
     }
 
-    private void outputParameters(EasyAntReport easyAntReport, PrintWriter out) {
-        out.println("\t\t<parameters>");
+    private void outputParameters(EasyAntReport easyAntReport, XmlStream out) throws IOException {
+        out.line("\t\t<parameters>");
         List<ParameterReport> parameterReports;
         if (displaySubElements) {
             parameterReports = easyAntReport.getParameterReports();
@@ -368,35 +328,26 @@ public class XMLEasyAntReportWriter {
             parameterReports = easyAntReport.getParameterReportsFromCurrentModule();
         }
         for (ParameterReport paramReport : parameterReports) {
-            StringBuilder param = new StringBuilder();
-
-            if (!ParameterType.PROPERTY.equals(paramReport.getType())) {
-                if (ParameterType.PATH.equals(paramReport.getType())) {
-                    param.append("\t\t\t<path name=\"");
-                }
-                if (ParameterType.FILESET.equals(paramReport.getType())) {
-                    param.append("\t\t\t<fileset name=\"");
-                }
-                param.append(paramReport.getName());
-                param.append("\"");
-                if (paramReport.getDescription() != null) {
-                    param.append(" description=\"");
-                    param.append(paramReport.getDescription());
-                    param.append("\"");
-                }
-                param.append(" required=\"");
-                param.append(paramReport.isRequired());
-                param.append("\"");
-                param.append("/>");
+            if (ParameterType.PATH.equals(paramReport.getType())) {
+                out.raw("\t\t\t<path");
+            } else if (ParameterType.FILESET.equals(paramReport.getType())) {
+                out.raw("\t\t\t<fileset");
+            } else {
+                // properties are reported in properties section
+                continue;
+            }
+            out.attribute("name", paramReport.getName());
+            if (paramReport.getDescription() != null) {
+                out.attribute("description", paramReport.getDescription());
             }
-            out.println(param);
+            out.attribute("required", paramReport.isRequired()).line("/>");
         }
 
-        out.println("\t\t</parameters>");
+        out.line("\t\t</parameters>");
     }
 
-    private void outputImportedModules(EasyAntReport easyAntReport, PrintWriter out) {
-        out.println("\t\t<imports>");
+    private void outputImportedModules(EasyAntReport easyAntReport, XmlStream out) throws IOException {
+        out.line("\t\t<imports>");
         Set<ImportedModuleReport> importedModuleReports;
         if (displaySubElements) {
             importedModuleReports = easyAntReport.getImportedModuleReports();
@@ -406,42 +357,33 @@ public class XMLEasyAntReportWriter {
 
         for (ImportedModuleReport importedModuleReport : importedModuleReports) {
             String mode = importedModuleReport.getMode() != null ? importedModuleReport.getMode() : "import";
-            StringBuilder importedModule = new StringBuilder();
+            out.raw("\t\t\t<import");
             try {
                 ModuleRevisionId mrid = ModuleRevisionId.parse(importedModuleReport.getModuleMrid());
-                importedModule.append("\t\t\t<import organisation=\"").append(mrid.getOrganisation())
-                        .append("\" name=\"").append(mrid.getName()).append("\" revision=\"")
-                        .append(mrid.getRevision()).append("\" type=\"").append(mode).append("\"");
-
+                out.attribute("organisation", mrid.getOrganisation()).attribute("name", mrid.getName())
+                        .attribute("revision", mrid.getRevision());
             } catch (IllegalArgumentException e) {
                 Message.debug("Unable to parse " + importedModuleReport.getModuleMrid());
-                importedModule.append("                        <import organisation=\"")
-                        .append(importedModuleReport.getModuleMrid()).append("\" name=\"").append("null")
-                        .append("\" revision=\"").append("null").append("\" type=\"").append(mode).append("\"");
-
+                out.attribute("organisation", importedModuleReport.getModuleMrid()).attribute("name", "null")
+                        .attribute("revision", "null");
             }
-            importedModule.append(" mandatory=\"");
-            importedModule.append(importedModuleReport.isMandatory());
-            importedModule.append("\"");
+            out.attribute("type", mode).attribute("mandatory", importedModuleReport.isMandatory());
             if (importedModuleReport.getAs() != null) {
-                importedModule.append(" as=\"");
-                importedModule.append(importedModuleReport.getAs());
-                importedModule.append("\"");
+                out.attribute("as", importedModuleReport.getAs());
             }
-            importedModule.append(">");
-            out.println(importedModule.toString());
+            out.line(">");
             if (importedModuleReport.getEasyantReport() != null) {
                 outputEasyAntModuleInfos(importedModuleReport.getEasyantReport(), out);
             }
-            out.println("\t\t\t</import>");
+            out.line("\t\t\t</import>");
 
         }
-        out.println("\t\t</imports>");
+        out.line("\t\t</imports>");
 
     }
 
-    private void outputExtensionPoints(EasyAntReport easyAntReport, PrintWriter out) {
-        out.println("\t\t<extension-points>");
+    private void outputExtensionPoints(EasyAntReport easyAntReport, XmlStream out) throws IOException {
+        out.line("\t\t<extension-points>");
         List<ExtensionPointReport> extensionPointReports;
         if (displaySubElements) {
             extensionPointReports = easyAntReport.getExtensionPointReports();
@@ -449,26 +391,20 @@ public class XMLEasyAntReportWriter {
             extensionPointReports = easyAntReport.getExtensionPointReportsFromCurrentModule();
         }
         for (ExtensionPointReport extensionPointReport : extensionPointReports) {
-            StringBuilder extensionPoint = new StringBuilder();
-            extensionPoint.append("\t\t\t<extension-point name=\"").append(extensionPointReport.getName()).append("\"");
+            out.raw("\t\t\t<extension-point").attribute("name", extensionPointReport.getName());
             if (extensionPointReport.getDescription() != null) {
-                extensionPoint.append(" description=\"");
-                extensionPoint.append(extensionPointReport.getDescription());
-                extensionPoint.append("\"");
+                out.attribute("description", extensionPointReport.getDescription());
             }
             if (extensionPointReport.getDepends() != null) {
-                extensionPoint.append(" depends=\"");
-                extensionPoint.append(extensionPointReport.getDepends());
-                extensionPoint.append("\"");
+                out.attribute("depends", extensionPointReport.getDepends());
             }
-            extensionPoint.append("/>");
-            out.println(extensionPoint.toString());
+            out.line("/>");
         }
-        out.println("\t\t</extension-points>");
+        out.line("\t\t</extension-points>");
     }
 
-    private void outputTargets(EasyAntReport easyAntReport, PrintWriter out) {
-        out.println("\t\t<targets>");
+    private void outputTargets(EasyAntReport easyAntReport, XmlStream out) throws IOException {
+        out.line("\t\t<targets>");
         List<TargetReport> targetReports;
         if (displaySubElements) {
             targetReports = easyAntReport.getTargetReports();
@@ -477,36 +413,116 @@ public class XMLEasyAntReportWriter {
         }
 
         for (TargetReport targetReport : targetReports) {
-            StringBuilder target = new StringBuilder();
-            target.append("\t\t\t<target name=\"").append(targetReport.getName()).append("\"");
+            out.raw("\t\t\t<target").attribute("name", targetReport.getName());
             if (targetReport.getDescription() != null) {
-                target.append(" description=\"");
-                target.append(targetReport.getDescription());
-                target.append("\"");
+                out.attribute("description", targetReport.getDescription());
             }
             if (targetReport.getDepends() != null) {
-                target.append(" depends=\"");
-                target.append(targetReport.getDepends());
-                target.append("\"");
+                out.attribute("depends", targetReport.getDepends());
             }
             if (targetReport.getIfCase() != null) {
-                target.append(" if=\"");
-                target.append(targetReport.getIfCase());
-                target.append("\"");
+                out.attribute("if", targetReport.getIfCase());
             }
             if (targetReport.getExtensionPoint() != null) {
-                target.append(" extensionOf=\"");
-                target.append(targetReport.getExtensionPoint());
-                target.append("\"");
+                out.attribute("extensionOf", targetReport.getExtensionPoint());
             }
             if (targetReport.getUnlessCase() != null) {
-                target.append(" unless=\"");
-                target.append(targetReport.getUnlessCase());
-                target.append("\"");
+                out.attribute("unless", targetReport.getUnlessCase());
+            }
+            out.line("/>");
+        }
+        out.line("\t\t</targets>");
+    }
+
+    /**
+     * Minimal streaming xml output. Attribute values are escaped while being written to the underlying buffered
+     * writer.
+     */
+    private static class XmlStream {
+
+        private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+        private final Writer out;
+
+        public XmlStream(OutputStream stream) {
+            try {
+                out = new BufferedWriter(new OutputStreamWriter(stream, REPORT_ENCODING));
+            } catch (UnsupportedEncodingException e) {
+                throw new RuntimeException(REPORT_ENCODING + " is not known on your jvm", e);
+            }
+        }
+
+        public XmlStream raw(String text) throws IOException {
+            out.write(text);
+            return this;
+        }
+
+        public XmlStream line(String text) throws IOException {
+            out.write(String.valueOf(text));
+            out.write(LINE_SEPARATOR);
+            return this;
+        }
+
+        public XmlStream attribute(String name, String value) throws IOException {
+            out.write(' ');
+            out.write(name);
+            out.write("=\"");
+            if (value != null) {
+                escape(value);
             }
-            target.append("/>");
-            out.println(target.toString());
+            out.write('"');
+            return this;
+        }
+
+        public XmlStream attribute(String name, String[] values) throws IOException {
+            out.write(' ');
+            out.write(name);
+            out.write("=\"");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(", ");
+                }
+                escape(values[i]);
+            }
+            out.write('"');
+            return this;
+        }
+
+        public XmlStream attribute(String name, boolean value) throws IOException {
+            return attribute(name, value ? "true" : "false");
+        }
+
+        public XmlStream attribute(String name, long value) throws IOException {
+            return attribute(name, Long.toString(value));
+        }
+
+        private void escape(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '>':
+                    out.write("&gt;");
+                    break;
+                case '"':
+                    out.write("&quot;");
+                    break;
+                case '\'':
+                    out.write("&apos;");
+                    break;
+                default:
+                    out.write(c);
+                }
+            }
+        }
+
+        public void flush() throws IOException {
+            out.flush();
         }
-        out.println("\t\t</targets>");
     }
 }
@@ -0,0 +1,173 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.services;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.easyant.core.report.EasyAntReport;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+
+/**
+ * Asynchronous facade of a {@link PluginService}, intended for callers which can't block while plugins are resolved
+ * and analysed (IDE background jobs, a daemon serving several clients...). Each call is run by an executor and returns
+ * a {@link Future}.
+ * <p>
+ * Cancelling a future with <code>cancel(true)</code> interrupts the thread running the call. Ivy aborts downloads of
+ * an interrupted thread, and {@link DefaultPluginService} stops between resolve and analysis steps, so a cancelled
+ * call releases its worker as soon as possible.
+ * </p>
+ * <p>
+ * The wrapped service must support concurrent callers, as {@link DefaultPluginService} does.
+ * </p>
+ */
+public class AsyncPluginService {
+
+    private final PluginService pluginService;
+
+    private final ExecutorService executor;
+
+    /**
+     * Create an asynchronous plugin service running calls with the given executor
+     * 
+     * @param pluginService
+     *            the plugin service doing the actual work
+     * @param executor
+     *            executor running calls, its lifecycle remains managed by the caller
+     */
+    public AsyncPluginService(PluginService pluginService, ExecutorService executor) {
+        if (pluginService == null) {
+            throw new IllegalArgumentException("pluginService cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+        this.pluginService = pluginService;
+        this.executor = executor;
+    }
+
+    /**
+     * Create an asynchronous plugin service running at most threadCount calls concurrently. Threads are daemon
+     * threads, {@link #shutdown()} should be called once the service is not needed anymore.
+     * 
+     * @param pluginService
+     *            the plugin service doing the actual work
+     * @param threadCount
+     *            maximum number of concurrent calls
+     */
+    public AsyncPluginService(PluginService pluginService, int threadCount) {
+        this(pluginService, Executors.newFixedThreadPool(threadCount, new PluginServiceThreadFactory()));
+    }
+
+    public PluginService getPluginService() {
+        return pluginService;
+    }
+
+    /**
+     * @see PluginService#getPluginInfo(ModuleRevisionId, String)
+     */
+    public Future<EasyAntReport> getPluginInfo(final ModuleRevisionId moduleRevisionId, final String conf) {
+        return executor.submit(new Callable<EasyAntReport>() {
+            public EasyAntReport call() throws Exception {
+                return pluginService.getPluginInfo(moduleRevisionId, conf);
+            }
+        });
+    }
+
+    /**
+     * @see PluginService#getPluginInfo(String)
+     */
+    public Future<EasyAntReport> getPluginInfo(final String moduleRevisionId) {
+        return executor.submit(new Callable<EasyAntReport>() {
+            public EasyAntReport call() throws Exception {
+                return pluginService.getPluginInfo(moduleRevisionId);
+            }
+        });
+    }
+
+    /**
+     * @see PluginService#getPluginInfos(List, String)
+     */
+    public Future<List<EasyAntReport>> getPluginInfos(final List<ModuleRevisionId> moduleRevisionIds,
+            final String conf) {
+        return executor.submit(new Callable<List<EasyAntReport>>() {
+            public List<EasyAntReport> call() throws Exception {
+                return pluginService.getPluginInfos(moduleRevisionIds, conf);
+            }
+        });
+    }
+
+    /**
+     * @see PluginService#generateEasyAntReport(File, File, File)
+     */
+    public Future<EasyAntReport> generateEasyAntReport(final File moduleDescriptor, final File optionalAntModule,
+            final File overrideAntModule) {
+        return executor.submit(new Callable<EasyAntReport>() {
+            public EasyAntReport call() throws Exception {
+                return pluginService.generateEasyAntReport(moduleDescriptor, optionalAntModule, overrideAntModule);
+            }
+        });
+    }
+
+    /**
+     * @see PluginService#search(String, String, String, String, String, String)
+     */
+    public Future<ModuleRevisionId[]> search(final String organisation, final String moduleName,
+            final String revision, final String branch, final String matcher, final String resolver) {
+        return executor.submit(new Callable<ModuleRevisionId[]>() {
+            public ModuleRevisionId[] call() throws Exception {
+                return pluginService.search(organisation, moduleName, revision, branch, matcher, resolver);
+            }
+        });
+    }
+
+    /**
+     * @see PluginService#getDescription(ModuleRevisionId)
+     */
+    public Future<String> getDescription(final ModuleRevisionId mrid) {
+        return executor.submit(new Callable<String>() {
+            public String call() throws Exception {
+                return pluginService.getDescription(mrid);
+            }
+        });
+    }
+
+    /**
+     * Cancel running calls and stop accepting new ones
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class PluginServiceThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "easyant-plugin-service-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
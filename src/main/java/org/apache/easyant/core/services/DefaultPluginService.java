@@ -20,10 +20,14 @@ package org.apache.easyant.core.services;
 import org.apache.easyant.core.EasyAntConstants;
 import org.apache.easyant.core.EasyAntMagicNames;
 import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ant.helper.CompiledAntScript;
 import org.apache.easyant.core.ant.listerners.TaskCollectorFromImplicitTargetListener;
 import org.apache.easyant.core.descriptor.EasyAntModuleDescriptor;
 import org.apache.easyant.core.descriptor.PluginType;
 import org.apache.easyant.core.descriptor.PropertyDescriptor;
+import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.ivy.RepositoryIndex;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex;
 import org.apache.easyant.core.parser.DefaultEasyAntXmlModuleDescriptorParser;
 import org.apache.easyant.core.parser.EasyAntModuleDescriptorParser;
 import org.apache.easyant.core.report.*;
@@ -55,9 +59,20 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 public class DefaultPluginService implements PluginService {
 
@@ -66,7 +81,17 @@ public class DefaultPluginService implements PluginService {
     private final Ivy ivyInstance;
     private final IvyAntSettings easyantIvySettings;
 
-    private boolean offlineMode;
+    // settings can be changed while other threads are generating reports
+    private volatile boolean offlineMode;
+
+    private volatile RepositoryIndex repositoryIndex;
+
+    // last modification of the repositories the index has been generated from, computed once per index
+    private volatile Long repositoryLastModified;
+
+    private volatile PluginReportCache reportCache;
+
+    private volatile int threadCount = 4;
 
     /**
      * This is the default constructor, the IvyContext should be the IvyContext configured to the easyant ivy instance
@@ -92,24 +117,32 @@ public class DefaultPluginService implements PluginService {
         }
         this.parser = parser;
         ModuleDescriptorParserRegistry.getInstance().addParser(parser);
+        this.reportCache = new PluginReportCache(new File(ivyInstance.getSettings().getDefaultCache(),
+                "easyant-reports"));
     }
 
     public EasyAntReport getPluginInfo(File pluginIvyFile, File sourceDirectory, String conf) throws Exception {
+        checkInterrupted("report generation of " + pluginIvyFile);
         IvyContext.pushNewContext().setIvy(ivyInstance);
         EasyAntReport eaReport = null;
+        ReportAnalysis analysis = new ReportAnalysis();
         try {
 
             ResolveOptions resolveOptions = buildResolveOptions(conf);
-            ResolveReport report = IvyContext.getContext().getIvy().getResolveEngine()
-                    .resolve(pluginIvyFile.toURI().toURL(), resolveOptions);
+            ResolveReport report;
+            synchronized (IvyInstanceHelper.getResolveLock(ivyInstance)) {
+                report = IvyContext.getContext().getIvy().getResolveEngine()
+                        .resolve(pluginIvyFile.toURI().toURL(), resolveOptions);
+            }
+            checkInterrupted("report generation of " + pluginIvyFile);
             eaReport = new EasyAntReport();
             eaReport.setResolveReport(report);
             eaReport.setModuleDescriptor(report.getModuleDescriptor());
 
             Project project = buildProject();
 
-            // expose resolve report for import deferred
-            project.addReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF, report);
+            // expose resolved modules for import deferred
+            project.addReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF, eaReport.getResolvedModules());
 
             // emulate top level project
             ImportTestModule importTestModule = new ImportTestModule();
@@ -120,10 +153,11 @@ public class DefaultPluginService implements PluginService {
             importTestModule.setProject(project);
             importTestModule.execute();
 
-            analyseProject(project, eaReport, conf);
+            analyseProject(project, eaReport, conf, analysis);
         } catch (Exception e) {
             throw new Exception("An error occured while fetching plugin informations : " + e.getMessage(), e);
         } finally {
+            analysis.shutdown();
             IvyContext.popContext();
         }
         return eaReport;
@@ -138,30 +172,71 @@ public class DefaultPluginService implements PluginService {
         return resolveOptions;
     }
 
-    public EasyAntReport getPluginInfo(final ModuleRevisionId moduleRevisionId, String conf) throws Exception {
+    public EasyAntReport getPluginInfo(ModuleRevisionId moduleRevisionId, String conf) throws Exception {
+        ReportAnalysis analysis = new ReportAnalysis();
+        try {
+            return getPluginInfo(moduleRevisionId, conf, analysis);
+        } finally {
+            analysis.shutdown();
+        }
+    }
+
+    public List<EasyAntReport> getPluginInfos(List<ModuleRevisionId> moduleRevisionIds, String conf)
+            throws Exception {
+        ReportAnalysis analysis = new ReportAnalysis();
+        try {
+            analysis.retain(moduleRevisionIds, conf);
+            return analysis.analyse(moduleRevisionIds, conf);
+        } finally {
+            analysis.shutdown();
+        }
+    }
+
+    private EasyAntReport getPluginInfo(final ModuleRevisionId moduleRevisionId, String conf,
+            ReportAnalysis analysis) throws Exception {
+        checkInterrupted("report generation of " + moduleRevisionId);
         IvyContext.pushNewContext().setIvy(ivyInstance);
         EasyAntReport eaReport = null;
         try {
 
             ResolveOptions resolveOptions = buildResolveOptions(conf);
-            final ResolveReport report = IvyContext.getContext().getIvy().getResolveEngine()
-                    .resolve(moduleRevisionId, resolveOptions, false);
+            final ResolveReport report;
+            // imported modules are analysed concurrently, resolves too unless the ivy cache isn't locked
+            synchronized (IvyInstanceHelper.getResolveLock(ivyInstance)) {
+                report = IvyContext.getContext().getIvy().getResolveEngine()
+                        .resolve(moduleRevisionId, resolveOptions, false);
+            }
+            checkInterrupted("report generation of " + moduleRevisionId);
             eaReport = new EasyAntReport();
             eaReport.setResolveReport(report);
             eaReport.setModuleDescriptor(report.getModuleDescriptor());
 
+            PluginReportCache reportCache = this.reportCache;
+            ModuleRevisionId cacheableMrid = reportCache != null ? getCacheableRevision(moduleRevisionId, report)
+                    : null;
+            if (cacheableMrid != null) {
+                List<ImportedModuleReport> importedModules = reportCache.load(cacheableMrid, conf, eaReport);
+                if (importedModules != null) {
+                    analysis.analyseImportedModules(importedModules, conf);
+                    return eaReport;
+                }
+            }
+
             Project project = buildProject();
-            // expose resolve report for import deferred
-            project.addReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF, report);
+            // expose resolved modules for import deferred
+            project.addReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF, eaReport.getResolvedModules());
 
             AbstractImport abstractImport = new AbstractImport() {
                 @Override
                 public void execute() throws BuildException {
                     Path path = createModulePath(moduleRevisionId.getModuleId());
                     File antFile = null;
+                    File compiledAntFile = null;
                     for (ArtifactDownloadReport artifact : report.getConfigurationReport(getMainConf()).getAllArtifactsReports()) {
                         if ("ant".equals(artifact.getType())) {
                             antFile = artifact.getLocalFile();
+                        } else if (CompiledAntScript.EXTENSION.equals(artifact.getType())) {
+                            compiledAntFile = artifact.getLocalFile();
                         } else if (shouldBeAddedToClasspath(artifact)) {
                             path.createPathElement().setLocation(artifact.getLocalFile());
                         } else {
@@ -169,8 +244,9 @@ public class DefaultPluginService implements PluginService {
                                     artifact.getLocalFile());
                         }
                     }
-                    if (antFile != null && antFile.exists()) {
-                        ProjectHelper.configureProject(getProject(), antFile);
+                    File script = chooseScript(antFile, compiledAntFile);
+                    if (script != null) {
+                        ProjectHelper.configureProject(getProject(), script);
                     }
                 }
             };
@@ -179,7 +255,10 @@ public class DefaultPluginService implements PluginService {
             // location ?
             abstractImport.execute();
 
-            analyseProject(project, eaReport, conf);
+            analyseProject(project, eaReport, conf, analysis);
+            if (cacheableMrid != null) {
+                reportCache.store(cacheableMrid, conf, eaReport);
+            }
         } catch (Exception e) {
             throw new Exception("An error occured while fetching plugin informations : " + e.getMessage(), e);
         } finally {
@@ -189,6 +268,30 @@ public class DefaultPluginService implements PluginService {
 
     }
 
+    /**
+     * Get the revision under which the report of a plugin can be cached. Reports of integration revisions are never
+     * cached as such revisions can be republished.
+     *
+     * @return the resolved revision of the plugin, or null if its report must not be cached
+     */
+    private ModuleRevisionId getCacheableRevision(ModuleRevisionId moduleRevisionId, ResolveReport report) {
+        if (reportCache == null) {
+            return null;
+        }
+        for (Object o : report.getDependencies()) {
+            IvyNode node = (IvyNode) o;
+            if (node.getModuleId().equals(moduleRevisionId.getModuleId()) && node.getDescriptor() != null
+                    && !node.isCompletelyEvicted()) {
+                String status = node.getDescriptor().getStatus();
+                if (status == null || ivyInstance.getSettings().getStatusManager().isIntegration(status)) {
+                    return null;
+                }
+                return node.getResolvedId();
+            }
+        }
+        return null;
+    }
+
     private Project buildProject() {
         Project project = new Project();
         project.setNewProperty(EasyAntMagicNames.AUDIT_MODE, "true");
@@ -200,6 +303,7 @@ public class DefaultPluginService implements PluginService {
         listener.addClassToCollect(Property.class);
         listener.addClassToCollect(Import.class);
         listener.addClassToCollect(ImportDeferred.class);
+        listener.addClassToCollect(ImportBatch.class);
         listener.addClassToCollect(Path.class);
         listener.addClassToCollect(PathTask.class);
         listener.addClassToCollect(FileSet.class);
@@ -214,7 +318,9 @@ public class DefaultPluginService implements PluginService {
         return project;
     }
 
-    private void analyseProject(Project project, EasyAntReport eaReport, String conf) throws Exception {
+    private void analyseProject(Project project, EasyAntReport eaReport, String conf, ReportAnalysis analysis)
+            throws Exception {
+        List<ImportedModuleReport> importedModules = new ArrayList<ImportedModuleReport>();
 
         // handle tasks from implicit target
         // When using import/include, ant create a "implicit target" to process root tasks. When tasks are declared
@@ -225,7 +331,7 @@ public class DefaultPluginService implements PluginService {
             if (buildListener instanceof TaskCollectorFromImplicitTargetListener) {
                 TaskCollectorFromImplicitTargetListener taskCollectorFromImplicitTargetListener = (TaskCollectorFromImplicitTargetListener) buildListener;
                 for (Task task : taskCollectorFromImplicitTargetListener.getTasksCollected()) {
-                    handleTask(project, eaReport, conf, task);
+                    handleTask(project, eaReport, conf, task, importedModules);
                 }
             }
         }
@@ -240,10 +346,13 @@ public class DefaultPluginService implements PluginService {
                 handleTarget(target, eaReport);
                 for (int i = 0; i < target.getTasks().length; i++) {
                     Task task = target.getTasks()[i];
-                    handleTask(project, eaReport, conf, task);
+                    handleTask(project, eaReport, conf, task, importedModules);
                 }
             }
         }
+
+        // imported modules are analysed in their own project, concurrently
+        analysis.analyseImportedModules(importedModules, conf);
     }
 
     private Object maybeConfigureTask(Task task) {
@@ -260,7 +369,8 @@ public class DefaultPluginService implements PluginService {
         }
     }
 
-    private void handleTask(Project project, EasyAntReport eaReport, String conf, Task task) throws Exception {
+    private void handleTask(Project project, EasyAntReport eaReport, String conf, Task task,
+            List<ImportedModuleReport> importedModules) throws Exception {
         Class<?> taskClass = ComponentHelper.getComponentHelper(project).getComponentClass(task.getTaskType());
         if (taskClass != null) {
             if (ParameterTask.class.isAssignableFrom(taskClass)) {
@@ -273,12 +383,18 @@ public class DefaultPluginService implements PluginService {
             }
             if (Import.class.isAssignableFrom(taskClass)) {
                 Import importTask = (Import) maybeConfigureTask(task);
-                handleImport(importTask, eaReport, conf);
+                importedModules.add(handleImport(importTask, eaReport));
             }
 
             if (ImportDeferred.class.isAssignableFrom(taskClass)) {
                 ImportDeferred importTask = (ImportDeferred) maybeConfigureTask(task);
-                handleImportDeferred(importTask, eaReport, conf);
+                importedModules.add(handleImportDeferred(importTask, eaReport));
+            }
+            if (ImportBatch.class.isAssignableFrom(taskClass)) {
+                ImportBatch importBatch = (ImportBatch) maybeConfigureTask(task);
+                for (Import importTask : importBatch.getImports()) {
+                    importedModules.add(handleImport(importTask, eaReport));
+                }
             }
             if (Path.class.isAssignableFrom(taskClass)) {
                 Path path = (Path) maybeConfigureTask(task);
@@ -306,7 +422,7 @@ public class DefaultPluginService implements PluginService {
         return location != null && location.getFileName().equals(rootModuleLocation);
     }
 
-    private void handleImport(Import importTask, EasyAntReport eaReport, String conf) throws Exception {
+    private ImportedModuleReport handleImport(Import importTask, EasyAntReport eaReport) {
         ImportedModuleReport importedModuleReport = new ImportedModuleReport();
 
         importedModuleReport.setModuleMrid(importTask.getMrid());
@@ -317,30 +433,26 @@ public class DefaultPluginService implements PluginService {
         importedModuleReport.setMode(importTask.getMode());
         importedModuleReport.setAs(importTask.getAs());
 
-        EasyAntReport pluginInfo = getPluginInfo(ModuleRevisionId.parse(importedModuleReport.getModuleMrid()), conf);
-        importedModuleReport.setEasyantReport(pluginInfo);
         eaReport.addImportedModuleReport(importedModuleReport,
                 isCurrentModule(importTask.getProject(), importTask.getLocation()));
 
         Message.debug("Ant file import another module called : " + importedModuleReport.getModuleMrid() + " with mode "
                 + importedModuleReport.getMode());
+        return importedModuleReport;
     }
 
-    private void handleImportDeferred(ImportDeferred importTask, EasyAntReport eaReport, String conf) throws Exception {
+    private ImportedModuleReport handleImportDeferred(ImportDeferred importTask, EasyAntReport eaReport) {
         ImportedModuleReport importedModuleReport = new ImportedModuleReport();
 
         importedModuleReport.setOrganisation(importTask.getOrganisation());
         importedModuleReport.setModule(importTask.getModule());
-        ResolveReport resolveReport = importTask.getProject().getReference(
-                EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF);
-        if (resolveReport != null) {
-            for (Object o : resolveReport.getDependencies()) {
-                IvyNode dependency = (IvyNode) o;
-                if (dependency.getResolvedId().getOrganisation().equals(importTask.getOrganisation()) //
-                        && dependency.getResolvedId().getName().equals(importTask.getModule())) {
-                    importedModuleReport.setRevision(dependency.getResolvedId().getRevision());
-                }
-
+        ResolvedModulesIndex importedModules = importTask.getProject().getReference(
+                EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF);
+        if (importedModules != null) {
+            ModuleRevisionId resolvedId = importedModules.getResolvedRevision(ModuleId.newInstance(
+                    importTask.getOrganisation(), importTask.getModule()));
+            if (resolvedId != null) {
+                importedModuleReport.setRevision(resolvedId.getRevision());
             }
         }
 
@@ -348,13 +460,12 @@ public class DefaultPluginService implements PluginService {
         importedModuleReport.setMode(importTask.getMode());
         importedModuleReport.setAs(importTask.getAs());
 
-        EasyAntReport pluginInfo = getPluginInfo(ModuleRevisionId.parse(importedModuleReport.getModuleMrid()), conf);
-        importedModuleReport.setEasyantReport(pluginInfo);
         eaReport.addImportedModuleReport(importedModuleReport,
                 isCurrentModule(importTask.getProject(), importTask.getLocation()));
 
         Message.debug("Ant file import another module called : " + importedModuleReport.getModuleMrid() + " with mode "
                 + importedModuleReport.getMode());
+        return importedModuleReport;
     }
 
     private void handleProperty(Property property, EasyAntReport eaReport) throws IOException {
@@ -550,17 +661,24 @@ public class DefaultPluginService implements PluginService {
                     + moduleDescriptor.getAbsolutePath());
         }
         IvyContext.pushNewContext().setIvy(ivyInstance);
-        // First we need to parse the specified file to retrieve all the easyant
-        // stuff
-        parser.parseDescriptor(ivyInstance.getSettings(), moduleDescriptor.toURI().toURL(), new URLResource(
-                moduleDescriptor.toURI().toURL()), true);
-        EasyAntModuleDescriptor md = parser.getEasyAntModuleDescriptor();
-        IvyContext.popContext();
-        return md;
+        try {
+            // First we need to parse the specified file to retrieve all the easyant
+            // stuff
+            // the parser keeps the last parsed descriptor, parsing and getting it must not interleave with other
+            // threads
+            synchronized (parser) {
+                parser.parseDescriptor(ivyInstance.getSettings(), moduleDescriptor.toURI().toURL(), new URLResource(
+                        moduleDescriptor.toURI().toURL()), true);
+                return parser.getEasyAntModuleDescriptor();
+            }
+        } finally {
+            IvyContext.popContext();
+        }
     }
 
     public EasyAntReport generateEasyAntReport(File moduleDescriptor, File optionalAntModule, File overrideAntModule)
             throws Exception {
+        checkInterrupted("report generation of " + moduleDescriptor);
         EasyAntReport eaReport = new EasyAntReport();
         EasyAntModuleDescriptor md = getEasyAntModuleDescriptor(moduleDescriptor);
         eaReport.setModuleDescriptor(md.getIvyModuleDescriptor());
@@ -586,9 +704,15 @@ public class DefaultPluginService implements PluginService {
         loadModule.setProject(p);
         loadModule.setTaskName("load-module");
         loadModule.execute();
+        checkInterrupted("report generation of " + moduleDescriptor);
         ProjectHelper projectHelper = ProjectUtils.getConfiguredProjectHelper(p);
         projectHelper.resolveExtensionOfAttributes(p);
-        analyseProject(p, eaReport, "default");
+        ReportAnalysis analysis = new ReportAnalysis();
+        try {
+            analyseProject(p, eaReport, "default", analysis);
+        } finally {
+            analysis.shutdown();
+        }
 
         return eaReport;
     }
@@ -615,7 +739,31 @@ public class DefaultPluginService implements PluginService {
         }
 
         PatternMatcher patternMatcher = settings.getMatcher(matcher);
+        RepositoryIndex repositoryIndex = this.repositoryIndex;
         if (PatternMatcher.ANY_EXPRESSION.equals(resolver)) {
+            if (repositoryIndex != null) {
+                ModuleRevisionId[] indexedMrids = repositoryIndex.search(criteria, patternMatcher);
+                long lastModified = getRepositoryLastModified(repositoryIndex);
+                if (repositoryIndex.isComplete(settings) && lastModified != -1
+                        && lastModified <= repositoryIndex.getGenerationTime()) {
+                    // the repository index knows module revisions of all resolvers, no need to walk them
+                    return indexedMrids;
+                }
+                ModuleRevisionId[] liveMrids = ivyInstance.listModules(criteria, patternMatcher);
+                if (lastModified > repositoryIndex.getGenerationTime()) {
+                    Message.verbose("repository index is outdated, ignoring it");
+                    return liveMrids;
+                }
+                // the index may miss module revisions of some resolvers, or of recent publications
+                Message.verbose("repository index may be incomplete, merging it with live search results");
+                List<ModuleRevisionId> mrids = new ArrayList<ModuleRevisionId>(Arrays.asList(liveMrids));
+                for (ModuleRevisionId indexedMrid : indexedMrids) {
+                    if (!mrids.contains(indexedMrid)) {
+                        mrids.add(indexedMrid);
+                    }
+                }
+                return mrids.toArray(new ModuleRevisionId[mrids.size()]);
+            }
             // search in all resolvers. this can be quite slow for complex
             // repository configurations
             // with ChainResolvers, since resolvers in chains will be searched
@@ -652,6 +800,14 @@ public class DefaultPluginService implements PluginService {
     }
 
     public String getDescription(ModuleRevisionId mrid) {
+        RepositoryIndex repositoryIndex = this.repositoryIndex;
+        // only trust the index for the exact revision asked for, and if no repository changed since its generation
+        if (repositoryIndex != null && repositoryIndex.contains(mrid)
+                && !ivyInstance.getSettings().getVersionMatcher().isDynamic(mrid)
+                && getRepositoryLastModified(repositoryIndex) <= repositoryIndex.getGenerationTime()) {
+            return repositoryIndex.getDescription(mrid);
+        }
+        // not indexed or outdated index, fallback on live resolution
         ResolvedModuleRevision rmr = ivyInstance.findModule(mrid);
         return rmr.getDescriptor().getDescription();
     }
@@ -688,6 +844,178 @@ public class DefaultPluginService implements PluginService {
         return generateEasyAntReport(moduleDescriptor, null, null);
     }
 
+    /**
+     * Stop the current operation if the calling thread has been interrupted, typically by the cancellation of an
+     * asynchronous call
+     */
+    private void checkInterrupted(String operation) throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException(operation + " has been cancelled");
+        }
+    }
+
+    /**
+     * State shared by the analysis of a report and of all its imported modules, recursively. Imported modules are
+     * analysed concurrently, each with its own {@link IvyContext}, and a module imported several times is analysed only
+     * once. Circular imports are detected by tracking which analysis waits for which.
+     */
+    private class ReportAnalysis {
+
+        private final Map<String, FutureTask<EasyAntReport>> reports = new HashMap<String, FutureTask<EasyAntReport>>();
+
+        /**
+         * Keys of the reports returned to the caller, which keep their resolve report even when imported
+         */
+        private final Set<String> retainedKeys = new HashSet<String>();
+
+        /**
+         * Analyses waiting for the report of an imported module, indexed by key of the waiting analysis
+         */
+        private final Map<String, String> waitingAnalyses = new HashMap<String, String>();
+
+        /**
+         * Key of the analysis running in the current thread, if any
+         */
+        private final ThreadLocal<String> currentKey = new ThreadLocal<String>();
+
+        private ExecutorService executor;
+
+        private String getKey(ModuleRevisionId moduleRevisionId, String conf) {
+            return moduleRevisionId + "/" + conf;
+        }
+
+        private synchronized FutureTask<EasyAntReport> submit(final ModuleRevisionId moduleRevisionId,
+                final String conf) {
+            final String key = getKey(moduleRevisionId, conf);
+            FutureTask<EasyAntReport> report = reports.get(key);
+            if (report == null) {
+                report = new FutureTask<EasyAntReport>(new Callable<EasyAntReport>() {
+                    public EasyAntReport call() throws Exception {
+                        String callerKey = currentKey.get();
+                        currentKey.set(key);
+                        try {
+                            return getPluginInfo(moduleRevisionId, conf, ReportAnalysis.this);
+                        } finally {
+                            currentKey.set(callerKey);
+                        }
+                    }
+                });
+                reports.put(key, report);
+                int threadCount = DefaultPluginService.this.threadCount;
+                if (threadCount > 1) {
+                    if (executor == null) {
+                        executor = Executors.newFixedThreadPool(threadCount);
+                    }
+                    executor.execute(report);
+                }
+            }
+            return report;
+        }
+
+        /**
+         * Keep the resolve report of modules returned to the caller, must be called before analysing them
+         */
+        public synchronized void retain(List<ModuleRevisionId> moduleRevisionIds, String conf) {
+            for (ModuleRevisionId moduleRevisionId : moduleRevisionIds) {
+                retainedKeys.add(getKey(moduleRevisionId, conf));
+            }
+        }
+
+        private synchronized boolean isRetained(ModuleRevisionId moduleRevisionId, String conf) {
+            return retainedKeys.contains(getKey(moduleRevisionId, conf));
+        }
+
+        /**
+         * Analyse imported modules and attach their report. Reports of imported modules only keep the index of their
+         * resolve report.
+         */
+        public void analyseImportedModules(List<ImportedModuleReport> importedModules, String conf)
+                throws Exception {
+            List<ModuleRevisionId> moduleRevisionIds = new ArrayList<ModuleRevisionId>();
+            for (ImportedModuleReport importedModule : importedModules) {
+                moduleRevisionIds.add(ModuleRevisionId.parse(importedModule.getModuleMrid()));
+            }
+            List<EasyAntReport> importedReports = analyse(moduleRevisionIds, conf);
+            for (int i = 0; i < importedModules.size(); i++) {
+                EasyAntReport importedReport = importedReports.get(i);
+                if (!isRetained(moduleRevisionIds.get(i), conf)) {
+                    importedReport.releaseResolveReport();
+                }
+                importedModules.get(i).setEasyantReport(importedReport);
+            }
+        }
+
+        /**
+         * Analyse modules
+         * 
+         * @return the report of each module, in the same order
+         */
+        public List<EasyAntReport> analyse(List<ModuleRevisionId> moduleRevisionIds, String conf) throws Exception {
+            checkInterrupted("analysis of " + moduleRevisionIds);
+            List<FutureTask<EasyAntReport>> futureReports = new ArrayList<FutureTask<EasyAntReport>>();
+            for (ModuleRevisionId moduleRevisionId : moduleRevisionIds) {
+                futureReports.add(submit(moduleRevisionId, conf));
+            }
+            List<EasyAntReport> reports = new ArrayList<EasyAntReport>();
+            String callerKey = currentKey.get();
+            for (int i = 0; i < moduleRevisionIds.size(); i++) {
+                FutureTask<EasyAntReport> futureReport = futureReports.get(i);
+                if (callerKey != null) {
+                    waitFor(callerKey, getKey(moduleRevisionIds.get(i), conf));
+                }
+                try {
+                    // run it in current thread if no worker picked it yet, waiting analyses then never starve the pool
+                    futureReport.run();
+                    reports.add(futureReport.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new Exception("Interrupted while analysing " + moduleRevisionIds.get(i), e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                } finally {
+                    if (callerKey != null) {
+                        stopWaiting(callerKey);
+                    }
+                }
+            }
+            return reports;
+        }
+
+        /**
+         * Register that an analysis waits for the report of an imported module
+         * 
+         * @throws Exception
+         *             if the imported module is itself waiting, directly or not, for the calling analysis
+         */
+        private synchronized void waitFor(String callerKey, String key) throws Exception {
+            StringBuilder chain = new StringBuilder(toModuleName(callerKey));
+            for (String waitedKey = key; waitedKey != null; waitedKey = waitingAnalyses.get(waitedKey)) {
+                chain.append(" -> ").append(toModuleName(waitedKey));
+                if (waitedKey.equals(callerKey)) {
+                    throw new Exception("circular import detected : " + chain);
+                }
+            }
+            waitingAnalyses.put(callerKey, key);
+        }
+
+        private synchronized void stopWaiting(String callerKey) {
+            waitingAnalyses.remove(callerKey);
+        }
+
+        private String toModuleName(String key) {
+            return key.substring(0, key.lastIndexOf('/'));
+        }
+
+        public synchronized void shutdown() {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
     /**
      * Don't try to expand property on reports. Bypassing default property expander allow us to show real static value
      * of properties on reports.
@@ -729,4 +1057,51 @@ public class DefaultPluginService implements PluginService {
     public void setOfflineMode(boolean offlineMode) {
         this.offlineMode = offlineMode;
     }
+
+    /**
+     * Specify a repository index used to search modules across all resolvers and to get module descriptions. Searches
+     * are merged with live results unless the index covers all resolvers and is known to be up to date. Descriptions
+     * of modules not indexed, or of outdated indexes, fall back on live resolution.
+     * 
+     * @param repositoryIndex
+     *            a repository index, null to always rely on live resolution
+     */
+    public void setRepositoryIndex(RepositoryIndex repositoryIndex) {
+        this.repositoryLastModified = null;
+        this.repositoryIndex = repositoryIndex;
+    }
+
+    private long getRepositoryLastModified(RepositoryIndex repositoryIndex) {
+        Long lastModified = repositoryLastModified;
+        if (lastModified == null) {
+            lastModified = repositoryIndex.getRepositoryLastModified(ivyInstance.getSettings());
+            repositoryLastModified = lastModified;
+        }
+        return lastModified;
+    }
+
+    /**
+     * Specify where analysed reports of released plugins are cached
+     * 
+     * @param reportCache
+     *            a report cache, null to always analyse plugins
+     */
+    public void setReportCache(PluginReportCache reportCache) {
+        this.reportCache = reportCache;
+    }
+
+    /**
+     * Specify how many imported modules can be analysed concurrently while generating a report. Resolves of imported
+     * modules share the cache of the easyant ivy instance, they are serialized on it unless the cache uses a lock
+     * strategy (see {@link IvyInstanceHelper#getResolveLock(org.apache.ivy.Ivy)}).
+     * 
+     * @param threadCount
+     *            maximum number of concurrent analyses, 1 to analyse imported modules sequentially
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("threadCount must be greater than 0");
+        }
+        this.threadCount = threadCount;
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.easyant.core.report.EasyAntReport;
+import org.apache.easyant.core.report.EasyAntReportCodec;
+import org.apache.easyant.core.report.ImportedModuleReport;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.util.Message;
+
+/**
+ * On disk cache of analysed plugin reports, keyed by plugin revision, configuration and easyant core version (the
+ * later being checked by {@link EasyAntReportCodec}). Only meant for revisions which can't change once published.
+ */
+public class PluginReportCache {
+
+    private static final String EXTENSION = ".eareport";
+
+    private final File cacheDirectory;
+
+    public PluginReportCache(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    public File getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    private File getCacheFile(ModuleRevisionId mrid, String conf) {
+        File moduleDirectory = new File(cacheDirectory, escape(mrid.getOrganisation()) + File.separator
+                + escape(mrid.getName()) + File.separator + escape(mrid.getRevision()));
+        return new File(moduleDirectory, escape(conf) + EXTENSION);
+    }
+
+    private String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_' || c == ',') {
+                sb.append(c);
+            } else {
+                sb.append('%').append(Integer.toHexString(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Load a cached report
+     *
+     * @param mrid
+     *            resolved plugin revision
+     * @param conf
+     *            analysed configurations
+     * @param eaReport
+     *            report to fill
+     * @return imported modules whose report must be restored by the caller, or null if there is no usable cached
+     *         report
+     */
+    public List<ImportedModuleReport> load(ModuleRevisionId mrid, String conf, EasyAntReport eaReport) {
+        File cacheFile = getCacheFile(mrid, conf);
+        if (!cacheFile.exists()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+            if (!mrid.toString().equals(in.readUTF()) || !conf.equals(in.readUTF())) {
+                return null;
+            }
+            List<ImportedModuleReport> importedModules = EasyAntReportCodec.read(in, eaReport);
+            Message.verbose("using cached report of " + mrid + " from " + cacheFile);
+            return importedModules;
+        } catch (IOException e) {
+            Message.verbose("ignoring cached report " + cacheFile + " : " + e.getMessage());
+            return null;
+        } finally {
+            close(in);
+        }
+    }
+
+    /**
+     * Store a report
+     *
+     * @param mrid
+     *            resolved plugin revision
+     * @param conf
+     *            analysed configurations
+     * @param eaReport
+     *            report to store
+     */
+    public void store(ModuleRevisionId mrid, String conf, EasyAntReport eaReport) {
+        File cacheFile = getCacheFile(mrid, conf);
+        cacheFile.getParentFile().mkdirs();
+        DataOutputStream out = null;
+        File tmpFile = null;
+        try {
+            // write to a temporary file first, so that concurrent builds never read a partial report
+            tmpFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            out.writeUTF(mrid.toString());
+            out.writeUTF(conf);
+            EasyAntReportCodec.write(eaReport, out);
+            out.close();
+            out = null;
+            if (!tmpFile.renameTo(cacheFile)) {
+                cacheFile.delete();
+                if (!tmpFile.renameTo(cacheFile)) {
+                    Message.verbose("can't store report of " + mrid + " in " + cacheFile);
+                }
+            }
+        } catch (IOException e) {
+            Message.verbose("can't store report of " + mrid + " in " + cacheFile + " : " + e.getMessage());
+        } finally {
+            close(out);
+            if (tmpFile != null && tmpFile.exists()) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    private void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -18,6 +18,7 @@
 package org.apache.easyant.core.services;
 
 import java.io.File;
+import java.util.List;
 
 import org.apache.easyant.core.descriptor.EasyAntModuleDescriptor;
 import org.apache.easyant.core.report.EasyAntReport;
@@ -71,6 +72,19 @@ public interface PluginService {
      */
     EasyAntReport getPluginInfo(ModuleRevisionId moduleRevisionId, String conf) throws Exception;
 
+    /**
+     * Generate easyantReports for several moduleRevisionIDs at once. Modules are analysed concurrently, and a module
+     * imported by several of them is analysed only once.
+     * 
+     * @param moduleRevisionIds
+     *            given moduleRevisionIDs
+     * @param conf
+     *            a configuration name
+     * @return an easyantReport for each moduleRevisionID, in the same order
+     * @throws Exception
+     */
+    List<EasyAntReport> getPluginInfos(List<ModuleRevisionId> moduleRevisionIds, String conf) throws Exception;
+
     /**
      * Generate an {@link EasyAntReport} for a given pluginIvyFile
      * 
@@ -76,14 +76,10 @@ public abstract class EasyantOption extends Option {
     public EasyAntReport getEareport() {
         if (eareport == null) {
             try {
-                File moduleDescriptor = new File(project.getProperty(EasyAntMagicNames.EASYANT_FILE));
-                File optionalAntModule = new File(moduleDescriptor.getParent(), EasyAntConstants.DEFAULT_BUILD_FILE);
-                File overrideAntModule = new File(moduleDescriptor.getParent(),
-                        EasyAntConstants.DEFAULT_OVERRIDE_BUILD_FILE);
-
+                File[] sources = getReportSources();
                 PluginService pluginService = project
                         .getReference(EasyAntMagicNames.PLUGIN_SERVICE_INSTANCE);
-                setEareport(pluginService.generateEasyAntReport(moduleDescriptor, optionalAntModule, overrideAntModule));
+                setEareport(pluginService.generateEasyAntReport(sources[0], sources[1], sources[2]));
             } catch (Exception e) {
                 throw new BuildException("EasyAntMan could not be initialized. Details: " + e.getMessage(), e);
             }
@@ -91,6 +87,18 @@ public abstract class EasyantOption extends Option {
         return eareport;
     }
 
+    /**
+     * Get the files the report of the project is generated from
+     * 
+     * @return module descriptor, optional ant module and override ant module (which may not exist)
+     */
+    protected File[] getReportSources() {
+        File moduleDescriptor = new File(project.getProperty(EasyAntMagicNames.EASYANT_FILE));
+        File optionalAntModule = new File(moduleDescriptor.getParent(), EasyAntConstants.DEFAULT_BUILD_FILE);
+        File overrideAntModule = new File(moduleDescriptor.getParent(), EasyAntConstants.DEFAULT_OVERRIDE_BUILD_FILE);
+        return new File[] { moduleDescriptor, optionalAntModule, overrideAntModule };
+    }
+
     public void setEareport(EasyAntReport eareport) {
         this.eareport = eareport;
     }
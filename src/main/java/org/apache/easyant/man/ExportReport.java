@@ -0,0 +1,62 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.man;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.report.EasyAntReportExport;
+import org.apache.ivy.Ivy;
+import org.apache.ivy.ant.IvyAntSettings;
+import org.apache.tools.ant.BuildException;
+
+/**
+ * Export targets, extension points, parameters, properties and plugins of the specified build module for tools
+ * integration. The export is written in the project directory and is regenerated only if the build module, its ant
+ * files or the revision of an imported plugin changed.
+ */
+public class ExportReport extends EasyantOption {
+
+    private static final long serialVersionUID = 1L;
+
+    public ExportReport() throws IllegalArgumentException {
+        super("exportReport", false, "Export the project report (targets, properties, plugins...) in "
+                + EasyAntReportExport.DEFAULT_EXPORT_DIRECTORY + " directory for tools integration");
+        setStopBuild(true);
+    }
+
+    public void execute() {
+        File[] sources = getReportSources();
+        EasyAntReportExport export = new EasyAntReportExport(new File(sources[0].getParentFile(),
+                EasyAntReportExport.DEFAULT_EXPORT_DIRECTORY));
+        IvyAntSettings easyantIvySettings = IvyInstanceHelper.getEasyAntIvyAntSettings(getProject());
+        Ivy ivy = easyantIvySettings.getConfiguredIvyInstance(easyantIvySettings);
+        if (export.isUpToDate(sources, ivy)) {
+            getProject().log("Report export is up to date : " + export.getJsonFile());
+            return;
+        }
+        try {
+            export.export(getEareport(), sources);
+        } catch (IOException e) {
+            throw new BuildException("Can't export report : " + e.getMessage(), e);
+        }
+        getProject().log("Report exported to " + export.getJsonFile());
+    }
+
+}
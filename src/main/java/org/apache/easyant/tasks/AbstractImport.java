@@ -18,8 +18,13 @@
 package org.apache.easyant.tasks;
 
 import java.io.File;
+import java.util.Collection;
 
 import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ant.helper.CompiledAntScript;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex;
+import org.apache.easyant.core.jfr.FlightRecorderEvents;
 import org.apache.ivy.core.LogOptions;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
@@ -71,12 +76,26 @@ public abstract class AbstractImport extends AbstractEasyAntTask {
         // Check dependency on core
         checkCoreCompliance(report, providedConf);
 
+        importModule(moduleRevisionId, report.getConfigurationReport(mainConf).getAllArtifactsReports());
+    }
+
+    /**
+     * Import a module from its already resolved artifacts
+     * 
+     * @param moduleRevisionId
+     *            {@link ModuleRevisionId} of main artifact
+     * @param artifacts
+     *            artifacts of the module and its dependencies in main configuration
+     */
+    protected void importModule(ModuleRevisionId moduleRevisionId, ArtifactDownloadReport[] artifacts) {
         Path path = createModulePath(moduleRevisionId.getModuleId());
         File antFile = null;
-        for (int j = 0; j < report.getConfigurationReport(mainConf).getAllArtifactsReports().length; j++) {
-            ArtifactDownloadReport artifact = report.getConfigurationReport(mainConf).getAllArtifactsReports()[j];
+        File compiledAntFile = null;
+        for (ArtifactDownloadReport artifact : artifacts) {
             if ("ant".equals(artifact.getType())) {
                 antFile = artifact.getLocalFile();
+            } else if (CompiledAntScript.EXTENSION.equals(artifact.getType())) {
+                compiledAntFile = artifact.getLocalFile();
             } else if (shouldBeAddedToClasspath(artifact)) {
                 path.createPathElement().setLocation(artifact.getLocalFile());
             } else {
@@ -85,12 +104,65 @@ public abstract class AbstractImport extends AbstractEasyAntTask {
             }
         }
         // effective import should be executed AFTER any other resource files has been handled
-        if (antFile != null && antFile.exists()) {
-            doEffectiveImport(antFile);
+        File script = chooseScript(antFile, compiledAntFile);
+        if (script != null) {
+            importScript(moduleRevisionId, script);
+        }
+    }
+
+    /**
+     * Import the build script of a module and notify listeners
+     *
+     * @param moduleRevisionId
+     *            {@link ModuleRevisionId} of the imported module
+     * @param script
+     *            the build script to import
+     */
+    protected void importScript(ModuleRevisionId moduleRevisionId, File script) {
+        ProjectUtils.TimedOperation importOperation = ProjectUtils.beginOperation(FlightRecorderEvents.PLUGIN_IMPORT);
+        doEffectiveImport(script);
+        long duration = importOperation.end(getProject().getName(), moduleRevisionId);
+        ProjectUtils.firePluginImported(this, moduleRevisionId, script, duration);
+    }
+
+    /**
+     * Choose the build script to import. A precompiled script is preferred when it has been compiled by the running
+     * easyant core version : it is registered to be loaded in place of the ant script, which remains the imported
+     * build file.
+     * 
+     * @param antFile
+     *            the ant script, can be null
+     * @param compiledAntFile
+     *            the precompiled ant script, can be null
+     * @return the script to import or null if none exists
+     */
+    protected File chooseScript(File antFile, File compiledAntFile) {
+        boolean antFileExists = antFile != null && antFile.exists();
+        if (compiledAntFile != null && compiledAntFile.exists()) {
+            if (CompiledAntScript.isCompatible(compiledAntFile)) {
+                if (!antFileExists) {
+                    return compiledAntFile;
+                }
+                CompiledAntScript.register(getProject(), antFile, compiledAntFile);
+                return antFile;
+            }
+            log(compiledAntFile + " has been compiled by another easyant version, ignoring it", Project.MSG_VERBOSE);
         }
+        return antFileExists ? antFile : null;
     }
 
     public boolean shouldBeAddedToClasspath(ArtifactDownloadReport artifact) {
+        return shouldBeAddedToClasspath(artifact.getType());
+    }
+
+    /**
+     * Check if artifacts of a given type should be added to module classpath
+     * 
+     * @param artifactType
+     *            an artifact type
+     * @return true if artifacts of this type should be added to classpath
+     */
+    public boolean shouldBeAddedToClasspath(String artifactType) {
         String[] types;
         if (getProject().getProperty(EasyAntMagicNames.IMPORT_CLASSPATH_TYPES) != null) {
             types = getProject().getProperty(EasyAntMagicNames.IMPORT_CLASSPATH_TYPES).split(",");
@@ -98,7 +170,7 @@ public abstract class AbstractImport extends AbstractEasyAntTask {
             types = new String[] { "jar", "bundle" };
         }
         for (String type : types) {
-            if (artifact.getType().equals(type)) {
+            if (artifactType.equals(type)) {
                 return true;
             }
         }
@@ -220,16 +292,34 @@ public abstract class AbstractImport extends AbstractEasyAntTask {
      */
     protected void checkCoreCompliance(ResolveReport report, String confToCheck) {
         if (report.getConfigurationReport(confToCheck) != null) {
-            log("checking module's provided dependencies ...", Project.MSG_DEBUG);
-            for (Object o : report.getConfigurationReport(confToCheck).getModuleRevisionIds()) {
-                ModuleRevisionId currentmrid = (ModuleRevisionId) o;
-                log("checking " + currentmrid.toString(), Project.MSG_DEBUG);
-                if (currentmrid.getOrganisation().equals("org.apache.easyant")
-                        && currentmrid.getName().equals("easyant-core")) {
-                    CoreRevisionCheckerTask checker = new CoreRevisionCheckerTask();
-                    checker.setRequiredRevision(currentmrid.getRevision());
-                    initTask(checker).execute();
-                }
+            checkCoreCompliance(report.getConfigurationReport(confToCheck).getModuleRevisionIds());
+        }
+    }
+
+    /**
+     * Check dependency on easyant core with a given configuration of already resolved modules
+     * 
+     * @param index
+     *            a {@link ResolvedModulesIndex}
+     * @param confToCheck
+     *            configuration to check
+     */
+    protected void checkCoreCompliance(ResolvedModulesIndex index, String confToCheck) {
+        if (index.hasConfiguration(confToCheck)) {
+            checkCoreCompliance(index.getModuleRevisionIds(confToCheck));
+        }
+    }
+
+    private void checkCoreCompliance(Collection<?> moduleRevisionIds) {
+        log("checking module's provided dependencies ...", Project.MSG_DEBUG);
+        for (Object o : moduleRevisionIds) {
+            ModuleRevisionId currentmrid = (ModuleRevisionId) o;
+            log("checking " + currentmrid.toString(), Project.MSG_DEBUG);
+            if (currentmrid.getOrganisation().equals("org.apache.easyant")
+                    && currentmrid.getName().equals("easyant-core")) {
+                CoreRevisionCheckerTask checker = new CoreRevisionCheckerTask();
+                checker.setRequiredRevision(currentmrid.getRevision());
+                initTask(checker).execute();
             }
         }
     }
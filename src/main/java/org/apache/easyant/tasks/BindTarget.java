@@ -18,6 +18,7 @@
 package org.apache.easyant.tasks;
 
 import org.apache.easyant.core.BuildConfigurationHelper;
+import org.apache.easyant.core.ant.TargetGraph;
 import org.apache.tools.ant.*;
 
 import java.util.Enumeration;
@@ -93,7 +94,8 @@ public class BindTarget extends Task {
             }
             p.addDependency(getTarget());
         }
-
+        // extension points have been rewired, cached target orders are no longer valid
+        TargetGraph.invalidate(getProject());
     }
 
     public String getExtensionOf() {
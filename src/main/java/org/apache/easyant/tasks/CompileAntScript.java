@@ -0,0 +1,82 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.easyant.core.ant.helper.CompiledAntScript;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Task;
+import org.xml.sax.SAXException;
+
+/**
+ * Precompile a plugin / buildtype ant script. The compiled script is intended to be published alongside the ant
+ * script, as an artifact of type "antc". Imports will then load it without parsing xml when it has been compiled by
+ * the same easyant core version.
+ */
+public class CompileAntScript extends Task {
+
+    private File file;
+
+    private File toFile;
+
+    @Override
+    public void execute() throws BuildException {
+        if (file == null) {
+            throw new BuildException("file is mandatory !");
+        }
+        if (!file.exists()) {
+            throw new BuildException("Can't find ant script " + file.getAbsolutePath());
+        }
+        File destination = toFile;
+        if (destination == null) {
+            String name = file.getName();
+            int extensionIndex = name.lastIndexOf('.');
+            if (extensionIndex > 0) {
+                name = name.substring(0, extensionIndex);
+            }
+            destination = new File(file.getParentFile(), name + "." + CompiledAntScript.EXTENSION);
+        }
+        log("Compiling " + file.getAbsolutePath() + " to " + destination.getAbsolutePath());
+        try {
+            CompiledAntScript.compile(file, destination);
+        } catch (IOException e) {
+            throw new BuildException("Can't compile " + file.getAbsolutePath() + " : " + e.getMessage(), e);
+        } catch (SAXException e) {
+            throw new BuildException("Can't compile " + file.getAbsolutePath() + " : " + e.getMessage(), e);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+
+    public File getToFile() {
+        return toFile;
+    }
+
+    public void setToFile(File toFile) {
+        this.toFile = toFile;
+    }
+
+}
@@ -27,13 +27,18 @@ import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.resolver.ChainResolver;
 import org.apache.ivy.plugins.resolver.DependencyResolver;
 import org.apache.ivy.plugins.resolver.FileSystemResolver;
+import org.apache.ivy.plugins.resolver.JarResolver;
+import org.apache.ivy.plugins.resolver.RepositoryResolver;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 
 /**
  * This task is used to configure a build scoped repository This can be particularly usefull if we are working in a
  * multi-module project with interdependencies.
- * 
+ * <p>
+ * If a bundle is given, the repository is read directly from this archive (see {@link ExportOfflineBundle}) instead of
+ * the target directory.
+ * </p>
  */
 public class ConfigureBuildScopedRepository extends IvyTask {
 
@@ -44,6 +49,7 @@ public class ConfigureBuildScopedRepository extends IvyTask {
     private boolean generateWrapperResoler = true;
     private String ivyPattern = "/[organisation]/[module]/[revision]/[module].ivy";
     private String artifactPattern = "/[organisation]/[module]/[revision]/[artifact](-[classifier]).[ext]";
+    private File bundle;
 
     @Override
     public void doExecute() throws BuildException {
@@ -74,9 +80,24 @@ public class ConfigureBuildScopedRepository extends IvyTask {
         settings.addConfigured(rcm);
 
         // Create the build scoped repository
-        FileSystemResolver buildRepository = new FileSystemResolver();
-        buildRepository.addArtifactPattern(DEFAULT_BUILD_SCOPED_REPOSITORY_DIR + getArtifactPattern());
-        buildRepository.addIvyPattern(DEFAULT_BUILD_SCOPED_REPOSITORY_DIR + getIvyPattern());
+        RepositoryResolver buildRepository;
+        if (getBundle() != null) {
+            if (!getBundle().exists()) {
+                throw new BuildException("Can't find bundle " + getBundle().getAbsolutePath());
+            }
+            log("Reading build scope repository : " + getName() + " from bundle " + getBundle().getAbsolutePath(),
+                    Project.MSG_DEBUG);
+            // entries are stored in the bundle relative to the repository directory
+            JarResolver bundleRepository = new JarResolver();
+            bundleRepository.setFile(getBundle().getAbsolutePath());
+            bundleRepository.addArtifactPattern(buildScopeRepositoryName + getArtifactPattern());
+            bundleRepository.addIvyPattern(buildScopeRepositoryName + getIvyPattern());
+            buildRepository = bundleRepository;
+        } else {
+            buildRepository = new FileSystemResolver();
+            buildRepository.addArtifactPattern(DEFAULT_BUILD_SCOPED_REPOSITORY_DIR + getArtifactPattern());
+            buildRepository.addIvyPattern(DEFAULT_BUILD_SCOPED_REPOSITORY_DIR + getIvyPattern());
+        }
 
         // bind to the repocache
         buildRepository.setCache(CACHENAME);
@@ -213,6 +234,25 @@ public class ConfigureBuildScopedRepository extends IvyTask {
         return generateWrapperResoler;
     }
 
+    /**
+     * Get the bundle from which the repository is read
+     * 
+     * @return a bundle file or null if the repository is read from target directory
+     */
+    public File getBundle() {
+        return bundle;
+    }
+
+    /**
+     * Read the repository from a bundle instead of the target directory
+     * 
+     * @param bundle
+     *            a bundle file, as generated by {@link ExportOfflineBundle}
+     */
+    public void setBundle(File bundle) {
+        this.bundle = bundle;
+    }
+
     /**
      * Specify if we need to generate wrapper resolver. This is not evaluated when using as dictator. When false,
      * repository will be generated but not plugged in current {@link ChainResolver}
@@ -0,0 +1,80 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import java.io.File;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.taskdefs.Zip;
+
+/**
+ * Export offline repositories populated by {@link GoOffline} into a single portable archive. The archive can then be
+ * used as is, without extracting it, by setting "offline.bundle" property : offline repositories will read modules
+ * directly from the bundle.
+ */
+public class ExportOfflineBundle extends AbstractEasyAntTask {
+
+    private File destFile;
+    private File baseDirectory;
+
+    @Override
+    public void execute() throws BuildException {
+        if (destFile == null) {
+            throw new BuildException("destFile is mandatory !");
+        }
+        if (baseDirectory == null && getProject().getProperty(EasyAntMagicNames.OFFLINE_BASE_DIRECTORY) != null) {
+            baseDirectory = getProject().resolveFile(
+                    getProject().getProperty(EasyAntMagicNames.OFFLINE_BASE_DIRECTORY));
+        }
+        if (baseDirectory == null) {
+            throw new BuildException("baseDirectory is mandatory !");
+        }
+        File repositoryDirectory = new File(baseDirectory, "repository");
+        if (!repositoryDirectory.isDirectory()) {
+            throw new BuildException("Can't find offline repositories in " + repositoryDirectory.getAbsolutePath()
+                    + ", did you run go-offline ?");
+        }
+
+        Zip zip = new Zip();
+        initTask(zip);
+        zip.setDestFile(destFile);
+        // entries are stored relative to repository directory, repository name being the first path element
+        zip.setBasedir(repositoryDirectory);
+        // checksums generated by ivy install are not needed to read the bundle
+        zip.setExcludes("**/*.md5,**/*.sha1");
+        zip.execute();
+    }
+
+    public File getDestFile() {
+        return destFile;
+    }
+
+    public void setDestFile(File destFile) {
+        this.destFile = destFile;
+    }
+
+    public File getBaseDirectory() {
+        return baseDirectory;
+    }
+
+    public void setBaseDirectory(File baseDirectory) {
+        this.baseDirectory = baseDirectory;
+    }
+
+}
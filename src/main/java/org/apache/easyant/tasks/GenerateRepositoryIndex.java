@@ -0,0 +1,144 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.easyant.core.ivy.RepositoryIndex;
+import org.apache.ivy.Ivy;
+import org.apache.ivy.ant.IvyTask;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.resolve.ResolvedModuleRevision;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+
+/**
+ * Scan a repository and write a {@link RepositoryIndex} of all module revisions found. The generated index can then be
+ * used by {@link SearchModule} and plugin service to search and describe modules without parsing each module
+ * descriptor.
+ */
+public class GenerateRepositoryIndex extends IvyTask {
+
+    private String organisation = PatternMatcher.ANY_EXPRESSION;
+
+    private String module = PatternMatcher.ANY_EXPRESSION;
+
+    private String revision = PatternMatcher.ANY_EXPRESSION;
+
+    private String matcher = PatternMatcher.EXACT_OR_REGEXP;
+
+    private String resolver;
+
+    private File toFile;
+
+    public void doExecute() throws BuildException {
+        if (getToFile() == null) {
+            throw new BuildException("no destination file provided for GenerateRepositoryIndex task");
+        }
+        Ivy ivy = getIvyInstance();
+        IvySettings settings = ivy.getSettings();
+
+        DependencyResolver resolverToScan;
+        if (getResolver() != null) {
+            resolverToScan = settings.getResolver(getResolver());
+            if (resolverToScan == null) {
+                throw new BuildException("Unknown resolver " + getResolver());
+            }
+        } else {
+            resolverToScan = settings.getDefaultResolver();
+        }
+
+        // generation time is taken before scanning so modules published meanwhile make the index outdated
+        RepositoryIndex index = new RepositoryIndex();
+        index.addResolver(resolverToScan);
+
+        ModuleRevisionId criteria = ModuleRevisionId.newInstance(getOrganisation(), getModule(),
+                PatternMatcher.ANY_EXPRESSION, getRevision());
+        ModuleRevisionId[] mrids = ivy.getSearchEngine().listModules(resolverToScan, criteria,
+                settings.getMatcher(getMatcher()));
+
+        for (ModuleRevisionId mrid : mrids) {
+            ResolvedModuleRevision rmr = ivy.findModule(mrid);
+            if (rmr == null) {
+                log("Can't retrieve " + mrid.toString() + ", skipping it", Project.MSG_WARN);
+            } else {
+                index.addModule(mrid, rmr.getDescriptor().getDescription());
+            }
+        }
+
+        try {
+            index.store(getToFile());
+        } catch (IOException e) {
+            throw new BuildException("Can't write repository index to " + getToFile().getAbsolutePath(), e);
+        }
+        log(index.size() + " module revisions indexed in " + getToFile().getAbsolutePath());
+    }
+
+    public String getOrganisation() {
+        return organisation;
+    }
+
+    public void setOrganisation(String organisation) {
+        this.organisation = organisation;
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public void setModule(String module) {
+        this.module = module;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public void setRevision(String revision) {
+        this.revision = revision;
+    }
+
+    public String getMatcher() {
+        return matcher;
+    }
+
+    public void setMatcher(String matcher) {
+        this.matcher = matcher;
+    }
+
+    public String getResolver() {
+        return resolver;
+    }
+
+    public void setResolver(String resolver) {
+        this.resolver = resolver;
+    }
+
+    public File getToFile() {
+        return toFile;
+    }
+
+    public void setToFile(File toFile) {
+        this.toFile = toFile;
+    }
+
+}
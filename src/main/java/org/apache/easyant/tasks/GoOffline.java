@@ -18,31 +18,55 @@
 package org.apache.easyant.tasks;
 
 import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.easyant.core.EasyAntMagicNames;
 import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex.ResolvedArtifact;
 import org.apache.easyant.core.report.EasyAntReport;
 import org.apache.easyant.core.report.ImportedModuleReport;
 import org.apache.easyant.core.services.PluginService;
+import org.apache.ivy.Ivy;
 import org.apache.ivy.ant.IvyAntSettings;
 import org.apache.ivy.ant.IvyInstall;
-import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
+import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.module.descriptor.Artifact;
+import org.apache.ivy.core.module.descriptor.DefaultArtifact;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ResolveReport;
-import org.apache.ivy.core.resolve.IvyNode;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.apache.ivy.plugins.resolver.FileSystemResolver;
+import org.apache.ivy.util.ChecksumHelper;
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
 
 /**
  * Provide go offline feature. It retrieves all easyant modules used by the project (plugins, buildtype) and all project
  * dependencies. You can then define target resolver name where all artifacts will get installed. You can combine
  * GoOffline task with ConfigureBuildScopeRepository, to have everything embedded in your project directory
- * 
+ * <p>
+ * The full set of distinct module revisions is collected first, each of them is then installed once (non
+ * transitively). Modules already present in a filesystem target resolver with matching checksums are skipped. Checks
+ * run concurrently, installs are serialized per ivy instance.
+ * </p>
  */
 public class GoOffline extends AbstractEasyAntTask {
 
     private String projectResolverName;
     private String easyantResolverName;
     private File moduleIvy;
+    private int threadCount = 4;
 
     @Override
     public void execute() throws BuildException {
@@ -61,76 +85,208 @@ public class GoOffline extends AbstractEasyAntTask {
             throw new BuildException("easyantResolverName is mandatory !");
         }
 
+        if (threadCount < 1) {
+            throw new BuildException("threadCount must be greater than 0 !");
+        }
+
         PluginService pluginService = getProject().getReference(
                 EasyAntMagicNames.PLUGIN_SERVICE_INSTANCE);
         EasyAntReport easyAntReport;
         try {
             easyAntReport = pluginService.generateEasyAntReport(moduleIvy);
-            installBuildTypeAndPlugins(easyAntReport);
-            installProjectDependencies(easyAntReport);
         } catch (Exception e) {
             throw new BuildException("Can't retrieve project report", e);
         }
 
+        Map<ModuleRevisionId, List<ResolvedArtifact>> easyantModules = //
+        new LinkedHashMap<ModuleRevisionId, List<ResolvedArtifact>>();
+        collectBuildTypeAndPlugins(easyAntReport, easyantModules);
+        Map<ModuleRevisionId, List<ResolvedArtifact>> projectDependencies = collectProjectDependencies(easyAntReport);
+
+        List<Runnable> installs = new ArrayList<Runnable>();
+        installs.addAll(prepareInstalls(easyantModules, getEasyantResolverName(),
+                EasyAntMagicNames.EASYANT_IVY_INSTANCE));
+        installs.addAll(prepareInstalls(projectDependencies, getProjectResolverName(),
+                IvyInstanceHelper.getProjectIvyInstanceName(getProject())));
+        executeInstalls(installs);
     }
 
     /***
-     * Install project dependencies
+     * Collect project dependencies and their transitive dependencies
      * 
      * @param easyAntReport
      *            {@link EasyAntReport} where project dependencies are described
+     * @return distinct module revisions with their resolved artifacts
      */
-    private void installProjectDependencies(EasyAntReport easyAntReport) {
-        for (DependencyDescriptor dependencyDescriptor : easyAntReport.getModuleDescriptor().getDependencies()) {
-            install(dependencyDescriptor.getDependencyRevisionId(), getProjectResolverName(),
-                    IvyInstanceHelper.getProjectIvyInstanceName(getProject()));
+    private Map<ModuleRevisionId, List<ResolvedArtifact>> collectProjectDependencies(EasyAntReport easyAntReport) {
+        Map<ModuleRevisionId, List<ResolvedArtifact>> modules = //
+        new LinkedHashMap<ModuleRevisionId, List<ResolvedArtifact>>();
+        if (easyAntReport.getModuleDescriptor().getDependencies().length == 0) {
+            return modules;
         }
+        ResolveOptions resolveOptions = new ResolveOptions();
+        resolveOptions.setLog(ResolveOptions.LOG_QUIET);
+        try {
+            ResolveReport resolveReport = getProjectIvyInstance().resolve(easyAntReport.getModuleDescriptor(),
+                    resolveOptions);
+            collectDependencies(ResolvedModulesIndex.of(resolveReport), modules);
+        } catch (ParseException e) {
+            throw new BuildException("Can't resolve project dependencies", e);
+        } catch (IOException e) {
+            throw new BuildException("Can't resolve project dependencies", e);
+        }
+        return modules;
     }
 
     /**
-     * Install easyant plugins and buildtypes used by a project
+     * Collect easyant plugins and buildtypes used by a project and their dependencies
      * 
      * @param easyAntReport
      *            {@link EasyAntReport} where plugin / buildtypes is described
+     * @param modules
+     *            distinct module revisions already collected
      */
-    private void installBuildTypeAndPlugins(EasyAntReport easyAntReport) {
+    private void collectBuildTypeAndPlugins(EasyAntReport easyAntReport,
+            Map<ModuleRevisionId, List<ResolvedArtifact>> modules) {
         for (ImportedModuleReport importedModule : easyAntReport.getImportedModuleReports()) {
-            install(ModuleRevisionId.parse(importedModule.getModuleMrid()), getEasyantResolverName(),
-                    EasyAntMagicNames.EASYANT_IVY_INSTANCE);
             if (importedModule.getEasyantReport() != null) {
-                // install module dependencies
-                ResolveReport resolveReport = importedModule.getEasyantReport().getResolveReport();
-                for (Object o : resolveReport.getDependencies()) {
-                    IvyNode dependency = (IvyNode) o;
-                    install(dependency.getResolvedId(), getEasyantResolverName(),
-                            EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+                // module itself and its dependencies are part of its resolved modules
+                collectDependencies(importedModule.getEasyantReport().getResolvedModules(), modules);
+                // collect plugins declared inside current module
+                collectBuildTypeAndPlugins(importedModule.getEasyantReport(), modules);
+            } else {
+                ModuleRevisionId moduleRevisionId = ModuleRevisionId.parse(importedModule.getModuleMrid());
+                if (!modules.containsKey(moduleRevisionId)) {
+                    modules.put(moduleRevisionId, null);
+                }
+            }
+        }
+    }
+
+    private void collectDependencies(ResolvedModulesIndex resolvedModules,
+            Map<ModuleRevisionId, List<ResolvedArtifact>> modules) {
+        for (ModuleRevisionId dependency : resolvedModules.getDependencies()) {
+            if (!modules.containsKey(dependency)) {
+                modules.put(dependency, resolvedModules.getArtifacts(dependency));
+            }
+        }
+    }
+
+    private List<Runnable> prepareInstalls(Map<ModuleRevisionId, List<ResolvedArtifact>> modules,
+            final String targetResolver, final String ivyInstanceRef) {
+        List<Runnable> installs = new ArrayList<Runnable>();
+        IvyAntSettings ivyAntSettings = IvyInstanceHelper.getIvyAntSettings(getProject(), ivyInstanceRef);
+        final Ivy ivy = ivyAntSettings.getConfiguredIvyInstance(this);
+        final DependencyResolver resolver = ivy.getSettings().getResolver(targetResolver);
+        for (final Map.Entry<ModuleRevisionId, List<ResolvedArtifact>> module : modules.entrySet()) {
+            installs.add(new Runnable() {
+                public void run() {
+                    if (isAlreadyInstalled(module.getKey(), module.getValue(), resolver)) {
+                        log(module.getKey() + " is already installed in " + targetResolver + ", skipping it",
+                                Project.MSG_VERBOSE);
+                        return;
+                    }
+                    // ivy install engine temporarily replaces the dictator resolver of the ivy settings, so installs
+                    // can't run concurrently on the same ivy instance
+                    synchronized (ivy) {
+                        String from = ivy.getSettings().getResolverName(module.getKey());
+                        createInstall(module.getKey(), from, targetResolver, ivyInstanceRef).execute();
+                    }
                 }
-                // install plugins declared inside current module
+            });
+        }
+        return installs;
+    }
+
+    /**
+     * Check if a module is already installed in a filesystem resolver. A module is considered as installed if its
+     * module descriptor exists and if all its resolved artifacts exist with the same checksum.
+     */
+    private boolean isAlreadyInstalled(ModuleRevisionId moduleRevisionId, List<ResolvedArtifact> artifacts,
+            DependencyResolver targetResolver) {
+        if (artifacts == null || !(targetResolver instanceof FileSystemResolver)) {
+            return false;
+        }
+        FileSystemResolver fileSystemResolver = (FileSystemResolver) targetResolver;
+        if (findInstalledFile(fileSystemResolver.getIvyPatterns(), DefaultArtifact.newIvyArtifact(moduleRevisionId,
+                null)) == null) {
+            return false;
+        }
+        for (ResolvedArtifact artifact : artifacts) {
+            if (artifact.getLocalFile() == null) {
+                return false;
+            }
+            File installedFile = findInstalledFile(fileSystemResolver.getArtifactPatterns(), artifact.getArtifact());
+            if (installedFile == null || !hasSameChecksum(artifact.getLocalFile(), installedFile)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-                installBuildTypeAndPlugins(importedModule.getEasyantReport());
+    private File findInstalledFile(List<?> patterns, Artifact artifact) {
+        for (Object pattern : patterns) {
+            File file = new File(IvyPatternHelper.substitute((String) pattern, artifact));
+            if (file.exists()) {
+                return file;
             }
+        }
+        return null;
+    }
 
+    private boolean hasSameChecksum(File file, File otherFile) {
+        try {
+            return ChecksumHelper.computeAsString(file, "sha1").equals(ChecksumHelper.computeAsString(otherFile, "sha1"));
+        } catch (IOException e) {
+            log("Can't compute checksum : " + e.getMessage(), Project.MSG_DEBUG);
+            return false;
         }
     }
 
-    private void install(ModuleRevisionId moduleRevisionId, String targetResolver, String ivyInstanceRef) {
+    private IvyInstall createInstall(ModuleRevisionId moduleRevisionId, String from, String targetResolver,
+            String ivyInstanceRef) {
         IvyInstall install = new IvyInstall();
+        initTask(install);
         install.setSettingsRef(IvyInstanceHelper.buildIvyReference(getProject(), ivyInstanceRef));
-
-        // locate source resolver
-        IvyAntSettings ivyAntSettings = IvyInstanceHelper.getIvyAntSettings(getProject(), ivyInstanceRef);
-        String from = ivyAntSettings.getConfiguredIvyInstance(this).getSettings().getResolverName(moduleRevisionId);
         install.setFrom(from);
-
         install.setTo(targetResolver);
         install.setOrganisation(moduleRevisionId.getOrganisation());
         install.setModule(moduleRevisionId.getName());
         install.setRevision(moduleRevisionId.getRevision());
         install.setOverwrite(true);
         install.setHaltonfailure(false);
-        install.setTransitive(true);
-        initTask(install).execute();
+        // transitive dependencies are already part of the modules to install
+        install.setTransitive(false);
+        return install;
+    }
 
+    /**
+     * Execute installs using a bounded thread pool
+     * 
+     * @param installs
+     *            installs to execute
+     */
+    private void executeInstalls(List<Runnable> installs) {
+        if (installs.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, installs.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (Runnable install : installs) {
+                futures.add(executor.submit(install));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("go-offline has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new BuildException("Can't install module : " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     public String getProjectResolverName() {
@@ -157,4 +313,18 @@ public class GoOffline extends AbstractEasyAntTask {
         this.moduleIvy = moduleIvy;
     }
 
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Set the maximum number of modules installed concurrently
+     * 
+     * @param threadCount
+     *            maximum number of concurrent installs
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
 }
@@ -20,9 +20,13 @@ package org.apache.easyant.tasks;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.easyant.core.BuildConfigurationHelper;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.jfr.FlightRecorderEvents;
 import org.apache.ivy.ant.EasyAntPluginBridge;
 import org.apache.ivy.ant.IvyConflict;
 import org.apache.ivy.ant.IvyDependency;
@@ -70,21 +74,95 @@ public class Import extends AbstractImport implements DynamicAttribute {
     private List<IvyConflict> conflicts = new ArrayList<IvyConflict>();
 
     public void execute() {
-        ModuleRevisionId moduleRevisionId;
+        ModuleRevisionId moduleRevisionId = buildModuleRevisionId();
+        if (isImportable(moduleRevisionId)) {
+            resolveAndImport(moduleRevisionId);
+        }
+    }
+
+    /**
+     * Resolve the module to import on its own, applying nested dependencies, excludes and conflicts, then import it
+     * 
+     * @param moduleRevisionId
+     *            the module revision id to import
+     */
+    protected void resolveAndImport(ModuleRevisionId moduleRevisionId) {
+        try {
+            DefaultModuleDescriptor md = DefaultModuleDescriptor.newCallerInstance(moduleRevisionId, getMainConf()
+                    .split(","), true, isChanging());
+
+            IvySettings settings = getEasyAntIvyInstance().getSettings();
+            IvyContext.pushNewContext();
+            IvyContext.getContext().setIvy(getEasyAntIvyInstance());
+            // FIXME: If additionnal dependency are loaded or a superior version of a dependency is defined it works
+            // as expected
+            // But it doesn't work if you specify a revision lower to original one
+            md = EasyAntPluginBridge.computeModuleDescriptor(md, settings, dependencies, conflicts, excludes);
+            ProjectUtils.TimedOperation resolve = ProjectUtils.beginOperation(FlightRecorderEvents.PLUGIN_RESOLVE);
+            ResolveReport report;
+            // plugin reports analyse imported plugins concurrently, resolves on an unlocked ivy cache are serialized
+            synchronized (IvyInstanceHelper.getResolveLock(getEasyAntIvyInstance())) {
+                report = getEasyAntIvyInstance().getResolveEngine().resolve(md, configureResolveOptions());
+            }
+            resolve.endResolve(this, report, moduleRevisionId, Collections.singletonList(moduleRevisionId));
+            importModule(moduleRevisionId, report);
+            IvyContext.popContext();
+        } catch (ParseException e) {
+            throw new BuildException("Can't parse module descriptor", e);
+        } catch (IOException e) {
+            throw new BuildException("Can't parse module descriptor", e);
+        }
+
+    }
+
+    /**
+     * Build the {@link ModuleRevisionId} of the module to import from mrid or organisation / module / revision
+     * attributes
+     * 
+     * @return the module revision id to import
+     */
+    protected ModuleRevisionId buildModuleRevisionId() {
         if (mrid != null) {
-            moduleRevisionId = ModuleRevisionId.parse(mrid);
+            return ModuleRevisionId.parse(mrid);
         } else if (organisation != null && module != null && revision != null) {
-            moduleRevisionId = ModuleRevisionId.newInstance(organisation, module, revision);
+            return ModuleRevisionId.newInstance(organisation, module, revision);
         } else {
             throw new BuildException(
                     "The module to import is not properly specified, you must set the mrid attribute or set organisation / module / revision attributes");
         }
+    }
+
+    /**
+     * Check if the module should be imported, according to build configurations and skip properties. This also
+     * computes default value of "as" attribute.
+     * 
+     * @param moduleRevisionId
+     *            the module revision id to import
+     * @return false if the module has to be skipped
+     */
+    protected boolean isImportable(ModuleRevisionId moduleRevisionId) {
+        return isImportable(moduleRevisionId, true);
+    }
+
+    /**
+     * Check if the module should be imported
+     * 
+     * @param moduleRevisionId
+     *            the module revision id to import
+     * @param verbose
+     *            false to check without logging why the module is skipped
+     * @return false if the module has to be skipped
+     * @see #isImportable(ModuleRevisionId)
+     */
+    protected boolean isImportable(ModuleRevisionId moduleRevisionId, boolean verbose) {
         String moduleName = moduleRevisionId.toString();
         if (!BuildConfigurationHelper.isBuildConfigurationActive(getBuildConfigurations(), getProject(), "module"
                 + getModule())) {
-            log("no matching build configuration for module " + moduleName + " this module will be skipped ",
-                    Project.MSG_DEBUG);
-            return;
+            if (verbose) {
+                log("no matching build configuration for module " + moduleName + " this module will be skipped ",
+                        Project.MSG_DEBUG);
+            }
+            return false;
         }
 
         // if no as attribute was given use module name
@@ -102,36 +180,18 @@ public class Import extends AbstractImport implements DynamicAttribute {
         boolean toBeSkipped = getProject().getProperty("skip." + moduleName) != null
                 || getProject().getProperty("skip." + getAs()) != null;
 
-        if (isMandatory() && toBeSkipped) {
+        if (isMandatory() && toBeSkipped && verbose) {
             log("Impossible to skip a mandatory module : " + moduleName, Project.MSG_WARN);
         }
 
         // a module can be skipped *only* if it is not mandatory
         if (!isMandatory() && toBeSkipped) {
-            log(moduleName + " skipped !");
-        } else {
-            try {
-                DefaultModuleDescriptor md = DefaultModuleDescriptor.newCallerInstance(moduleRevisionId, getMainConf()
-                        .split(","), true, isChanging());
-
-                IvySettings settings = getEasyAntIvyInstance().getSettings();
-                IvyContext.pushNewContext();
-                IvyContext.getContext().setIvy(getEasyAntIvyInstance());
-                // FIXME: If additionnal dependency are loaded or a superior version of a dependency is defined it works
-                // as expected
-                // But it doesn't work if you specify a revision lower to original one
-                md = EasyAntPluginBridge.computeModuleDescriptor(md, settings, dependencies, conflicts, excludes);
-                ResolveReport report = getEasyAntIvyInstance().getResolveEngine()
-                        .resolve(md, configureResolveOptions());
-                importModule(moduleRevisionId, report);
-                IvyContext.popContext();
-            } catch (ParseException e) {
-                throw new BuildException("Can't parse module descriptor", e);
-            } catch (IOException e) {
-                throw new BuildException("Can't parse module descriptor", e);
+            if (verbose) {
+                log(moduleName + " skipped !");
             }
-
+            return false;
         }
+        return true;
     }
 
     /**
@@ -268,4 +328,14 @@ public class Import extends AbstractImport implements DynamicAttribute {
         this.conflicts = conflicts;
     }
 
+    /**
+     * Check if nested dependencies, excludes or conflicts are declared. They are meant to change the resolution of the
+     * imported module only, so such an import can't share its resolve with other modules.
+     * 
+     * @return true if the import declares nested dependencies, excludes or conflicts
+     */
+    public boolean hasResolveSettings() {
+        return !dependencies.isEmpty() || !excludes.isEmpty() || !conflicts.isEmpty();
+    }
+
 }
@@ -17,6 +17,7 @@
  */
 package org.apache.easyant.tasks;
 
+import org.apache.easyant.core.ivy.IvyInstanceHelper;
 import org.apache.ivy.Ivy;
 import org.apache.ivy.ant.AntMessageLogger;
 import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
@@ -55,6 +56,10 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * EXPERIMENTAL, IT IS NOT INTENDED FOR PUBLIC USE
@@ -69,6 +74,8 @@ public class ImportAntscripts extends Task {
 
     private Ivy externalIvy;
 
+    private int threadCount = 4;
+
     public void setIvyfile(File ivyfile) {
         this.ivyfile = ivyfile;
     }
@@ -77,6 +84,14 @@ public class ImportAntscripts extends Task {
         this.ivysettings = ivysettings;
     }
 
+    /**
+     * Set the maximum number of ivy configurations of the ant scripts resolved concurrently. Resolves are only run
+     * concurrently if the repository caches are protected by a lock strategy, they are serialized otherwise.
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
     @Override
     public void execute() throws BuildException {
         long startTime = System.currentTimeMillis();
@@ -91,6 +106,9 @@ public class ImportAntscripts extends Task {
         if (ivysettings == null) {
             throw new BuildException("ivysettings is required");
         }
+        if (threadCount < 1) {
+            throw new BuildException("threadCount must be greater than 0");
+        }
 
         boolean refresh = false;
         String refreshValue = getProject().getProperty("easyant.refresh");
@@ -155,6 +173,7 @@ public class ImportAntscripts extends Task {
             // now, for each ant script descriptor, search for an ivy configuration which is used by the ant script
             // itself
 
+            List<AntscriptPath> antscriptPaths = new ArrayList<AntscriptPath>();
             for (ModuleDescriptor depmd : dependencies) {
                 log("Searching for external conf for " + depmd.getModuleRevisionId(), Project.MSG_VERBOSE);
                 String[] confs = depmd.getConfigurationsNames();
@@ -189,24 +208,29 @@ public class ImportAntscripts extends Task {
                     // * trust the last resolve report
                     // * or launch a full resolve
                     // A full resolve might trigger a retrieve to populate the local repo
-
-                    XmlReportParser xmldepreport = null;
+                    AntscriptPath antscriptPath = new AntscriptPath(depmd.getModuleRevisionId().getModuleId()
+                            .toString() + "[" + conf + "]", mock, conf);
                     if (!refresh) {
-                        xmldepreport = getResolveReport(ivy, mock.getModuleRevisionId().getModuleId(), conf, null);
-                    }
-                    if (xmldepreport != null) {
-                        artifacts = xmldepreport.getArtifactReports();
-                    } else {
-                        maybeRetrieve(mock, conf);
-                        ResolveReport resolveReport = resolve(ivy, mock, conf);
-                        ConfigurationResolveReport confReport = resolveReport.getConfigurationReport(conf);
-                        artifacts = confReport.getAllArtifactsReports();
+                        XmlReportParser xmldepreport = getResolveReport(ivy, mock.getModuleRevisionId().getModuleId(),
+                                conf, null);
+                        if (xmldepreport != null) {
+                            antscriptPath.artifacts = xmldepreport.getArtifactReports();
+                        }
                     }
+                    antscriptPaths.add(antscriptPath);
+                }
+            }
 
-                    // finally make the resolved artifact a path which can be used by the ant script itself
-                    makePath(depmd.getModuleRevisionId().getModuleId().toString() + "[" + conf + "]",
-                            Arrays.asList(artifacts));
+            resolveAntscriptPaths(ivy, antscriptPaths);
+
+            // finally make the resolved artifacts paths which can be used by the ant scripts themselves, in
+            // declaration order
+            for (AntscriptPath antscriptPath : antscriptPaths) {
+                if (antscriptPath.resolveTime >= 0) {
+                    log("Path '" + antscriptPath.pathId + "' resolved in " + antscriptPath.resolveTime + "ms.",
+                            Project.MSG_VERBOSE);
                 }
+                makePath(antscriptPath.pathId, Arrays.asList(antscriptPath.artifacts));
             }
 
             log(nbPaths + " paths resolved in " + (System.currentTimeMillis() - startTime) + "ms.", Project.MSG_VERBOSE);
@@ -229,6 +253,84 @@ public class ImportAntscripts extends Task {
 
     }
 
+    /**
+     * Resolve concurrently the paths which couldn't be loaded from a previous resolve report. Each ant script
+     * descriptor is resolved once for all its missing configurations, in its own ivy context, as concurrent resolves
+     * of a same module would share resolution cache files. Retrieves into the local repo are serialized. As all
+     * resolves share the ivy instance and its repository cache, which doesn't protect concurrent downloads of a same
+     * artifact unless it uses a lock strategy, resolves are serialized on the ivy instance when a cache isn't locked.
+     */
+    private void resolveAntscriptPaths(final Ivy ivy, List<AntscriptPath> antscriptPaths) {
+        Map<ModuleDescriptor, List<AntscriptPath>> toResolve
+                = new LinkedHashMap<ModuleDescriptor, List<AntscriptPath>>();
+        for (AntscriptPath antscriptPath : antscriptPaths) {
+            if (antscriptPath.artifacts == null) {
+                List<AntscriptPath> pathsForMock = toResolve.get(antscriptPath.mock);
+                if (pathsForMock == null) {
+                    pathsForMock = new ArrayList<AntscriptPath>();
+                    toResolve.put(antscriptPath.mock, pathsForMock);
+                }
+                pathsForMock.add(antscriptPath);
+            }
+        }
+        if (toResolve.isEmpty()) {
+            return;
+        }
+        if (threadCount > 1 && !IvyInstanceHelper.isCacheLocked(ivy)) {
+            log("repository cache has no lock strategy, ant script paths are resolved one at a time",
+                    Project.MSG_VERBOSE);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, toResolve.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final Map.Entry<ModuleDescriptor, List<AntscriptPath>> entry : toResolve.entrySet()) {
+                futures.add(executor.submit(new Runnable() {
+                    public void run() {
+                        long startTime = System.currentTimeMillis();
+                        String[] confs = new String[entry.getValue().size()];
+                        for (int i = 0; i < confs.length; i++) {
+                            confs[i] = entry.getValue().get(i).conf;
+                        }
+                        ivy.pushContext();
+                        try {
+                            synchronized (ImportAntscripts.this) {
+                                maybeRetrieve(entry.getKey(), confs);
+                            }
+                            ResolveReport resolveReport;
+                            synchronized (IvyInstanceHelper.getResolveLock(ivy)) {
+                                resolveReport = resolve(ivy, entry.getKey(), confs);
+                            }
+                            for (AntscriptPath antscriptPath : entry.getValue()) {
+                                antscriptPath.artifacts = resolveReport.getConfigurationReport(antscriptPath.conf)
+                                        .getAllArtifactsReports();
+                            }
+                        } finally {
+                            ivy.popContext();
+                        }
+                        long resolveTime = System.currentTimeMillis() - startTime;
+                        for (AntscriptPath antscriptPath : entry.getValue()) {
+                            antscriptPath.resolveTime = resolveTime;
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("import of antscripts has been interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BuildException) {
+                throw (BuildException) e.getCause();
+            }
+            throw new BuildException("Error while resolving " + ivyfile + " : " + e.getCause().getMessage(),
+                    e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private List<ArtifactDownloadReport> sortArtifacts(Ivy ivy, ArtifactDownloadReport[] artifacts,
                                                        List<ModuleDescriptor> dependencies) {
         // first lets map the artifacts to their id
@@ -267,7 +369,7 @@ public class ImportAntscripts extends Task {
     /**
      * @return the ivy instance corresponding to the ivysettings.xml provided by the end user
      */
-    private Ivy getExternalIvy() {
+    private synchronized Ivy getExternalIvy() {
         if (externalIvy == null) {
             externalIvy = new Ivy();
             try {
@@ -337,9 +439,9 @@ public class ImportAntscripts extends Task {
     /**
      * Launch an actual resolve
      */
-    private ResolveReport resolve(Ivy ivy, ModuleDescriptor md, String conf) {
+    private ResolveReport resolve(Ivy ivy, ModuleDescriptor md, String... confs) {
         ResolveOptions options = new ResolveOptions();
-        options.setConfs(new String[]{conf});
+        options.setConfs(confs);
         ResolveReport report;
         try {
             report = ivy.resolve(md, options);
@@ -403,8 +505,10 @@ public class ImportAntscripts extends Task {
         ResolutionCacheManager resolutionCacheManager = new DefaultResolutionCacheManager(cacheDir);
         settings.setResolutionCacheManager(resolutionCacheManager);
 
-        RepositoryCacheManager repositoryCacheManager = new DefaultRepositoryCacheManager("default-cache", settings,
-                cacheDir);
+        DefaultRepositoryCacheManager repositoryCacheManager = new DefaultRepositoryCacheManager("default-cache",
+                settings, cacheDir);
+        // ant script paths are resolved concurrently
+        repositoryCacheManager.setLockStrategy("artifact-lock");
         settings.setDefaultRepositoryCacheManager(repositoryCacheManager);
 
         FileSystemResolver localResolver = new FileSystemResolver();
@@ -441,7 +545,7 @@ public class ImportAntscripts extends Task {
     /**
      * If setup with a local repo, resolve the module and retrieve the artifacts into the local repo.
      */
-    private void maybeRetrieve(ModuleDescriptor md, String conf) {
+    private void maybeRetrieve(ModuleDescriptor md, String... confs) {
         File basedir = getLocalRepoBaseDir();
         if (basedir == null) {
             return;
@@ -455,12 +559,12 @@ public class ImportAntscripts extends Task {
         } catch (IOException e) {
             throw new BuildException("Unable to compute the path to the local repository", e);
         }
-        ResolveReport resolve = resolve(ivy, md, conf);
+        ResolveReport resolve = resolve(ivy, md, confs);
 
         RetrieveOptions options = new RetrieveOptions();
         options.setSync(false);
         options.setResolveId(resolve.getResolveId());
-        options.setConfs(new String[]{conf});
+        options.setConfs(confs);
         options.setDestIvyPattern("${easyant.localrepo.basedir}/[organization]/[module]/[revision]/ivy.xml");
         try {
             ivy.retrieve(md.getModuleRevisionId(),
@@ -469,4 +573,25 @@ public class ImportAntscripts extends Task {
             throw new BuildException("Unable to build the local repository", e);
         }
     }
+
+    /**
+     * A path required by an ant script for one of its ivy configurations
+     */
+    private static class AntscriptPath {
+        private final String pathId;
+
+        private final ModuleDescriptor mock;
+
+        private final String conf;
+
+        private volatile ArtifactDownloadReport[] artifacts;
+
+        private volatile long resolveTime = -1;
+
+        public AntscriptPath(String pathId, ModuleDescriptor mock, String conf) {
+            this.pathId = pathId;
+            this.mock = mock;
+            this.conf = conf;
+        }
+    }
 }
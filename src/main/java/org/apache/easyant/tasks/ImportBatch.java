@@ -0,0 +1,277 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.jfr.FlightRecorderEvents;
+import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.LogOptions;
+import org.apache.ivy.core.module.descriptor.Configuration;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ArtifactDownloadReport;
+import org.apache.ivy.core.report.ConfigurationResolveReport;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.IvyNode;
+import org.apache.ivy.core.resolve.IvyNodeCallers.Caller;
+import org.apache.ivy.core.resolve.IvyNodeEviction.EvictionData;
+import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.TaskContainer;
+import org.apache.tools.ant.UnknownElement;
+
+/**
+ * Resolve all nested imports in a single pass, then import them in declaration order. Conflicts between modules
+ * imported by the batch are managed once for all of them. Imports declaring nested dependencies, excludes or
+ * conflicts are resolved on their own, as those settings only apply to the imported module.
+ * <p>
+ * Top-level imports of a build file are not batched automatically, they have to be wrapped in an import-batch.
+ * </p>
+ * Example :
+ *
+ * <pre>
+ * &lt;import-batch&gt;
+ *     &lt;import mrid="org.apache.easyant.plugins#compile-java;0.9"/&gt;
+ *     &lt;import mrid="org.apache.easyant.plugins#package-jar;0.9"/&gt;
+ * &lt;/import-batch&gt;
+ * </pre>
+ */
+public class ImportBatch extends AbstractEasyAntTask implements TaskContainer {
+
+    private List<Task> nestedTasks = new ArrayList<Task>();
+
+    private List<Import> imports;
+
+    public void addTask(Task task) {
+        nestedTasks.add(task);
+    }
+
+    public void execute() {
+        List<Import> imports = getImports();
+        List<ModuleRevisionId> mridsToImport = new ArrayList<ModuleRevisionId>();
+        List<Import> importsToResolve = new ArrayList<Import>();
+        List<ModuleRevisionId> mrids = new ArrayList<ModuleRevisionId>();
+        for (Import importTask : imports) {
+            ModuleRevisionId moduleRevisionId = importTask.buildModuleRevisionId();
+            mridsToImport.add(moduleRevisionId);
+            // nested dependencies, excludes and conflicts would apply to all modules of the batch
+            if (!importTask.hasResolveSettings() && importTask.isImportable(moduleRevisionId, false)) {
+                importsToResolve.add(importTask);
+                mrids.add(moduleRevisionId);
+            }
+        }
+
+        ResolveReport report = importsToResolve.isEmpty() ? null : resolve(importsToResolve, mrids);
+        Set<String> checkedConfs = new HashSet<String>();
+        for (int i = 0; i < imports.size(); i++) {
+            Import importTask = imports.get(i);
+            ModuleRevisionId moduleRevisionId = mridsToImport.get(i);
+            // previous imports may set skip properties or change build configurations
+            if (!importTask.isImportable(moduleRevisionId)) {
+                continue;
+            }
+            if (importTask.hasResolveSettings()) {
+                log(moduleRevisionId + " declares nested dependencies, excludes or conflicts, resolving it on its own",
+                        Project.MSG_VERBOSE);
+                importTask.resolveAndImport(moduleRevisionId);
+                continue;
+            }
+            if (!importsToResolve.contains(importTask)) {
+                log(moduleRevisionId + " was skipped when the batch was resolved, resolving it on its own",
+                        Project.MSG_VERBOSE);
+                importTask.resolveAndImport(moduleRevisionId);
+                continue;
+            }
+            if (checkedConfs.add(importTask.getProvidedConf())) {
+                importTask.checkCoreCompliance(report, importTask.getProvidedConf());
+            }
+            IvyContext.pushNewContext();
+            IvyContext.getContext().setIvy(getEasyAntIvyInstance());
+            try {
+                importTask.importModule(moduleRevisionId, getModuleArtifacts(report, importTask, moduleRevisionId));
+            } finally {
+                IvyContext.popContext();
+            }
+        }
+    }
+
+    /**
+     * Resolve all given modules in a single pass
+     */
+    private ResolveReport resolve(List<Import> importsToResolve, List<ModuleRevisionId> mrids) {
+        IvyContext.pushNewContext();
+        IvyContext.getContext().setIvy(getEasyAntIvyInstance());
+        try {
+            DefaultModuleDescriptor md = buildCallerDescriptor(importsToResolve, mrids);
+            ProjectUtils.TimedOperation resolve = ProjectUtils.beginOperation(FlightRecorderEvents.PLUGIN_RESOLVE);
+            ResolveReport report;
+            // serialized like standalone imports, see Import
+            synchronized (IvyInstanceHelper.getResolveLock(getEasyAntIvyInstance())) {
+                report = getEasyAntIvyInstance().getResolveEngine().resolve(md, configureResolveOptions());
+            }
+            resolve.endResolve(this, report, mrids, mrids);
+            return report;
+        } catch (ParseException e) {
+            throw new BuildException("Can't parse module descriptor", e);
+        } catch (IOException e) {
+            throw new BuildException("Can't parse module descriptor", e);
+        } finally {
+            IvyContext.popContext();
+        }
+    }
+
+    /**
+     * Build a caller descriptor depending on all modules to import, the way
+     * {@link DefaultModuleDescriptor#newCallerInstance(ModuleRevisionId, String[], boolean, boolean)} does for a
+     * single module
+     */
+    private DefaultModuleDescriptor buildCallerDescriptor(List<Import> importsToResolve, List<ModuleRevisionId> mrids) {
+        String projectName = getProject().getName() != null ? getProject().getName() : "project";
+        DefaultModuleDescriptor md = new DefaultModuleDescriptor(ModuleRevisionId.newInstance(projectName,
+                projectName + "-imports-caller", "working"), "integration", null, true);
+        Set<String> confs = new LinkedHashSet<String>();
+        for (int i = 0; i < importsToResolve.size(); i++) {
+            Import importTask = importsToResolve.get(i);
+            String[] mainConfs = importTask.getMainConf().split(",");
+            DefaultDependencyDescriptor dd = new DefaultDependencyDescriptor(md, mrids.get(i), true,
+                    importTask.isChanging(), true);
+            for (String conf : mainConfs) {
+                if (confs.add(conf)) {
+                    md.addConfiguration(new Configuration(conf));
+                }
+                dd.addDependencyConfiguration(conf, conf);
+            }
+            md.addDependency(dd);
+        }
+        md.setLastModified(System.currentTimeMillis());
+        return md;
+    }
+
+    /**
+     * Get the artifacts of an imported module and of its dependencies from the batch resolve report
+     */
+    private ArtifactDownloadReport[] getModuleArtifacts(ResolveReport report, Import importTask,
+            ModuleRevisionId moduleRevisionId) {
+        String conf = importTask.getMainConf();
+        ConfigurationResolveReport confReport = report.getConfigurationReport(conf);
+
+        // walk the dependency graph from the imported module
+        Set<ModuleRevisionId> reached = new HashSet<ModuleRevisionId>();
+        LinkedList<IvyNode> toVisit = new LinkedList<IvyNode>();
+        for (Object o : report.getDependencies()) {
+            IvyNode node = (IvyNode) o;
+            if (node.getModuleId().equals(moduleRevisionId.getModuleId()) && isCalledBy(node, conf, report.getModuleDescriptor()
+                    .getModuleRevisionId())) {
+                toVisit.add(node);
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            IvyNode node = toVisit.removeFirst();
+            if (node.isEvicted(conf)) {
+                EvictionData evictionData = node.getEvictedData(conf);
+                if (evictionData != null && evictionData.getSelected() != null) {
+                    for (Object selected : evictionData.getSelected()) {
+                        toVisit.add((IvyNode) selected);
+                    }
+                }
+                continue;
+            }
+            if (!reached.add(node.getResolvedId())) {
+                continue;
+            }
+            for (Object o : report.getDependencies()) {
+                IvyNode dependency = (IvyNode) o;
+                if (isCalledBy(dependency, conf, node.getResolvedId()) || isCalledBy(dependency, conf, node.getId())) {
+                    toVisit.add(dependency);
+                }
+            }
+        }
+
+        List<ArtifactDownloadReport> artifacts = new ArrayList<ArtifactDownloadReport>();
+        for (ArtifactDownloadReport artifact : confReport.getAllArtifactsReports()) {
+            if (reached.contains(artifact.getArtifact().getModuleRevisionId())) {
+                artifacts.add(artifact);
+            }
+        }
+        return artifacts.toArray(new ArtifactDownloadReport[artifacts.size()]);
+    }
+
+    private boolean isCalledBy(IvyNode node, String conf, ModuleRevisionId callerMrid) {
+        for (Caller caller : node.getCallers(conf)) {
+            if (caller.getModuleRevisionId().equals(callerMrid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Configures resolve options
+     *
+     * @return configured resolveOptions
+     */
+    protected ResolveOptions configureResolveOptions() {
+        ResolveOptions resolveOptions = new ResolveOptions();
+        String downloadLog = getProject().getProperty(EasyAntMagicNames.MODULE_DOWNLOAD_LOG);
+        resolveOptions.setLog(downloadLog != null ? downloadLog : LogOptions.LOG_DOWNLOAD_ONLY);
+
+        Boolean offline = Boolean.valueOf(getProject().getProperty(EasyAntMagicNames.EASYANT_OFFLINE));
+        resolveOptions.setUseCacheOnly(offline);
+        return resolveOptions;
+    }
+
+    /**
+     * Get the configured nested imports, in declaration order
+     *
+     * @return a list of {@link Import}
+     */
+    public List<Import> getImports() {
+        if (imports == null) {
+            imports = new ArrayList<Import>();
+            for (Task task : nestedTasks) {
+                Object realThing = task;
+                if (task instanceof UnknownElement) {
+                    UnknownElement ue = (UnknownElement) task;
+                    ue.maybeConfigure();
+                    realThing = ue.getRealThing();
+                }
+                if (!(realThing instanceof Import)) {
+                    throw new BuildException("only import tasks are allowed in import-batch, found "
+                            + task.getTaskName());
+                }
+                imports.add((Import) realThing);
+            }
+        }
+        return imports;
+    }
+
+}
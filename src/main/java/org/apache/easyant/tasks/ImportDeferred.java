@@ -21,11 +21,11 @@ import java.io.File;
 
 import org.apache.easyant.core.BuildConfigurationHelper;
 import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.helper.CompiledAntScript;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex.ResolvedArtifact;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
-import org.apache.ivy.core.report.ArtifactDownloadReport;
-import org.apache.ivy.core.report.ConfigurationResolveReport;
-import org.apache.ivy.core.report.ResolveReport;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DynamicAttribute;
 import org.apache.tools.ant.Project;
@@ -33,7 +33,7 @@ import org.apache.tools.ant.types.Path;
 
 /**
  * Import implementation relying on pre resolved plugins by {@link ResolvePlugins} Organisation / module are used to
- * pick up the right plugin and theirs dependencies from ResolveReport. Example :
+ * pick up the right plugin and theirs dependencies from the {@link ResolvedModulesIndex} of resolved plugins. Example :
  * 
  * <pre>
  * &lt;import-deferred organisation="org.apache.easyant.plugins" module="compile-java" /&gt;
@@ -85,45 +85,44 @@ public class ImportDeferred extends AbstractImport implements DynamicAttribute {
             log(moduleName + " skipped !");
         } else {
 
-            ResolveReport importedModuleResolveReport = getProject().getReference(
-                    EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF);
-            if (importedModuleResolveReport != null) {
-                importModule(moduleId, importedModuleResolveReport);
+            ResolvedModulesIndex importedModules = getProject().getReference(
+                    EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF);
+            if (importedModules != null) {
+                importModule(moduleId, importedModules);
             }
         }
     }
 
-    protected void importModule(ModuleId moduleId, ResolveReport report) {
+    protected void importModule(ModuleId moduleId, ResolvedModulesIndex importedModules) {
         // Check dependency on core
-        checkCoreCompliance(report, getProvidedConf());
-        ConfigurationResolveReport confReport = report.getConfigurationReport(getMainConf());
-        for (Object o : confReport.getModuleRevisionIds()) {
-            ModuleRevisionId mrid = (ModuleRevisionId) o;
+        checkCoreCompliance(importedModules, getProvidedConf());
+        for (ModuleRevisionId mrid : importedModules.getModuleRevisionIds(getMainConf())) {
             if (mrid.getModuleId().equals(moduleId)) {
-                ArtifactDownloadReport[] artifactsReports = confReport.getDownloadReports(mrid);
-
                 // Fill classpath with whole set of dependencies
                 Path path = createModulePath(moduleId);
-                for (int i = 0; i < confReport.getAllArtifactsReports().length; i++) {
-                    ArtifactDownloadReport artifactReport = confReport.getAllArtifactsReports()[i];
-                    if (shouldBeAddedToClasspath(artifactReport)) {
-                        path.createPathElement().setLocation(artifactReport.getLocalFile());
+                for (ResolvedArtifact artifact : importedModules.getAllArtifacts(getMainConf())) {
+                    if (shouldBeAddedToClasspath(artifact.getType())) {
+                        path.createPathElement().setLocation(artifact.getLocalFile());
                     }
                 }
 
                 File antFile = null;
-                for (ArtifactDownloadReport artifact : artifactsReports) {
+                File compiledAntFile = null;
+                for (ResolvedArtifact artifact : importedModules.getArtifacts(getMainConf(), mrid)) {
                     if ("ant".equals(artifact.getType())) {
                         antFile = artifact.getLocalFile();
+                    } else if (CompiledAntScript.EXTENSION.equals(artifact.getType())) {
+                        compiledAntFile = artifact.getLocalFile();
                     } else {
-                        handleOtherResourceFile(artifact.getArtifact().getModuleRevisionId(), artifact.getName(),
+                        handleOtherResourceFile(artifact.getModuleRevisionId(), artifact.getName(),
                                 artifact.getExt(), artifact.getLocalFile());
                     }
                 }
 
                 // effective import should be executed AFTER any other resource files has been handled
-                if (antFile != null && antFile.exists()) {
-                    doEffectiveImport(antFile);
+                File script = chooseScript(antFile, compiledAntFile);
+                if (script != null) {
+                    importScript(mrid, script);
                 }
 
             }
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.text.ParseException;
 
 import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex;
 import org.apache.ivy.core.IvyContext;
 import org.apache.ivy.core.module.descriptor.Artifact;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
@@ -65,8 +66,9 @@ public class ImportTestModule extends AbstractImport {
             IvyContext.getContext().setIvy(getEasyAntIvyInstance());
             ResolveReport report = getEasyAntIvyInstance().getResolveEngine().resolve(moduleIvy);
 
-            // expose resolve report for import deferred
-            getProject().addReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF, report);
+            // expose resolved modules for import deferred
+            getProject().addReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF,
+                    ResolvedModulesIndex.of(report));
 
             // tiny hack report.getModuleDescriptor.getModuleRevisionId() return a caller instance
             ModuleRevisionId moduleRevisionId = report.getModuleDescriptor().getAllArtifacts()[0].getModuleRevisionId();
@@ -22,6 +22,7 @@ import org.apache.easyant.core.EasyAntConstants;
 import org.apache.easyant.core.EasyAntMagicNames;
 import org.apache.easyant.core.descriptor.*;
 import org.apache.easyant.core.ivy.InheritableScope;
+import org.apache.easyant.core.ivy.IvyActivityRecorder;
 import org.apache.easyant.core.ivy.IvyInstanceHelper;
 import org.apache.easyant.core.parser.DefaultEasyAntXmlModuleDescriptorParser;
 import org.apache.easyant.core.parser.EasyAntModuleDescriptorParser;
@@ -174,6 +175,10 @@ public class LoadModule extends AbstractEasyAntTask {
                     EasyAntMagicNames.EASYANT_OFFLINE)));
             projectOfflineRepository.setSettingsRef(IvyInstanceHelper.buildProjectIvyReference(getProject()));
             projectOfflineRepository.setTarget(getProject().getProperty(EasyAntMagicNames.OFFLINE_BASE_DIRECTORY));
+            if (getProject().getProperty(EasyAntMagicNames.OFFLINE_BUNDLE) != null) {
+                projectOfflineRepository.setBundle(getProject().resolveFile(
+                        getProject().getProperty(EasyAntMagicNames.OFFLINE_BUNDLE)));
+            }
             initTask(projectOfflineRepository).execute();
         }
     }
@@ -251,6 +256,8 @@ public class LoadModule extends AbstractEasyAntTask {
         resolutionCacheManager.setSettings(getProjectIvyInstance().getSettings());
         getProjectIvyInstance().getSettings().setResolutionCacheManager(resolutionCacheManager);
 
+        IvyActivityRecorder.attach(getProject(), getProjectIvyInstance());
+
     }
 
     protected void loadBuildFile(File buildModule) {
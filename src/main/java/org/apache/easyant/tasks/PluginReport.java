@@ -17,42 +17,33 @@
  */
 package org.apache.easyant.tasks;
 
-import java.awt.image.ImagingOpException;
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.IOError;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.apache.easyant.core.EasyAntEngine;
 import org.apache.easyant.core.EasyAntMagicNames;
 import org.apache.easyant.core.report.EasyAntReport;
+import org.apache.easyant.core.report.ReportTemplates;
 import org.apache.easyant.core.report.XMLEasyAntReportWriter;
 import org.apache.easyant.core.services.PluginService;
 import org.apache.ivy.core.IvyPatternHelper;
-import org.apache.ivy.core.cache.ResolutionCacheManager;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.settings.IvySettings;
-import org.apache.ivy.util.FileUtil;
 import org.apache.ivy.util.Message;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.taskdefs.XSLTProcess;
@@ -79,6 +70,8 @@ public class PluginReport extends AbstractEasyAntTask {
 
     private String outputpattern;
 
+    private boolean xmlReport = true;
+
     public File getModuleIvy() {
         return moduleIvy;
     }
@@ -135,6 +128,20 @@ public class PluginReport extends AbstractEasyAntTask {
         this.xslext = xslext;
     }
 
+    public boolean isXmlreport() {
+        return xmlReport;
+    }
+
+    /**
+     * Should the intermediate xml report be written in todir
+     *
+     * @param xmlReport
+     *            true to keep the xml report (default)
+     */
+    public void setXmlreport(boolean xmlReport) {
+        this.xmlReport = xmlReport;
+    }
+
     public File getToFile() {
         return toFile;
     }
@@ -182,83 +189,34 @@ public class PluginReport extends AbstractEasyAntTask {
 
         PluginService pluginService = getProject().getReference(
                 EasyAntMagicNames.PLUGIN_SERVICE_INSTANCE);
-        OutputStream stream = null;
         try {
             EasyAntReport easyantReport = pluginService.getPluginInfo(moduleIvy, sourceDirectory, conf);
             ModuleRevisionId moduleRevisionId = easyantReport.getModuleDescriptor().getModuleRevisionId();
             File reportFile = new File(todir, getOutputPattern(moduleRevisionId, conf, "xml"));
             todir.mkdirs();
-            stream = new FileOutputStream(reportFile);
+            // xml report is kept in memory and transformed from there
+            ByteArrayOutputStream report = new ByteArrayOutputStream();
             XMLEasyAntReportWriter writer = new XMLEasyAntReportWriter();
-            writer.output(easyantReport, stream);
-            genStyled(reportFile, getReportStylePath(), easyantReport);
-        } catch (Exception e) {
-            throw new BuildException("impossible to generate report: " + e, e);
-        } finally {
-            if (stream != null) {
+            writer.output(easyantReport, report);
+            if (xmlReport) {
+                OutputStream stream = new FileOutputStream(reportFile);
                 try {
+                    report.writeTo(stream);
+                } finally {
                     stream.close();
-                } catch (IOException e) {
-                    // do nothing
                 }
             }
+            genStyled(report.toByteArray(), reportFile, easyantReport);
+        } catch (Exception e) {
+            throw new BuildException("impossible to generate report: " + e, e);
         }
     }
 
-    private File getReportStylePath() throws IOException {
+    private Templates getReportStyle() throws IOException, TransformerConfigurationException {
         if (xslFile != null) {
-            return xslFile;
-        }
-        // style should be a file (and not an url)
-        // so we have to copy it from classpath to cache
-        ResolutionCacheManager cacheMgr = getEasyAntIvyInstance().getResolutionCacheManager();
-        String styleName = "easyant-report.xsl";
-        File style = new File(cacheMgr.getResolutionCacheRoot(), styleName);
-        if (!style.exists()) {
-            Message.debug("copying easyant-report.xsl to " + style.getAbsolutePath());
-            FileUtil.copy(XMLEasyAntReportWriter.class.getResourceAsStream(styleName), style, null);
-        } else {
-            // Check cached and jar style content
-            // If EasyAnt has been updated, maybe the style file is different from the one in previous version
-            InputStream cacheIs = new FileInputStream(style);
-            InputStream jarIs = XMLEasyAntReportWriter.class.getResourceAsStream(styleName);
-            if (!isSame(cacheIs, jarIs)) {
-                Message.debug("Update cache style file");
-                style.delete();
-                FileUtil.copy(XMLEasyAntReportWriter.class.getResourceAsStream(styleName), style, null);
-            }
-        }
-        return style;
-    }
-    
-    public boolean isSame(InputStream is1, InputStream is2) throws IOException {
-        byte[] buffer1 = new byte[1024];
-        byte[] buffer2 = new byte[1024];
-
-        try {
-            while (true) {
-                int count1 = is1.read(buffer1);
-                int count2 = is2.read(buffer2);
-
-                if (count1 > -1) {
-                    if (count2 != count1) {
-                        // not same number of byte in files
-                        return false;
-                    }
-
-                    if (!Arrays.equals(buffer1, buffer2)) {
-                        // same byte count, but contents are different
-                        return false;
-                    }
-                } else {
-                    // same content if is1 and is2 have no more byte to read
-                    return count2 == -1;
-                }
-            }
-        } finally {
-            is1.close();
-            is2.close();
+            return ReportTemplates.getTemplates(xslFile);
         }
+        return ReportTemplates.getDefaultTemplates();
     }
 
     private String getOutputPattern(ModuleRevisionId moduleRevisionId, String conf, String ext) {
@@ -267,16 +225,9 @@ public class PluginReport extends AbstractEasyAntTask {
                 moduleRevisionId.getQualifiedExtraAttributes(), null);
     }
 
-    private void genStyled(File reportFile, File style, EasyAntReport easyantReport) throws IOException {
-        InputStream xsltStream = null;
+    private void genStyled(byte[] report, File reportFile, EasyAntReport easyantReport) throws IOException {
         try {
-            // create stream to stylesheet
-            xsltStream = new BufferedInputStream(new FileInputStream(style));
-            Source xsltSource = new StreamSource(xsltStream, JAXPUtils.getSystemId(style));
-
-            // create transformer
-            TransformerFactory tFactory = TransformerFactory.newInstance();
-            Transformer transformer = tFactory.newTransformer(xsltSource);
+            Transformer transformer = getReportStyle().newTransformer();
 
             // add the provided XSLT parameters
             for (Param param : params) {
@@ -300,24 +251,15 @@ public class PluginReport extends AbstractEasyAntTask {
                 }
             }
 
-            InputStream inStream = null;
             OutputStream outStream = null;
             try {
-                inStream = new BufferedInputStream(new FileInputStream(reportFile));
                 outStream = new BufferedOutputStream(new FileOutputStream(outFile));
                 StreamResult res = new StreamResult(outStream);
-                Source src = new StreamSource(inStream, JAXPUtils.getSystemId(style));
+                Source src = new StreamSource(new ByteArrayInputStream(report), JAXPUtils.getSystemId(reportFile));
                 transformer.transform(src, res);
             } catch (TransformerException e) {
                 throw new BuildException(e);
             } finally {
-                if (inStream != null) {
-                    try {
-                        inStream.close();
-                    } catch (IOException e) {
-                        // ignore
-                    }
-                }
                 if (outStream != null) {
                     try {
                         outStream.close();
@@ -328,14 +270,6 @@ public class PluginReport extends AbstractEasyAntTask {
             }
         } catch (TransformerConfigurationException e) {
             throw new BuildException(e);
-        } finally {
-            if (xsltStream != null) {
-                try {
-                    xsltStream.close();
-                } catch (IOException e) {
-                    // ignore
-                }
-            }
         }
     }
 
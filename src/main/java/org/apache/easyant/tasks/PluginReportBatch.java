@@ -0,0 +1,332 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.report.EasyAntReport;
+import org.apache.easyant.core.report.ReportTemplates;
+import org.apache.easyant.core.report.XMLEasyAntReportWriter;
+import org.apache.easyant.core.services.PluginService;
+import org.apache.ivy.core.IvyPatternHelper;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.resolve.ResolvedModuleRevision;
+import org.apache.ivy.plugins.matcher.PatternMatcher;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.XSLTProcess;
+import org.apache.tools.ant.taskdefs.XSLTProcess.Param;
+import org.apache.tools.ant.util.JAXPUtils;
+
+/**
+ * Generate documentation of every plugin revision found in a repository. Plugins are analysed and styled concurrently,
+ * each report being written as soon as its analysis completes and released right after, so that only reports being
+ * processed are held in memory. Modules imported by several plugins are shared through the report cache of the plugin
+ * service. Revisions whose documentation is newer than their publication (and than the stylesheet) are skipped.
+ */
+public class PluginReportBatch extends AbstractEasyAntTask {
+
+    private String organisation = PatternMatcher.ANY_EXPRESSION;
+
+    private String module = PatternMatcher.ANY_EXPRESSION;
+
+    private String revision;
+
+    private String matcher = PatternMatcher.EXACT_OR_REGEXP;
+
+    private String resolver;
+
+    private String conf = "default";
+
+    private File todir;
+
+    private String outputpattern = "[organisation]-[module]-[revision]-[conf].[ext]";
+
+    private File xslFile;
+
+    private String xslext = "html";
+
+    private boolean xmlReport = true;
+
+    private boolean force = false;
+
+    private int threadCount = 4;
+
+    private boolean failOnError = false;
+
+    private List<XSLTProcess.Param> params = new ArrayList<XSLTProcess.Param>();
+
+    public void execute() throws BuildException {
+        if (todir == null) {
+            todir = getProject().getBaseDir();
+        }
+        if (todir.exists() && !todir.isDirectory()) {
+            throw new BuildException("destination directory should be a directory !");
+        }
+        if (threadCount < 1) {
+            throw new BuildException("threadcount must be greater than 0");
+        }
+        PluginService pluginService = getProject().getReference(EasyAntMagicNames.PLUGIN_SERVICE_INSTANCE);
+        try {
+            ModuleRevisionId[] mrids = pluginService.search(organisation, module, revision, null, matcher, resolver);
+            List<ModuleRevisionId> outdated = new ArrayList<ModuleRevisionId>();
+            for (ModuleRevisionId mrid : mrids) {
+                if (force || !isUpToDate(mrid)) {
+                    outdated.add(mrid);
+                } else {
+                    log(mrid + " documentation is up to date", Project.MSG_VERBOSE);
+                }
+            }
+            log("Generating documentation of " + outdated.size() + " module(s), " + (mrids.length - outdated.size())
+                    + " up to date");
+            if (outdated.isEmpty()) {
+                return;
+            }
+            todir.mkdirs();
+            generate(pluginService, outdated);
+        } catch (BuildException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BuildException("impossible to generate reports: " + e, e);
+        }
+    }
+
+    /**
+     * Check if the documentation of a module is newer than the module itself and than the stylesheet
+     */
+    private boolean isUpToDate(ModuleRevisionId mrid) {
+        File outFile = new File(todir, getOutputPattern(mrid, xslext));
+        if (!outFile.exists() || (xslFile != null && xslFile.lastModified() > outFile.lastModified())) {
+            return false;
+        }
+        ResolvedModuleRevision rmr = getEasyAntIvyInstance().findModule(mrid);
+        return rmr != null && rmr.getPublicationDate() != null
+                && rmr.getPublicationDate().getTime() <= outFile.lastModified();
+    }
+
+    private void generate(final PluginService pluginService, List<ModuleRevisionId> mrids) throws Exception {
+        final Templates templates = xslFile != null ? ReportTemplates.getTemplates(xslFile) : ReportTemplates
+                .getDefaultTemplates();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Void>> generations = new ArrayList<Future<Void>>();
+            for (final ModuleRevisionId mrid : mrids) {
+                generations.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        // the report is only referenced here, it is released as soon as it has been written
+                        generate(mrid, pluginService.getPluginInfo(mrid, conf), templates);
+                        return null;
+                    }
+                }));
+            }
+            int failures = 0;
+            for (int i = 0; i < mrids.size(); i++) {
+                try {
+                    generations.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BuildException("Interrupted while generating reports", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    String message = "impossible to generate report of " + mrids.get(i) + ": " + cause;
+                    if (failOnError) {
+                        throw new BuildException(message, cause);
+                    }
+                    log(message, Project.MSG_WARN);
+                    failures++;
+                }
+            }
+            if (failures > 0) {
+                log(failures + " report(s) could not be generated", Project.MSG_WARN);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void generate(ModuleRevisionId mrid, EasyAntReport report, Templates templates) throws Exception {
+        File reportFile = new File(todir, getOutputPattern(mrid, "xml"));
+        File outFile = new File(todir, getOutputPattern(mrid, xslext));
+        outFile.getParentFile().mkdirs();
+
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        new XMLEasyAntReportWriter().output(report, xml);
+        if (xmlReport) {
+            OutputStream stream = new FileOutputStream(reportFile);
+            try {
+                xml.writeTo(stream);
+            } finally {
+                stream.close();
+            }
+        }
+
+        Transformer transformer = templates.newTransformer();
+        for (Param param : params) {
+            transformer.setParameter(param.getName(), param.getExpression());
+        }
+        log("Processing " + mrid + " to " + outFile, Project.MSG_VERBOSE);
+        OutputStream outStream = new BufferedOutputStream(new FileOutputStream(outFile));
+        try {
+            transformer.transform(new StreamSource(new ByteArrayInputStream(xml.toByteArray()),
+                    JAXPUtils.getSystemId(reportFile)), new StreamResult(outStream));
+        } finally {
+            outStream.close();
+        }
+    }
+
+    private String getOutputPattern(ModuleRevisionId mrid, String ext) {
+        return IvyPatternHelper.substitute(outputpattern, mrid.getOrganisation(), mrid.getName(), mrid.getRevision(),
+                "", "", ext, conf, mrid.getQualifiedExtraAttributes(), null);
+    }
+
+    public XSLTProcess.Param createParam() {
+        XSLTProcess.Param result = new XSLTProcess.Param();
+        params.add(result);
+        return result;
+    }
+
+    public String getOrganisation() {
+        return organisation;
+    }
+
+    public void setOrganisation(String organisation) {
+        this.organisation = organisation;
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public void setModule(String module) {
+        this.module = module;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public void setRevision(String revision) {
+        this.revision = revision;
+    }
+
+    public String getMatcher() {
+        return matcher;
+    }
+
+    public void setMatcher(String matcher) {
+        this.matcher = matcher;
+    }
+
+    public String getResolver() {
+        return resolver;
+    }
+
+    public void setResolver(String resolver) {
+        this.resolver = resolver;
+    }
+
+    public String getConf() {
+        return conf;
+    }
+
+    public void setConf(String conf) {
+        this.conf = conf;
+    }
+
+    public File getTodir() {
+        return todir;
+    }
+
+    public void setTodir(File todir) {
+        this.todir = todir;
+    }
+
+    public String getOutputpattern() {
+        return outputpattern;
+    }
+
+    public void setOutputpattern(String outputpattern) {
+        this.outputpattern = outputpattern;
+    }
+
+    public File getXslfile() {
+        return xslFile;
+    }
+
+    public void setXslfile(File xslFile) {
+        this.xslFile = xslFile;
+    }
+
+    public String getXslext() {
+        return xslext;
+    }
+
+    public void setXslext(String xslext) {
+        this.xslext = xslext;
+    }
+
+    public boolean isXmlreport() {
+        return xmlReport;
+    }
+
+    public void setXmlreport(boolean xmlReport) {
+        this.xmlReport = xmlReport;
+    }
+
+    public boolean isForce() {
+        return force;
+    }
+
+    public void setForce(boolean force) {
+        this.force = force;
+    }
+
+    public int getThreadcount() {
+        return threadCount;
+    }
+
+    public void setThreadcount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public boolean isFailonerror() {
+        return failOnError;
+    }
+
+    public void setFailonerror(boolean failOnError) {
+        this.failOnError = failOnError;
+    }
+}
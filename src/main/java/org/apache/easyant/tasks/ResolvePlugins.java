@@ -20,10 +20,14 @@ package org.apache.easyant.tasks;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.easyant.core.EasyAntEngine;
 import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex;
+import org.apache.easyant.core.jfr.FlightRecorderEvents;
 import org.apache.ivy.ant.EasyAntPluginBridge;
 import org.apache.ivy.ant.IvyConflict;
 import org.apache.ivy.ant.IvyDependency;
@@ -39,7 +43,7 @@ import org.apache.ivy.core.settings.IvySettings;
 import org.apache.tools.ant.BuildException;
 
 /**
- * Resolve plugins given as child elements and store resolve report in a ant reference. Example :
+ * Resolve plugins given as child elements and store an index of resolved modules in a ant reference. Example :
  * 
  * <pre>
  * &lt;resolve-plugins&gt;
@@ -70,8 +74,13 @@ public class ResolvePlugins extends AbstractEasyAntTask {
             // as expected
             // But it doesn't work if you specify a revision lower to original one
             md = EasyAntPluginBridge.computeModuleDescriptor(md, settings, dependencies, conflicts, excludes);
+            ProjectUtils.TimedOperation resolve = ProjectUtils.beginOperation(FlightRecorderEvents.PLUGINS_RESOLVE);
             ResolveReport report = getEasyAntIvyInstance().getResolveEngine().resolve(md, configureResolveOptions());
-            getProject().addReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF, report);
+            // the builder module isn't a plugin, listeners are only notified of plugins resolved by imports
+            resolve.endResolve(this, report, builderMRID, Collections.<ModuleRevisionId> emptyList());
+            // only keep what import-deferred needs, the full report holds the whole dependency graph
+            getProject().addReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF,
+                    ResolvedModulesIndex.of(report));
 
             IvyContext.popContext();
         } catch (ParseException e) {
@@ -17,11 +17,15 @@
  */
 package org.apache.easyant.tasks;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
 
 import org.apache.easyant.core.EasyAntConstants;
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ivy.RepositoryIndex;
 import org.apache.ivy.Ivy;
 import org.apache.ivy.ant.IvyTask;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
@@ -49,6 +53,7 @@ public class SearchModule extends IvyTask {
 
     private String propertyPrefix;
     private String resolver;
+    private File indexFile;
 
     public void doExecute() throws BuildException {
         if (getOrganisation() == null) {
@@ -79,29 +84,42 @@ public class SearchModule extends IvyTask {
         ModuleRevisionId[] mrids = ivy.getSearchEngine().listModules(resolverToCheck, mridToSearch,
                 settings.getMatcher(matcher));
 
+        // descriptions are taken from the repository index when available, not indexed modules are resolved
+        RepositoryIndex index = loadRepositoryIndex();
+        if (index != null && index.isOutdated(settings)) {
+            log("Repository index is outdated, falling back to live resolution", Project.MSG_VERBOSE);
+            index = null;
+        }
+
         // diplay the list
         List<String> choices = new ArrayList<String>();
         for (int i = 0; i < mrids.length; i++) {
-            ResolvedModuleRevision rmr = ivy.findModule(mrids[i]);
-            if (rmr == null) {
-                log("Can't retrieve " + mrids[i].toString(), Project.MSG_WARN);
+            String description;
+            if (index != null && index.contains(mrids[i])) {
+                description = index.getDescription(mrids[i]);
             } else {
-
-                choices.add(String.valueOf(i));
-                StringBuilder sb = new StringBuilder();
-                sb.append(i).append(": ");
-                sb.append(mrids[i].getName());
-                sb.append(" v").append(mrids[i].getRevision());
-                // hide organization if its the default one
-                if (!EasyAntConstants.EASYANT_SKELETONS_ORGANISATION.equals(mrids[i].getOrganisation())) {
-                    sb.append(" by ").append(mrids[i].getOrganisation());
-                }
-                // Get the description
-                if (rmr.getDescriptor().getDescription() != null && !rmr.getDescriptor().getDescription().equals("")) {
-                    sb.append(" (").append(rmr.getDescriptor().getDescription()).append(")");
+                ResolvedModuleRevision rmr = ivy.findModule(mrids[i]);
+                if (rmr == null) {
+                    log("Can't retrieve " + mrids[i].toString(), Project.MSG_WARN);
+                    continue;
                 }
-                log(sb.toString());
+                description = rmr.getDescriptor().getDescription();
             }
+
+            choices.add(String.valueOf(i));
+            StringBuilder sb = new StringBuilder();
+            sb.append(i).append(": ");
+            sb.append(mrids[i].getName());
+            sb.append(" v").append(mrids[i].getRevision());
+            // hide organization if its the default one
+            if (!EasyAntConstants.EASYANT_SKELETONS_ORGANISATION.equals(mrids[i].getOrganisation())) {
+                sb.append(" by ").append(mrids[i].getOrganisation());
+            }
+            // Get the description
+            if (description != null && !description.equals("")) {
+                sb.append(" (").append(description).append(")");
+            }
+            log(sb.toString());
         }
         if (choices.isEmpty()) {
             throw new BuildException("No matching module were found !");
@@ -119,6 +137,27 @@ public class SearchModule extends IvyTask {
 
     }
 
+    /**
+     * Load the repository index specified by indexFile attribute or by {@link EasyAntMagicNames#REPOSITORY_INDEX}
+     * property
+     * 
+     * @return a repository index or null if no index is configured or if it can't be loaded
+     */
+    private RepositoryIndex loadRepositoryIndex() {
+        String indexLocation = getIndexFile() != null ? getIndexFile().getAbsolutePath() : getProject().getProperty(
+                EasyAntMagicNames.REPOSITORY_INDEX);
+        if (indexLocation == null) {
+            return null;
+        }
+        try {
+            return RepositoryIndex.load(indexLocation);
+        } catch (IOException e) {
+            log("Can't load repository index from " + indexLocation + ", falling back to live resolution : "
+                    + e.getMessage(), Project.MSG_VERBOSE);
+            return null;
+        }
+    }
+
     protected String getInput(String message, String defaultvalue, List<String> choices) {
         InputRequest request;
         request = new MultipleChoiceInputRequest(message, new Vector(choices));
@@ -192,4 +231,12 @@ public class SearchModule extends IvyTask {
         this.resolver = resolver;
     }
 
+    public File getIndexFile() {
+        return indexFile;
+    }
+
+    public void setIndexFile(File indexFile) {
+        this.indexFile = indexFile;
+    }
+
 }
@@ -23,8 +23,14 @@ import org.apache.easyant.core.ant.ProjectUtils;
 import org.apache.easyant.core.ant.listerners.ExecutionResult;
 import org.apache.easyant.core.ant.listerners.MultiModuleLogger;
 import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.jfr.FlightRecorderEvents;
+import org.apache.easyant.core.metrics.EasyAntMetrics;
+import org.apache.ivy.ant.AntMessageLogger;
+import org.apache.ivy.ant.IvyAntSettings;
 import org.apache.ivy.ant.IvyPublish;
 import org.apache.ivy.ant.IvyResolve;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.util.MessageLoggerEngine;
 import org.apache.tools.ant.*;
 import org.apache.tools.ant.taskdefs.Ant;
 import org.apache.tools.ant.taskdefs.Property;
@@ -152,8 +158,12 @@ public class SubModule extends AbstractEasyAntTask {
             return;
         }
 
+        FlightRecorderEvents.Event subBuildEvent = FlightRecorderEvents.SUB_BUILD.begin();
         Project subModule = configureSubModule(file, directory);
+        List<MessageLoggerEngine> loggerEngines = new ArrayList<MessageLoggerEngine>();
+        keepLoggerEngine(subModule, IvyInstanceHelper.getEasyAntIvyAntSettings(subModule), loggerEngines);
         subModule.fireSubBuildStarted();
+        EasyAntMetrics.getInstance().subModuleStarted();
 
         try {
             // buildFile should be in the same directory of buildModule
@@ -176,8 +186,11 @@ public class SubModule extends AbstractEasyAntTask {
             lm.setLocation(new Location(ProjectUtils.emulateMainScript(getProject()).getAbsolutePath()));
             lm.setUseBuildRepository(useBuildRepository);
             lm.execute();
+            // project ivy instance is configured by LoadModule
+            keepLoggerEngine(subModule, IvyInstanceHelper.getProjectIvyAntSettings(subModule), loggerEngines);
 
             helper.resolveExtensionOfAttributes(subModule);
+            ProjectUtils.configureExecutor(subModule);
 
             String targetsToRun = filterTargets(subModule);
             printExecutingTargetMsg(subModule);
@@ -192,6 +205,8 @@ public class SubModule extends AbstractEasyAntTask {
                     }
                     File artifactsDir = subModule.resolveFile(targetArtifacts);
                     if (artifactsDir.isDirectory()) {
+                        ProjectUtils.TimedOperation publish = ProjectUtils
+                                .beginOperation(FlightRecorderEvents.BUILD_SCOPED_PUBLISH);
                         IvyResolve ivyResolve = new IvyResolve();
                         ivyResolve.setFile(file);
                         ivyResolve.setProject(subModule);
@@ -226,6 +241,11 @@ public class SubModule extends AbstractEasyAntTask {
                         ivyPublish.setForcedeliver(true);
                         ivyPublish.setTaskName("publish-buildscoped-repository");
                         ivyPublish.execute();
+                        ModuleRevisionId publishedMrid = ModuleRevisionId.newInstance(
+                                subModule.getProperty("ivy.organisation"), subModule.getProperty("ivy.module"),
+                                subModule.getProperty("ivy.revision"));
+                        ProjectUtils.fireBuildScopedPublished(subModule, publishedMrid,
+                                publish.end(subModule.getName(), publishedMrid));
                     } else {
                         subModule.log("Skipping publish because " + artifactsDir.getPath() + " is not a directory",
                                 Project.MSG_VERBOSE);
@@ -242,6 +262,14 @@ public class SubModule extends AbstractEasyAntTask {
             // add execution times for the current submodule to parent
             // project references for access from MetaBuildExecutor
             storeExecutionTimes(getProject(), subModule);
+            subBuildEvent.commit(subModule.getName(), file);
+            EasyAntMetrics.getInstance().subModuleFinished();
+            try {
+                releaseSubModule(subModule, loggerEngines);
+            } catch (RuntimeException e) {
+                // never hide the result of the sub-build
+                log("Can't release submodule " + subModule.getName() + " : " + e.getMessage(), Project.MSG_WARN);
+            }
         }
 
     }
@@ -268,6 +296,11 @@ public class SubModule extends AbstractEasyAntTask {
         if (offlineBaseDir != null) {
             subModule.setInheritedProperty(EasyAntMagicNames.OFFLINE_BASE_DIRECTORY, offlineBaseDir);
         }
+        String offlineBundle = getProject().getProperty(EasyAntMagicNames.OFFLINE_BUNDLE);
+        if (offlineBundle != null) {
+            subModule.setInheritedProperty(EasyAntMagicNames.OFFLINE_BUNDLE, getProject().resolveFile(offlineBundle)
+                    .getAbsolutePath());
+        }
 
         subModule.initProperties();
 
@@ -278,6 +311,11 @@ public class SubModule extends AbstractEasyAntTask {
 
         overrideProperties(subModule);
         addReferences(subModule);
+        // submodules share the ivy activity recorder of the build
+        Object ivyActivityRecorder = getProject().getReference(EasyAntMagicNames.IVY_ACTIVITY_RECORDER_REF);
+        if (ivyActivityRecorder != null) {
+            subModule.addReference(EasyAntMagicNames.IVY_ACTIVITY_RECORDER_REF, ivyActivityRecorder);
+        }
 
         getEasyAntEngine().configureEasyAntIvyInstance(subModule);
         subModule.addReference(EasyAntMagicNames.PLUGIN_SERVICE_INSTANCE,
@@ -288,6 +326,44 @@ public class SubModule extends AbstractEasyAntTask {
         return subModule;
     }
 
+    /**
+     * Keep the logger engine of an ivy instance configured by a submodule. Ivy binds its instances and its tasks to a
+     * logger of the configuring task, which is only popped when this task finishes. Tasks executed programmatically
+     * never fire such an event, so their loggers have to be popped when the submodule is released.
+     */
+    private void keepLoggerEngine(Project subModule, IvyAntSettings ivyAntSettings,
+            List<MessageLoggerEngine> loggerEngines) {
+        // instances inherited from the parent project are left untouched
+        if (ivyAntSettings.getProject() != subModule) {
+            return;
+        }
+        // already configured, no logger registered here
+        MessageLoggerEngine loggerEngine = ivyAntSettings.getConfiguredIvyInstance(this).getLoggerEngine();
+        if (!loggerEngines.contains(loggerEngine)) {
+            loggerEngines.add(loggerEngine);
+        }
+    }
+
+    /**
+     * Release a built submodule : loggers registered on its ivy instances are popped, listeners are detached,
+     * references (resolve reports, ivy instances, classpaths, etc.) and targets are cleared, so neither shared
+     * listeners nor objects created during the sub-build keep the whole project graph reachable. Only execution
+     * results copied to the parent project are kept.
+     */
+    private void releaseSubModule(Project subModule, List<MessageLoggerEngine> loggerEngines) {
+        for (MessageLoggerEngine loggerEngine : loggerEngines) {
+            // these ivy instances belong to the submodule, so do all the task loggers stacked on them
+            while (loggerEngine.peekLogger() instanceof AntMessageLogger) {
+                loggerEngine.popLogger();
+            }
+        }
+        for (BuildListener buildListener : subModule.getBuildListeners()) {
+            subModule.removeBuildListener(buildListener);
+        }
+        subModule.getReferences().clear();
+        subModule.getTargets().clear();
+    }
+
     @SuppressWarnings("unchecked")
     private void storeExecutionTimes(Project parent, Project child) {
         List<ExecutionResult> allresults = parent
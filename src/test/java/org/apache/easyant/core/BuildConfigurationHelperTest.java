@@ -18,7 +18,9 @@
 package org.apache.easyant.core;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.util.List;
@@ -134,9 +136,50 @@ public class BuildConfigurationHelperTest {
         assertThat(buildConfigurationActive, is(true));
     }
 
+    @Test
+    public void shouldMatchBuildConfigurationsWithSpaces() {
+        Project p = new Project();
+        p.setNewProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS, "a-conf,another-conf");
+        p.setNewProperty(EasyAntMagicNames.MAIN_CONFS, "a-conf, another-conf");
+
+        assertThat(BuildConfigurationHelper.isBuildConfigurationActive(" another-conf", p, "a-message"), is(true));
+    }
+
+    @Test
+    public void shouldUpdateActiveBuildConfigurationsWhenPropertiesChange() {
+        Project p = new Project();
+        p.setNewProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS, "a-conf,another-conf");
+        p.setProperty(EasyAntMagicNames.MAIN_CONFS, "a-conf");
+        assertThat(BuildConfigurationHelper.isBuildConfigurationActive("another-conf", p, "a-message"), is(false));
+
+        p.setProperty(EasyAntMagicNames.MAIN_CONFS, "a-conf,another-conf");
+        assertThat(BuildConfigurationHelper.isBuildConfigurationActive("another-conf", p, "a-message"), is(true));
+
+        p.setProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS, "a-conf");
+        expectedException.expectMessage(is("unknown build configuration named another-conf"));
+        BuildConfigurationHelper.isBuildConfigurationActive("another-conf", p, "a-message");
+    }
+
+    @Test
+    public void shouldReuseCompiledModelUntilPropertiesChange() {
+        Project p = new Project();
+        BuildConfigurationModel model = BuildConfigurationModel.getModel(p, "a-conf,another-conf", "a-conf");
+        assertThat(BuildConfigurationModel.getModel(p, "a-conf,another-conf", "a-conf"), sameInstance(model));
+        assertThat(BuildConfigurationModel.getModel(p, "a-conf,another-conf", null), not(sameInstance(model)));
+    }
+
+    @Test
+    public void shouldReturnFirstRequestedBuildConfigurationMatching() {
+        assertThat(BuildConfigurationHelper.getFirstBuildConfigurationMatching("another-conf, aconf",
+                "aconf,another-conf"), is("another-conf"));
+        assertThat(BuildConfigurationHelper.getFirstBuildConfigurationMatching("a-missing-conf,aconf", "aconf"),
+                is("aconf"));
+    }
+
     @Test
     public void shouldRemoveSpaces() {
         assertThat(BuildConfigurationHelper.removeSpaces("aconf, another-conf"), is("aconf,another-conf"));
         assertThat(BuildConfigurationHelper.removeSpaces("aconf,another conf"), is("aconf,anotherconf"));
+        assertThat(BuildConfigurationHelper.removeSpaces("\taconf,\nanother-conf\r"), is("aconf,another-conf"));
     }
 }
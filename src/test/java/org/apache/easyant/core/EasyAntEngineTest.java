@@ -21,7 +21,9 @@ package org.apache.easyant.core;
 import org.apache.easyant.core.ant.listerners.MultiModuleLogger;
 import org.apache.easyant.core.configuration.EasyAntConfiguration;
 import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.metrics.MetricsListener;
 import org.apache.easyant.core.services.DefaultPluginService;
+import org.apache.easyant.man.ListTargets;
 import org.apache.ivy.Ivy;
 import org.apache.ivy.ant.IvyAntSettings;
 import org.apache.easyant.core.ivy.EasyAntRepositoryCacheManager;
@@ -80,6 +82,17 @@ public class EasyAntEngineTest {
         assertTrue(containsClass(project.getBuildListeners(), MultiModuleLogger.class));
     }
 
+    @Test
+    public void shouldOnlyAddMetricsListenerIfMetricsAreEnabled() {
+        easyantEngine.addBuildListeners(project);
+        assertThat(containsClass(project.getBuildListeners(), MetricsListener.class), is(false));
+
+        Project otherProject = new Project();
+        easyAntConfiguration.getDefinedProps().setProperty(EasyAntMagicNames.EASYANT_METRICS, "true");
+        easyantEngine.addBuildListeners(otherProject);
+        assertTrue(containsClass(otherProject.getBuildListeners(), MetricsListener.class));
+    }
+
     @Test
     public void shouldSetInputHandler() {
         easyAntConfiguration.setInputHandlerClassname(PropertyFileInputHandler.class.getCanonicalName());
@@ -200,6 +213,25 @@ public class EasyAntEngineTest {
         }
     }
 
+    @Test
+    public void shouldLocateProjectWithoutLoadingIt() throws URISyntaxException {
+        configureEasyAntIvyInstanceForTests();
+        File moduleIvy = new File(this.getClass().getResource("services/module.ivy").toURI());
+        easyAntConfiguration.setBuildModule(moduleIvy);
+        easyantEngine.configureEasyAnt(project);
+        int nbTargets = project.getTargets().size();
+
+        easyantEngine.locateProject(project);
+
+        assertThat(project.getProperty(EasyAntMagicNames.EASYANT_FILE), is(moduleIvy.getAbsolutePath()));
+        assertThat(project.getTargets().size(), is(nbTargets));
+
+        ListTargets listTargets = new ListTargets();
+        listTargets.setProject(project);
+        assertThat(listTargets.getEareport().getImportedModuleReport("mycompany#complexplugin;0.1"),
+                is(notNullValue()));
+    }
+
     private void assertEasyAntIsConfigured() {
         assertThat(project.getCoreLoader(), is(easyAntConfiguration.getCoreLoader()));
         assertThat(project.isKeepGoingMode(), is(easyAntConfiguration.isKeepGoingMode()));
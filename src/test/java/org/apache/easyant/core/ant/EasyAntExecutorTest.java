@@ -0,0 +1,159 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Vector;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.taskdefs.Property;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class EasyAntExecutorTest {
+
+    private Project project;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        project.init();
+        addTarget("init", "");
+        addTarget("compile", "init");
+        addTarget("test", "compile");
+    }
+
+    private Target addTarget(String name, String depends) {
+        Target target = new Target();
+        target.setName(name);
+        target.setProject(project);
+        target.setDepends(depends);
+        project.addTarget(target);
+        return target;
+    }
+
+    @Test
+    public void shouldSortTargetsLikeAnt() {
+        Vector<Target> sorted = TargetGraph.getTargetGraph(project).getSortedTargets("test");
+        assertEquals(project.topoSort(new String[] { "test" }, project.getTargets(), false), sorted);
+    }
+
+    @Test
+    public void shouldReuseTargetGraph() {
+        ProjectUtils.configureExecutor(project);
+        TargetGraph targetGraph = TargetGraph.getTargetGraph(project);
+        assertTrue(project.getExecutor() instanceof EasyAntExecutor);
+
+        project.executeTargets(new Vector<String>(Arrays.asList("test", "compile")));
+        assertSame(targetGraph, TargetGraph.getTargetGraph(project));
+    }
+
+    @Test
+    public void shouldInvalidateOrderWhenTargetsAreAdded() {
+        TargetGraph targetGraph = TargetGraph.getTargetGraph(project);
+        assertEquals(2, targetGraph.getSortedTargets("compile").size());
+
+        addTarget("generate-sources", "init");
+        project.getTargets().get("compile").addDependency("generate-sources");
+        assertEquals(3, targetGraph.getSortedTargets("compile").size());
+    }
+
+    @Test
+    public void shouldExecuteReplacedTarget() {
+        ProjectUtils.configureExecutor(project);
+        project.executeTarget("test");
+
+        Target replacement = new Target();
+        replacement.setName("compile");
+        replacement.setProject(project);
+        replacement.setDepends("init");
+        Property property = new Property();
+        property.setProject(project);
+        property.setName("compile.replaced");
+        property.setValue("true");
+        replacement.addTask(property);
+        project.addOrReplaceTarget(replacement);
+        TargetGraph.invalidate(project);
+
+        project.executeTarget("test");
+        assertSame(replacement, TargetGraph.getTargetGraph(project).getSortedTargets("test").get(1));
+        assertEquals("true", project.getProperty("compile.replaced"));
+    }
+
+    @Test
+    public void shouldInvalidateOrderWhenDependenciesAreRewired() {
+        TargetGraph targetGraph = TargetGraph.getTargetGraph(project);
+        assertEquals(1, targetGraph.getSortedTargets("init").size());
+
+        project.getTargets().get("init").addDependency("test");
+        TargetGraph.invalidate(project);
+        expectedException.expectMessage("Circular dependency");
+        targetGraph.getSortedTargets("compile");
+    }
+
+    @Test
+    public void shouldInvalidateOrderWhenExtensionPointsAreResolved() throws IOException {
+        File script = folder.newFile("build.ant");
+        FileWriter writer = new FileWriter(script);
+        try {
+            writer.write("<project name=\"myproject\"><extension-point name=\"package\"/>"
+                    + "<target name=\"jar\" extensionOf=\"package\"/></project>");
+        } finally {
+            writer.close();
+        }
+        ProjectHelper helper = ProjectUtils.configureProjectHelper(project);
+        helper.parse(project, script);
+        TargetGraph targetGraph = TargetGraph.getTargetGraph(project);
+        assertEquals(1, targetGraph.getSortedTargets("package").size());
+
+        helper.resolveExtensionOfAttributes(project);
+        assertEquals(2, targetGraph.getSortedTargets("package").size());
+    }
+
+    @Test
+    public void shouldNotOverrideConfiguredExecutor() {
+        project.setProperty("ant.executor.class", MetaBuildExecutor.class.getName());
+        ProjectUtils.configureExecutor(project);
+        assertNotSame(EasyAntExecutor.class, project.getExecutor().getClass());
+    }
+
+    @Test
+    public void shouldFailOnUnknownTarget() {
+        expectedException.expectMessage("Target \"unknown\" does not exist in the project");
+        new EasyAntExecutor().executeTargets(project, new String[] { "unknown" });
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.listerners;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.util.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncEasyAntLoggerTest {
+
+    private Project project;
+
+    private ByteArrayOutputStream out;
+
+    private AsyncEasyAntLogger logger;
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        project.setName("myproject");
+        out = new ByteArrayOutputStream();
+        logger = new AsyncEasyAntLogger();
+        logger.setMessageOutputLevel(Project.MSG_INFO);
+        logger.setOutputPrintStream(new PrintStream(out, true));
+        logger.setErrorPrintStream(new PrintStream(out, true));
+        project.addBuildListener(logger);
+    }
+
+    @Test
+    public void shouldWriteAllMessagesWhenBuildFinishes() {
+        logger.buildStarted(new BuildEvent(project));
+        Target target = new Target();
+        target.setName("mytarget");
+        target.setProject(project);
+        logger.targetStarted(new BuildEvent(target));
+        for (int i = 0; i < 1000; i++) {
+            project.log(target, "message " + i, Project.MSG_INFO);
+            project.log(target, "verbose message " + i, Project.MSG_VERBOSE);
+        }
+        logger.buildFinished(new BuildEvent(project));
+
+        String log = out.toString();
+        assertThat(log.indexOf("mytarget:") < log.indexOf("message 0"), is(true));
+        assertThat(log.indexOf("message 998") < log.indexOf("message 999"), is(true));
+        assertThat(log.contains("verbose message"), is(false));
+        assertThat(log, containsString("BUILD SUCCESSFUL"));
+    }
+
+    @Test
+    public void shouldStopWriterThreadWhenBuildFinishes() {
+        AsyncLoggerSupport support = new AsyncLoggerSupport();
+        AsyncLogWriter writer = support.getWriter(project);
+        support.printMessage("pending message", new PrintStream(out, true), Project.MSG_INFO);
+        support.buildFinished(project);
+
+        assertThat(writer.isRunning(), is(false));
+        assertThat(out.toString(), containsString("pending message"));
+        // written from the calling thread once closed
+        writer.write("late message", new PrintStream(out, true), Project.MSG_INFO);
+        assertThat(out.toString(), containsString("late message"));
+        assertThat(support.getWriter(project), is(not(writer)));
+    }
+
+    @Test
+    public void shouldDiscardLowPriorityMessagesWhenQueueIsFull() throws InterruptedException {
+        final Object lock = new Object();
+        PrintStream slowStream = new PrintStream(out, true) {
+            @Override
+            public void print(Object obj) {
+                synchronized (lock) {
+                    super.print(obj);
+                }
+            }
+        };
+        AsyncLogWriter writer = new AsyncLogWriter(2, AsyncLogWriter.OverflowPolicy.DISCARD);
+        synchronized (lock) {
+            writer.write("first", slowStream, Project.MSG_INFO);
+            // give the writer thread the time to block on the first batch
+            Thread.sleep(100);
+            for (int i = 0; i < 10; i++) {
+                writer.write("info " + i, slowStream, Project.MSG_INFO);
+            }
+        }
+        writer.write("warning", slowStream, Project.MSG_WARN);
+        writer.flush();
+
+        String log = out.toString();
+        assertThat(log, containsString("first"));
+        assertThat(log, containsString("warning"));
+        assertThat(log, containsString("log messages discarded"));
+    }
+
+    @Test
+    public void shouldKeepOrderOfMessagesWrittenToSeveralStreams() {
+        PrintStream outStream = new PrintStream(out, true);
+        PrintStream errStream = new PrintStream(out, true);
+        AsyncLogWriter writer = new AsyncLogWriter(AsyncLogWriter.DEFAULT_QUEUE_SIZE,
+                AsyncLogWriter.OverflowPolicy.BLOCK);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            writer.write("output " + i, outStream, Project.MSG_INFO);
+            writer.write("error " + i, errStream, Project.MSG_ERR);
+            expected.append("output ").append(i).append(StringUtils.LINE_SEP);
+            expected.append("error ").append(i).append(StringUtils.LINE_SEP);
+        }
+        writer.flush();
+
+        assertThat(out.toString(), is(expected.toString()));
+    }
+
+    @Test
+    public void shouldReadConfigurationFromProject() {
+        project.setProperty(EasyAntMagicNames.ASYNC_LOGGER_OVERFLOW_POLICY, "discard");
+        project.setProperty(EasyAntMagicNames.ASYNC_LOGGER_QUEUE_SIZE, "16");
+        assertThat(AsyncLogWriter.newInstance(project).getOverflowPolicy(), is(AsyncLogWriter.OverflowPolicy.DISCARD));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.listerners;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.tasks.Import;
+import org.apache.ivy.ant.IvyConfigure;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JsonEventStreamListenerTest {
+
+    private Project project;
+
+    private File eventStream;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws URISyntaxException, IOException {
+        project = new Project();
+        project.setName("myproject");
+        ProjectUtils.configureProjectHelper(project);
+
+        File cache = folder.newFolder("build-cache");
+        project.setProperty("ivy.cache.dir", cache.getAbsolutePath());
+
+        IvyConfigure configure = new IvyConfigure();
+        configure.setProject(project);
+        configure.setFile(new File(this.getClass().getResource("/repositories/easyant-ivysettings-test.xml").toURI()));
+        configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+        configure.execute();
+
+        eventStream = new File(folder.getRoot(), "events/build.ndjson");
+        project.setProperty(EasyAntMagicNames.EVENT_STREAM_FILE, eventStream.getAbsolutePath());
+        project.addBuildListener(new JsonEventStreamListener());
+    }
+
+    @Test
+    public void shouldWriteOneJsonObjectPerEvent() throws IOException {
+        project.fireBuildStarted();
+        Import importTask = new Import();
+        importTask.setProject(project);
+        importTask.setTaskName("import");
+        importTask.setOwningTarget(ProjectUtils.createTopLevelTarget());
+        importTask.setLocation(new Location(ProjectUtils.emulateMainScript(project).getAbsolutePath()));
+        importTask.setMrid("mycompany#modulewithtarget;0.1");
+        importTask.perform();
+        project.log("a \"quoted\"\nmessage");
+        project.fireBuildFinished(null);
+
+        List<String> events = readEvents();
+        assertThat(events.get(0), containsString("{\"event\":\"buildStarted\",\"time\":"));
+        for (String event : events) {
+            assertThat(event.startsWith("{\"event\":\""), is(true));
+            assertThat(event.endsWith("}"), is(true));
+        }
+        assertThat(find(events, "pluginResolved"), containsString(
+                "\"task\":\"import\",\"module\":\"mycompany#modulewithtarget;0.1\","
+                        + "\"resolved\":\"mycompany#modulewithtarget;0.1\",\"duration\":"));
+        assertThat(find(events, "pluginImported"), containsString("modulewithtarget-0.1.ant"));
+        assertThat(find(events, "taskFinished"), containsString("\"status\":\"success\""));
+        assertThat(events.get(events.size() - 2), containsString("\"message\":\"a \\\"quoted\\\"\\nmessage\"}"));
+        assertThat(events.get(events.size() - 1), containsString("\"event\":\"buildFinished\""));
+        assertThat(events.get(events.size() - 1), containsString("\"status\":\"success\""));
+    }
+
+    private String find(List<String> events, String eventName) {
+        for (String event : events) {
+            if (event.startsWith("{\"event\":\"" + eventName + "\"")) {
+                return event;
+            }
+        }
+        throw new AssertionError(eventName + " not found in " + events);
+    }
+
+    private List<String> readEvents() throws IOException {
+        List<String> events = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(eventStream), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                events.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return events;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ant.listerners;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.report.ResolveReport;
+import org.apache.tools.ant.Project;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemoryAccountingListenerTest {
+
+    private Project project;
+
+    private MemoryAccountingListener listener;
+
+    @Before
+    public void setUp() {
+        project = new Project();
+        project.init();
+        listener = new MemoryAccountingListener();
+        project.addBuildListener(listener);
+    }
+
+    private Project buildSubModule(String name) {
+        Project subModule = project.createSubProject();
+        subModule.setBaseDir(project.getBaseDir());
+        subModule.addBuildListener(listener);
+        subModule.fireSubBuildStarted();
+        subModule.setName(name);
+        byte[][] garbage = new byte[16][];
+        for (int i = 0; i < garbage.length; i++) {
+            garbage[i] = new byte[64 * 1024];
+        }
+        subModule.fireSubBuildFinished(null);
+        return subModule;
+    }
+
+    @Test
+    public void shouldAccountSubModules() {
+        buildSubModule("first");
+        buildSubModule("second");
+
+        List<MemoryAccountingListener.ModuleMemory> modules = listener.getModules();
+        assertEquals(2, modules.size());
+        for (MemoryAccountingListener.ModuleMemory module : modules) {
+            assertTrue(module.getAllocated() == -1 || module.getAllocated() >= 16 * 64 * 1024);
+        }
+    }
+
+    @Test
+    public void shouldReportReachableSubModules() {
+        Project leaked = buildSubModule("leaked");
+        leaked.addReference("a.resolve.report", new ResolveReport(DefaultModuleDescriptor.newDefaultInstance(ModuleRevisionId
+                .newInstance("org", "mod", "1.0"))));
+        project.addReference("leaked.project", leaked);
+
+        List<Project> leakedSubModules = listener.findLeakedSubModules();
+        assertEquals(1, leakedSubModules.size());
+        assertSame(leaked, leakedSubModules.get(0));
+
+        String report = listener.getReport(project).toString();
+        assertTrue(report.contains("resolve report : a.resolve.report"));
+        assertTrue(report.contains("referenced by main project reference : leaked.project"));
+    }
+}
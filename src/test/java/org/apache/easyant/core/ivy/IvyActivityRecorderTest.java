@@ -0,0 +1,134 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.ivy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.List;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ivy.IvyActivityRecorder.ResolverActivity;
+import org.apache.easyant.tasks.Import;
+import org.apache.ivy.Ivy;
+import org.apache.ivy.ant.IvyConfigure;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.util.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IvyActivityRecorderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Project project;
+
+    private IvyActivityRecorder recorder;
+
+    @Before
+    public void setUp() throws URISyntaxException, IOException {
+        project = new Project();
+        ProjectUtils.configureProjectHelper(project);
+        project.setProperty("ivy.cache.dir", folder.newFolder("build-cache").getAbsolutePath());
+
+        IvyConfigure configure = new IvyConfigure();
+        configure.setProject(project);
+        configure.setFile(new File(this.getClass().getResource("/repositories/easyant-ivysettings-test.xml").toURI()));
+        configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+        configure.execute();
+
+        Ivy ivy = IvyInstanceHelper.getEasyAntIvyAntSettings(project).getConfiguredIvyInstance(configure);
+        project.setProperty(EasyAntMagicNames.IVY_ACTIVITY, "true");
+        recorder = IvyActivityRecorder.attach(project, ivy);
+    }
+
+    private void importModule(String mrid) {
+        Import importTask = new Import();
+        importTask.setProject(project);
+        importTask.setOwningTarget(ProjectUtils.createTopLevelTarget());
+        importTask.setLocation(new Location(ProjectUtils.emulateMainScript(project).getAbsolutePath()));
+        importTask.setMrid(mrid);
+        importTask.execute();
+    }
+
+    @Test
+    public void shouldBeSharedByIvyInstancesOfABuild() {
+        Ivy otherIvy = Ivy.newInstance();
+        assertThat(IvyActivityRecorder.attach(project, otherIvy), is(recorder));
+        assertThat(IvyActivityRecorder.find(project), is(recorder));
+        assertTrue(otherIvy.getEventManager().hasIvyListener(recorder));
+    }
+
+    @Test
+    public void shouldNotRecordUnlessEnabled() {
+        Project otherProject = new Project();
+        Ivy otherIvy = Ivy.newInstance();
+        assertThat(IvyActivityRecorder.attach(otherProject, otherIvy), nullValue());
+        assertThat(IvyActivityRecorder.find(otherProject), nullValue());
+        assertFalse(otherIvy.getEventManager().hasIvyListener(recorder));
+    }
+
+    @Test
+    public void shouldRecordResolverActivity() throws IOException {
+        importModule("mycompany#simpleplugin;0.1");
+
+        List<ResolverActivity> activities = recorder.getResolverActivities();
+        assertFalse(activities.isEmpty());
+        int resolves = 0;
+        int artifacts = 0;
+        for (ResolverActivity activity : activities) {
+            resolves += activity.getResolves();
+            artifacts += activity.getArtifacts();
+            assertEquals(activity.getArtifacts(), activity.getCacheHits() + activity.getCacheMisses());
+        }
+        assertTrue(resolves > 0);
+        assertTrue(artifacts > 0);
+
+        // artifacts are now in cache
+        int cacheHits = 0;
+        importModule("mycompany#simpleplugin;0.1");
+        for (ResolverActivity activity : recorder.getResolverActivities()) {
+            cacheHits += activity.getCacheHits();
+        }
+        assertTrue(cacheHits > 0);
+
+        File summaryFile = new File(folder.getRoot(), "ivy-activity.txt");
+        project.setProperty(EasyAntMagicNames.IVY_ACTIVITY_FILE, summaryFile.getAbsolutePath());
+        recorder.report(project);
+        FileReader reader = new FileReader(summaryFile);
+        try {
+            String summary = FileUtils.readFully(reader);
+            assertTrue(summary.contains(activities.get(0).getName()));
+        } finally {
+            reader.close();
+        }
+    }
+}
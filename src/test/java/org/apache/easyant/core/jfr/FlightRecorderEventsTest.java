@@ -0,0 +1,81 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.jfr;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FlightRecorderEventsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldBeInactiveWhenNotRecording() {
+        FlightRecorderEvents.Event event = FlightRecorderEvents.PLUGIN_RESOLVE.begin();
+        assertThat(event.isActive(), is(false));
+        event.commit("myproject", "mycompany#simpleplugin;0.1");
+    }
+
+    @Test
+    public void shouldRecordEvents() throws Exception {
+        assumeTrue(FlightRecorderEvents.isAvailable());
+        // flight recorder api is used through reflection as easyant is compiled for older jvms
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.newInstance();
+        recordingClass.getMethod("enable", String.class).invoke(recording,
+                FlightRecorderEvents.PLUGIN_RESOLVE.getName());
+        recordingClass.getMethod("start").invoke(recording);
+        try {
+            FlightRecorderEvents.Event event = FlightRecorderEvents.PLUGIN_RESOLVE.begin();
+            assertThat(event.isActive(), is(true));
+            event.commit("myproject", "mycompany#simpleplugin;0.1");
+        } finally {
+            recordingClass.getMethod("stop").invoke(recording);
+        }
+        File dump = new File(folder.getRoot(), "recording.jfr");
+        recordingClass.getMethod("dump", Class.forName("java.nio.file.Path")).invoke(recording,
+                File.class.getMethod("toPath").invoke(dump));
+        recordingClass.getMethod("close").invoke(recording);
+
+        List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                .getMethod("readAllEvents", Class.forName("java.nio.file.Path"))
+                .invoke(null, File.class.getMethod("toPath").invoke(dump));
+        int found = 0;
+        for (Object event : events) {
+            Object eventType = event.getClass().getMethod("getEventType").invoke(event);
+            if (FlightRecorderEvents.PLUGIN_RESOLVE.getName().equals(
+                    eventType.getClass().getMethod("getName").invoke(eventType))) {
+                found++;
+                assertThat(event.getClass().getMethod("getString", String.class).invoke(event, "module"),
+                        is((Object) "myproject"));
+                assertThat(event.getClass().getMethod("getString", String.class).invoke(event, "plugin"),
+                        is((Object) "mycompany#simpleplugin;0.1"));
+            }
+        }
+        assertThat(found, is(1));
+    }
+}
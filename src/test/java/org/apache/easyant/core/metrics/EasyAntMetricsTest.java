@@ -0,0 +1,76 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.metrics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class EasyAntMetricsTest {
+
+    @Test
+    public void shouldRecordDurationsInBuckets() {
+        Histogram histogram = new Histogram(new long[] { 10, 100 });
+        histogram.record(5000000L);
+        histogram.record(10000000L);
+        histogram.record(50000000L);
+        histogram.record(500000000L);
+
+        assertArrayEquals(new long[] { 2, 1, 1 }, histogram.getCounts());
+        assertEquals(4, histogram.getCount());
+        assertEquals(141.25, histogram.getMeanMillis(), 0.001);
+    }
+
+    @Test
+    public void shouldComputeCacheHitRatio() {
+        EasyAntMetrics metrics = EasyAntMetrics.getInstance();
+        metrics.reset();
+        assertEquals(0, metrics.getRepositoryCacheHitRatio(), 0);
+        metrics.repositoryCacheHit();
+        metrics.repositoryCacheHit();
+        metrics.repositoryCacheHit();
+        metrics.repositoryCacheMiss();
+        assertEquals(0.75, metrics.getRepositoryCacheHitRatio(), 0.001);
+    }
+
+    @Test
+    public void shouldExposeMetricsThroughJmx() throws Exception {
+        EasyAntMetrics metrics = EasyAntMetrics.getInstance();
+        metrics.register();
+        metrics.reset();
+        metrics.buildStarted();
+        try {
+            metrics.resolveFinished(2000000L);
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(EasyAntMetrics.OBJECT_NAME);
+            assertTrue(server.isRegistered(name));
+            assertTrue((Integer) server.getAttribute(name, "BuildsInProgress") >= 1);
+            assertEquals(1L, server.getAttribute(name, "ResolveCount"));
+        } finally {
+            metrics.buildFinished(false);
+        }
+    }
+}
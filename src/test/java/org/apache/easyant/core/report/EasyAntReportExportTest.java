@@ -0,0 +1,135 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.report;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.Properties;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.services.DefaultPluginService;
+import org.apache.easyant.core.services.PluginService;
+import org.apache.ivy.Ivy;
+import org.apache.ivy.ant.IvyAntSettings;
+import org.apache.ivy.ant.IvyConfigure;
+import org.apache.ivy.util.FileUtil;
+import org.apache.tools.ant.Project;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EasyAntReportExportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PluginService pluginService;
+
+    private Ivy ivy;
+
+    private File[] sources;
+
+    private EasyAntReportExport export;
+
+    @Before
+    public void setUp() throws IOException, URISyntaxException {
+        Project project = new Project();
+        project.setProperty("ivy.cache.dir", folder.newFolder("build-cache").getAbsolutePath());
+        IvyConfigure configure = new IvyConfigure();
+        configure.setProject(project);
+        configure.setFile(new File(this.getClass().getResource("/repositories/easyant-ivysettings-test.xml").toURI()));
+        configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+        configure.execute();
+
+        IvyAntSettings settings = IvyInstanceHelper.getEasyAntIvyAntSettings(project);
+        ivy = settings.getConfiguredIvyInstance(settings);
+        pluginService = new DefaultPluginService(settings);
+
+        File projectDir = folder.newFolder("project");
+        sources = new File[] { new File(projectDir, "module.ivy"), new File(projectDir, "module.ant"),
+                new File(projectDir, "module.override") };
+        FileUtil.copy(this.getClass().getResource("/org/apache/easyant/core/services/module.ivy"), sources[0], null);
+        FileUtil.copy(this.getClass().getResource("/org/apache/easyant/core/services/module.ant"), sources[1], null);
+        export = new EasyAntReportExport(new File(projectDir, EasyAntReportExport.DEFAULT_EXPORT_DIRECTORY));
+    }
+
+    private EasyAntReport exportReport() throws Exception {
+        EasyAntReport eaReport = pluginService.generateEasyAntReport(sources[0], sources[1], sources[2]);
+        export.export(eaReport, sources);
+        return eaReport;
+    }
+
+    @Test
+    public void shouldExportJsonAndBinaryReport() throws Exception {
+        EasyAntReport eaReport = exportReport();
+
+        String json = FileUtil.readEntirely(export.getJsonFile());
+        assertTrue(json.startsWith("{\"schemaVersion\":" + JSONEasyAntReportWriter.SCHEMA_VERSION + ","));
+        assertTrue(json.contains("{\"name\":\"hello-world\""));
+        assertTrue(json.contains("{\"mrid\":\"mycompany#complexplugin;0.1\""));
+
+        EasyAntReport exportedReport = export.readReport();
+        assertThat(exportedReport.getTargetReports().size(), is(eaReport.getTargetReports().size()));
+        assertThat(exportedReport.getPropertyDescriptors().keySet(), is(eaReport.getPropertyDescriptors().keySet()));
+    }
+
+    @Test
+    public void shouldBeUpToDateUntilProjectChanges() throws Exception {
+        assertThat(export.isUpToDate(sources, ivy), is(false));
+        exportReport();
+        assertThat(export.isUpToDate(sources, ivy), is(true));
+
+        sources[1].setLastModified(sources[1].lastModified() - 10000);
+        assertThat(export.isUpToDate(sources, ivy), is(false));
+    }
+
+    private ImportedModuleReport importedModule(String mrid, EasyAntReport eaReport) {
+        ImportedModuleReport importedModuleReport = new ImportedModuleReport();
+        importedModuleReport.setModuleMrid(mrid);
+        importedModuleReport.setEasyantReport(eaReport);
+        return importedModuleReport;
+    }
+
+    @Test
+    public void shouldFingerprintModulesImportedByPlugins() throws Exception {
+        EasyAntReport pluginReport = new EasyAntReport();
+        pluginReport.addImportedModuleReport(importedModule("mycompany#abstractplugin;0.1", new EasyAntReport()), true);
+        EasyAntReport eaReport = new EasyAntReport();
+        eaReport.addImportedModuleReport(importedModule("mycompany#complexplugin;0.1", pluginReport), true);
+        export.export(eaReport, sources);
+
+        Properties fingerprint = new Properties();
+        InputStream in = new FileInputStream(new File(export.getJsonFile().getParentFile(), "report.properties"));
+        try {
+            fingerprint.load(in);
+        } finally {
+            in.close();
+        }
+        assertThat(fingerprint.getProperty("plugin.mycompany#complexplugin;0.1"), is("0.1"));
+        assertThat(fingerprint.getProperty("plugin.mycompany#abstractplugin;0.1"), is("0.1"));
+    }
+}
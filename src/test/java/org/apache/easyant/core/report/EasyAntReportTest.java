@@ -0,0 +1,98 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.report;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class EasyAntReportTest {
+
+    private EasyAntReport eaReport = new EasyAntReport();
+
+    private TargetReport addTarget(String name, String extensionPoint) {
+        TargetReport targetReport = new TargetReport();
+        targetReport.setName(name);
+        targetReport.setExtensionPoint(extensionPoint);
+        eaReport.addTargetReport(targetReport, true);
+        return targetReport;
+    }
+
+    private ImportedModuleReport addImportedModule(EasyAntReport report, String mrid, String as) {
+        ImportedModuleReport importedModuleReport = new ImportedModuleReport();
+        importedModuleReport.setModuleMrid(mrid);
+        importedModuleReport.setAs(as);
+        report.addImportedModuleReport(importedModuleReport, true);
+        return importedModuleReport;
+    }
+
+    @Test
+    public void shouldReturnFirstTargetWithGivenName() {
+        TargetReport first = addTarget("compile", null);
+        addTarget("compile", null);
+        assertThat(eaReport.getTargetReport("compile"), is(sameInstance(first)));
+        assertThat(eaReport.getTargetReport("missing"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldBindTargetsToExtensionPoints() {
+        ExtensionPointReport extensionPointReport = new ExtensionPointReport("package");
+        eaReport.addExtensionPointReport(extensionPointReport, true);
+        TargetReport jar = addTarget("jar", "package");
+        addTarget("compile", "compile-ep");
+
+        assertThat(eaReport.getExtensionPointReport("package"), is(sameInstance(extensionPointReport)));
+        assertThat(extensionPointReport.getTargetReports().size(), is(1));
+        assertThat(extensionPointReport.getTargetReports().get(0), is(sameInstance(jar)));
+    }
+
+    @Test
+    public void shouldFindImportedModuleByModuleIdNameOrAlias() {
+        ImportedModuleReport plugin = addImportedModule(eaReport, "org.mycompany#myplugin;0.1", "foo");
+        assertThat(eaReport.getImportedModuleReport("org.mycompany#myplugin;0.1"), is(sameInstance(plugin)));
+        assertThat(eaReport.getImportedModuleReport("org.mycompany#myplugin"), is(sameInstance(plugin)));
+        assertThat(eaReport.getImportedModuleReport("myplugin"), is(sameInstance(plugin)));
+        assertThat(eaReport.getImportedModuleReport("foo"), is(sameInstance(plugin)));
+        assertThat(eaReport.getImportedModuleReport("org.mycompany"), is(sameInstance(plugin)));
+        assertThat(eaReport.getImportedModuleReport("missing"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldFindNestedImportedModule() {
+        ImportedModuleReport plugin = addImportedModule(eaReport, "org.mycompany#myplugin;0.1", null);
+        EasyAntReport pluginReport = new EasyAntReport();
+        plugin.setEasyantReport(pluginReport);
+        ImportedModuleReport nestedPlugin = addImportedModule(pluginReport, "org.mycompany#abstractplugin;0.1", null);
+
+        assertThat(eaReport.getImportedModuleReport("abstractplugin"), is(sameInstance(nestedPlugin)));
+    }
+
+    @Test
+    public void shouldPreferDirectImportMatchingPartialModuleId() {
+        ImportedModuleReport plugin = addImportedModule(eaReport, "org.mycompany#myplugin;0.1", null);
+        EasyAntReport pluginReport = new EasyAntReport();
+        plugin.setEasyantReport(pluginReport);
+        addImportedModule(pluginReport, "org.mycompany#abstractplugin;0.1", null);
+
+        assertThat(eaReport.getImportedModuleReport("org.mycompany"), is(sameInstance(plugin)));
+        assertThat(eaReport.getImportedModuleReport("org.mycompany#my"), is(sameInstance(plugin)));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.report;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import javax.xml.transform.Templates;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReportTemplatesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldCompileDefaultStylesheetOnce() throws Exception {
+        Templates templates = ReportTemplates.getDefaultTemplates();
+        assertThat(templates, is(notNullValue()));
+        assertThat(ReportTemplates.getDefaultTemplates(), is(sameInstance(templates)));
+    }
+
+    @Test
+    public void shouldRecompileStylesheetOnlyWhenContentChanges() throws Exception {
+        File style = folder.newFile("style.xsl");
+        writeStylesheet(style, "foo");
+        Templates templates = ReportTemplates.getTemplates(style);
+        assertThat(ReportTemplates.getTemplates(style), is(sameInstance(templates)));
+
+        writeStylesheet(style, "bar");
+        assertThat(ReportTemplates.getTemplates(style), is(not(sameInstance(templates))));
+    }
+
+    private void writeStylesheet(File style, String text) throws IOException {
+        FileWriter writer = new FileWriter(style);
+        try {
+            writer.write("<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+                    + "<xsl:template match=\"/\">" + text + "</xsl:template></xsl:stylesheet>");
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.core.services;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.report.EasyAntReport;
+import org.apache.ivy.ant.IvyConfigure;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.tools.ant.Project;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AsyncPluginServiceTest {
+
+    private PluginService pluginService;
+
+    private ExecutorService executor;
+
+    private AsyncPluginService asyncPluginService;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws IOException, URISyntaxException {
+        Project p = new Project();
+
+        File cache = folder.newFolder("build-cache");
+        p.setProperty("ivy.cache.dir", cache.getAbsolutePath());
+
+        IvyConfigure configure = new IvyConfigure();
+        configure.setProject(p);
+        configure.setFile(new File(this.getClass().getResource("/repositories/easyant-ivysettings-test.xml").toURI()));
+        configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+        configure.execute();
+
+        pluginService = new DefaultPluginService(IvyInstanceHelper.getEasyAntIvyAntSettings(p));
+        executor = Executors.newSingleThreadExecutor();
+        asyncPluginService = new AsyncPluginService(pluginService, executor);
+    }
+
+    @After
+    public void tearDown() {
+        asyncPluginService.shutdown();
+    }
+
+    @Test
+    public void shouldGetPluginInfoAsynchronously() throws Exception {
+        Future<EasyAntReport> futureReport = asyncPluginService.getPluginInfo(
+                ModuleRevisionId.parse("mycompany#simpleplugin;0.1"), "default");
+        EasyAntReport eaReport = futureReport.get();
+        EasyAntReport expectedReport = pluginService.getPluginInfo(ModuleRevisionId.parse("mycompany#simpleplugin;0.1"),
+                "default");
+        assertThat(eaReport.getModuleDescriptor().getModuleRevisionId(), is(expectedReport.getModuleDescriptor()
+                .getModuleRevisionId()));
+        assertThat(eaReport.getTargetReports().size(), is(expectedReport.getTargetReports().size()));
+        assertThat(eaReport.getPropertyDescriptors().size(), is(expectedReport.getPropertyDescriptors().size()));
+    }
+
+    @Test
+    public void shouldCancelPendingCall() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        // keep the single worker busy
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        Future<EasyAntReport> futureReport = asyncPluginService.getPluginInfo("mycompany#simpleplugin;0.1");
+        assertThat(futureReport.cancel(true), is(true));
+        latch.countDown();
+        assertThat(futureReport.isCancelled(), is(true));
+        assertThat(asyncPluginService.getDescription(ModuleRevisionId.parse("mycompany#simpleplugin;0.1")).get(),
+                is(pluginService.getDescription(ModuleRevisionId.parse("mycompany#simpleplugin;0.1"))));
+    }
+
+    @Test
+    public void shouldStopWhenThreadIsInterrupted() throws Exception {
+        Thread.currentThread().interrupt();
+        try {
+            pluginService.getPluginInfo(ModuleRevisionId.parse("mycompany#simpleplugin;0.1"), "default");
+            fail("an interrupted thread should not generate reports");
+        } catch (InterruptedException e) {
+            assertThat(e.getMessage(), is("report generation of mycompany#simpleplugin;0.1 has been cancelled"));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
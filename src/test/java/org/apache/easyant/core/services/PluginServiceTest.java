@@ -19,10 +19,14 @@ package org.apache.easyant.core.services;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -30,15 +34,27 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.apache.easyant.core.EasyAntMagicNames;
 import org.apache.easyant.core.descriptor.PropertyDescriptor;
 import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.ivy.RepositoryIndex;
 import org.apache.easyant.core.report.EasyAntReport;
 import org.apache.easyant.core.report.ExtensionPointReport;
 import org.apache.easyant.core.report.ImportedModuleReport;
 import org.apache.easyant.core.report.TargetReport;
+import org.apache.easyant.core.report.XMLEasyAntReportWriter;
+import org.apache.ivy.Ivy;
+import org.apache.ivy.ant.IvyAntSettings;
 import org.apache.ivy.ant.IvyConfigure;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
+import org.apache.ivy.core.event.IvyEvent;
+import org.apache.ivy.core.event.IvyListener;
+import org.apache.ivy.core.event.resolve.EndResolveEvent;
+import org.apache.ivy.core.event.resolve.StartResolveEvent;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.plugins.matcher.PatternMatcher;
 import org.apache.tools.ant.Project;
@@ -46,13 +62,18 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
 
 public class PluginServiceTest {
 
     private static PluginService pluginService;
+    private IvyAntSettings easyAntIvySettings;
     @Rule
     public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
 
     @Before
     public void setUp() throws IOException, URISyntaxException {
@@ -68,7 +89,8 @@ public class PluginServiceTest {
         configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
         configure.execute();
 
-        pluginService = new DefaultPluginService(IvyInstanceHelper.getEasyAntIvyAntSettings(p));
+        easyAntIvySettings = IvyInstanceHelper.getEasyAntIvyAntSettings(p);
+        pluginService = new DefaultPluginService(easyAntIvySettings);
     }
 
     @Test
@@ -88,6 +110,73 @@ public class PluginServiceTest {
         assertThat(mrids[0], equalTo(mrids[1]));
     }
 
+    @Test
+    public void shouldSearchAllResolversInRepositoryIndex() throws Exception {
+        RepositoryIndex index = new RepositoryIndex();
+        index.addModule(ModuleRevisionId.parse("mycompany#indexedplugin;1.0"), "an indexed plugin");
+        ((DefaultPluginService) pluginService).setRepositoryIndex(index);
+
+        ModuleRevisionId[] mrids = pluginService.search("mycompany", "indexedplugin", null, null,
+                PatternMatcher.EXACT, "*");
+        assertThat(mrids.length, is(1));
+        assertThat(mrids[0], equalTo(ModuleRevisionId.parse("mycompany#indexedplugin;1.0")));
+    }
+
+    @Test
+    public void shouldSearchAllResolversIfRepositoryIndexHasNoMatch() throws Exception {
+        RepositoryIndex index = new RepositoryIndex();
+        index.addModule(ModuleRevisionId.parse("mycompany#indexedplugin;1.0"), "an indexed plugin");
+        ((DefaultPluginService) pluginService).setRepositoryIndex(index);
+
+        ModuleRevisionId[] mrids = pluginService.search("mycompany", "simpleplugin", null, null,
+                PatternMatcher.EXACT, "*");
+        assertThat(mrids.length, is(2));
+        assertThat(mrids[0], equalTo(ModuleRevisionId.parse("mycompany#simpleplugin;0.1")));
+    }
+
+    @Test
+    public void shouldGetDescriptionFromRepositoryIndex() throws Exception {
+        RepositoryIndex index = new RepositoryIndex();
+        index.addModule(ModuleRevisionId.parse("mycompany#complexplugin;0.1"), "an indexed description");
+        ((DefaultPluginService) pluginService).setRepositoryIndex(index);
+
+        assertThat(pluginService.getPluginDescription("mycompany#complexplugin;0.1"), is("an indexed description"));
+        // not indexed, resolved
+        assertThat(pluginService.getPluginDescription("mycompany#abstractplugin;0.1"), is("an abstract plugin"));
+    }
+
+    @Test
+    public void shouldOnlySearchInUpToDateRepositoryIndexCoveringAllResolvers() throws Exception {
+        Ivy ivy = easyAntIvySettings.getConfiguredIvyInstance(easyAntIvySettings);
+        RepositoryIndex index = new RepositoryIndex();
+        index.addModule(ModuleRevisionId.parse("mycompany#simpleplugin;0.1"), "an indexed plugin");
+        index.addResolver(ivy.getSettings().getResolver("easyant-test-chain"));
+        ((DefaultPluginService) pluginService).setRepositoryIndex(index);
+
+        // not searched once per resolver, all resolvers are indexed
+        ModuleRevisionId[] mrids = pluginService.search("mycompany", "simpleplugin", null, null,
+                PatternMatcher.EXACT, "*");
+        assertThat(mrids.length, is(1));
+    }
+
+    @Test
+    public void shouldIgnoreOutdatedRepositoryIndex() throws Exception {
+        Ivy ivy = easyAntIvySettings.getConfiguredIvyInstance(easyAntIvySettings);
+        RepositoryIndex index = new RepositoryIndex();
+        index.addModule(ModuleRevisionId.parse("mycompany#indexedplugin;1.0"), "an indexed plugin");
+        index.addModule(ModuleRevisionId.parse("mycompany#complexplugin;0.1"), "an indexed description");
+        index.addResolver(ivy.getSettings().getResolver("easyant-test-chain"));
+        // generated before the test repository
+        index.setGenerationTime(0);
+        ((DefaultPluginService) pluginService).setRepositoryIndex(index);
+
+        ModuleRevisionId[] mrids = pluginService.search("mycompany", "indexedplugin", null, null,
+                PatternMatcher.EXACT, "*");
+        assertThat(mrids.length, is(0));
+        assertThat(pluginService.getPluginDescription("mycompany#complexplugin;0.1"),
+                is(not("an indexed description")));
+    }
+
     @Test
     public void shouldFindExistingModule() throws Exception {
         String[] mrids = pluginService.searchModule("mycompany", "simpleplugin");
@@ -141,6 +230,55 @@ public class PluginServiceTest {
         assertThat(helloWorld.getExtensionPoint(), is("package"));
     }
 
+    @Test
+    public void shouldGenerateSameReportSequentially() throws Exception {
+        EasyAntReport eaReport = generateReport();
+        ((DefaultPluginService) pluginService).setThreadCount(1);
+        EasyAntReport sequentialReport = generateReport();
+
+        assertThat(sequentialReport.getImportedModuleReports(), is(eaReport.getImportedModuleReports()));
+        assertThat(sequentialReport.getTargetReports().size(), is(eaReport.getTargetReports().size()));
+        ImportedModuleReport complexPlugin = sequentialReport.getImportedModuleReport("mycompany#complexplugin;0.1");
+        assertThat(complexPlugin.getEasyantReport().getImportedModuleReport("abstractplugin").getEasyantReport(),
+                is(notNullValue()));
+    }
+
+    @Test
+    public void shouldOnlyKeepResolvedModulesOfImportedModules() throws Exception {
+        EasyAntReport eaReport = pluginService.getPluginInfo("mycompany#complexplugin;0.1");
+        assertThat(eaReport.getResolveReport(), is(notNullValue()));
+
+        EasyAntReport abstractPlugin = eaReport.getImportedModuleReport("abstractplugin").getEasyantReport();
+        assertThat(abstractPlugin.getResolveReport(), is(nullValue()));
+        assertThat(abstractPlugin.getResolvedModules(), is(notNullValue()));
+        assertThat(abstractPlugin.getResolvedModules().getConfigurations().isEmpty(), is(false));
+    }
+
+    @Test
+    public void shouldKeepResolveReportOfRequestedModulesImportedByOthers() throws Exception {
+        List<EasyAntReport> reports = pluginService.getPluginInfos(Arrays.asList(
+                ModuleRevisionId.parse("mycompany#complexplugin;0.1"),
+                ModuleRevisionId.parse("mycompany#abstractplugin;0.1")), "default");
+        assertThat(reports.get(1).getResolveReport(), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldWriteWellFormedXmlReport() throws Exception {
+        EasyAntReport eaReport = pluginService.getPluginInfo("mycompany#complexplugin;0.1");
+        XMLEasyAntReportWriter writer = new XMLEasyAntReportWriter();
+        writer.setDisplaySubElements(true);
+        String conf = eaReport.getResolveReport().getConfigurations()[0];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.output(eaReport, eaReport.getResolveReport().getConfigurationReport(conf), out);
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(document.getDocumentElement().getNodeName(), is("easyant-report"));
+        assertThat(document.getElementsByTagName("info").getLength(), is(1));
+        assertTrue(document.getElementsByTagName("target").getLength() > 0);
+        assertTrue(document.getElementsByTagName("import").getLength() > 0);
+    }
+
     @Test
     public void shouldGetDescriptionFromExistingPlugin() throws Exception {
         String description = pluginService.getPluginDescription("mycompany#abstractplugin;0.1");
@@ -195,6 +333,63 @@ public class PluginServiceTest {
         assertThat(pluginReadyEP.getDescription(), is("plugin-ready description"));
     }
 
+    @Test
+    public void shouldNotCacheReportOfIntegrationRevision() throws Exception {
+        File reportCacheDir = new File(folder.getRoot(), "report-cache");
+        ((DefaultPluginService) pluginService).setReportCache(new PluginReportCache(reportCacheDir));
+        pluginService.getPluginInfo("mycompany#abstractplugin;0.1");
+        assertThat(reportCacheDir.exists(), is(false));
+    }
+
+    @Test
+    public void shouldReuseCachedReportOfReleasedRevision() throws Exception {
+        PluginReportCache reportCache = new PluginReportCache(folder.newFolder("report-cache"));
+        ((DefaultPluginService) pluginService).setReportCache(reportCache);
+        ModuleRevisionId mrid = ModuleRevisionId.parse("mycompany#releasedplugin;0.1");
+        EasyAntReport pluginInfo = pluginService.getPluginInfo(mrid, "default");
+        assertThat(pluginInfo.getTargetReport("releasedplugin:init"), is(notNullValue()));
+        assertThat(reportCache.load(mrid, "default", new EasyAntReport()), is(notNullValue()));
+
+        // replace cached report to make sure it is the one returned
+        reportCache.store(mrid, "default", new EasyAntReport());
+        EasyAntReport cachedPluginInfo = pluginService.getPluginInfo(mrid, "default");
+        assertThat(cachedPluginInfo.getTargetReports().size(), is(0));
+        assertThat(cachedPluginInfo.getResolveReport(), is(notNullValue()));
+    }
+
+    @Test
+    public void shouldRestoreCachedReport() throws Exception {
+        ModuleRevisionId mrid = ModuleRevisionId.parse("mycompany#complexplugin;0.1");
+        EasyAntReport pluginInfo = pluginService.getPluginInfo(mrid, "default");
+        PluginReportCache reportCache = new PluginReportCache(folder.newFolder("report-cache"));
+        reportCache.store(mrid, "default", pluginInfo);
+
+        EasyAntReport cachedPluginInfo = new EasyAntReport();
+        assertThat(reportCache.load(mrid, "another-conf", cachedPluginInfo), is(nullValue()));
+        List<ImportedModuleReport> importedModules = reportCache.load(mrid, "default", cachedPluginInfo);
+        assertThat(importedModules.size(), is(1));
+        assertThat(importedModules.get(0).getModuleMrid(), is("mycompany#abstractplugin;0.1"));
+        assertThat(cachedPluginInfo.getImportedModuleReportsFromCurrentModule().size(), is(1));
+
+        assertThat(cachedPluginInfo.getTargetReports().size(), is(pluginInfo.getTargetReports().size()));
+        assertThat(cachedPluginInfo.getTargetReportsFromCurrentModule().size(), is(pluginInfo
+                .getTargetReportsFromCurrentModule().size()));
+        for (TargetReport targetReport : pluginInfo.getTargetReports()) {
+            TargetReport cachedTargetReport = cachedPluginInfo.getTargetReport(targetReport.getName());
+            assertThat(cachedTargetReport, is(notNullValue()));
+            assertThat(cachedTargetReport.getDescription(), is(targetReport.getDescription()));
+            assertThat(cachedTargetReport.getExtensionPoint(), is(targetReport.getExtensionPoint()));
+        }
+        assertThat(cachedPluginInfo.getParameterReports().size(), is(pluginInfo.getParameterReports().size()));
+        assertThat(cachedPluginInfo.getExtensionPointReports().size(), is(pluginInfo.getExtensionPointReports()
+                .size()));
+        assertThat(cachedPluginInfo.getPropertyDescriptors().keySet(), is(pluginInfo.getPropertyDescriptors()
+                .keySet()));
+        assertThat(cachedPluginInfo.getPropertyReportsFromCurrentModule().keySet(), is(pluginInfo
+                .getPropertyReportsFromCurrentModule().keySet()));
+        checkPropertyDefaultValueEquals(cachedPluginInfo.getPropertyDescriptors().get("myproperty"), "foobar");
+    }
+
     public void checkPropertyDefaultValueEquals(PropertyDescriptor propertyDescriptor, String expectedValue) {
         assertThat(propertyDescriptor, is(notNullValue()));
         assertThat(propertyDescriptor.getDefaultValue(), is(expectedValue));
@@ -205,6 +400,80 @@ public class PluginServiceTest {
         assertThat(propertyDescriptor.getValue(), is(expectedValue));
     }
 
+    @Test(timeout = 60000)
+    public void shouldFailOnCircularImports() throws Exception {
+        ((DefaultPluginService) pluginService).setThreadCount(1);
+        expectedException.expectMessage("circular import detected : mycompany#cyclicplugin;0.1"
+                + " -> mycompany#othercyclicplugin;0.1 -> mycompany#cyclicplugin;0.1");
+        pluginService.getPluginInfo(ModuleRevisionId.parse("mycompany#cyclicplugin;0.1"), "default");
+    }
+
+    @Test(timeout = 60000)
+    public void shouldFailOnCircularImportsAnalysedConcurrently() throws Exception {
+        expectedException.expectMessage("circular import detected");
+        pluginService.getPluginInfos(Arrays.asList(ModuleRevisionId.parse("mycompany#cyclicplugin;0.1"),
+                ModuleRevisionId.parse("mycompany#othercyclicplugin;0.1")), "default");
+    }
+
+    @Test
+    public void shouldAnalyseModulesConcurrentlyWithoutConcurrentResolvesOnUnlockedCache() throws Exception {
+        final AtomicInteger runningResolves = new AtomicInteger();
+        final AtomicInteger maxRunningResolves = new AtomicInteger();
+        easyAntIvySettings.getConfiguredIvyInstance(easyAntIvySettings).getEventManager()
+                .addIvyListener(new IvyListener() {
+                    public void progress(IvyEvent event) {
+                        if (StartResolveEvent.NAME.equals(event.getName())) {
+                            int running = runningResolves.incrementAndGet();
+                            if (running > maxRunningResolves.get()) {
+                                maxRunningResolves.set(running);
+                            }
+                        } else if (EndResolveEvent.NAME.equals(event.getName())) {
+                            runningResolves.decrementAndGet();
+                        }
+                    }
+                });
+        List<ModuleRevisionId> mrids = Arrays.asList(ModuleRevisionId.parse("mycompany#complexplugin;0.1"),
+                ModuleRevisionId.parse("mycompany#abstractplugin;0.1"),
+                ModuleRevisionId.parse("mycompany#simpleplugin;0.1"),
+                ModuleRevisionId.parse("mycompany#modulewithtarget;0.1"));
+
+        List<EasyAntReport> reports = pluginService.getPluginInfos(mrids, "default");
+        assertThat(maxRunningResolves.get(), is(1));
+
+        ((DefaultPluginService) pluginService).setThreadCount(1);
+        List<EasyAntReport> sequentialReports = pluginService.getPluginInfos(mrids, "default");
+        assertThat(reports.size(), is(mrids.size()));
+        for (int i = 0; i < mrids.size(); i++) {
+            assertThat(reports.get(i).getTargetReports().size(), is(sequentialReports.get(i).getTargetReports()
+                    .size()));
+            assertThat(reports.get(i).getImportedModuleReports(), is(sequentialReports.get(i)
+                    .getImportedModuleReports()));
+        }
+    }
+
+    @Test
+    public void shouldResolveConcurrentlyIfCacheIsLocked() throws Exception {
+        Ivy ivy = easyAntIvySettings.getConfiguredIvyInstance(easyAntIvySettings);
+        assertThat(IvyInstanceHelper.getResolveLock(ivy), is((Object) ivy));
+        ((DefaultRepositoryCacheManager) ivy.getSettings().getDefaultRepositoryCacheManager())
+                .setLockStrategy(ivy.getSettings().getLockStrategy("artifact-lock"));
+        assertThat(IvyInstanceHelper.getResolveLock(ivy) == ivy, is(false));
+
+        List<ModuleRevisionId> mrids = Arrays.asList(ModuleRevisionId.parse("mycompany#complexplugin;0.1"),
+                ModuleRevisionId.parse("mycompany#simpleplugin;0.1"),
+                ModuleRevisionId.parse("mycompany#modulewithtarget;0.1"));
+        List<EasyAntReport> reports = pluginService.getPluginInfos(mrids, "default");
+
+        ((DefaultPluginService) pluginService).setThreadCount(1);
+        List<EasyAntReport> sequentialReports = pluginService.getPluginInfos(mrids, "default");
+        for (int i = 0; i < mrids.size(); i++) {
+            assertThat(reports.get(i).getTargetReports().size(), is(sequentialReports.get(i).getTargetReports()
+                    .size()));
+            assertThat(reports.get(i).getImportedModuleReports(), is(sequentialReports.get(i)
+                    .getImportedModuleReports()));
+        }
+    }
+
     private EasyAntReport generateReport() throws Exception {
         File module = new File(this.getClass().getResource("module.ivy").toURI());
         File moduleAnt = new File(this.getClass().getResource("module.ant").toURI());
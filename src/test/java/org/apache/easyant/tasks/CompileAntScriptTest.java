@@ -0,0 +1,148 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ant.helper.CompiledAntScript;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.taskdefs.ImportTask;
+import org.apache.tools.ant.util.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class CompileAntScriptTest extends AntTaskBaseTest {
+
+    private CompileAntScript compileAntScript;
+
+    private File antScript;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() throws URISyntaxException {
+        Project project = new Project();
+        project.init();
+        ProjectUtils.configureProjectHelper(project);
+
+        compileAntScript = new CompileAntScript();
+        compileAntScript.setProject(project);
+        compileAntScript.setOwningTarget(ProjectUtils.createTopLevelTarget());
+        compileAntScript.setLocation(new Location(ProjectUtils.emulateMainScript(project).getAbsolutePath()));
+
+        antScript = new File(this.getClass()
+                .getResource("/repositories/plugins/mycompany/modulewithtarget/ants/modulewithtarget-0.1.ant").toURI());
+    }
+
+    @Test
+    public void shouldFailIfFileIsNotSet() {
+        expectedException.expectMessage("file is mandatory !");
+        compileAntScript.execute();
+    }
+
+    @Test
+    public void shouldImportCompiledScript() {
+        File compiledScript = new File(folder.getRoot(), "modulewithtarget-0.1.antc");
+        compileAntScript.setFile(antScript);
+        compileAntScript.setToFile(compiledScript);
+        compileAntScript.execute();
+        assertThat(CompiledAntScript.isCompatible(compiledScript), is(true));
+
+        Project project = compileAntScript.getProject();
+        ImportTask importTask = new ImportTask();
+        importTask.setProject(project);
+        importTask.setOwningTarget(compileAntScript.getOwningTarget());
+        importTask.setLocation(compileAntScript.getLocation());
+        importTask.setFile(compiledScript.getAbsolutePath());
+        importTask.setAs("foo");
+        importTask.setTaskType("include");
+        importTask.execute();
+
+        assertThat(project.getTargets().containsKey("foo.modulewithtarget:mytarget"), is(true));
+        assertThat(project.getTargets().containsKey("foo.modulewithtarget:thirdTarget"), is(true));
+
+        project.executeTarget("foo.modulewithtarget:mytarget");
+        assertThat(project.getProperty("apropertyinmytarget"), is("foobar"));
+    }
+
+    @Test
+    public void shouldLoadCompiledScriptInPlaceOfAntScript() {
+        File compiledScript = new File(folder.getRoot(), "modulewithtarget-0.1.antc");
+        compileAntScript.setFile(antScript);
+        compileAntScript.setToFile(compiledScript);
+        compileAntScript.execute();
+
+        Project project = configureBuildLogger(compileAntScript.getProject(), Project.MSG_VERBOSE);
+        Import importTask = new Import();
+        importTask.setProject(project);
+        importTask.setOwningTarget(compileAntScript.getOwningTarget());
+        importTask.setLocation(compileAntScript.getLocation());
+        File script = importTask.chooseScript(antScript, compiledScript);
+        assertThat(script, is(antScript));
+        importTask.doEffectiveImport(script);
+
+        assertLogContaining("loading precompiled buildfile " + compiledScript.getAbsolutePath());
+        assertThat(project.getProperty("ant.file.mycompany#modulewithtarget"), is(antScript.getAbsolutePath()));
+        Target target = project.getTargets().get("modulewithtarget:mytarget");
+        assertThat(target.getLocation().getFileName(), is(antScript.getAbsolutePath()));
+        assertThat(target.getLocation().getLineNumber(), is(18));
+    }
+
+    @Test
+    public void shouldCompileNextToAntScriptByDefault() throws IOException {
+        File antScriptCopy = new File(folder.getRoot(), "modulewithtarget-0.1.ant");
+        FileUtils.getFileUtils().copyFile(antScript, antScriptCopy);
+        compileAntScript.setFile(antScriptCopy);
+        compileAntScript.execute();
+
+        assertThat(CompiledAntScript.isCompatible(new File(folder.getRoot(), "modulewithtarget-0.1.antc")), is(true));
+        assertThat(compileAntScript.getToFile(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldIgnoreScriptCompiledByAnotherVersion() throws IOException {
+        File compiledScript = folder.newFile("another-version.antc");
+        FileOutputStream fos = new FileOutputStream(compiledScript);
+        try {
+            fos.write(new byte[] { 1, 2, 3, 4 });
+        } finally {
+            fos.close();
+        }
+        assertThat(CompiledAntScript.isCompatible(compiledScript), is(false));
+
+        Import importTask = new Import();
+        importTask.setProject(compileAntScript.getProject());
+        assertThat(importTask.chooseScript(antScript, compiledScript), is(antScript));
+    }
+}
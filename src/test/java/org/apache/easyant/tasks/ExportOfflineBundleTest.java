@@ -0,0 +1,144 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.ivy.Ivy;
+import org.apache.ivy.ant.IvyConfigure;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.resolve.ResolvedModuleRevision;
+import org.apache.ivy.plugins.resolver.JarResolver;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class ExportOfflineBundleTest {
+
+    private static final String REPOSITORY_NAME = "offline-repository";
+
+    private ExportOfflineBundle exportOfflineBundle;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() throws URISyntaxException, IOException {
+        Project project = new Project();
+        ProjectUtils.configureProjectHelper(project);
+
+        File cache = folder.newFolder("build-cache");
+        project.setProperty("ivy.cache.dir", cache.getAbsolutePath());
+
+        IvyConfigure configure = new IvyConfigure();
+        configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+        configure.setProject(project);
+        configure.setFile(new File(this.getClass().getResource("/repositories/easyant-ivysettings-test.xml").toURI()));
+        configure.execute();
+        project.setProperty(EasyAntMagicNames.PROJECT_IVY_INSTANCE, EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+
+        exportOfflineBundle = new ExportOfflineBundle();
+        exportOfflineBundle.setProject(project);
+        exportOfflineBundle.setOwningTarget(ProjectUtils.createTopLevelTarget());
+        exportOfflineBundle.setLocation(new Location(ProjectUtils.emulateMainScript(project).getAbsolutePath()));
+    }
+
+    @Test
+    public void shouldFailIfDestFileIsNotSet() {
+        expectedException.expectMessage("destFile is mandatory !");
+        exportOfflineBundle.execute();
+    }
+
+    @Test
+    public void shouldFailIfOfflineRepositoriesDontExist() throws IOException {
+        expectedException.expectMessage("did you run go-offline ?");
+        exportOfflineBundle.setBaseDirectory(folder.newFolder("empty"));
+        exportOfflineBundle.setDestFile(new File(folder.getRoot(), "offline.zip"));
+        exportOfflineBundle.execute();
+    }
+
+    @Test
+    public void shouldReadModulesFromExportedBundle() throws IOException {
+        File offlineBaseDir = folder.newFolder("offline");
+        File moduleDir = new File(offlineBaseDir, "repository/" + REPOSITORY_NAME + "/org.mycompany/mymodule/1.0");
+        moduleDir.mkdirs();
+        FileWriter writer = new FileWriter(new File(moduleDir, "mymodule.ivy"));
+        try {
+            writer.write("<ivy-module version=\"2.0\">"
+                    + "<info organisation=\"org.mycompany\" module=\"mymodule\" revision=\"1.0\" status=\"release\"/>"
+                    + "<publications/></ivy-module>");
+        } finally {
+            writer.close();
+        }
+
+        File bundle = new File(folder.getRoot(), "offline.zip");
+        exportOfflineBundle.getProject().setProperty(EasyAntMagicNames.OFFLINE_BASE_DIRECTORY,
+                offlineBaseDir.getAbsolutePath());
+        exportOfflineBundle.setDestFile(bundle);
+        exportOfflineBundle.execute();
+        assertThat(bundle.exists(), is(true));
+
+        ConfigureBuildScopedRepository configureBuildScopedRepository = new ConfigureBuildScopedRepository();
+        configureBuildScopedRepository.setProject(exportOfflineBundle.getProject());
+        configureBuildScopedRepository.setSettingsRef(IvyInstanceHelper.buildEasyAntIvyReference(exportOfflineBundle
+                .getProject()));
+        configureBuildScopedRepository.setName(REPOSITORY_NAME);
+        configureBuildScopedRepository.setTarget(folder.newFolder("unused").getAbsolutePath());
+        configureBuildScopedRepository.setBundle(bundle);
+        configureBuildScopedRepository.setDictator(true);
+        configureBuildScopedRepository.execute();
+
+        Ivy ivy = IvyInstanceHelper.getIvyAntSettings(exportOfflineBundle.getProject(),
+                EasyAntMagicNames.EASYANT_IVY_INSTANCE).getConfiguredIvyInstance(configureBuildScopedRepository);
+        assertThat(ivy.getSettings().getResolver(REPOSITORY_NAME), instanceOf(JarResolver.class));
+        ResolvedModuleRevision rmr = ivy.findModule(ModuleRevisionId.parse("org.mycompany#mymodule;1.0"));
+        assertThat(rmr, notNullValue());
+    }
+
+    @Test
+    public void shouldFailIfBundleDoesntExist() {
+        File bundle = new File(folder.getRoot(), "missing.zip");
+        expectedException.expectMessage("Can't find bundle " + bundle.getAbsolutePath());
+
+        ConfigureBuildScopedRepository configureBuildScopedRepository = new ConfigureBuildScopedRepository();
+        configureBuildScopedRepository.setProject(exportOfflineBundle.getProject());
+        configureBuildScopedRepository.setSettingsRef(IvyInstanceHelper.buildEasyAntIvyReference(exportOfflineBundle
+                .getProject()));
+        configureBuildScopedRepository.setName(REPOSITORY_NAME);
+        configureBuildScopedRepository.setBundle(bundle);
+        configureBuildScopedRepository.execute();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.ivy.RepositoryIndex;
+import org.apache.ivy.ant.IvyConfigure;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
+import org.apache.ivy.core.settings.IvySettings;
+import org.apache.ivy.plugins.matcher.ExactOrRegexpPatternMatcher;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class GenerateRepositoryIndexTest {
+
+    private final GenerateRepositoryIndex generateRepositoryIndex = new GenerateRepositoryIndex();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() throws URISyntaxException, IOException {
+        Project project = new Project();
+        ProjectUtils.configureProjectHelper(project);
+
+        File cache = folder.newFolder("build-cache");
+        project.setProperty("ivy.cache.dir", cache.getAbsolutePath());
+
+        IvyConfigure configure = new IvyConfigure();
+        configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+        configure.setProject(project);
+        configure.setFile(new File(this.getClass().getResource("/repositories/easyant-ivysettings-test.xml").toURI()));
+        configure.execute();
+
+        project.setBaseDir(new File(this.getClass().getResource("simple").toURI()));
+
+        generateRepositoryIndex.setProject(project);
+        generateRepositoryIndex.setOwningTarget(ProjectUtils.createTopLevelTarget());
+        generateRepositoryIndex.setLocation(new Location(ProjectUtils.emulateMainScript(project).getAbsolutePath()));
+        generateRepositoryIndex.setSettingsRef(IvyInstanceHelper.buildEasyAntIvyReference(project));
+    }
+
+    @Test
+    public void shouldFailIfNoDestinationFileIsGiven() {
+        expectedException.expectMessage("no destination file provided for GenerateRepositoryIndex task");
+        generateRepositoryIndex.execute();
+    }
+
+    @Test
+    public void shouldFailIfResolverIsUnknown() {
+        expectedException.expectMessage("Unknown resolver foo");
+        generateRepositoryIndex.setToFile(new File(folder.getRoot(), "repository.index"));
+        generateRepositoryIndex.setResolver("foo");
+        generateRepositoryIndex.execute();
+    }
+
+    @Test
+    public void shouldIndexRepository() throws IOException {
+        File indexFile = new File(folder.getRoot(), "repository.index");
+        generateRepositoryIndex.setToFile(indexFile);
+        generateRepositoryIndex.execute();
+
+        assertThat(indexFile.exists(), is(true));
+        RepositoryIndex index = RepositoryIndex.load(indexFile);
+        assertThat(index.getResolvers(), hasItem("test-plugin"));
+        assertThat(index.getGenerationTime() > 0, is(true));
+        assertThat(index.contains(ModuleRevisionId.parse("mycompany#simpleplugin;0.1")), is(true));
+        assertThat(index.contains(ModuleRevisionId.parse("anothercompany#simpleplugin;0.1")), is(true));
+        assertThat(index.contains(ModuleRevisionId.parse("mycompany#simpleplugin;0.2")), is(false));
+        assertThat(index.getDescription(ModuleRevisionId.parse("mycompany#simpleplugin;0.2")), nullValue());
+
+        ModuleRevisionId[] mrids = index.search(ModuleRevisionId.newInstance("anothercompany", "*", "*"),
+                ExactOrRegexpPatternMatcher.INSTANCE);
+        assertThat(mrids.length, is(1));
+        assertThat(mrids[0].getName(), is("simpleplugin"));
+    }
+
+    @Test
+    public void shouldRestrictIndexToOrganisation() throws IOException {
+        File indexFile = new File(folder.getRoot(), "repository.index");
+        generateRepositoryIndex.setToFile(indexFile);
+        generateRepositoryIndex.setOrganisation("anothercompany");
+        generateRepositoryIndex.execute();
+
+        RepositoryIndex index = RepositoryIndex.load(indexFile);
+        assertThat(index.size(), is(1));
+        assertThat(index.contains(ModuleRevisionId.parse("anothercompany#simpleplugin;0.1")), is(true));
+    }
+
+    @Test
+    public void shouldRecordChainedResolvers() throws IOException {
+        File indexFile = new File(folder.getRoot(), "repository.index");
+        generateRepositoryIndex.setToFile(indexFile);
+        generateRepositoryIndex.setResolver("easyant-test-chain");
+        generateRepositoryIndex.execute();
+
+        RepositoryIndex index = RepositoryIndex.load(indexFile);
+        assertThat(index.getResolvers(), hasItems("easyant-test-chain", "test-plugin"));
+        IvySettings settings = IvyInstanceHelper.getEasyAntIvyAntSettings(generateRepositoryIndex.getProject())
+                .getConfiguredIvyInstance(generateRepositoryIndex).getSettings();
+        assertThat(index.isComplete(settings), is(true));
+        assertThat(index.isOutdated(settings), is(false));
+    }
+}
@@ -193,5 +193,26 @@ public class GoOfflineTest extends AntTaskBaseTest {
         assertFileExists(projectBuildScopeRepoFolder, "/org.mortbay.jetty/jetty-util/6.1.14/jetty-util.jar");
     }
 
+    @Test
+    public void shouldSkipAlreadyInstalledModules() throws URISyntaxException {
+        goOffline.setEasyantResolverName(EASYANT_BUILDSCOPE_REP);
+        goOffline.setProjectResolverName(PROJECT_BUILDSCOPE_REP);
+        goOffline.setModuleIvy(new File(this.getClass().getResource("dependencies/module.ivy").toURI()));
+        goOffline.execute();
+        assertLogNotContaining("mycompany#simpleplugin;0.1 is already installed");
+
+        goOffline.execute();
+        assertLogContaining("mycompany#simpleplugin;0.1 is already installed in " + EASYANT_BUILDSCOPE_REP);
+        assertLogContaining("junit#junit;4.4 is already installed in " + PROJECT_BUILDSCOPE_REP);
+    }
 
+    @Test
+    public void shouldFailIfThreadCountIsInvalid() throws URISyntaxException {
+        expectedException.expectMessage("threadCount must be greater than 0 !");
+        goOffline.setEasyantResolverName(EASYANT_BUILDSCOPE_REP);
+        goOffline.setProjectResolverName(PROJECT_BUILDSCOPE_REP);
+        goOffline.setModuleIvy(new File(this.getClass().getResource("simple/module.ivy").toURI()));
+        goOffline.setThreadCount(0);
+        goOffline.execute();
+    }
 }
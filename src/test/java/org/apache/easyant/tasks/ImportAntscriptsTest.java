@@ -0,0 +1,191 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ImportAntscriptsTest extends AntTaskBaseTest {
+
+    private static final String[] PATH_IDS = { "acme#scripta[lib]", "acme#scriptb[lib]", "acme#scriptb[test]" };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File repository;
+
+    private File ivyFile;
+
+    @Before
+    public void setUp() throws IOException {
+        repository = folder.newFolder("repository");
+        publish("scripta", "<conf name=\"lib\"/>",
+                "<dependency org=\"acme\" name=\"liba\" rev=\"1.0\" conf=\"lib->default\"/>"
+                        + "<dependency org=\"acme\" name=\"common\" rev=\"1.0\" conf=\"lib->default\"/>");
+        publish("scriptb", "<conf name=\"lib\"/><conf name=\"test\"/>",
+                "<dependency org=\"acme\" name=\"libb\" rev=\"1.0\" conf=\"lib->default\"/>"
+                        + "<dependency org=\"acme\" name=\"common\" rev=\"1.0\" conf=\"lib->default\"/>"
+                        + "<dependency org=\"acme\" name=\"liba\" rev=\"1.0\" conf=\"test->default\"/>");
+        publish("scriptc", "", "<dependency org=\"acme\" name=\"scripta\" rev=\"1.0\" conf=\"default\"/>");
+        publish("liba", "", "");
+        publish("libb", "", "");
+        publish("common", "", "");
+
+        ivyFile = folder.newFile("ivy.xml");
+        write(ivyFile, "<ivy-module version=\"2.0\"><info organisation=\"acme\" module=\"build\"/>"
+                + "<configurations><conf name=\"default\"/></configurations><dependencies>"
+                + "<dependency org=\"acme\" name=\"scriptc\" rev=\"1.0\" conf=\"default\"/>"
+                + "<dependency org=\"acme\" name=\"scriptb\" rev=\"1.0\" conf=\"default\"/>"
+                + "</dependencies></ivy-module>");
+    }
+
+    /**
+     * Publish a module, modules named script* publish an ant script in their default configuration and other ones a
+     * jar
+     */
+    private void publish(String module, String confs, String dependencies) throws IOException {
+        File moduleDir = new File(repository, module);
+        moduleDir.mkdirs();
+        String ext = module.startsWith("script") ? "ant" : "jar";
+        write(new File(moduleDir, "ivy-1.0.xml"), "<ivy-module version=\"2.0\"><info organisation=\"acme\" module=\""
+                + module + "\" revision=\"1.0\" status=\"release\"/><configurations><conf name=\"default\"/>" + confs
+                + "</configurations><publications><artifact type=\"" + ext + "\" ext=\"" + ext
+                + "\" conf=\"default\"/></publications><dependencies>" + dependencies + "</dependencies></ivy-module>");
+        write(new File(moduleDir, module + "-1.0." + ext), "ant".equals(ext) ? "<project name=\"" + module
+                + "\"><property name=\"" + module + ".imported\" value=\"true\"/></project>" : "");
+    }
+
+    private void write(File file, String content) throws IOException {
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private File writeSettings(String name, String lockStrategy) throws IOException {
+        File settings = new File(folder.getRoot(), name + ".xml");
+        write(settings, "<ivysettings><settings defaultResolver=\"repo\"/>" //
+                + "<caches defaultCacheDir=\"" + new File(folder.getRoot(), name + "-cache").getAbsolutePath()
+                + "\" lockStrategy=\"" + lockStrategy + "\"/><resolvers>" //
+                + "<filesystem name=\"repo\"><ivy pattern=\"" + repository.getAbsolutePath()
+                + "/[module]/ivy-[revision].xml\"/><artifact pattern=\"" + repository.getAbsolutePath()
+                + "/[module]/[artifact]-[revision].[ext]\"/></filesystem>" //
+                + "</resolvers></ivysettings>");
+        return settings;
+    }
+
+    /**
+     * Import the ant scripts of the test ivy file
+     * 
+     * @return file names of each ant script path, the ant scripts path itself coming first
+     */
+    private Map<String, List<String>> importAntscripts(File settings, int threadCount) {
+        Project project = new Project();
+        ProjectUtils.configureProjectHelper(project);
+        configureBuildLogger(project, Project.MSG_VERBOSE);
+        project.setProperty("easyant.refresh", "true");
+
+        ImportAntscripts importAntscripts = new ImportAntscripts();
+        importAntscripts.setProject(project);
+        importAntscripts.setOwningTarget(ProjectUtils.createTopLevelTarget());
+        importAntscripts.setLocation(new Location(ProjectUtils.emulateMainScript(project).getAbsolutePath()));
+        importAntscripts.setIvyfile(ivyFile);
+        importAntscripts.setIvysettings(settings);
+        importAntscripts.setThreadCount(threadCount);
+        importAntscripts.execute();
+
+        assertEquals("true", project.getProperty("scripta.imported"));
+        assertEquals("true", project.getProperty("scriptb.imported"));
+        assertEquals("true", project.getProperty("scriptc.imported"));
+
+        Map<String, List<String>> paths = new LinkedHashMap<String, List<String>>();
+        paths.put("easyant.antscripts", getFileNames(project, "easyant.antscripts"));
+        for (String pathId : PATH_IDS) {
+            paths.put(pathId, getFileNames(project, pathId));
+        }
+        return paths;
+    }
+
+    private List<String> getFileNames(Project project, String pathId) {
+        Path path = project.getReference(pathId);
+        assertNotNull(pathId, path);
+        List<String> fileNames = new ArrayList<String>();
+        for (String element : path.list()) {
+            fileNames.add(new File(element).getName());
+        }
+        return fileNames;
+    }
+
+    private Set<String> asSet(List<String> fileNames) {
+        return new HashSet<String>(fileNames);
+    }
+
+    @Test
+    public void shouldResolveConcurrentlyAsSequentially() throws IOException {
+        Map<String, List<String>> sequentialPaths = importAntscripts(writeSettings("sequential", "artifact-lock"), 1);
+        Map<String, List<String>> concurrentPaths = importAntscripts(writeSettings("concurrent", "artifact-lock"), 4);
+        assertLogNotContaining("resolved one at a time");
+
+        assertEquals(sequentialPaths.get("easyant.antscripts"), concurrentPaths.get("easyant.antscripts"));
+        for (String pathId : PATH_IDS) {
+            assertEquals(pathId, asSet(sequentialPaths.get(pathId)), asSet(concurrentPaths.get(pathId)));
+        }
+
+        List<String> antscripts = concurrentPaths.get("easyant.antscripts");
+        assertEquals(asSet(Arrays.asList("scripta-1.0.ant", "scriptb-1.0.ant", "scriptc-1.0.ant")), asSet(antscripts));
+        assertEquals(true, antscripts.indexOf("scripta-1.0.ant") < antscripts.indexOf("scriptc-1.0.ant"));
+        assertEquals(asSet(Arrays.asList("liba-1.0.jar", "common-1.0.jar")),
+                asSet(concurrentPaths.get("acme#scripta[lib]")));
+        assertEquals(asSet(Arrays.asList("libb-1.0.jar", "common-1.0.jar")),
+                asSet(concurrentPaths.get("acme#scriptb[lib]")));
+        assertEquals(asSet(Arrays.asList("liba-1.0.jar")), asSet(concurrentPaths.get("acme#scriptb[test]")));
+    }
+
+    @Test
+    public void shouldSerializeResolvesIfCacheIsNotLocked() throws IOException {
+        Map<String, List<String>> sequentialPaths = importAntscripts(writeSettings("sequential", "artifact-lock"), 1);
+        Map<String, List<String>> unlockedPaths = importAntscripts(writeSettings("unlocked", "no-lock"), 4);
+        assertLogContaining("repository cache has no lock strategy, ant script paths are resolved one at a time");
+
+        for (String pathId : PATH_IDS) {
+            assertEquals(pathId, asSet(sequentialPaths.get(pathId)), asSet(unlockedPaths.get(pathId)));
+        }
+    }
+}
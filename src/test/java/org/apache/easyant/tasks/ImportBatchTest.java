@@ -0,0 +1,229 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.ivy.ant.IvyConfigure;
+import org.apache.ivy.ant.IvyExclude;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.Echo;
+import org.apache.tools.ant.types.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class ImportBatchTest {
+
+    private ImportBatch importBatch;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() throws URISyntaxException, IOException {
+        Project project = new Project();
+        ProjectUtils.configureProjectHelper(project);
+
+        File cache = folder.newFolder("build-cache");
+        project.setProperty("ivy.cache.dir", cache.getAbsolutePath());
+
+        importBatch = new ImportBatch();
+        importBatch.setProject(project);
+        importBatch.setOwningTarget(ProjectUtils.createTopLevelTarget());
+        importBatch.setLocation(new Location(ProjectUtils.emulateMainScript(project).getAbsolutePath()));
+
+        configureIvy(new File(this.getClass().getResource("/repositories/easyant-ivysettings-test.xml").toURI()));
+    }
+
+    private void configureIvy(File settings) {
+        IvyConfigure configure = new IvyConfigure();
+        configure.setProject(importBatch.getProject());
+        configure.setFile(settings);
+        configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+        configure.setOverride("true");
+        configure.execute();
+    }
+
+    /**
+     * Configure a repository holding two plugins depending on their own library and on a common one
+     */
+    private void configureRepositoryWithLibraries() throws IOException {
+        File repository = folder.newFolder("repository");
+        publish(repository, "pluginwithlib", "ant", "liba", "common");
+        publish(repository, "otherplugin", "ant", "libb", "common");
+        publish(repository, "liba", "jar");
+        publish(repository, "libb", "jar");
+        publish(repository, "common", "jar");
+
+        File settings = folder.newFile("ivysettings.xml");
+        String pattern = repository.getAbsolutePath() + "/[module]/[artifact]-[revision].[ext]";
+        write(settings, "<ivysettings><settings defaultResolver=\"libs\"/><resolvers>" //
+                + "<filesystem name=\"libs\"><ivy pattern=\"" + repository.getAbsolutePath()
+                + "/[module]/ivy-[revision].xml\"/><artifact pattern=\"" + pattern + "\"/></filesystem>" //
+                + "</resolvers></ivysettings>");
+        configureIvy(settings);
+    }
+
+    private void publish(File repository, String module, String type, String... dependencies) throws IOException {
+        File moduleDir = new File(repository, module);
+        moduleDir.mkdirs();
+        StringBuilder ivy = new StringBuilder();
+        ivy.append("<ivy-module version=\"2.0\"><info organisation=\"acme\" module=\"").append(module)
+                .append("\" revision=\"1.0\" status=\"release\"/>");
+        ivy.append("<publications><artifact type=\"").append(type).append("\" ext=\"").append(type)
+                .append("\"/></publications><dependencies>");
+        for (String dependency : dependencies) {
+            ivy.append("<dependency org=\"acme\" name=\"").append(dependency).append("\" rev=\"1.0\"/>");
+        }
+        ivy.append("</dependencies></ivy-module>");
+        write(new File(moduleDir, "ivy-1.0.xml"), ivy.toString());
+        write(new File(moduleDir, module + "-1.0." + type), "ant".equals(type) ? "<project name=\"" + module
+                + "\"/>" : "");
+    }
+
+    private void write(File file, String content) throws IOException {
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private Set<String> getClasspathFileNames(String moduleId) {
+        Path classpath = importBatch.getProject().getReference(moduleId + ".classpath");
+        assertNotNull(classpath);
+        Set<String> fileNames = new HashSet<String>();
+        for (String element : classpath.list()) {
+            fileNames.add(new File(element).getName());
+        }
+        return fileNames;
+    }
+
+    private Import addImport(String mrid) {
+        Import importTask = new Import();
+        importTask.setProject(importBatch.getProject());
+        importTask.setOwningTarget(importBatch.getOwningTarget());
+        importTask.setLocation(importBatch.getLocation());
+        importTask.setMrid(mrid);
+        importBatch.addTask(importTask);
+        return importTask;
+    }
+
+    @Test
+    public void shouldImportAllModules() {
+        Import simplePlugin = addImport("mycompany#simpleplugin;0.1");
+        simplePlugin.setMode("include");
+        addImport("mycompany#simplepluginwithproperties;0.1");
+        importBatch.execute();
+
+        Path pluginClasspath = importBatch.getProject().getReference("mycompany#simpleplugin.classpath");
+        assertNotNull(pluginClasspath);
+        assertEquals(0, pluginClasspath.list().length);
+        assertEquals("simpleplugin", simplePlugin.getAs());
+
+        Path otherPluginClasspath = importBatch.getProject().getReference(
+                "mycompany#simplepluginwithproperties.classpath");
+        assertNotNull(otherPluginClasspath);
+        assertEquals(0, otherPluginClasspath.list().length);
+        assertNotNull(importBatch.getProject().getProperty("mycompany#simplepluginwithproperties.properties.file"));
+        assertEquals("value", importBatch.getProject().getProperty("aproperty"));
+    }
+
+    @Test
+    public void shouldSkipModule() {
+        importBatch.getProject().setNewProperty("skip.mycompany#simplepluginwithproperties;0.1", "true");
+        addImport("mycompany#simpleplugin;0.1");
+        addImport("mycompany#simplepluginwithproperties;0.1");
+        importBatch.execute();
+
+        assertNotNull(importBatch.getProject().getReference("mycompany#simpleplugin.classpath"));
+        assertNull(importBatch.getProject().getReference("mycompany#simplepluginwithproperties.classpath"));
+        assertNull(importBatch.getProject().getProperty("aproperty"));
+    }
+
+    @Test
+    public void shouldSkipModuleSkippedByPreviousImport() throws IOException {
+        configureRepositoryWithLibraries();
+        write(new File(folder.getRoot(), "repository/pluginwithlib/pluginwithlib-1.0.ant"),
+                "<project name=\"pluginwithlib\">" //
+                        + "<property name=\"skip.acme#otherplugin;1.0\" value=\"true\"/></project>");
+        addImport("acme#pluginwithlib;1.0");
+        addImport("acme#otherplugin;1.0");
+        importBatch.execute();
+
+        assertNotNull(importBatch.getProject().getReference("acme#pluginwithlib.classpath"));
+        assertNull(importBatch.getProject().getReference("acme#otherplugin.classpath"));
+    }
+
+    @Test
+    public void shouldOnlyAddModuleDependenciesToClasspath() throws IOException {
+        configureRepositoryWithLibraries();
+        addImport("acme#pluginwithlib;1.0");
+        addImport("acme#otherplugin;1.0");
+        importBatch.execute();
+
+        assertEquals(new HashSet<String>(Arrays.asList("liba-1.0.jar", "common-1.0.jar")),
+                getClasspathFileNames("acme#pluginwithlib"));
+        assertEquals(new HashSet<String>(Arrays.asList("libb-1.0.jar", "common-1.0.jar")),
+                getClasspathFileNames("acme#otherplugin"));
+    }
+
+    @Test
+    public void shouldApplyNestedExcludeToItsImportOnly() throws IOException {
+        configureRepositoryWithLibraries();
+        Import pluginWithLib = addImport("acme#pluginwithlib;1.0");
+        IvyExclude exclude = pluginWithLib.createExclude();
+        exclude.setOrg("acme");
+        exclude.setModule("common");
+        addImport("acme#otherplugin;1.0");
+        importBatch.execute();
+
+        assertEquals(Collections.singleton("liba-1.0.jar"), getClasspathFileNames("acme#pluginwithlib"));
+        assertEquals(new HashSet<String>(Arrays.asList("libb-1.0.jar", "common-1.0.jar")),
+                getClasspathFileNames("acme#otherplugin"));
+    }
+
+    @Test
+    public void shouldFailIfNestedTaskIsNotAnImport() {
+        expectedException.expectMessage("only import tasks are allowed in import-batch");
+        Echo echo = new Echo();
+        echo.setProject(importBatch.getProject());
+        importBatch.addTask(echo);
+        importBatch.execute();
+    }
+}
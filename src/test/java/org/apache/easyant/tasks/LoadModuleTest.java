@@ -26,19 +26,19 @@ import static org.junit.Assert.assertThat;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
-import java.util.List;
+import java.util.Set;
 
 import org.apache.easyant.core.EasyAntConstants;
 import org.apache.easyant.core.EasyAntMagicNames;
 import org.apache.easyant.core.ant.ProjectUtils;
 import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex;
 import org.apache.easyant.core.parser.DefaultEasyAntXmlModuleDescriptorParser;
 import org.apache.ivy.Ivy;
 import org.apache.ivy.ant.IvyAntSettings;
 import org.apache.ivy.ant.IvyConfigure;
 import org.apache.ivy.core.module.id.ModuleId;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
-import org.apache.ivy.core.report.ResolveReport;
 import org.apache.tools.ant.Location;
 import org.apache.tools.ant.Project;
 import org.junit.Before;
@@ -100,12 +100,12 @@ public class LoadModuleTest extends AntTaskBaseTest {
 
         assertThat(project.getProperty("run.main.classname"), is("org.apache.easyant.example.Example"));
 
-        ResolveReport resolveReport = project.getReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF);
-        assertThat(resolveReport, notNullValue());
+        ResolvedModulesIndex importedModules = project
+                .getReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF);
+        assertThat(importedModules, notNullValue());
         ModuleRevisionId buildType = ModuleRevisionId.parse("mycompany#simpleplugin;0.1");
         ModuleRevisionId plugin = ModuleRevisionId.parse("mycompany#simplepluginwithproperties;0.1");
-        @SuppressWarnings("unchecked")
-        List<ModuleId> resolvedModuleIds = resolveReport.getModuleIds();
+        Set<ModuleId> resolvedModuleIds = importedModules.getModuleIds();
         assertThat(resolvedModuleIds, hasItems(buildType.getModuleId(), plugin.getModuleId()));
 
         assertThat(project.getUserProperty("ant.file.mycompany#simpleplugin"), notNullValue());
@@ -132,7 +132,7 @@ public class LoadModuleTest extends AntTaskBaseTest {
         assertLogNotContaining("Loading build file :");
 
         assertThat(project.getProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS), nullValue());
-        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF), nullValue());
+        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF), nullValue());
 
         Ivy configuredIvyInstance = verifyOfflineResolverIsConfigured(project);
 
@@ -164,7 +164,7 @@ public class LoadModuleTest extends AntTaskBaseTest {
         assertThat(project.getTargets().get("hello-world"), notNullValue());
 
         assertThat(project.getProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS), nullValue());
-        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF), nullValue());
+        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF), nullValue());
 
         Ivy projectIvyInstance = verifyOfflineResolverIsConfigured(project);
 
@@ -184,7 +184,7 @@ public class LoadModuleTest extends AntTaskBaseTest {
         assertLogNotContaining("Loading build file : " + moduleAntFile.getAbsolutePath());
 
         assertThat(project.getProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS), nullValue());
-        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF), nullValue());
+        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF), nullValue());
 
         Ivy projectIvyInstance = verifyOfflineResolverIsConfigured(project);
 
@@ -211,7 +211,7 @@ public class LoadModuleTest extends AntTaskBaseTest {
         assertLogNotContaining("Loading build file : ");
 
         assertThat(project.getProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS), nullValue());
-        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF), nullValue());
+        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF), nullValue());
 
         Ivy projectIvyInstance = verifyOfflineResolverIsConfigured(project);
 
@@ -230,7 +230,7 @@ public class LoadModuleTest extends AntTaskBaseTest {
         assertLogNotContaining("Loading build file : ");
 
         assertThat(project.getProperty(EasyAntMagicNames.AVAILABLE_BUILD_CONFIGURATIONS), nullValue());
-        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF), nullValue());
+        assertThat(project.getReference(EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF), nullValue());
 
         Ivy projectIvyInstance = verifyOfflineResolverIsConfigured(project);
 
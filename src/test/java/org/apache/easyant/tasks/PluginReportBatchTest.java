@@ -0,0 +1,124 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.services.DefaultPluginService;
+import org.apache.ivy.ant.IvyAntSettings;
+import org.apache.ivy.ant.IvyConfigure;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class PluginReportBatchTest extends AntTaskBaseTest {
+
+    private PluginReportBatch pluginReportBatch;
+
+    private File todir;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() throws URISyntaxException, IOException {
+        Project project = new Project();
+        ProjectUtils.configureProjectHelper(project);
+        configureBuildLogger(project, Project.MSG_WARN);
+
+        File cache = folder.newFolder("build-cache");
+        project.setProperty("ivy.cache.dir", cache.getAbsolutePath());
+
+        IvyConfigure configure = new IvyConfigure();
+        configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+        configure.setProject(project);
+        configure.setFile(new File(this.getClass().getResource("/repositories/easyant-ivysettings-test.xml").toURI()));
+        configure.execute();
+
+        project.addReference(EasyAntMagicNames.PLUGIN_SERVICE_INSTANCE, new DefaultPluginService(
+                (IvyAntSettings) project.getReference(EasyAntMagicNames.EASYANT_IVY_INSTANCE)));
+
+        todir = folder.newFolder("report");
+
+        pluginReportBatch = new PluginReportBatch();
+        pluginReportBatch.setProject(project);
+        pluginReportBatch.setOwningTarget(ProjectUtils.createTopLevelTarget());
+        pluginReportBatch.setLocation(new Location(ProjectUtils.emulateMainScript(project).getAbsolutePath()));
+        pluginReportBatch.setOrganisation("mycompany");
+        pluginReportBatch.setModule("(simpleplugin|complexplugin)");
+        pluginReportBatch.setTodir(todir);
+    }
+
+    @Test
+    public void shouldGenerateReportOfEachModule() {
+        pluginReportBatch.execute();
+        assertThat(new File(todir, "mycompany-simpleplugin-0.1-default.html").length() > 0, is(true));
+        assertThat(new File(todir, "mycompany-complexplugin-0.1-default.html").length() > 0, is(true));
+        assertThat(new File(todir, "mycompany-complexplugin-0.1-default.xml").exists(), is(true));
+    }
+
+    @Test
+    public void shouldSkipUpToDateReports() {
+        pluginReportBatch.execute();
+        File report = new File(todir, "mycompany-simpleplugin-0.1-default.html");
+        long lastModified = System.currentTimeMillis() + 60000;
+        report.setLastModified(lastModified);
+
+        pluginReportBatch.execute();
+        assertThat(report.lastModified(), is(lastModified));
+
+        pluginReportBatch.setForce(true);
+        pluginReportBatch.execute();
+        assertThat(report.lastModified(), is(not(lastModified)));
+    }
+
+    @Test
+    public void shouldSkipModulesWhichCantBeAnalysed() {
+        pluginReportBatch.setModule("(simpleplugin|cyclicplugin)");
+        pluginReportBatch.execute();
+        assertThat(new File(todir, "mycompany-simpleplugin-0.1-default.html").length() > 0, is(true));
+        assertThat(new File(todir, "mycompany-cyclicplugin-0.1-default.html").exists(), is(false));
+        assertLogContaining("impossible to generate report of mycompany#cyclicplugin;0.1");
+        assertLogContaining("1 report(s) could not be generated");
+    }
+
+    @Test
+    public void shouldFailOnErrorIfModuleCantBeAnalysed() {
+        expectedException.expect(BuildException.class);
+        expectedException.expectMessage("impossible to generate report of mycompany#cyclicplugin;0.1");
+        pluginReportBatch.setModule("(simpleplugin|cyclicplugin)");
+        pluginReportBatch.setFailonerror(true);
+        pluginReportBatch.execute();
+    }
+}
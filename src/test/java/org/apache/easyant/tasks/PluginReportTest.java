@@ -0,0 +1,102 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one or more
+ *  contributor license agreements.  See the NOTICE file distributed with
+ *  this work for additional information regarding copyright ownership.
+ *  The ASF licenses this file to You under the Apache License, Version 2.0
+ *  (the "License"); you may not use this file except in compliance with
+ *  the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+package org.apache.easyant.tasks;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.ProjectUtils;
+import org.apache.easyant.core.services.DefaultPluginService;
+import org.apache.ivy.ant.IvyAntSettings;
+import org.apache.ivy.ant.IvyConfigure;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class PluginReportTest {
+
+    private PluginReport pluginReport;
+
+    private File todir;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void setUp() throws URISyntaxException, IOException {
+        Project project = new Project();
+        ProjectUtils.configureProjectHelper(project);
+
+        File cache = folder.newFolder("build-cache");
+        project.setProperty("ivy.cache.dir", cache.getAbsolutePath());
+
+        IvyConfigure configure = new IvyConfigure();
+        configure.setSettingsId(EasyAntMagicNames.EASYANT_IVY_INSTANCE);
+        configure.setProject(project);
+        configure.setFile(new File(this.getClass().getResource("/repositories/easyant-ivysettings-test.xml").toURI()));
+        configure.execute();
+
+        project.addReference(EasyAntMagicNames.PLUGIN_SERVICE_INSTANCE, new DefaultPluginService(
+                (IvyAntSettings) project.getReference(EasyAntMagicNames.EASYANT_IVY_INSTANCE)));
+
+        File moduleIvy = new File(this.getClass().getResource("/org/apache/easyant/core/services/module.ivy").toURI());
+        todir = folder.newFolder("report");
+
+        pluginReport = new PluginReport();
+        pluginReport.setProject(project);
+        pluginReport.setOwningTarget(ProjectUtils.createTopLevelTarget());
+        pluginReport.setLocation(new Location(ProjectUtils.emulateMainScript(project).getAbsolutePath()));
+        pluginReport.setModuleIvy(moduleIvy);
+        pluginReport.setSourceDirectory(moduleIvy.getParentFile());
+        pluginReport.setConf("default");
+        pluginReport.setTodir(todir);
+    }
+
+    @Test
+    public void shouldFailIfModuleIvyIsNotSet() {
+        expectedException.expectMessage("moduleIvy attribute is not set or is not a file");
+        pluginReport.setModuleIvy(null);
+        pluginReport.execute();
+    }
+
+    @Test
+    public void shouldGenerateXmlAndStyledReports() {
+        pluginReport.execute();
+        assertThat(new File(todir, "org.apache.easyant-standard-java-app-default.xml").exists(), is(true));
+        assertThat(new File(todir, "org.apache.easyant-standard-java-app-default.html").length() > 0, is(true));
+    }
+
+    @Test
+    public void shouldGenerateStyledReportOnly() {
+        pluginReport.setXmlreport(false);
+        pluginReport.execute();
+        assertThat(new File(todir, "org.apache.easyant-standard-java-app-default.xml").exists(), is(false));
+        assertThat(new File(todir, "org.apache.easyant-standard-java-app-default.html").length() > 0, is(true));
+    }
+}
@@ -19,15 +19,19 @@ package org.apache.easyant.tasks;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.List;
 
 import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex;
+import org.apache.easyant.core.ivy.ResolvedModulesIndex.ResolvedArtifact;
 import org.apache.ivy.ant.IvyConfigure;
 import org.apache.ivy.ant.IvyDependency;
-import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.tools.ant.Project;
 import org.junit.Before;
 import org.junit.Rule;
@@ -64,8 +68,8 @@ public class ResolvePluginsTest {
     @Test
     public void shouldCreateEmptyResolveReport() {
         resolvePlugins.execute();
-        ResolveReport report = resolvePlugins.getProject().getReference(
-                EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF);
+        ResolvedModulesIndex report = resolvePlugins.getProject().getReference(
+                EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF);
         assertNotNull(report);
         assertEquals(0, report.getDependencies().size());
     }
@@ -77,11 +81,11 @@ public class ResolvePluginsTest {
         dependency.setName("not");
         dependency.setRev("exist");
         resolvePlugins.execute();
-        ResolveReport report = resolvePlugins.getProject().getReference(
-                EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF);
+        ResolvedModulesIndex report = resolvePlugins.getProject().getReference(
+                EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF);
         assertNotNull(report);
         assertEquals(1, report.getDependencies().size());
-        assertEquals(1, report.getUnresolvedDependencies().length);
+        assertEquals(1, report.getUnresolvedDependencies().size());
     }
 
     @Test
@@ -91,11 +95,18 @@ public class ResolvePluginsTest {
         dependency.setName("simpleplugin");
         dependency.setRev("0.1");
         resolvePlugins.execute();
-        ResolveReport report = resolvePlugins.getProject().getReference(
-                EasyAntMagicNames.IMPORTED_MODULES_RESOLVE_REPORT_REF);
+        ResolvedModulesIndex report = resolvePlugins.getProject().getReference(
+                EasyAntMagicNames.IMPORTED_MODULES_INDEX_REF);
         assertNotNull(report);
         assertEquals(1, report.getDependencies().size());
-        assertEquals(0, report.getUnresolvedDependencies().length);
+        assertEquals(0, report.getUnresolvedDependencies().size());
+
+        ModuleRevisionId plugin = ModuleRevisionId.parse("mycompany#simpleplugin;0.1");
+        assertEquals(plugin, report.getResolvedRevision(plugin.getModuleId()));
+        List<ResolvedArtifact> artifacts = report.getArtifacts("default", plugin);
+        assertEquals(1, artifacts.size());
+        assertEquals("ant", artifacts.get(0).getType());
+        assertTrue(artifacts.get(0).getLocalFile().exists());
     }
 
 }
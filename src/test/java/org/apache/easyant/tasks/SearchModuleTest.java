@@ -20,7 +20,9 @@ package org.apache.easyant.tasks;
 import org.apache.easyant.core.EasyAntMagicNames;
 import org.apache.easyant.core.ant.ProjectUtils;
 import org.apache.easyant.core.ivy.IvyInstanceHelper;
+import org.apache.easyant.core.ivy.RepositoryIndex;
 import org.apache.ivy.ant.IvyConfigure;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.tools.ant.Location;
 import org.apache.tools.ant.Project;
 import org.junit.Before;
@@ -36,7 +38,7 @@ import java.net.URISyntaxException;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
-public class SearchModuleTest {
+public class SearchModuleTest extends AntTaskBaseTest {
 
     private final SearchModule searchModule = new SearchModule();
 
@@ -140,6 +142,25 @@ public class SearchModuleTest {
         assertThat(searchModule.getProject().getProperty("mysearch.rev"), is("0.1"));
     }
 
+    @Test
+    public void shouldTakeDescriptionsFromIndexFile() throws IOException {
+        File indexFile = folder.newFile("repository.index");
+        RepositoryIndex index = new RepositoryIndex();
+        index.addModule(ModuleRevisionId.parse("mycompany#simpleplugin;0.1"), "an indexed description");
+        index.store(indexFile);
+        configureProject(searchModule.getProject());
+
+        searchModule.setOrganisation("mycompany");
+        searchModule.setModule("simpleplugin");
+        searchModule.setRevision("0.1");
+        searchModule.setPropertyPrefix("mysearch");
+        searchModule.setIndexFile(indexFile);
+        fakeInputHandler.setInput("0");
+        searchModule.execute();
+        assertLogContaining("0: simpleplugin v0.1 by mycompany (an indexed description)");
+        assertThat(searchModule.getProject().getProperty("mysearch.module"), is("simpleplugin"));
+    }
+
     @Test
     public void shouldFindExistingModuleOnGivenResolver() {
         searchModule.setOrganisation("mycompany");
@@ -18,6 +18,7 @@
 
 package org.apache.easyant.tasks;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
 
@@ -26,6 +27,7 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 
 import org.apache.easyant.core.EasyAntMagicNames;
+import org.apache.easyant.core.ant.listerners.MemoryAccountingListener;
 import org.apache.easyant.core.ant.listerners.MultiModuleLogger;
 import org.apache.easyant.tasks.SubModule.TargetList;
 import org.apache.tools.ant.Project;
@@ -185,4 +187,24 @@ public class SubModuleTest extends AntTaskBaseTest {
         assertThat(submodule.getProject().getReference(MultiModuleLogger.EXECUTION_TIMER_BUILD_RESULTS),
                 notNullValue());
     }
+
+    @Test
+    public void shouldReleaseSubModulesAfterTheirBuild() throws URISyntaxException {
+        configureBuildLogger(submodule.getProject(), Project.MSG_WARN);
+        MemoryAccountingListener memoryAccounting = new MemoryAccountingListener();
+        submodule.getProject().addBuildListener(memoryAccounting);
+
+        Path path = new Path(submodule.getProject());
+        FileSet fs = new FileSet();
+        File multimodule = new File(this.getClass().getResource("multimodule").toURI());
+        fs.setDir(multimodule);
+        path.addFileset(fs);
+        path.createPath();
+
+        submodule.setBuildpath(path);
+        submodule.execute();
+
+        assertThat(memoryAccounting.getModules().size(), is(2));
+        assertThat(memoryAccounting.findLeakedSubModules().size(), is(0));
+    }
 }